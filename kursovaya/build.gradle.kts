@@ -43,12 +43,42 @@ dependencies {
 
     implementation("org.apache.logging.log4j:log4j-core:2.20.0")
     implementation("org.apache.logging.log4j:log4j-api:2.20.0")
+    // Кольцевой буфер для асинхронных логгеров log4j
+    runtimeOnly("com.lmax:disruptor:3.4.4")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// Бенчмарки JMH в отдельном наборе исходников src/jmh, вне модуля приложения
+val jmhVersion = "1.37"
+
+val jmh by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:${jmhVersion}")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:${jmhVersion}")
+}
+
+// Запуск: ./gradlew jmh, параметры JMH передаются через -PjmhArgs="ShortestPath -p dataset=map.json"
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs JMH benchmarks with the GC profiler"
+
+    dependsOn(jmh.classesTaskName)
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst { resultFile.parentFile.mkdirs() }
+    args = listOf("-prof", "gc", "-rf", "json", "-rff", resultFile.path) +
+            (project.findProperty("jmhArgs")?.toString()?.split(" ")?.filter { it.isNotBlank() } ?: emptyList())
+}
+
 jlink {
     options.set(listOf("--strip-debug", "--compress", "2", "--no-header-files", "--no-man-pages"))
 
@@ -72,6 +102,57 @@ tasks.named<JavaExec>("run") {
     )
 }
 
+// Конвертация map.json в бинарный формат, который загружается через отображение в память
+tasks.register<JavaExec>("convertMap") {
+    group = "application"
+    description = "Converts map.json to the memory-mapped binary map format"
+
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainModule.set("spbmetro.main")
+    mainClass.set("com.example.kursovaya.io.BinaryMapFormat")
+    args = listOf("map.json", layout.buildDirectory.file("map.bin").get().asFile.path)
+}
+
+// Генерация синтетической сети: ./gradlew generateNetwork -Pstations=100000 -Pseed=1
+tasks.register<JavaExec>("generateNetwork") {
+    group = "application"
+    description = "Generates a synthetic metro network in the map.json format"
+
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainModule.set("spbmetro.main")
+    mainClass.set("com.example.kursovaya.io.NetworkGenerator")
+    val stations = project.findProperty("stations")?.toString() ?: "100000"
+    val seed = project.findProperty("seed")?.toString() ?: "1"
+    args = listOf(stations, layout.buildDirectory.file("network-${stations}.json").get().asFile.path, seed)
+}
+
+// Серверный режим без интерфейса: ./gradlew runServer -Pport=8080
+tasks.register<JavaExec>("runServer") {
+    group = "application"
+    description = "Starts the headless HTTP route server"
+
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainModule.set("spbmetro.main")
+    mainClass.set("com.example.kursovaya.model.ServerMain")
+    jvmArgs = listOf("-Dfile.encoding=UTF-8")
+    args = listOf(project.findProperty("port")?.toString() ?: "8080")
+}
+
+// Нагрузочный тест запущенного сервера: ./gradlew loadTest -Purl=http://localhost:8080 -Pconcurrency=64 -Pseconds=10
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the load-test client against a running route server"
+
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainModule.set("spbmetro.main")
+    mainClass.set("com.example.kursovaya.server.LoadTestClient")
+    args = listOf(
+        project.findProperty("url")?.toString() ?: "http://localhost:8080",
+        project.findProperty("concurrency")?.toString() ?: "64",
+        project.findProperty("seconds")?.toString() ?: "10"
+    )
+}
+
 tasks.register<Jar>("fatJar") {
     group = "build"
     description = "Creates a fat JAR with all dependencies including JavaFX"
@@ -0,0 +1,74 @@
+package com.example.kursovaya.bench;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.routing.NetworkAnalytics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Масштабирование анализа сети (посредничество, близость, эксцентриситет)
+ * по количеству потоков пула. Время одного полного расчета.
+ * Запуск: ./gradlew jmh -PjmhArgs="Analytics -p threads=1,4,8"
+ *
+ * @author Student
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class AnalyticsBenchmark {
+
+    @Param({"metro-2000", "metro-10000"})
+    public String dataset;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private CsrGraph graph;
+    private ForkJoinPool pool;
+
+    /**
+     * Строит граф и пул с заданным количеством потоков
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = Networks.load(dataset).getCsr();
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Останавливает пул
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Полный расчет показателей сети
+     *
+     * @return результаты анализа
+     */
+    @Benchmark
+    public NetworkAnalytics.Result analyze() {
+        return NetworkAnalytics.compute(graph, pool);
+    }
+}
\ No newline at end of file
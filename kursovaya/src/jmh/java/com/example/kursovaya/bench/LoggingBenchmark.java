@@ -0,0 +1,132 @@
+package com.example.kursovaya.bench;
+
+import com.example.kursovaya.model.MetroMap;
+import com.example.kursovaya.model.PathResult;
+import com.example.kursovaya.util.DijkstraResult;
+
+import org.apache.logging.log4j.core.config.Configurator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность запросов при разных уровнях логирования
+ * с синхронными и асинхронными логгерами. На уровне TRACE каждый запрос
+ * пишет строку в файл; на остальных уровнях запросы проверяют только уровень.
+ * Асинхронный вариант использует настройки приложения: при переполнении
+ * буфера события DEBUG и TRACE отбрасываются, поэтому поток запроса не ждет диска.
+ * Запуск: ./gradlew jmh -PjmhArgs="Logging"
+ *
+ * @author Student
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class LoggingBenchmark {
+    private static final String CONFIG = "-Dlog4j2.configurationFile=log4j2-logging-bench.xml";
+    private static final String SYNC = "-Dlog4j2.contextSelector=org.apache.logging.log4j.core.selector.ClassLoaderContextSelector";
+
+    @Param({"OFF", "INFO", "DEBUG", "TRACE"})
+    public String level;
+
+    @Param({"map.json", "metro-10000"})
+    public String dataset;
+
+    private MetroMap map;
+    private int[] pairs;
+
+    /**
+     * Загружает карту и задает уровень логирования приложения
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = Networks.load(dataset);
+        map.getCsr();
+        pairs = Networks.randomPairs(map.getMatrixSize(), ShortestPathBenchmark.PAIRS);
+        Configurator.setLevel("com.example.kursovaya", org.apache.logging.log4j.Level.toLevel(level));
+    }
+
+    /**
+     * Номер пары для потока: у каждого потока свой счетчик
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int nextPair() {
+            int at = next;
+            next = (next + 2) & (2 * ShortestPathBenchmark.PAIRS - 1);
+            return at;
+        }
+    }
+
+    /**
+     * MetroMap.findShortestPath с асинхронными логгерами приложения
+     *
+     * @param cursor номер пары потока
+     * @return найденный маршрут
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = CONFIG)
+    public PathResult findShortestPathAsync(Cursor cursor) {
+        int at = cursor.nextPair();
+        return map.findShortestPath(pairs[at], pairs[at + 1]);
+    }
+
+    /**
+     * MetroMap.findShortestPath с синхронными логгерами
+     *
+     * @param cursor номер пары потока
+     * @return найденный маршрут
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {CONFIG, SYNC})
+    public PathResult findShortestPathSync(Cursor cursor) {
+        int at = cursor.nextPair();
+        return map.findShortestPath(pairs[at], pairs[at + 1]);
+    }
+
+    /**
+     * Graph.dijkstra, который пишет отладочное сообщение на каждый запрос,
+     * с асинхронными логгерами
+     *
+     * @param cursor номер пары потока
+     * @return результат поиска
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = CONFIG)
+    public DijkstraResult graphDijkstraAsync(Cursor cursor) {
+        int at = cursor.nextPair();
+        return map.getGraph().dijkstra(pairs[at], pairs[at + 1]);
+    }
+
+    /**
+     * Graph.dijkstra с синхронными логгерами
+     *
+     * @param cursor номер пары потока
+     * @return результат поиска
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {CONFIG, SYNC})
+    public DijkstraResult graphDijkstraSync(Cursor cursor) {
+        int at = cursor.nextPair();
+        return map.getGraph().dijkstra(pairs[at], pairs[at + 1]);
+    }
+}
\ No newline at end of file
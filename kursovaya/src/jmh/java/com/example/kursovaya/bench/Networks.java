@@ -0,0 +1,54 @@
+package com.example.kursovaya.bench;
+
+import com.example.kursovaya.io.MapLoader;
+import com.example.kursovaya.io.NetworkGenerator;
+import com.example.kursovaya.model.MetroMap;
+
+import java.util.Random;
+
+/**
+ * Наборы данных для бенчмарков.
+ * "map.json" - карта из ресурсов приложения, "metro-N" - синтетическая
+ * сеть примерно из N станций с радиальными и кольцевыми линиями,
+ * см. {@link NetworkGenerator}.
+ *
+ * @author Student
+ * @version 1.0
+ */
+final class Networks {
+    private Networks() {
+    }
+
+    /**
+     * Загружает или строит набор данных по имени
+     *
+     * @param dataset имя набора данных
+     * @return карта метро
+     * @throws IllegalArgumentException если имя неизвестно
+     */
+    static MetroMap load(String dataset) {
+        if (dataset.endsWith(".json")) {
+            return MapLoader.load(dataset);
+        }
+        if (dataset.startsWith("metro-")) {
+            return new NetworkGenerator(Integer.parseInt(dataset.substring("metro-".length())), 42).generate();
+        }
+        throw new IllegalArgumentException("Unknown dataset: " + dataset);
+    }
+
+    /**
+     * Генерирует случайные пары станций для запросов
+     *
+     * @param stationCount количество станций
+     * @param count количество пар
+     * @return массив длины 2 * count: начало и конец каждой пары
+     */
+    static int[] randomPairs(int stationCount, int count) {
+        Random random = new Random(7);
+        int[] pairs = new int[2 * count];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = random.nextInt(stationCount);
+        }
+        return pairs;
+    }
+}
\ No newline at end of file
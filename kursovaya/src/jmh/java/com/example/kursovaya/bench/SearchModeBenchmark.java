@@ -0,0 +1,68 @@
+package com.example.kursovaya.bench;
+
+import com.example.kursovaya.model.MetroMap;
+import com.example.kursovaya.model.PathResult;
+import com.example.kursovaya.routing.SearchMode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение режимов поиска {@link SearchMode} на одних и тех же парах станций.
+ * Предварительная обработка (ориентиры A*, иерархия сжатия) выполняется
+ * до начала замеров и в результат не входит.
+ *
+ * @author Student
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class SearchModeBenchmark {
+    @Param({"map.json", "metro-10000"})
+    public String dataset;
+
+    @Param({"DIJKSTRA", "BIDIRECTIONAL", "ASTAR", "CONTRACTION_HIERARCHIES"})
+    public SearchMode mode;
+
+    private MetroMap map;
+    private int[] pairs;
+    private int next;
+
+    /**
+     * Загружает карту и строит индексы выбранного режима
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = Networks.load(dataset);
+        pairs = Networks.randomPairs(map.getMatrixSize(), ShortestPathBenchmark.PAIRS);
+        map.findShortestPath(pairs[0], pairs[1], mode);
+    }
+
+    /**
+     * MetroMap.findShortestPath в выбранном режиме
+     *
+     * @return найденный маршрут
+     */
+    @Benchmark
+    public PathResult findShortestPath() {
+        int at = next;
+        next = (at + 2) & (2 * ShortestPathBenchmark.PAIRS - 1);
+        return map.findShortestPath(pairs[at], pairs[at + 1], mode);
+    }
+}
\ No newline at end of file
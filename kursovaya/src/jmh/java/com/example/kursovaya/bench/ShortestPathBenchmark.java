@@ -0,0 +1,132 @@
+package com.example.kursovaya.bench;
+
+import com.example.kursovaya.model.LineSchedule;
+import com.example.kursovaya.model.MetroMap;
+import com.example.kursovaya.model.PathResult;
+import com.example.kursovaya.util.DijkstraResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры точек входа поиска кратчайшего пути на одной и той же карте.
+ * Ускоренные режимы поиска сравниваются в {@link SearchModeBenchmark}.
+ * Каждый вызов берет следующую пару станций из заранее сгенерированного
+ * набора, поэтому результаты не зависят от одной удачной пары.
+ *
+ * @author Student
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class ShortestPathBenchmark {
+    static final int PAIRS = 1024; // Степень двойки для дешевого перебора по кругу
+
+    @Param({"map.json", "metro-10000", "metro-100000"})
+    public String dataset;
+
+    private MetroMap map;
+    private int[] pairs;
+    private int next;
+
+    /**
+     * Загружает карту и строит CSR-граф до начала замеров
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = Networks.load(dataset);
+        map.getCsr();
+        pairs = Networks.randomPairs(map.getMatrixSize(), PAIRS);
+    }
+
+    private int nextPair() {
+        int at = next;
+        next = (next + 2) & (2 * PAIRS - 1);
+        return at;
+    }
+
+    /**
+     * Graph.dijkstra: поиск с копированием результата в DijkstraResult
+     *
+     * @return результат поиска
+     */
+    @Benchmark
+    public DijkstraResult graphDijkstra() {
+        int at = nextPair();
+        return map.getGraph().dijkstra(pairs[at], pairs[at + 1]);
+    }
+
+    /**
+     * MetroMap.dijkstraWithMatrix: прежняя точка входа поиска
+     *
+     * @return результат поиска
+     */
+    @Benchmark
+    public DijkstraResult dijkstraWithMatrix() {
+        int at = nextPair();
+        return map.dijkstraWithMatrix(pairs[at], pairs[at + 1]);
+    }
+
+    /**
+     * MetroMap.shortestDistance: поиск без построения пути
+     *
+     * @return длина пути
+     */
+    @Benchmark
+    public int shortestDistance() {
+        int at = nextPair();
+        return map.shortestDistance(pairs[at], pairs[at + 1]);
+    }
+
+    /**
+     * MetroMap.findShortestPath по ID станций с восстановлением пути
+     *
+     * @return найденный маршрут
+     */
+    @Benchmark
+    public PathResult findShortestPath() {
+        int at = nextPair();
+        return map.findShortestPath(pairs[at], pairs[at + 1]);
+    }
+
+    /**
+     * MetroMap.findEarliestArrival: поиск с учетом расписаний линий.
+     * Время отправления меняется от запроса к запросу в течение суток.
+     * Расписания есть только в map.json, на сгенерированных сетях
+     * замер показывает накладные расходы двух состояний на станцию.
+     *
+     * @return найденный маршрут
+     */
+    @Benchmark
+    public PathResult findEarliestArrival() {
+        int at = nextPair();
+        return map.findEarliestArrival(pairs[at], pairs[at + 1], at * 7 % LineSchedule.MINUTES_PER_DAY);
+    }
+
+    /**
+     * MetroMap.findShortestPath по названиям станций, включая поиск ID
+     *
+     * @return найденный маршрут
+     */
+    @Benchmark
+    public PathResult findShortestPathByName() {
+        int at = nextPair();
+        return map.findShortestPath(map.getStation(pairs[at]).getName(), map.getStation(pairs[at + 1]).getName());
+    }
+}
\ No newline at end of file
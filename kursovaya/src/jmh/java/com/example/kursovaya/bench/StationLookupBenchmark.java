@@ -0,0 +1,104 @@
+package com.example.kursovaya.bench;
+
+import com.example.kursovaya.model.MetroMap;
+import com.example.kursovaya.model.Station;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры поиска станций по названию: точный поиск, автодополнение
+ * и поиск с опечатками.
+ *
+ * @author Student
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class StationLookupBenchmark {
+    private static final int NAMES = 1024;
+
+    @Param({"map.json", "metro-100000"})
+    public String dataset;
+
+    private MetroMap map;
+    private String[] exact;
+    private String[] prefixes;
+    private String[] typos;
+    private int next;
+
+    /**
+     * Загружает карту, строит индекс названий и готовит запросы
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = Networks.load(dataset);
+        map.getStationNameIndex();
+        Random random = new Random(11);
+        exact = new String[NAMES];
+        prefixes = new String[NAMES];
+        typos = new String[NAMES];
+        for (int i = 0; i < NAMES; i++) {
+            String name = map.getStation(random.nextInt(map.getMatrixSize())).getName();
+            exact[i] = name.toUpperCase();
+            prefixes[i] = name.substring(0, Math.min(3, name.length()));
+            // Опечатка: пропущена одна буква в середине названия
+            int cut = name.length() / 2;
+            typos[i] = name.substring(0, cut) + name.substring(cut + 1);
+        }
+    }
+
+    private int nextName() {
+        int at = next;
+        next = (next + 1) & (NAMES - 1);
+        return at;
+    }
+
+    /**
+     * MetroMap.getStationId без учета регистра
+     *
+     * @return ID станции
+     */
+    @Benchmark
+    public int getStationId() {
+        return map.getStationId(exact[nextName()]);
+    }
+
+    /**
+     * Автодополнение по первым буквам названия
+     *
+     * @return найденные станции
+     */
+    @Benchmark
+    public List<Station> findStationsByPrefix() {
+        return map.findStationsByPrefix(prefixes[nextName()], 10);
+    }
+
+    /**
+     * Поиск станции по названию с опечаткой
+     *
+     * @return найденные станции
+     */
+    @Benchmark
+    public List<Station> findSimilarStations() {
+        return map.findSimilarStations(typos[nextName()], 5);
+    }
+}
\ No newline at end of file
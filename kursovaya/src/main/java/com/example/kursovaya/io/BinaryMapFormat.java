@@ -0,0 +1,318 @@
+package com.example.kursovaya.io;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.model.LineSchedule;
+import com.example.kursovaya.model.MetroLine;
+import com.example.kursovaya.model.MetroMap;
+import com.example.kursovaya.model.Station;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.QueryMetrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Компактный бинарный формат карты метрополитена.
+ * Файл содержит таблицу линий, таблицу станций и CSR-граф в том виде,
+ * в каком он хранится в памяти, поэтому при загрузке файл отображается
+ * в память через {@link FileChannel#map} и граф работает прямо
+ * с отображенными страницами, без разбора и копирования. Несколько JVM
+ * на одной машине при этом используют одни и те же страницы кэша ОС.
+ * Расшифровываются только названия станций и линий (объекты Station нужны
+ * карте и индексу названий).
+ * <p>
+ * Структура файла (все числа - int в порядке little-endian):
+ * <pre>
+ * заголовок:  MAGIC, VERSION, vertexCount, arcCount, lineCount, maxWeight, stringBytes, scheduleInts
+ * линии:      lineCount * (number, nameOffset, nameLength, colorOffset, colorLength)
+ * станции:    vertexCount * (line, nameOffset, nameLength)
+ * расписания: для каждой линии periodCount, затем periodCount * (start, headway, speed);
+ *             periodCount = 0 - у линии нет расписания
+ * offsets:    vertexCount + 1
+ * targets:    arcCount
+ * weights:    arcCount
+ * строки:     stringBytes байт UTF-8, на которые ссылаются смещения выше
+ * </pre>
+ * Файлы версии 1 не содержат расписаний (scheduleInts = 0) и читаются как есть.
+ * Класс содержит только статические методы и не предназначен для создания экземпляров.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class BinaryMapFormat {
+    private static final Logger logger = LogManager.getLogger(BinaryMapFormat.class);
+
+    /** Сигнатура файла: "SPBM" */
+    public static final int MAGIC = 0x5350424D;
+    /** Текущая версия формата */
+    public static final int VERSION = 2;
+
+    private static final int HEADER_INTS = 8;
+    private static final int LINE_INTS = 5;
+    private static final int STATION_INTS = 3;
+
+    /**
+     * Приватный конструктор для предотвращения создания экземпляров класса.
+     */
+    private BinaryMapFormat() {
+        throw new IllegalStateException("BinaryMapFormat is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Конвертер JSON -> бинарный формат.
+     * Аргументы: входной JSON (путь к файлу или имя ресурса) и выходной файл.
+     *
+     * @param args аргументы командной строки
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: BinaryMapFormat <map.json> <map.bin>");
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]);
+        MetroMap map = Files.isRegularFile(input) ? MapLoader.load(input) : MapLoader.load(args[0]);
+        try {
+            long bytes = write(map, Path.of(args[1]));
+            System.out.println("Wrote " + bytes + " bytes to " + args[1]);
+        } catch (IOException e) {
+            logger.error("Error writing {}: {}", args[1], e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Записывает карту в бинарный файл
+     *
+     * @param map карта метро
+     * @param file выходной файл
+     * @return размер файла в байтах
+     * @throws IOException если файл не удалось записать
+     * @throws IllegalArgumentException если карта не помещается в формат
+     */
+    public static long write(MetroMap map, Path file) throws IOException {
+        long startTime = System.nanoTime();
+        // Оперативные изменения записываются как обычный граф без закрытых дуг
+        CsrGraph csr = map.getCsr().compact();
+        List<Station> stations = map.getStations();
+        List<MetroLine> lines = new ArrayList<>(map.getLines().values());
+        int n = csr.getVertexCount();
+        int arcs = csr.getArcCount();
+        if (stations.size() != n) {
+            throw new IllegalArgumentException("Map has " + stations.size() + " stations but " + n + " vertices");
+        }
+
+        // Все строки складываются в один блок, таблицы хранят смещение и длину
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        int[] lineTable = new int[lines.size() * LINE_INTS];
+        for (int i = 0; i < lines.size(); i++) {
+            MetroLine line = lines.get(i);
+            int at = i * LINE_INTS;
+            lineTable[at] = line.getNumber();
+            appendString(strings, line.getName(), lineTable, at + 1);
+            appendString(strings, line.getColor(), lineTable, at + 3);
+        }
+        IntList scheduleTable = new IntList();
+        for (MetroLine line : lines) {
+            LineSchedule schedule = line.getSchedule();
+            int periods = schedule == null ? 0 : schedule.getPeriodCount();
+            scheduleTable.add(periods);
+            for (int p = 0; p < periods; p++) {
+                scheduleTable.add(schedule.getStart(p));
+                scheduleTable.add(schedule.getHeadway(p));
+                scheduleTable.add(schedule.getSpeed(p));
+            }
+        }
+        int[] stationTable = new int[n * STATION_INTS];
+        for (int v = 0; v < n; v++) {
+            Station station = stations.get(v);
+            int at = v * STATION_INTS;
+            stationTable[at] = station.getLine();
+            appendString(strings, station.getName(), stationTable, at + 1);
+        }
+
+        long ints = HEADER_INTS + (long) lineTable.length + stationTable.length + scheduleTable.size()
+                + (n + 1) + 2L * arcs;
+        long size = ints * Integer.BYTES + strings.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Map is too large for the binary format: " + size + " bytes");
+        }
+
+        Files.deleteIfExists(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(arcs).putInt(lines.size())
+                    .putInt(csr.getMaxWeight()).putInt(strings.size()).putInt(scheduleTable.size());
+            IntBuffer body = buffer.asIntBuffer();
+            body.put(lineTable).put(stationTable).put(scheduleTable.rawArray(), 0, scheduleTable.size());
+            for (int v = 0; v < n; v++) {
+                body.put(csr.arcStart(v));
+            }
+            body.put(arcs);
+            for (int a = 0; a < arcs; a++) {
+                body.put(csr.target(a));
+            }
+            for (int a = 0; a < arcs; a++) {
+                body.put(csr.weight(a));
+            }
+            buffer.position((int) (ints * Integer.BYTES));
+            buffer.put(strings.toByteArray());
+            buffer.force();
+        }
+
+        logger.info("Binary map written to {}: {} stations, {} arcs, {} bytes in {} ms",
+                file, n, arcs, size, (System.nanoTime() - startTime) / 1_000_000);
+        return size;
+    }
+
+    /**
+     * Открывает бинарный файл карты, отображая его в память.
+     * CSR-граф работает прямо с отображенными буферами.
+     *
+     * @param file файл в бинарном формате
+     * @return карта метро поверх отображенного файла
+     * @throws IOException если файл не удалось прочитать или он поврежден
+     */
+    public static MetroMap read(Path file) throws IOException {
+        long startTime = System.nanoTime();
+        long allocated = QueryMetrics.allocatedBytes();
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_INTS * Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid binary map size: " + size + " bytes");
+            }
+            // Отображение остается действительным после закрытия канала
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a binary metro map");
+        }
+        int version = buffer.getInt(4);
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported binary map version " + version + ", expected " + VERSION);
+        }
+        int n = buffer.getInt(8);
+        int arcs = buffer.getInt(12);
+        int lineCount = buffer.getInt(16);
+        int maxWeight = buffer.getInt(20);
+        int stringBytes = buffer.getInt(24);
+        int scheduleInts = buffer.getInt(28);
+
+        long linesAt = HEADER_INTS * Integer.BYTES;
+        long stationsAt = linesAt + (long) lineCount * LINE_INTS * Integer.BYTES;
+        long schedulesAt = stationsAt + (long) n * STATION_INTS * Integer.BYTES;
+        long offsetsAt = schedulesAt + (long) scheduleInts * Integer.BYTES;
+        long targetsAt = offsetsAt + (long) (n + 1) * Integer.BYTES;
+        long weightsAt = targetsAt + (long) arcs * Integer.BYTES;
+        long stringsAt = weightsAt + (long) arcs * Integer.BYTES;
+        if (n < 0 || arcs < 0 || lineCount < 0 || stringBytes < 0 || scheduleInts < 0
+                || stringsAt + stringBytes != buffer.capacity()) {
+            throw new IOException("Corrupted binary map " + file + ": section sizes do not match file size");
+        }
+
+        CsrGraph csr;
+        try {
+            csr = CsrGraph.wrap(n, ints(buffer, offsetsAt, n + 1), ints(buffer, targetsAt, arcs),
+                    ints(buffer, weightsAt, arcs), maxWeight);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupted binary map " + file + ": " + e.getMessage(), e);
+        }
+
+        MetroMap map = new MetroMap(csr);
+        ByteBuffer strings = buffer.slice((int) stringsAt, stringBytes);
+        IntBuffer lineTable = ints(buffer, linesAt, lineCount * LINE_INTS);
+        IntBuffer scheduleTable = ints(buffer, schedulesAt, scheduleInts);
+        for (int i = 0; i < lineCount; i++) {
+            int at = i * LINE_INTS;
+            map.addLine(new MetroLine(lineTable.get(at), readString(strings, lineTable, at + 1),
+                    readString(strings, lineTable, at + 3), readSchedule(scheduleTable, file)));
+        }
+        IntBuffer stationTable = ints(buffer, stationsAt, n * STATION_INTS);
+        for (int v = 0; v < n; v++) {
+            int at = v * STATION_INTS;
+            map.addStation(new Station(readString(strings, stationTable, at + 1), stationTable.get(at)));
+        }
+
+        logger.info("Binary map {} mapped: {} stations, {} arcs in {} μs",
+                file, n, arcs, (System.nanoTime() - startTime) / 1000);
+        QueryMetrics.record(QueryMetrics.Operation.MAP_LOAD, startTime, allocated, 0, 0);
+        return map;
+    }
+
+    /**
+     * Читает расписание очередной линии из таблицы расписаний
+     */
+    private static LineSchedule readSchedule(IntBuffer table, Path file) throws IOException {
+        if (!table.hasRemaining()) {
+            return null;
+        }
+        int periods = table.get();
+        if (periods == 0) {
+            return null;
+        }
+        if (periods < 0 || periods * 3L > table.remaining()) {
+            throw new IOException("Corrupted binary map " + file + ": invalid schedule of " + periods + " periods");
+        }
+        int[] starts = new int[periods];
+        int[] headways = new int[periods];
+        int[] speeds = new int[periods];
+        for (int p = 0; p < periods; p++) {
+            starts[p] = table.get();
+            headways[p] = table.get();
+            speeds[p] = table.get();
+        }
+        try {
+            return new LineSchedule(starts, headways, speeds);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupted binary map " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static IntBuffer ints(ByteBuffer buffer, long offset, int count) {
+        return buffer.slice((int) offset, count * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static void appendString(ByteArrayOutputStream strings, String value, int[] table, int at) {
+        if (value == null) {
+            table[at] = 0;
+            table[at + 1] = -1;
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        table[at] = strings.size();
+        table[at + 1] = bytes.length;
+        strings.writeBytes(bytes);
+    }
+
+    private static String readString(ByteBuffer strings, IntBuffer table, int at) throws IOException {
+        int offset = table.get(at);
+        int length = table.get(at + 1);
+        if (length == -1) {
+            return null;
+        }
+        if (offset < 0 || length < 0 || offset + length > strings.capacity()) {
+            throw new IOException("Corrupted binary map: string at " + offset + " of length " + length);
+        }
+        byte[] bytes = new byte[length];
+        strings.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
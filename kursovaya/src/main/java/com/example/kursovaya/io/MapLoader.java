@@ -1,17 +1,31 @@
 package com.example.kursovaya.io;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.example.kursovaya.model.*;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.QueryMetrics;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Утилитарный класс для загрузки данных метрополитена из JSON файла.
- * Использует библиотеку Jackson для парсинга JSON.
+ * Использует потоковый парсер Jackson ({@link JsonParser}): файл читается
+ * по токенам за один проход, без построения дерева JsonNode, а соединения
+ * сразу складываются в примитивные буферы, которые затем передаются графу
+ * без копирования. Поэтому пиковый объем памяти пропорционален
+ * итоговому графу, а не размеру файла.
  * Класс содержит только статические методы и не предназначен для создания экземпляров.
  *
  * @author Student
@@ -20,6 +34,10 @@ import java.io.InputStream;
 public class MapLoader {
     private static final Logger logger = LogManager.getLogger(MapLoader.class);
 
+    private static final JsonFactory jsonFactory = new JsonFactory(); // Потокобезопасна после настройки
+
+    private static volatile LoadStatistics lastStatistics; // Показатели последней загрузки
+
     /**
      * Приватный конструктор для предотвращения создания экземпляров класса.
      * Выбрасывает исключение, если попытаться создать объект через рефлексию.
@@ -37,83 +55,394 @@ public class MapLoader {
      */
     public static MetroMap load(String filename) {
         logger.info("Loading metro map from file: {}", filename);
-        MetroMap metroMap = null;
+        InputStream in = MapLoader.class.getClassLoader().getResourceAsStream(filename);
+        if (in == null) {
+            logger.error("File {} not found in resources!", filename);
+            throw new RuntimeException("File " + filename + " not found in resources!");
+        }
+        return load(in, filename);
+    }
 
+    /**
+     * Загружает карту метрополитена из файла на диске, например из большой
+     * выгрузки сети, которая не входит в ресурсы приложения
+     *
+     * @param file путь к JSON файлу
+     * @return объект MetroMap с загруженными данными
+     * @throws RuntimeException если файл не найден или содержит ошибки
+     */
+    public static MetroMap load(Path file) {
+        logger.info("Loading metro map from file: {}", file);
         try {
-            InputStream in = MapLoader.class.getClassLoader().getResourceAsStream(filename);
-            if (in == null) {
-                logger.error("File {} not found in resources!", filename);
-                throw new RuntimeException("File " + filename + " not found in resources!");
-            }
+            return load(Files.newInputStream(file), file.toString());
+        } catch (IOException e) {
+            logger.error("Error opening file {}: {}", file, e.getMessage(), e);
+            throw new RuntimeException("Error reading " + file + ": " + e.getMessage(), e);
+        }
+    }
 
-            logger.debug("File found, starting JSON parsing");
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(in);
+    /**
+     * Загружает карту метрополитена из потока. Поток закрывается после чтения.
+     *
+     * @param in поток с JSON данными
+     * @param sourceName имя источника для сообщений
+     * @return объект MetroMap с загруженными данными
+     * @throws RuntimeException если данные содержат ошибки
+     */
+    public static MetroMap load(InputStream in, String sourceName) {
+        long startTime = System.nanoTime();
+        long allocated = QueryMetrics.allocatedBytes();
+        List<MetroLine> lines = new ArrayList<>();
+        List<Station> stations = new ArrayList<>();
+        IntList edgeFrom = new IntList(1024);
+        IntList edgeTo = new IntList(1024);
+        IntList edgeWeight = new IntList(1024);
+        boolean hasStations = false;
+        boolean hasConnections = false;
+        long bytesRead;
 
-            JsonNode stationsNode = root.get("stations");
-            JsonNode linesNode = root.get("lines");
-            JsonNode connectionsNode = root.get("connections");
+        try (InputStream input = in; JsonParser parser = jsonFactory.createParser(input)) {
+            logger.debug("File found, starting streaming JSON parsing");
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
 
-            // Count stations
-            int stationCount = 0;
-            for (JsonNode line : stationsNode) {
-                stationCount += line.size();
+            // Разделы верхнего уровня могут идти в любом порядке, неизвестные пропускаются
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String section = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (section) {
+                    case "lines" -> readLines(parser, token, lines);
+                    case "stations" -> {
+                        readStations(parser, token, stations);
+                        hasStations = true;
+                    }
+                    case "connections" -> {
+                        readConnections(parser, token, edgeFrom, edgeTo, edgeWeight);
+                        hasConnections = true;
+                    }
+                    default -> {
+                        logger.debug("Skipping unknown section '{}'", section);
+                        parser.skipChildren();
+                    }
+                }
             }
+            bytesRead = parser.currentLocation().getByteOffset();
+        } catch (IOException e) {
+            logger.error("Error reading file {}: {}", sourceName, e.getMessage(), e);
+            throw new RuntimeException("Error reading " + sourceName + ": " + e.getMessage(), e);
+        }
 
-            logger.info("Creating MetroMap with {} stations", stationCount);
-            metroMap = new MetroMap(stationCount);
+        if (!hasStations || !hasConnections) {
+            String missing = hasStations ? "connections" : "stations";
+            logger.error("File {} has no '{}' section", sourceName, missing);
+            throw new RuntimeException("Error reading " + sourceName + ": missing '" + missing + "' section");
+        }
 
-            // Load lines
-            int linesLoaded = 0;
-            for (JsonNode line : linesNode) {
-                int num = line.get("number").asInt();
-                String name = line.get("name").asText();
-                String color = line.get("color").asText();
+        logger.info("Creating MetroMap with {} stations", stations.size());
+        MetroMap metroMap;
+        try {
+            metroMap = new MetroMap(stations.size(), edgeFrom, edgeTo, edgeWeight);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid connection in {}: {}", sourceName, e.getMessage());
+            throw new RuntimeException("Error reading " + sourceName + ": " + e.getMessage(), e);
+        }
+        for (MetroLine line : lines) {
+            metroMap.addLine(line);
+        }
+        for (Station station : stations) {
+            metroMap.addStation(station);
+        }
+
+        LoadStatistics statistics = new LoadStatistics(bytesRead, lines.size(), stations.size(),
+                edgeFrom.size(), System.nanoTime() - startTime);
+        lastStatistics = statistics;
+        QueryMetrics.record(QueryMetrics.Operation.MAP_LOAD, startTime, allocated, 0, 0);
+        logger.info("Metro map successfully loaded: {} lines, {} stations, {} connections",
+                lines.size(), stations.size(), edgeFrom.size());
+        logger.info("Load metrics: {}", statistics);
+        return metroMap;
+    }
 
-                metroMap.addLine(new MetroLine(num, name, color));
-                linesLoaded++;
+    /**
+     * Загружает карту и создает из неё неизменяемый снимок,
+     * который можно использовать из нескольких потоков
+     *
+     * @param filename имя файла в директории resources (например, "map.json")
+     * @return снимок загруженной карты
+     * @throws RuntimeException если файл не найден или содержит ошибки
+     */
+    public static MetroSnapshot loadSnapshot(String filename) {
+        return MetroSnapshot.of(load(filename));
+    }
+
+    /**
+     * Загружает карту из бинарного файла, отображая его в память.
+     * Файл создается конвертером {@link BinaryMapFormat}.
+     *
+     * @param file файл в бинарном формате
+     * @return объект MetroMap, граф которого работает прямо с файлом
+     * @throws RuntimeException если файл не найден или поврежден
+     */
+    public static MetroMap loadBinary(Path file) {
+        logger.info("Loading binary metro map from file: {}", file);
+        try {
+            return BinaryMapFormat.read(file);
+        } catch (IOException e) {
+            logger.error("Error reading file {}: {}", file, e.getMessage(), e);
+            throw new RuntimeException("Error reading " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Возвращает показатели последней успешной загрузки
+     *
+     * @return показатели загрузки или null, если карта еще не загружалась
+     */
+    public static LoadStatistics getLastStatistics() {
+        return lastStatistics;
+    }
+
+    /**
+     * Читает массив линий: [{"number": 1, "name": "...", "color": "...", "schedule": [...]}, ...]
+     */
+    private static void readLines(JsonParser parser, JsonToken token, List<MetroLine> lines) throws IOException {
+        expect(parser, token, JsonToken.START_ARRAY);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            int num = 0;
+            String name = null;
+            String color = null;
+            LineSchedule schedule = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "number" -> num = parser.getValueAsInt();
+                    case "name" -> name = parser.getValueAsString();
+                    case "color" -> color = parser.getValueAsString();
+                    case "schedule" -> schedule = readSchedule(parser, value);
+                    default -> parser.skipChildren();
+                }
+            }
+            lines.add(new MetroLine(num, name, color, schedule));
+            if (logger.isTraceEnabled()) {
                 logger.trace("Loaded line: {} - {} ({})", num, name, color);
             }
-            logger.debug("Loaded {} metro lines", linesLoaded);
-
-            // Load stations
-            int id = 0;
-            int currentLine = 1;
-            int stationsLoaded = 0;
-
-            for (JsonNode lineStations : stationsNode) {
-                for (JsonNode stationName : lineStations) {
-                    String name = stationName.asText();
-                    metroMap.addStation(new Station(name, currentLine));
-                    stationsLoaded++;
-                    logger.trace("Loaded station: {} (line {})", name, currentLine);
-                    id++;
+        }
+        logger.debug("Loaded {} metro lines", lines.size());
+    }
+
+    /**
+     * Читает расписание линии: [{"from": "05:40", "headway": 6, "speed": 1.0}, ...].
+     * Коэффициент скорости необязателен и по умолчанию равен 1.
+     */
+    private static LineSchedule readSchedule(JsonParser parser, JsonToken token) throws IOException {
+        expect(parser, token, JsonToken.START_ARRAY);
+        IntList starts = new IntList();
+        IntList headways = new IntList();
+        IntList speeds = new IntList();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            int start = -1;
+            int headway = -1;
+            int speed = LineSchedule.NORMAL_SPEED;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "from" -> start = parseTime(parser);
+                    case "headway" -> headway = parser.getValueAsInt(-1);
+                    case "speed" -> speed = (int) Math.round(parser.getValueAsDouble() * LineSchedule.NORMAL_SPEED);
+                    default -> parser.skipChildren();
                 }
-                currentLine++;
             }
-            logger.debug("Loaded {} stations", stationsLoaded);
+            if (start < 0 || headway < 0) {
+                throw new IOException("Schedule period needs 'from' and 'headway' at " + parser.currentLocation());
+            }
+            starts.add(start);
+            headways.add(headway);
+            speeds.add(speed);
+        }
+        try {
+            return new LineSchedule(Arrays.copyOf(starts.rawArray(), starts.size()),
+                    Arrays.copyOf(headways.rawArray(), headways.size()), Arrays.copyOf(speeds.rawArray(), speeds.size()));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + " at " + parser.currentLocation(), e);
+        }
+    }
 
-            // Load connections
-            int connectionsLoaded = 0;
-            for (JsonNode conn : connectionsNode) {
-                int from = conn.get("from").asInt();
-                int to = conn.get("to").asInt();
-                int weight = conn.get("weight").asInt();
+    private static int parseTime(JsonParser parser) throws IOException {
+        try {
+            return LineSchedule.parseTime(parser.getValueAsString());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + " at " + parser.currentLocation(), e);
+        }
+    }
 
-                metroMap.addConnection(from, to, weight);
-                connectionsLoaded++;
+    /**
+     * Читает станции, сгруппированные по линиям. Поддерживаются объект
+     * {"1": ["...", ...], ...}, где ключ - номер линии, и массив массивов,
+     * где номер линии - порядковый номер массива. ID станции - её порядковый
+     * номер в файле.
+     */
+    private static void readStations(JsonParser parser, JsonToken token, List<Station> stations) throws IOException {
+        boolean keyed = token == JsonToken.START_OBJECT;
+        if (!keyed) {
+            expect(parser, token, JsonToken.START_ARRAY);
+        }
+        int currentLine = 0;
+        // Уровень проверяется один раз: иначе номер линии упаковывается в Integer для каждой станции
+        boolean trace = logger.isTraceEnabled();
+        while (true) {
+            JsonToken next = parser.nextToken();
+            if (keyed) {
+                if (next != JsonToken.FIELD_NAME) break;
+                currentLine = lineNumber(parser.currentName(), currentLine + 1);
+                next = parser.nextToken();
+            } else {
+                if (next == JsonToken.END_ARRAY) break;
+                currentLine++;
+            }
+            expect(parser, next, JsonToken.START_ARRAY);
+            while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                String name = parser.getText();
+                stations.add(new Station(name, currentLine));
+                if (trace) {
+                    logger.trace("Loaded station: {} (line {})", name, currentLine);
+                }
+            }
+        }
+        logger.debug("Loaded {} stations", stations.size());
+    }
+
+    /**
+     * Читает массив соединений: [{"from": 0, "to": 1, "weight": 3}, ...]
+     */
+    private static void readConnections(JsonParser parser, JsonToken token,
+                                        IntList edgeFrom, IntList edgeTo, IntList edgeWeight) throws IOException {
+        expect(parser, token, JsonToken.START_ARRAY);
+        boolean trace = logger.isTraceEnabled();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            int from = -1;
+            int to = -1;
+            int weight = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "from" -> from = parser.getValueAsInt(-1);
+                    case "to" -> to = parser.getValueAsInt(-1);
+                    case "weight" -> weight = parser.getValueAsInt();
+                    default -> parser.skipChildren();
+                }
+            }
+            edgeFrom.add(from);
+            edgeTo.add(to);
+            edgeWeight.add(weight);
+            if (trace) {
                 logger.trace("Loaded connection: {} -> {} ({} min)", from, to, weight);
             }
-            logger.debug("Loaded {} connections", connectionsLoaded);
+        }
+        logger.debug("Loaded {} connections", edgeFrom.size());
+    }
 
-            logger.info("Metro map successfully loaded: {} lines, {} stations, {} connections",
-                    linesLoaded, stationsLoaded, connectionsLoaded);
+    private static int lineNumber(String key, int fallback) {
+        try {
+            return Integer.parseInt(key.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Error reading file {}: {}", filename, e.getMessage(), e);
-            throw new RuntimeException("Error reading " + filename + ": " + e.getMessage(), e);
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
         }
+    }
 
-        return metroMap;
+    /**
+     * Показатели одной загрузки карты
+     */
+    public static final class LoadStatistics {
+        private final long bytes;
+        private final int lines;
+        private final int stations;
+        private final int connections;
+        private final long nanos;
+
+        LoadStatistics(long bytes, int lines, int stations, int connections, long nanos) {
+            this.bytes = bytes;
+            this.lines = lines;
+            this.stations = stations;
+            this.connections = connections;
+            this.nanos = Math.max(nanos, 1);
+        }
+
+        /**
+         * Возвращает количество прочитанных байт
+         *
+         * @return размер данных в байтах
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Возвращает количество загруженных линий
+         *
+         * @return количество линий
+         */
+        public int getLines() {
+            return lines;
+        }
+
+        /**
+         * Возвращает количество загруженных станций
+         *
+         * @return количество станций
+         */
+        public int getStations() {
+            return stations;
+        }
+
+        /**
+         * Возвращает количество загруженных соединений
+         *
+         * @return количество соединений
+         */
+        public int getConnections() {
+            return connections;
+        }
+
+        /**
+         * Возвращает время загрузки
+         *
+         * @return время в миллисекундах
+         */
+        public long getMillis() {
+            return nanos / 1_000_000;
+        }
+
+        /**
+         * Возвращает скорость чтения
+         *
+         * @return байт в секунду
+         */
+        public double getBytesPerSecond() {
+            return bytes * 1e9 / nanos;
+        }
+
+        /**
+         * Возвращает скорость загрузки станций
+         *
+         * @return станций в секунду
+         */
+        public double getStationsPerSecond() {
+            return stations * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d bytes, %d stations, %d connections in %d ms (%.1f MB/s, %.0f stations/s)",
+                    bytes, stations, connections, getMillis(), getBytesPerSecond() / (1024 * 1024),
+                    getStationsPerSecond());
+        }
     }
 }
\ No newline at end of file
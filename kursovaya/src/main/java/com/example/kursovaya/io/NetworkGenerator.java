@@ -0,0 +1,414 @@
+package com.example.kursovaya.io;
+
+import com.example.kursovaya.model.MetroLine;
+import com.example.kursovaya.model.MetroMap;
+import com.example.kursovaya.model.Station;
+import com.example.kursovaya.util.IntList;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Генератор синтетических сетей метро для нагрузочного тестирования
+ * и бенчмарков.
+ * Большая сеть составляется из "городов", расположенных квадратной решеткой.
+ * Каждый город устроен как настоящее метро: радиальные линии - диаметры,
+ * проходящие через центр под разными углами, и кольцевые линии разного
+ * радиуса. В местах пересечения линий создаются пересадочные узлы:
+ * ближайшие станции двух линий соединяются переходом. В центре
+ * станции соседних радиальных линий образуют общий пересадочный кластер.
+ * Соседние города соединяются междугородними перегонами между конечными
+ * станциями диаметров, направленных друг к другу. Поэтому размер линий
+ * и плотность пересадок остаются реалистичными при любом размере сети.
+ * Время перегонов выбирается случайно из заданного диапазона.
+ * При одинаковых параметрах и зерне результат всегда один и тот же.
+ * Сеть можно получить сразу в виде {@link MetroMap} или записать
+ * в JSON формата, который читает {@link MapLoader}.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class NetworkGenerator {
+    private static final Logger logger = LogManager.getLogger(NetworkGenerator.class);
+
+    private static final String[] COLORS = {"red", "blue", "green", "yellow", "purple", "orange", "brown", "gray"};
+
+    /** Размер города по умолчанию - примерно как у крупного метрополитена */
+    public static final int DEFAULT_CITY_SIZE = 600;
+
+    private final int stationCount;
+    private final long seed;
+    private int citySize;
+    private int radialLines;
+    private int ringLines;
+    private int minTravelTime = 2;
+    private int maxTravelTime = 4;
+    private int transferTime = 4;
+    private int intercityTime = 15;
+
+    /**
+     * Создает генератор сети примерно из указанного количества станций
+     * с размером города по умолчанию
+     *
+     * @param stationCount желаемое количество станций
+     * @param seed зерно генератора случайных чисел
+     * @throws IllegalArgumentException если станций меньше 4
+     */
+    public NetworkGenerator(int stationCount, long seed) {
+        if (stationCount < 4) {
+            throw new IllegalArgumentException("Network needs at least 4 stations, got " + stationCount);
+        }
+        this.stationCount = stationCount;
+        this.seed = seed;
+        setCitySize(DEFAULT_CITY_SIZE);
+    }
+
+    /**
+     * Задает примерное количество станций в одном городе.
+     * Количество линий города подбирается по его размеру: около sqrt(size)/3,
+     * из них примерно четверть - кольцевые.
+     *
+     * @param citySize количество станций в городе
+     * @throws IllegalArgumentException если размер меньше 4
+     */
+    public void setCitySize(int citySize) {
+        if (citySize < 4) {
+            throw new IllegalArgumentException("City needs at least 4 stations, got " + citySize);
+        }
+        this.citySize = citySize;
+        int lines = Math.max(2, (int) Math.round(Math.sqrt(Math.min(citySize, stationCount)) / 3));
+        this.ringLines = lines / 4;
+        this.radialLines = lines - ringLines;
+    }
+
+    /**
+     * Задает количество линий каждого типа в одном городе.
+     * {@link #setCitySize(int)} пересчитывает эти значения, поэтому
+     * этот метод вызывается после него.
+     *
+     * @param radialLines количество радиальных линий (не меньше 1)
+     * @param ringLines количество кольцевых линий
+     * @throws IllegalArgumentException если количество линий недопустимо
+     */
+    public void setLineCount(int radialLines, int ringLines) {
+        if (radialLines < 1 || ringLines < 0) {
+            throw new IllegalArgumentException("Invalid line count: " + radialLines + " radial, " + ringLines + " ring");
+        }
+        this.radialLines = radialLines;
+        this.ringLines = ringLines;
+    }
+
+    /**
+     * Задает диапазон времени перегона между соседними станциями линии
+     *
+     * @param min минимальное время в минутах
+     * @param max максимальное время в минутах
+     * @throws IllegalArgumentException если диапазон пуст или содержит отрицательные значения
+     */
+    public void setTravelTime(int min, int max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid travel time range: [" + min + ", " + max + "]");
+        }
+        this.minTravelTime = min;
+        this.maxTravelTime = max;
+    }
+
+    /**
+     * Задает время перехода между линиями в пересадочном узле
+     *
+     * @param transferTime время в минутах
+     * @throws IllegalArgumentException если время отрицательное
+     */
+    public void setTransferTime(int transferTime) {
+        if (transferTime < 0) {
+            throw new IllegalArgumentException("Invalid transfer time: " + transferTime);
+        }
+        this.transferTime = transferTime;
+    }
+
+    /**
+     * Задает время междугороднего перегона между соседними городами
+     *
+     * @param intercityTime время в минутах
+     * @throws IllegalArgumentException если время отрицательное
+     */
+    public void setIntercityTime(int intercityTime) {
+        if (intercityTime < 0) {
+            throw new IllegalArgumentException("Invalid intercity time: " + intercityTime);
+        }
+        this.intercityTime = intercityTime;
+    }
+
+    /**
+     * Строит сеть в виде карты метро
+     *
+     * @return карта метро
+     */
+    public MetroMap generate() {
+        Network network = build();
+        MetroMap map = new MetroMap(network.size(), network.from, network.to, network.weight);
+        for (int line = 1; line <= network.lineCount(); line++) {
+            map.addLine(new MetroLine(line, lineName(line), color(line)));
+        }
+        for (int line = 1; line <= network.lineCount(); line++) {
+            for (int k = 0, count = network.stationsOn(line); k < count; k++) {
+                map.addStation(new Station(stationName(line, k), line));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Записывает сеть в JSON файл формата map.json.
+     * Запись потоковая, поэтому подходит для сетей из миллионов станций.
+     *
+     * @param file выходной файл
+     * @throws IOException если файл не удалось записать
+     */
+    public void writeJson(Path file) throws IOException {
+        Network network = build();
+        JsonFactory factory = new JsonFactory();
+        try (JsonGenerator json = factory.createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartObject();
+
+            json.writeArrayFieldStart("lines");
+            for (int line = 1; line <= network.lineCount(); line++) {
+                json.writeStartObject();
+                json.writeNumberField("number", line);
+                json.writeStringField("name", lineName(line));
+                json.writeStringField("color", color(line));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeObjectFieldStart("stations");
+            for (int line = 1; line <= network.lineCount(); line++) {
+                json.writeArrayFieldStart(Integer.toString(line));
+                for (int k = 0, count = network.stationsOn(line); k < count; k++) {
+                    json.writeString(stationName(line, k));
+                }
+                json.writeEndArray();
+            }
+            json.writeEndObject();
+
+            json.writeArrayFieldStart("connections");
+            for (int i = 0; i < network.from.size(); i++) {
+                json.writeStartObject();
+                json.writeNumberField("from", network.from.get(i));
+                json.writeNumberField("to", network.to.get(i));
+                json.writeNumberField("weight", network.weight.get(i));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+        logger.info("Generated network written to {}: {} stations, {} connections",
+                file, network.size(), network.from.size());
+    }
+
+    /**
+     * Генерирует сеть и записывает её в JSON файл.
+     * Аргументы: количество станций, выходной файл и необязательное зерно.
+     *
+     * @param args аргументы командной строки
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: NetworkGenerator <stations> <output.json> [seed]");
+            System.exit(2);
+        }
+        NetworkGenerator generator = new NetworkGenerator(Integer.parseInt(args[0]),
+                args.length == 3 ? Long.parseLong(args[2]) : 1L);
+        try {
+            generator.writeJson(Path.of(args[1]));
+        } catch (IOException e) {
+            logger.error("Error writing {}: {}", args[1], e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    private Network build() {
+        long startTime = System.nanoTime();
+        Random random = new Random(seed);
+        int cities = Math.max(1, (int) Math.round((double) stationCount / citySize));
+        int side = (int) Math.ceil(Math.sqrt(cities));
+        int perCity = Math.max(4, stationCount / cities);
+        int linesPerCity = radialLines + ringLines;
+
+        // Станции распределяются пропорционально длине линии:
+        // диаметр имеет длину 2, кольцо радиуса r - 2*pi*r
+        double[] radius = new double[ringLines];
+        double cityLength = 2.0 * radialLines;
+        for (int j = 0; j < ringLines; j++) {
+            radius[j] = (j + 1.0) / (ringLines + 1);
+            cityLength += 2 * Math.PI * radius[j];
+        }
+        int lineCount = cities * linesPerCity;
+        int[] first = new int[lineCount + 2]; // first[line] - ID первой станции линии, нумерация линий с 1
+        for (int line = 1; line <= lineCount; line++) {
+            int local = (line - 1) % linesPerCity;
+            double length = local < radialLines ? 2.0 : 2 * Math.PI * radius[local - radialLines];
+            int count = Math.max(local < radialLines ? 2 : 3, (int) Math.round(perCity * length / cityLength));
+            first[line + 1] = first[line] + count;
+        }
+        Network network = new Network(first, lineCount);
+
+        // Углы диаметров каждого города: равномерно по полуокружности с небольшим смещением
+        double[][] angles = new double[cities][radialLines];
+        for (int city = 0; city < cities; city++) {
+            buildCity(network, random, city * linesPerCity, radius, angles[city]);
+        }
+
+        // Междугородние перегоны к соседям справа и снизу по решетке городов
+        for (int city = 0; city < cities; city++) {
+            int east = city + 1;
+            if (east < cities && east % side != 0) {
+                network.connect(cityTerminal(network, city * linesPerCity, angles[city], 0.0),
+                        cityTerminal(network, east * linesPerCity, angles[east], Math.PI), intercityTime);
+            }
+            int south = city + side;
+            if (south < cities) {
+                network.connect(cityTerminal(network, city * linesPerCity, angles[city], Math.PI / 2),
+                        cityTerminal(network, south * linesPerCity, angles[south], 3 * Math.PI / 2), intercityTime);
+            }
+        }
+
+        logger.debug("Generated network: {} cities, {} lines, {} stations, {} connections in {} ms", cities,
+                lineCount, network.size(), network.from.size(), (System.nanoTime() - startTime) / 1_000_000);
+        return network;
+    }
+
+    /**
+     * Строит линии одного города: перегоны, центральный кластер и пересадки
+     * на пересечениях диаметров с кольцами
+     */
+    private void buildCity(Network network, Random random, int lineOffset, double[] radius, double[] angle) {
+        int[] first = network.first;
+        for (int local = 0; local < radialLines + ringLines; local++) {
+            int line = lineOffset + local + 1;
+            int count = network.stationsOn(line);
+            for (int k = 0; k + 1 < count; k++) {
+                network.connect(first[line] + k, first[line] + k + 1, travelTime(random));
+            }
+            if (local >= radialLines) {
+                network.connect(first[line] + count - 1, first[line], travelTime(random)); // Кольцо замыкается
+            }
+        }
+
+        for (int i = 0; i < radialLines; i++) {
+            angle[i] = Math.PI * (i + 0.25 + 0.5 * random.nextDouble()) / radialLines;
+        }
+
+        // Центральный пересадочный кластер: центральные станции соседних диаметров
+        for (int i = 0; i + 1 < radialLines; i++) {
+            network.connect(radialStation(network, lineOffset + i + 1, 0.0),
+                    radialStation(network, lineOffset + i + 2, 0.0), transferTime);
+        }
+
+        // Пересадки в точках пересечения диаметров с кольцами
+        for (int i = 0; i < radialLines; i++) {
+            for (int j = 0; j < ringLines; j++) {
+                int ring = lineOffset + radialLines + j + 1;
+                int count = network.stationsOn(ring);
+                for (int side = -1; side <= 1; side += 2) {
+                    int onRadial = radialStation(network, lineOffset + i + 1, side * radius[j]);
+                    double theta = side > 0 ? angle[i] : angle[i] + Math.PI;
+                    int onRing = first[ring] + (int) Math.round(theta / (2 * Math.PI) * count) % count;
+                    network.connect(onRadial, onRing, transferTime);
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает конечную станцию диаметра города, направление которой
+     * ближе всего к указанному углу
+     */
+    private int cityTerminal(Network network, int lineOffset, double[] angle, double direction) {
+        int best = -1;
+        double bestGap = Double.MAX_VALUE;
+        for (int i = 0; i < radialLines; i++) {
+            for (int side = -1; side <= 1; side += 2) {
+                double theta = side > 0 ? angle[i] : angle[i] + Math.PI;
+                double gap = Math.abs(Math.IEEEremainder(theta - direction, 2 * Math.PI));
+                if (gap < bestGap) {
+                    bestGap = gap;
+                    best = radialStation(network, lineOffset + i + 1, side);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Возвращает станцию диаметра, ближайшую к точке с координатой t на отрезке [-1, 1]
+     */
+    private static int radialStation(Network network, int line, double t) {
+        int count = network.stationsOn(line);
+        return network.first[line] + (int) Math.round((t + 1) / 2 * (count - 1));
+    }
+
+    private int travelTime(Random random) {
+        return minTravelTime + random.nextInt(maxTravelTime - minTravelTime + 1);
+    }
+
+    private String lineName(int line) {
+        int linesPerCity = radialLines + ringLines;
+        int city = (line - 1) / linesPerCity + 1;
+        int local = (line - 1) % linesPerCity;
+        return "Город " + city + ": " + (local < radialLines ? "радиальная " + (local + 1)
+                : "кольцевая " + (local - radialLines + 1));
+    }
+
+    private static String color(int line) {
+        return COLORS[(line - 1) % COLORS.length];
+    }
+
+    private static String stationName(int line, int index) {
+        return "Станция " + line + "-" + (index + 1);
+    }
+
+    /**
+     * Сгенерированная сеть: границы линий и список соединений
+     */
+    private static final class Network {
+        private final int[] first;
+        private final int lineCount;
+        private final IntList from = new IntList(1024);
+        private final IntList to = new IntList(1024);
+        private final IntList weight = new IntList(1024);
+
+        Network(int[] first, int lineCount) {
+            this.first = first;
+            this.lineCount = lineCount;
+        }
+
+        int lineCount() {
+            return lineCount;
+        }
+
+        int size() {
+            return first[lineCount + 1];
+        }
+
+        int stationsOn(int line) {
+            return first[line + 1] - first[line];
+        }
+
+        void connect(int a, int b, int w) {
+            if (a == b) return;
+            from.add(a);
+            to.add(b);
+            weight.add(w);
+        }
+    }
+}
\ No newline at end of file
@@ -1,19 +1,27 @@
 package com.example.kursovaya.model;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import com.example.kursovaya.util.DijkstraResult;
 import com.example.kursovaya.io.MapLoader;
+import com.example.kursovaya.util.LineIndex;
+import com.example.kursovaya.util.QueryMetrics;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -21,6 +29,11 @@ import java.util.stream.IntStream;
  * Основной класс приложения с графическим интерфейсом.
  * Реализует поиск кратчайшего пути в метро Санкт-Петербурга
  * с использованием JavaFX для пользовательского интерфейса.
+ * Поиск маршрута и отчеты выполняются фоновыми задачами, а их строки
+ * добавляются в виртуализированный список порциями, поэтому окно
+ * не замирает на больших картах. Поля выбора станций не загружают
+ * все названия заранее: список подсказок строится при вводе по индексу
+ * префиксов названий.
  *
  * @author Student
  * @version 1.0
@@ -28,8 +41,22 @@ import java.util.stream.IntStream;
 public class AppMain extends Application {
 
     private static final Logger logger = LogManager.getLogger(AppMain.class);
+    private static final long ALL_PAIRS_BUDGET_BYTES = 64L * 1024 * 1024; // Бюджет таблицы всех пар по умолчанию
+    private static final int ROUTE_CACHE_SIZE = 10_000; // Емкость кэша маршрутов по умолчанию
+    private static final int CHUNK_LINES = 500; // Строк отчета в одной порции для UI потока
+    private static final int PICKER_LIMIT = 50; // Подсказок в списке выбора станции
     private MetroMap metroMap;
 
+    // Фоновый поток для поиска и отчетов; одновременно выполняется одна задача
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "ui-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ListView<String> output;
+    private Label status;
+    private ReportTask currentTask;
+
     /**
      * Конструктор класса AppMain.
      * Создает графическое приложение для поиска маршрутов в метро Санкт-Петербурга.
@@ -50,234 +77,70 @@ public class AppMain extends Application {
         logger.info("Starting Saint Petersburg Metro application");
 
         try {
-            // Загружаем карту метро
-            logger.debug("Loading metro map from map.json");
-            metroMap = MapLoader.load("map.json");
+            // Загружаем карту метро: из бинарного файла, если он указан, иначе из map.json
+            String binaryMap = System.getProperty("spbmetro.binaryMap");
+            if (binaryMap != null) {
+                metroMap = MapLoader.loadBinary(Path.of(binaryMap));
+            } else {
+                logger.debug("Loading metro map from map.json");
+                metroMap = MapLoader.load("map.json");
+            }
             logger.info("Metro map loaded successfully. Stations: {}",
                     metroMap.getStations().size());
 
+            // Карта статична, поэтому все маршруты можно предвычислить,
+            // если таблица помещается в бюджет памяти
+            long allPairsBudget = Long.getLong("spbmetro.allPairsBudgetBytes", ALL_PAIRS_BUDGET_BYTES);
+            boolean allPairs = metroMap.enableAllPairs(allPairsBudget);
+            String algorithmName = allPairs ? "Таблица всех пар" : "Дейкстра (CSR)";
+            // Без таблицы всех пар повторные запросы отдаются из кэша маршрутов
+            int routeCacheSize = Integer.getInteger("spbmetro.routeCacheSize", ROUTE_CACHE_SIZE);
+            if (!allPairs && routeCacheSize > 0) {
+                metroMap.enableRouteCache(routeCacheSize, Long.getLong("spbmetro.routeCacheTtlMillis", 0L));
+            }
+
             // UI элементы
-            ComboBox<String> fromBox = new ComboBox<>();
-            ComboBox<String> toBox = new ComboBox<>();
+            ComboBox<String> fromBox = createStationPicker();
+            ComboBox<String> toBox = createStationPicker();
 
             // Кнопки
             Button findBtn = new Button("Найти маршрут");
             Button showMatrixBtn = new Button("Показать информацию о матрице");
             Button showStationsBtn = new Button("Список всех станций");
+            Button cancelBtn = new Button("Отмена");
+            cancelBtn.setOnAction(e -> cancelCurrentTask());
 
-            TextArea output = new TextArea();
-            output.setEditable(false);
-            output.setWrapText(true);
-            output.setPrefRowCount(20);
-
-            // Список имен станций с использованием Stream API
-            List<String> stationNames = metroMap.getStations().stream()
-                    .map(Station::getName)
-                    .sorted()
-                    .collect(Collectors.toList());
-
-            logger.debug("Created list of {} stations using Stream API", stationNames.size());
-
-            fromBox.getItems().addAll(stationNames);
-            toBox.getItems().addAll(stationNames);
+            // Список отображает только видимые строки, поэтому размер отчета не важен
+            output = new ListView<>();
+            output.setPrefHeight(400);
+            status = new Label();
 
             // Обработчик поиска маршрута
             findBtn.setOnAction(e -> {
-                String fromName = fromBox.getValue();
-                String toName = toBox.getValue();
+                // В редактируемом списке значение фиксируется только по Enter, поэтому читаем текст поля
+                String fromName = fromBox.getEditor().getText().trim();
+                String toName = toBox.getEditor().getText().trim();
 
-                if (fromName == null || toName == null) {
-                    output.setText("Выберите обе станции!");
+                if (fromName.isEmpty() || toName.isEmpty()) {
+                    showMessage("Выберите обе станции!");
                     logger.warn("Attempt to search route without selecting stations");
                     return;
                 }
 
                 logger.info("Searching route from '{}' to '{}'", fromName, toName);
-
-                int fromId = metroMap.getStationId(fromName);
-                int toId = metroMap.getStationId(toName);
-
-                if (fromId == -1 || toId == -1) {
-                    output.setText("Ошибка в именах станций.");
-                    logger.error("Station not found: fromName='{}', toName='{}'", fromName, toName);
-                    return;
-                }
-
-                // Замер времени выполнения
-                long startTime = System.nanoTime();
-
-                // ИСПОЛЬЗУЕМ МАТРИЦУ СМЕЖНОСТИ
-                logger.debug("Running Dijkstra algorithm with adjacency matrix");
-                DijkstraResult res = metroMap.dijkstraWithMatrix(fromId, toId);
-
-                long endTime = System.nanoTime();
-                long duration = (endTime - startTime) / 1000; // микросекунды
-
-                int[] dist = res.getDist();
-                int[] prev = res.getPrev();
-
-                // Проверяем, найден ли путь
-                if (dist[toId] >= Integer.MAX_VALUE / 2) {
-                    output.setText("Маршрут не найден.");
-                    logger.warn("Route not found from '{}' to '{}'", fromName, toName);
-                    return;
-                }
-
-                // Восстановление пути
-                logger.debug("Reconstructing path from algorithm results");
-                List<Integer> pathIds = metroMap.reconstructPath(fromId, toId, res);
-
-                // Если путь не восстановился
-                if (pathIds.isEmpty()) {
-                    output.setText("Не удалось построить маршрут.");
-                    logger.error("Failed to reconstruct path from {} to {}", fromId, toId);
-                    return;
-                }
-
-                logger.info("Route found: {} stations, time {} minutes, calculation time {} μs",
-                        pathIds.size(), dist[toId], duration);
-
-                // Подсчет пересадок с использованием Stream API
-                int transfers = countTransfersStream(pathIds, metroMap);
-
-                // Формируем красивый вывод
-                StringBuilder sb = new StringBuilder();
-                sb.append("=== РЕЗУЛЬТАТЫ ПОИСКА МАРШРУТА ===\n\n");
-
-                // Основная информация
-                sb.append("Начальная станция: ").append(fromName).append("\n");
-                sb.append("Конечная станция:  ").append(toName).append("\n");
-                sb.append("Общее время:       ").append(dist[toId]).append(" минут\n");
-                sb.append("Время расчета:     ").append(duration).append(" мкс\n");
-                sb.append("Алгоритм:          Матрица смежности\n");
-                sb.append("Количество станций: ").append(pathIds.size()).append("\n");
-                sb.append("Количество пересадок: ").append(transfers).append("\n\n");
-                logger.debug("Number of transfers in route: {}", transfers);
-
-                // Детальный маршрут
-                sb.append("=== ДЕТАЛЬНЫЙ МАРШРУТ ===\n");
-
-                Station previousStation = null;
-                int step = 1;
-                for (int id : pathIds) {
-                    Station currentStation = metroMap.getStation(id);
-
-                    if (previousStation != null &&
-                            previousStation.getLine() != currentStation.getLine()) {
-                        sb.append("\n").append(step).append(".  ПЕРЕСАДКА\n");
-                        sb.append("   с линии ").append(previousStation.getLine())
-                                .append(" на линию ").append(currentStation.getLine()).append("\n");
-                        step++;
-                        logger.trace("Transfer from line {} to line {}",
-                                previousStation.getLine(), currentStation.getLine());
-                    }
-
-                    sb.append(step).append(". ").append(currentStation.getName())
-                            .append(" (линия ").append(currentStation.getLine()).append(")\n");
-                    step++;
-                    previousStation = currentStation;
-                }
-
-                output.setText(sb.toString());
-                logger.debug("Results displayed to user successfully");
+                runReport("Поиск маршрута", out -> writeRoute(out, fromName, toName, algorithmName));
             });
 
             // Обработчик кнопки "Показать информацию о матрице"
             showMatrixBtn.setOnAction(e -> {
                 logger.debug("Requesting adjacency matrix information");
-                int[][] matrix = metroMap.getAdjacencyMatrix();
-                int totalStations = matrix.length;
-
-                // Подсчитываем статистику с использованием Stream API
-                long connections = 0;
-                final int[] maxWeight = {0};
-
-                for (int i = 0; i < totalStations; i++) {
-                    final int row = i;
-                    long rowConnections = IntStream.range(i + 1, totalStations)
-                            .filter(j -> matrix[row][j] < Integer.MAX_VALUE / 2)
-                            .peek(j -> {
-                                if (matrix[row][j] > maxWeight[0]) {
-                                    maxWeight[0] = matrix[row][j];
-                                }
-                            })
-                            .count();
-                    connections += rowConnections;
-                }
-
-                logger.info("Adjacency matrix: {} stations, {} connections, max weight={}",
-                        totalStations, connections, maxWeight[0]);
-
-                StringBuilder sb = new StringBuilder();
-                sb.append("=== ИНФОРМАЦИЯ О МАТРИЦЕ СМЕЖНОСТИ ===\n\n");
-                sb.append("Общее количество станций: ").append(totalStations).append("\n");
-                sb.append("Размер матрицы:          ").append(totalStations).append(" × ").append(totalStations).append("\n");
-                sb.append("Количество соединений:   ").append(connections).append("\n");
-                sb.append("Максимальное время между станциями: ").append(maxWeight[0]).append(" мин\n");
-                sb.append("Пустых ячеек (∞):        ").append(totalStations*totalStations - connections - totalStations).append("\n\n");
-
-                sb.append("       ");
-                for (int j = 0; j < Math.min(5, totalStations); j++) {
-                    sb.append(String.format("  [%2d]  ", j));
-                }
-                sb.append("\n").append("       ");
-                for (int j = 0; j < Math.min(5, totalStations); j++) {
-                    sb.append("-------");
-                }
-                sb.append("\n");
-
-                // Строки матрицы
-                for (int i = 0; i < Math.min(5, totalStations); i++) {
-                    sb.append(String.format("[%2d] | ", i));
-                    for (int j = 0; j < Math.min(5, totalStations); j++) {
-                        if (i == j) {
-                            sb.append(String.format("  %2s   ", "0"));
-                        } else if (matrix[i][j] >= Integer.MAX_VALUE / 2) {
-                            sb.append(String.format("  %2s   ", "∞"));
-                        } else {
-                            sb.append(String.format("  %2d   ", matrix[i][j]));
-                        }
-                    }
-                    sb.append("\n");
-                }
-
-                sb.append("\n=== ПРИМЕР СТАНЦИЙ ===\n");
-                // Используем Stream API для отображения первых 5 станций
-                IntStream.range(0, Math.min(5, totalStations))
-                        .forEach(i -> sb.append(i).append(": ").append(metroMap.getStation(i)).append("\n"));
-
-                output.setText(sb.toString());
-                logger.debug("Matrix information displayed");
+                runReport("Информация о матрице", this::writeMatrixInfo);
             });
 
             // Обработчик кнопки "Список всех станций"
             showStationsBtn.setOnAction(e -> {
                 logger.debug("Requesting list of all stations");
-                StringBuilder sb = new StringBuilder();
-                sb.append("=== ВСЕ СТАНЦИИ МЕТРО СПб ===\n\n");
-
-                List<Station> stations = metroMap.getStations();
-                sb.append("Всего станций: ").append(stations.size()).append("\n\n");
-                logger.info("Total stations in system: {}", stations.size());
-
-                // Группируем по линиям с использованием Stream API
-                for (int lineNum = 1; lineNum <= 5; lineNum++) {
-                    final int currentLine = lineNum;
-                    sb.append("--- Линия ").append(lineNum).append(" ---\n");
-
-                    // Фильтруем станции по линии
-                    List<String> lineStations = stations.stream()
-                            .filter(s -> s.getLine() == currentLine)
-                            .map(Station::getName)
-                            .collect(Collectors.toList());
-
-                    lineStations.forEach(name -> sb.append("  ").append(name).append("\n"));
-                    sb.append("Всего на линии: ").append(lineStations.size()).append("\n\n");
-                    logger.debug("Line {}: {} stations", lineNum, lineStations.size());
-                }
-
-                output.setText(sb.toString());
-                logger.debug("Station list displayed");
+                runReport("Список станций", this::writeStationList);
             });
 
             // Layout
@@ -287,7 +150,7 @@ public class AppMain extends Application {
                     findBtn
             );
 
-            HBox buttonBox = new HBox(10, showMatrixBtn, showStationsBtn);
+            HBox buttonBox = new HBox(10, showMatrixBtn, showStationsBtn, cancelBtn);
 
             VBox root = new VBox(10,
                     new Label("Поиск маршрута в метро Санкт-Петербурга"),
@@ -295,7 +158,8 @@ public class AppMain extends Application {
                     buttonBox,
                     new Separator(),
                     new Label("Результат:"),
-                    output
+                    output,
+                    status
             );
             root.setPadding(new Insets(15));
 
@@ -308,6 +172,7 @@ public class AppMain extends Application {
 
             stage.setOnCloseRequest(event -> {
                 logger.info("Application closing");
+                cancelCurrentTask();
             });
 
             stage.show();
@@ -320,17 +185,356 @@ public class AppMain extends Application {
         }
     }
 
+    /**
+     * Создает поле выбора станции с подсказками при вводе.
+     * Список заполняется лениво: при открытии или изменении текста в него
+     * попадают не более PICKER_LIMIT названий с введенным префиксом
+     * в алфавитном порядке.
+     *
+     * @return редактируемый выпадающий список
+     */
+    private ComboBox<String> createStationPicker() {
+        ComboBox<String> picker = new ComboBox<>();
+        picker.setEditable(true);
+        picker.setPromptText("Начните вводить название");
+        picker.setVisibleRowCount(12);
+
+        picker.setOnShowing(e -> {
+            if (picker.getItems().isEmpty()) {
+                fillSuggestions(picker, picker.getEditor().getText());
+            }
+        });
+        picker.getEditor().textProperty().addListener((observable, oldText, text) -> {
+            // Текст совпадает с выбранной подсказкой - список обновлять не нужно
+            if (text == null || text.equals(picker.getValue())) {
+                return;
+            }
+            fillSuggestions(picker, text);
+            if (picker.isFocused() && !picker.getItems().isEmpty()) {
+                picker.show();
+            }
+        });
+        return picker;
+    }
+
+    private void fillSuggestions(ComboBox<String> picker, String prefix) {
+        List<String> names = metroMap.findStationsByPrefix(prefix == null ? "" : prefix.trim(), PICKER_LIMIT)
+                .stream()
+                .map(Station::getName)
+                .collect(Collectors.toList());
+        picker.getItems().setAll(names);
+    }
+
+    /**
+     * Останавливает фоновый поток при закрытии приложения
+     */
+    @Override
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Ищет маршрут и выводит его описание. Выполняется в фоновом потоке.
+     *
+     * @param out задача, в которую пишутся строки результата
+     * @param fromName название начальной станции
+     * @param toName название конечной станции
+     * @param algorithmName название используемого алгоритма
+     */
+    private void writeRoute(ReportTask out, String fromName, String toName, String algorithmName) {
+        int fromId = metroMap.getStationId(fromName);
+        int toId = metroMap.getStationId(toName);
+
+        if (fromId == -1 || toId == -1) {
+            String unknown = fromId == -1 ? fromName : toName;
+            out.line("Ошибка в именах станций.");
+            // Подсказка по индексу триграмм, если название введено с опечаткой
+            List<Station> similar = metroMap.findSimilarStations(unknown, 3);
+            if (!similar.isEmpty()) {
+                out.line("Возможно, вы имели в виду: "
+                        + similar.stream().map(Station::getName).collect(Collectors.joining(", ")));
+            }
+            logger.error("Station not found: fromName='{}', toName='{}'", fromName, toName);
+            return;
+        }
+
+        // Замер времени выполнения
+        long startTime = System.nanoTime();
+
+        // Таблица всех пар, если она построена, иначе алгоритм Дейкстры по CSR-графу
+        logger.debug("Running shortest path query");
+        PathResult route = metroMap.findShortestPath(fromId, toId);
+
+        long endTime = System.nanoTime();
+        long duration = (endTime - startTime) / 1000; // микросекунды
+
+        // Проверяем, найден ли путь
+        if (route.getTotalTime() >= CsrGraph.INF) {
+            out.line("Маршрут не найден.");
+            logger.warn("Route not found from '{}' to '{}'", fromName, toName);
+            return;
+        }
+
+        List<Station> path = route.getPath();
+
+        // Если путь не восстановился
+        if (path.isEmpty()) {
+            out.line("Не удалось построить маршрут.");
+            logger.error("Failed to reconstruct path from {} to {}", fromId, toId);
+            return;
+        }
+
+        logger.info("Route found: {} stations, time {} minutes, calculation time {} μs",
+                path.size(), route.getTotalTime(), duration);
+
+        // Подсчет пересадок с использованием Stream API
+        int transfers = countTransfersStream(path);
+
+        // Основная информация
+        out.line("=== РЕЗУЛЬТАТЫ ПОИСКА МАРШРУТА ===");
+        out.line("");
+        out.line("Начальная станция: " + fromName);
+        out.line("Конечная станция:  " + toName);
+        out.line("Общее время:       " + route.getTotalTime() + " минут");
+        out.line("Время расчета:     " + duration + " мкс");
+        out.line("Алгоритм:          " + algorithmName);
+        out.line("Количество станций: " + path.size());
+        out.line("Количество пересадок: " + transfers);
+        out.line("");
+        logger.debug("Number of transfers in route: {}", transfers);
+
+        // Детальный маршрут
+        out.line("=== ДЕТАЛЬНЫЙ МАРШРУТ ===");
+
+        Station previousStation = null;
+        int step = 1;
+        for (Station currentStation : path) {
+            if (previousStation != null &&
+                    previousStation.getLine() != currentStation.getLine()) {
+                out.line("");
+                out.line(step + ".  ПЕРЕСАДКА");
+                out.line("   с линии " + previousStation.getLine() + " на линию " + currentStation.getLine());
+                step++;
+                logger.trace("Transfer from line {} to line {}",
+                        previousStation.getLine(), currentStation.getLine());
+            }
+
+            out.line(step + ". " + currentStation.getName() + " (линия " + currentStation.getLine() + ")");
+            step++;
+            previousStation = currentStation;
+        }
+    }
+
+    /**
+     * Выводит сведения о графе, кэше и метриках. Выполняется в фоновом потоке.
+     *
+     * @param out задача, в которую пишутся строки отчета
+     */
+    private void writeMatrixInfo(ReportTask out) {
+        CsrGraph graph = metroMap.getCsr();
+        int totalStations = graph.getVertexCount();
+
+        // Статистика берется прямо из CSR-графа, без построения матрицы n×n
+        long connections = graph.getEdgeCount();
+        int maxWeight = graph.getMaxWeight();
+
+        logger.info("Adjacency matrix: {} stations, {} connections, max weight={}",
+                totalStations, connections, maxWeight);
+
+        out.line("=== ИНФОРМАЦИЯ О МАТРИЦЕ СМЕЖНОСТИ ===");
+        out.line("");
+        out.line("Общее количество станций: " + totalStations);
+        out.line("Размер матрицы:          " + totalStations + " × " + totalStations);
+        out.line("Количество соединений:   " + connections);
+        out.line("Максимальное время между станциями: " + maxWeight + " мин");
+        out.line("Пустых ячеек (∞):        " + ((long) totalStations * totalStations - 2 * connections - totalStations));
+        out.line("Хранение (CSR):          " + graph.getMemoryBytes() + " байт");
+        if (metroMap.getRouteCache() != null) {
+            out.line("Кэш маршрутов:           " + metroMap.getRouteCache());
+        }
+        if (QueryMetrics.isEnabled()) {
+            StringBuilder metrics = new StringBuilder();
+            QueryMetrics.appendTo(metrics);
+            out.line("");
+            out.line("=== МЕТРИКИ ЗАПРОСОВ ===");
+            metrics.toString().lines().forEach(out::line);
+        }
+        out.line("");
+
+        StringBuilder header = new StringBuilder("       ");
+        StringBuilder rule = new StringBuilder("       ");
+        for (int j = 0; j < Math.min(5, totalStations); j++) {
+            header.append(String.format("  [%2d]  ", j));
+            rule.append("-------");
+        }
+        out.line(header.toString());
+        out.line(rule.toString());
+
+        // Строки матрицы восстанавливаются из CSR по требованию
+        for (int i = 0; i < Math.min(5, totalStations); i++) {
+            StringBuilder row = new StringBuilder(String.format("[%2d] | ", i));
+            for (int j = 0; j < Math.min(5, totalStations); j++) {
+                int weight = graph.getWeight(i, j);
+                if (i == j) {
+                    row.append(String.format("  %2s   ", "0"));
+                } else if (weight >= CsrGraph.INF) {
+                    row.append(String.format("  %2s   ", "∞"));
+                } else {
+                    row.append(String.format("  %2d   ", weight));
+                }
+            }
+            out.line(row.toString());
+        }
+
+        out.line("");
+        out.line("=== ПРИМЕР СТАНЦИЙ ===");
+        // Используем Stream API для отображения первых 5 станций
+        IntStream.range(0, Math.min(5, totalStations))
+                .forEach(i -> out.line(i + ": " + metroMap.getStation(i)));
+    }
+
+    /**
+     * Выводит список станций по линиям. Выполняется в фоновом потоке.
+     *
+     * @param out задача, в которую пишутся строки отчета
+     */
+    private void writeStationList(ReportTask out) {
+        out.line("=== ВСЕ СТАНЦИИ МЕТРО СПб ===");
+        out.line("");
+
+        List<Station> stations = metroMap.getStations();
+        out.line("Всего станций: " + stations.size());
+        out.line("");
+        logger.info("Total stations in system: {}", stations.size());
+
+        // Станции берутся из индекса линий, без фильтрации всего списка для каждой линии
+        LineIndex lineIndex = metroMap.getLineIndex();
+        for (int lineNum : lineIndex.getLineNumbers()) {
+            out.line("--- Линия " + lineNum + " ---");
+
+            int[] lineStations = lineIndex.getStationIds(lineNum);
+            for (int id : lineStations) {
+                out.line("  " + stations.get(id).getName());
+            }
+            out.line("Всего на линии: " + lineStations.length);
+            out.line("");
+            logger.debug("Line {}: {} stations", lineNum, lineStations.length);
+        }
+    }
+
+    /**
+     * Запускает отчет в фоновом потоке, отменяя предыдущий.
+     * Вызывается из потока JavaFX.
+     *
+     * @param description название задачи для строки состояния
+     * @param body код, формирующий строки отчета
+     */
+    private void runReport(String description, ReportBody body) {
+        cancelCurrentTask();
+        output.getItems().clear();
+        ReportTask task = new ReportTask(body);
+        currentTask = task;
+        status.setText(description + "...");
+
+        long startTime = System.nanoTime();
+        task.setOnSucceeded(e -> {
+            status.setText(description + ": готово за " + (System.nanoTime() - startTime) / 1_000_000 + " мс");
+            logger.debug("{} finished", description);
+        });
+        task.setOnCancelled(e -> status.setText(description + ": отменено"));
+        task.setOnFailed(e -> {
+            Throwable error = task.getException();
+            logger.error("{} failed", description, error);
+            status.setText(description + ": ошибка - " + error.getMessage());
+        });
+        worker.execute(task);
+    }
+
+    private void cancelCurrentTask() {
+        if (currentTask != null) {
+            currentTask.cancel();
+            currentTask = null;
+        }
+    }
+
+    /**
+     * Заменяет содержимое списка результатов одним сообщением
+     */
+    private void showMessage(String message) {
+        cancelCurrentTask();
+        output.getItems().setAll(List.of(message));
+        status.setText("");
+    }
+
+    /**
+     * Код фонового отчета
+     */
+    @FunctionalInterface
+    private interface ReportBody {
+        void write(ReportTask out);
+    }
+
+    /**
+     * Фоновая задача отчета. Строки копятся в порции и передаются
+     * в поток JavaFX по CHUNK_LINES штук, поэтому длинный отчет появляется
+     * постепенно и не загружает поток интерфейса. Отмененная задача
+     * прекращает работу на следующей строке, а её порции, уже поставленные
+     * в очередь, не попадают в список.
+     */
+    private final class ReportTask extends Task<Void> {
+        private final ReportBody body;
+        private List<String> pending = new ArrayList<>(CHUNK_LINES);
+
+        ReportTask(ReportBody body) {
+            this.body = body;
+        }
+
+        @Override
+        protected Void call() {
+            body.write(this);
+            flush();
+            return null;
+        }
+
+        /**
+         * Добавляет строку отчета
+         *
+         * @param text строка без перевода строки
+         * @throws CancellationException если задача отменена
+         */
+        void line(String text) {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            pending.add(text);
+            if (pending.size() >= CHUNK_LINES) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<String> chunk = pending;
+            pending = new ArrayList<>(CHUNK_LINES);
+            Platform.runLater(() -> {
+                if (currentTask == this) {
+                    output.getItems().addAll(chunk);
+                }
+            });
+        }
+    }
+
     /**
      * Подсчитывает количество пересадок в маршруте с использованием Stream API
      *
-     * @param pathIds список ID станций в маршруте
-     * @param metroMap карта метрополитена
+     * @param path список станций в маршруте
      * @return количество пересадок
      */
-    private int countTransfersStream(List<Integer> pathIds, MetroMap metroMap) {
-        return (int) IntStream.range(1, pathIds.size())
-                .filter(i -> metroMap.getStation(pathIds.get(i)).getLine()
-                        != metroMap.getStation(pathIds.get(i-1)).getLine())
+    private int countTransfersStream(List<Station> path) {
+        return (int) IntStream.range(1, path.size())
+                .filter(i -> path.get(i).getLine() != path.get(i - 1).getLine())
                 .count();
     }
 
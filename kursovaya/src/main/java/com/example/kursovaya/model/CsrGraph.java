@@ -0,0 +1,413 @@
+package com.example.kursovaya.model;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Неизменяемое представление графа метрополитена в формате CSR
+ * (compressed sparse row).
+ * Дуги вершины v занимают диапазон [arcStart(v), arcEnd(v)) в массивах
+ * targets и weights, поэтому память растет с количеством ребер,
+ * а не с квадратом количества станций.
+ * Каждое соединение хранится как две встречные дуги, дуги вершины
+ * отсортированы по номеру соседа, параллельные ребра схлопнуты в одно
+ * с минимальным весом.
+ * Массивы хранятся в буферах {@link IntBuffer}: обычно это обертки над
+ * массивами в куче, а граф, загруженный из бинарного файла, работает прямо
+ * с отображенной в память областью файла, без копирования.
+ * <p>
+ * Граф с оперативными изменениями ({@link GraphOverlay}) разделяет буферы
+ * с базовым графом и хранит только отсортированный список измененных дуг
+ * с новыми весами. Дуга закрытой станции или перегона остается на месте
+ * и получает вес {@link #INF}: сумма расстояния и INF никогда не меньше
+ * текущей оценки, поэтому поиски, сравнивающие оценки строго, такую дугу
+ * не используют. Алгоритмы, которые складывают веса дуг между собой,
+ * должны пропускать дуги с весом INF.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class CsrGraph {
+    /** "Бесконечность" - признак отсутствия ребра или недостижимой вершины */
+    public static final int INF = Integer.MAX_VALUE / 2;
+
+    private final int vertexCount;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final int arcCount;
+    private int maxWeight; // Для графа с изменениями считается при первом обращении, -1 - еще не посчитан
+
+    private final int[] overrideArcs;    // Измененные дуги по возрастанию, null для графа без изменений
+    private final int[] overrideWeights; // Новые веса измененных дуг, INF - дуга закрыта
+    private final BitSet closedVertices; // Закрытые станции, null если их нет
+    private final int closedArcs;
+
+    private CsrGraph(int vertexCount, IntBuffer offsets, IntBuffer targets, IntBuffer weights, int maxWeight) {
+        this(vertexCount, offsets, targets, weights, maxWeight, null, null, null);
+    }
+
+    private CsrGraph(int vertexCount, IntBuffer offsets, IntBuffer targets, IntBuffer weights, int maxWeight,
+                     int[] overrideArcs, int[] overrideWeights, BitSet closedVertices) {
+        this.vertexCount = vertexCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.arcCount = targets.limit();
+        this.maxWeight = maxWeight;
+        this.overrideArcs = overrideArcs;
+        this.overrideWeights = overrideWeights;
+        this.closedVertices = closedVertices;
+        int closed = 0;
+        if (overrideWeights != null) {
+            for (int w : overrideWeights) {
+                if (w >= INF) closed++;
+            }
+        }
+        this.closedArcs = closed;
+    }
+
+    /**
+     * Создает граф поверх готовых буферов без копирования, например
+     * поверх областей файла, отображенных в память. Проверяются только
+     * размеры буферов и границы массива смещений, чтобы не читать
+     * весь файл при открытии.
+     *
+     * @param vertexCount количество вершин
+     * @param offsets смещения строк, vertexCount + 1 значение
+     * @param targets соседние вершины дуг
+     * @param weights веса дуг
+     * @param maxWeight максимальный вес дуги
+     * @return граф, использующий переданные буферы
+     * @throws IllegalArgumentException если размеры буферов не согласованы
+     */
+    public static CsrGraph wrap(int vertexCount, IntBuffer offsets, IntBuffer targets, IntBuffer weights, int maxWeight) {
+        if (offsets.limit() != vertexCount + 1 || targets.limit() != weights.limit()) {
+            throw new IllegalArgumentException("Inconsistent CSR buffers: " + offsets.limit() + " offsets, "
+                    + targets.limit() + " targets, " + weights.limit() + " weights for " + vertexCount + " vertices");
+        }
+        if (offsets.get(0) != 0 || offsets.get(vertexCount) != targets.limit()) {
+            throw new IllegalArgumentException("CSR offsets do not cover " + targets.limit() + " arcs");
+        }
+        return new CsrGraph(vertexCount, offsets, targets, weights, maxWeight);
+    }
+
+    /**
+     * Строит CSR-граф из списка неориентированных ребер
+     *
+     * @param vertexCount количество вершин
+     * @param from массив начальных вершин ребер
+     * @param to массив конечных вершин ребер
+     * @param weight массив весов ребер
+     * @param edgeCount количество значимых элементов в массивах
+     * @return построенный граф
+     * @throws IllegalArgumentException если ребро ссылается на несуществующую вершину
+     *         или имеет отрицательный вес
+     */
+    public static CsrGraph fromEdges(int vertexCount, int[] from, int[] to, int[] weight, int edgeCount) {
+        int[] degree = new int[vertexCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            int u = from[i];
+            int v = to[i];
+            if (u < 0 || u >= vertexCount || v < 0 || v >= vertexCount) {
+                throw new IllegalArgumentException("Edge " + u + " -> " + v
+                        + " references a station outside [0, " + vertexCount + ")");
+            }
+            if (weight[i] < 0) {
+                throw new IllegalArgumentException("Edge " + u + " -> " + v + " has negative weight " + weight[i]);
+            }
+            if (u == v) continue; // Петли не влияют на кратчайшие пути
+            degree[u]++;
+            degree[v]++;
+        }
+
+        // Префиксные суммы степеней дают границы строк
+        int[] start = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            start[v + 1] = start[v] + degree[v];
+        }
+
+        // Дуга упаковывается в long: старшие 32 бита - сосед, младшие - вес.
+        // Сортировка строки по такому ключу упорядочивает соседей и ставит
+        // минимальный вес параллельных ребер первым.
+        long[] arcs = new long[start[vertexCount]];
+        int[] fill = Arrays.copyOf(start, vertexCount);
+        for (int i = 0; i < edgeCount; i++) {
+            int u = from[i];
+            int v = to[i];
+            if (u == v) continue;
+            arcs[fill[u]++] = ((long) v << 32) | weight[i];
+            arcs[fill[v]++] = ((long) u << 32) | weight[i];
+        }
+
+        int[] offsets = new int[vertexCount + 1];
+        int[] targets = new int[arcs.length];
+        int[] weights = new int[arcs.length];
+        int out = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v] = out;
+            Arrays.sort(arcs, start[v], start[v + 1]);
+            int lastTarget = -1;
+            for (int a = start[v]; a < start[v + 1]; a++) {
+                int target = (int) (arcs[a] >>> 32);
+                if (target == lastTarget) continue;
+                targets[out] = target;
+                weights[out] = (int) arcs[a];
+                lastTarget = target;
+                out++;
+            }
+        }
+        offsets[vertexCount] = out;
+
+        if (out < arcs.length) {
+            targets = Arrays.copyOf(targets, out);
+            weights = Arrays.copyOf(weights, out);
+        }
+        int maxWeight = 0;
+        for (int w : weights) {
+            maxWeight = Math.max(maxWeight, w);
+        }
+        return new CsrGraph(vertexCount, IntBuffer.wrap(offsets), IntBuffer.wrap(targets), IntBuffer.wrap(weights),
+                maxWeight);
+    }
+
+    /**
+     * Создает граф с измененными весами части дуг поверх буферов этого графа.
+     * Стоимость - O(k) по количеству измененных дуг, буферы не копируются.
+     *
+     * @param arcs номера измененных дуг по строгому возрастанию
+     * @param arcWeights новые веса дуг, INF - дуга закрыта
+     * @param closed закрытые станции, все дуги которых есть в arcs с весом INF, или null
+     * @return граф с изменениями
+     * @throws IllegalStateException если этот граф сам содержит изменения
+     */
+    CsrGraph withOverrides(int[] arcs, int[] arcWeights, BitSet closed) {
+        if (overrideArcs != null) {
+            throw new IllegalStateException("Overrides are applied to the base graph only");
+        }
+        return new CsrGraph(vertexCount, offsets, targets, weights, -1, arcs, arcWeights, closed);
+    }
+
+    /**
+     * Строит обычный граф без закрытых дуг и без ссылок на базовый граф
+     * за O(V + E), например для записи в файл
+     *
+     * @return этот же граф, если изменений нет, иначе новый граф
+     */
+    public CsrGraph compact() {
+        if (overrideArcs == null) {
+            return this;
+        }
+        int[] newOffsets = new int[vertexCount + 1];
+        int[] newTargets = new int[arcCount - closedArcs];
+        int[] newWeights = new int[newTargets.length];
+        int out = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            newOffsets[v] = out;
+            for (int a = arcStart(v), last = arcEnd(v); a < last; a++) {
+                int w = weight(a);
+                if (w >= INF) continue;
+                // Дуги остаются отсортированными по соседу
+                newTargets[out] = target(a);
+                newWeights[out] = w;
+                out++;
+            }
+        }
+        newOffsets[vertexCount] = out;
+        return new CsrGraph(vertexCount, IntBuffer.wrap(newOffsets), IntBuffer.wrap(newTargets),
+                IntBuffer.wrap(newWeights), getMaxWeight());
+    }
+
+    /**
+     * Проверяет, что граф получен из того же базового графа и каждая
+     * его дуга не короче соответствующей дуги другого графа (изменения
+     * только закрывали дуги и увеличивали веса). Тогда нижние оценки
+     * расстояний, посчитанные для другого графа, верны и для этого.
+     * Стоимость - O(k log k) по количеству измененных дуг обоих графов.
+     *
+     * @param other граф для сравнения
+     * @return true если ни одна дуга этого графа не короче дуги другого
+     */
+    public boolean dominates(CsrGraph other) {
+        if (other == this) return true;
+        if (targets != other.targets || weights != other.weights) return false;
+        return notShorterAt(overrideArcs, other) && notShorterAt(other.overrideArcs, other);
+    }
+
+    private boolean notShorterAt(int[] arcs, CsrGraph other) {
+        if (arcs == null) return true;
+        for (int arc : arcs) {
+            if (weight(arc) < other.weight(arc)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает количество вершин (станций)
+     *
+     * @return количество вершин
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Возвращает количество неориентированных ребер (соединений) без закрытых
+     *
+     * @return количество ребер
+     */
+    public int getEdgeCount() {
+        return (arcCount - closedArcs) / 2;
+    }
+
+    /**
+     * Возвращает количество ориентированных дуг (по две на ребро),
+     * включая закрытые: это размер диапазона номеров дуг
+     *
+     * @return количество дуг
+     */
+    public int getArcCount() {
+        return arcCount;
+    }
+
+    /**
+     * Возвращает максимальный вес ребра
+     *
+     * @return максимальный вес открытого ребра или 0 для графа без ребер
+     */
+    public int getMaxWeight() {
+        int result = maxWeight;
+        if (result < 0) {
+            result = 0;
+            for (int a = 0; a < arcCount; a++) {
+                int w = weight(a);
+                if (w < INF && w > result) result = w;
+            }
+            maxWeight = result;
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает индекс первой дуги вершины
+     *
+     * @param v номер вершины
+     * @return индекс первой дуги
+     */
+    public int arcStart(int v) {
+        return offsets.get(v);
+    }
+
+    /**
+     * Возвращает индекс, следующий за последней дугой вершины
+     *
+     * @param v номер вершины
+     * @return индекс конца диапазона дуг (не включительно)
+     */
+    public int arcEnd(int v) {
+        return offsets.get(v + 1);
+    }
+
+    /**
+     * Возвращает вершину, в которую ведет дуга
+     *
+     * @param arc индекс дуги
+     * @return номер соседней вершины
+     */
+    public int target(int arc) {
+        return targets.get(arc);
+    }
+
+    /**
+     * Возвращает вес дуги
+     *
+     * @param arc индекс дуги
+     * @return вес в минутах или INF, если дуга закрыта
+     */
+    public int weight(int arc) {
+        if (overrideArcs != null) {
+            int i = Arrays.binarySearch(overrideArcs, arc);
+            if (i >= 0) return overrideWeights[i];
+        }
+        return weights.get(arc);
+    }
+
+    /**
+     * Проверяет, закрыта ли станция: все её дуги имеют вес INF
+     *
+     * @param v номер вершины
+     * @return true если станция закрыта
+     */
+    public boolean isClosed(int v) {
+        return closedVertices != null && closedVertices.get(v);
+    }
+
+    /**
+     * Возвращает степень вершины (количество соседей, включая закрытые дуги)
+     *
+     * @param v номер вершины
+     * @return степень вершины
+     */
+    public int degree(int v) {
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+
+    /**
+     * Находит дугу между двумя вершинами двоичным поиском по строке
+     *
+     * @param from начальная вершина
+     * @param to конечная вершина
+     * @return индекс дуги или -1 если вершины не соединены
+     */
+    public int findArc(int from, int to) {
+        int lo = offsets.get(from);
+        int hi = offsets.get(from + 1) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int t = targets.get(mid);
+            if (t < to) {
+                lo = mid + 1;
+            } else if (t > to) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Возвращает вес соединения так, как его показывала матрица смежности:
+     * 0 для вершины самой с собой, INF если соединения нет
+     *
+     * @param from начальная вершина
+     * @param to конечная вершина
+     * @return вес ребра, 0 или INF
+     */
+    public int getWeight(int from, int to) {
+        if (from == to) return 0;
+        int arc = findArc(from, to);
+        return arc == -1 ? INF : weight(arc);
+    }
+
+    /**
+     * Проверяет, лежат ли данные графа вне кучи (в отображенном в память файле)
+     *
+     * @return true если граф использует прямые буферы
+     */
+    public boolean isOffHeap() {
+        return targets.isDirect();
+    }
+
+    /**
+     * Оценивает объем памяти, занимаемый массивами графа.
+     * Граф с изменениями учитывает и буферы, общие с базовым графом.
+     *
+     * @return приблизительный размер в байтах
+     */
+    public long getMemoryBytes() {
+        long overrides = overrideArcs == null ? 0 : 2L * overrideArcs.length;
+        return 4L * (offsets.limit() + targets.limit() + weights.limit() + overrides);
+    }
+}
\ No newline at end of file
@@ -1,15 +1,26 @@
 package com.example.kursovaya.model;
 
+import com.example.kursovaya.routing.DijkstraEngine;
 import com.example.kursovaya.util.DijkstraResult;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.QueryMetrics;
+import com.example.kursovaya.util.SearchState;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.*;
-
 /**
  * Класс, представляющий граф метрополитена.
- * Использует списки смежности для хранения соединений между станциями.
+ * Накапливает соединения между станциями в примитивных буферах и
+ * один раз строит из них неизменяемое CSR-представление ({@link CsrGraph}),
+ * которое используют все алгоритмы поиска.
+ * Оперативные изменения (закрытые станции и перегоны, задержки) хранятся
+ * отдельно от базового графа ({@link GraphOverlay}); при каждом изменении
+ * публикуется новый CSR-граф, разделяющий буферы с базовым, поэтому
+ * публикация стоит O(k log k) по количеству изменений, а уже выполняющиеся
+ * поиски дорабатывают на прежнем графе. Изменения разрешены и для
+ * замороженного графа: заморозка запрещает только добавление ребер,
+ * а запрет изменений карты проверяет {@link MetroMap}.
  *
  * @author Student
  * @version 1.0
@@ -18,7 +29,14 @@ public class Graph {
     private static final Logger logger = LogManager.getLogger(Graph.class);
 
     private final int vertices;
-    private final List<List<Edge>> adjacency;
+    private final IntList edgeFrom;
+    private final IntList edgeTo;
+    private final IntList edgeWeight;
+    private volatile boolean frozen; // После заморозки ребра добавлять нельзя
+    private volatile DijkstraEngine engine; // Строится лениво вместе с CSR, сбрасывается при добавлении ребра
+    private final GraphOverlay overlay = new GraphOverlay(); // Изменяется только под блокировкой графа
+    private volatile boolean overlayActive;
+    private volatile DijkstraEngine overlayEngine; // Движок по графу с изменениями, null если их нет
 
     /**
      * Создает новый граф с указанным количеством вершин (станций)
@@ -26,12 +44,52 @@ public class Graph {
      * @param vertices количество вершин (станций)
      */
     public Graph(int vertices) {
-        logger.debug("Creating graph with {} vertices", vertices);
-        this.vertices = vertices;
-        adjacency = new ArrayList<>(vertices);
-        for (int i = 0; i < vertices; i++) {
-            adjacency.add(new ArrayList<>());
+        this(vertices, new IntList(), new IntList(), new IntList());
+    }
+
+    /**
+     * Создает граф поверх готового CSR-представления, например загруженного
+     * из бинарного файла. Список ребер в этом случае не хранится, поэтому
+     * граф сразу заморожен.
+     *
+     * @param csr готовый CSR-граф
+     */
+    public Graph(CsrGraph csr) {
+        this(csr.getVertexCount(), new IntList(1), new IntList(1), new IntList(1));
+        this.engine = new DijkstraEngine(csr);
+        this.frozen = true;
+    }
+
+    /**
+     * Создает граф из уже заполненных буферов ребер без их копирования.
+     * Используется потоковым загрузчиком, чтобы не держать в памяти
+     * вторую копию списка соединений. После вызова буферы принадлежат графу.
+     *
+     * @param vertices количество вершин (станций)
+     * @param edgeFrom начальные вершины ребер
+     * @param edgeTo конечные вершины ребер
+     * @param edgeWeight веса ребер
+     * @throws IllegalArgumentException если размеры буферов различаются
+     *                                  или ребро ссылается на несуществующую вершину
+     */
+    public Graph(int vertices, IntList edgeFrom, IntList edgeTo, IntList edgeWeight) {
+        logger.debug("Creating graph with {} vertices and {} edges", vertices, edgeFrom.size());
+        if (edgeTo.size() != edgeFrom.size() || edgeWeight.size() != edgeFrom.size()) {
+            throw new IllegalArgumentException("Edge buffers have different sizes: " + edgeFrom.size()
+                    + ", " + edgeTo.size() + ", " + edgeWeight.size());
+        }
+        for (int i = 0; i < edgeFrom.size(); i++) {
+            int from = edgeFrom.get(i);
+            int to = edgeTo.get(i);
+            if (from < 0 || from >= vertices || to < 0 || to >= vertices) {
+                throw new IllegalArgumentException("Edge " + from + " -> " + to
+                        + " references a station outside [0, " + vertices + ")");
+            }
         }
+        this.vertices = vertices;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeWeight = edgeWeight;
     }
 
     /**
@@ -40,65 +98,265 @@ public class Graph {
      * @param from ID начальной станции
      * @param to ID конечной станции
      * @param weight вес ребра (время в минутах)
+     * @throws IllegalStateException если граф заморожен
      */
-    public void addEdge(int from, int to, int weight) {
-        logger.trace("Adding edge: {} -> {} (weight {})", from, to, weight);
-        adjacency.get(from).add(new Edge(from, to, weight));
-        adjacency.get(to).add(new Edge(to, from, weight));
+    public synchronized void addEdge(int from, int to, int weight) {
+        if (logger.isTraceEnabled()) {
+            logger.trace("Adding edge: {} -> {} (weight {})", from, to, weight);
+        }
+        if (frozen) {
+            throw new IllegalStateException("Graph is frozen and cannot be modified");
+        }
+        if (from < 0 || from >= vertices || to < 0 || to >= vertices) {
+            throw new IllegalArgumentException("Edge " + from + " -> " + to
+                    + " references a station outside [0, " + vertices + ")");
+        }
+        edgeFrom.add(from);
+        edgeTo.add(to);
+        edgeWeight.add(weight);
+        engine = null;
+        overlayEngine = null;
     }
 
     /**
-     * Выполняет алгоритм Дейкстры для поиска кратчайшего пути
-     * Использует списки смежности и очередь с приоритетами
-     *
-     * @param start ID начальной станции
-     * @param end ID конечной станции
-     * @return результат алгоритма Дейкстры
+     * Запрещает дальнейшее добавление ребер и сразу строит CSR-граф,
+     * чтобы его можно было читать из нескольких потоков
      */
-    public DijkstraResult dijkstra(int start, int end) {
-        logger.debug("Running Dijkstra algorithm (adjacency lists) from {} to {}", start, end);
-        long startTime = System.nanoTime();
-
-        int[] dist = new int[vertices];
-        int[] prev = new int[vertices];
+    public synchronized void freeze() {
+        frozen = true;
+        getEngine();
+    }
 
-        Arrays.fill(dist, Integer.MAX_VALUE);
-        Arrays.fill(prev, -1);
+    /**
+     * Проверяет, заморожен ли граф
+     *
+     * @return true если ребра больше нельзя добавлять
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
 
-        dist[start] = 0;
+    /**
+     * Возвращает количество вершин графа
+     *
+     * @return количество вершин (станций)
+     */
+    public int getVertexCount() {
+        return vertices;
+    }
 
-        PriorityQueue<int[]> pq = new PriorityQueue<>(Comparator.comparingInt(a -> a[1]));
-        pq.add(new int[]{start, 0});
+    /**
+     * Возвращает CSR-представление графа с учетом оперативных изменений,
+     * при необходимости строя его из накопленных ребер
+     *
+     * @return неизменяемый CSR-граф
+     */
+    public CsrGraph getCsr() {
+        return getEngine().getGraph();
+    }
 
-        int iterations = 0;
-        while (!pq.isEmpty()) {
-            int[] u = pq.poll();
-            int station = u[0];
-            int d = u[1];
+    /**
+     * Возвращает CSR-представление графа без оперативных изменений
+     *
+     * @return неизменяемый базовый CSR-граф
+     */
+    public CsrGraph getBaseCsr() {
+        return getBaseEngine().getGraph();
+    }
 
-            if (d > dist[station]) continue;
-            if (station == end) {
-                logger.trace("Reached destination vertex at iteration {}", iterations);
-                break;
+    /**
+     * Возвращает движок поиска кратчайших путей по текущему CSR-графу
+     * с учетом оперативных изменений
+     *
+     * @return движок алгоритма Дейкстры
+     */
+    public DijkstraEngine getEngine() {
+        DijkstraEngine result = overlayEngine;
+        if (result != null) {
+            return result;
+        }
+        result = getBaseEngine();
+        if (!overlayActive) {
+            return result;
+        }
+        synchronized (this) {
+            // Граф с изменениями сбрасывается при добавлении ребра и строится заново
+            if (overlayEngine == null && overlayActive) {
+                overlayEngine = new DijkstraEngine(overlay.apply(getBaseEngine().getGraph()));
             }
+            return overlayEngine != null ? overlayEngine : getBaseEngine();
+        }
+    }
 
-            for (Edge e : adjacency.get(station)) {
-                int alt = dist[station] + e.getWeight();
-                if (alt < dist[e.getTo()]) {
-                    dist[e.getTo()] = alt;
-                    prev[e.getTo()] = station;
-                    pq.add(new int[]{e.getTo(), alt});
+    private DijkstraEngine getBaseEngine() {
+        DijkstraEngine result = engine;
+        if (result == null) {
+            synchronized (this) {
+                result = engine;
+                if (result == null) {
+                    CsrGraph csr = CsrGraph.fromEdges(vertices, edgeFrom.rawArray(), edgeTo.rawArray(),
+                            edgeWeight.rawArray(), edgeFrom.size());
+                    logger.debug("Built CSR graph: {} vertices, {} arcs, {} bytes",
+                            vertices, csr.getArcCount(), csr.getMemoryBytes());
+                    result = new DijkstraEngine(csr);
+                    engine = result;
                 }
             }
-            iterations++;
         }
+        return result;
+    }
 
-        long endTime = System.nanoTime();
-        long duration = (endTime - startTime) / 1000;
+    /**
+     * Закрывает или открывает станцию: все соединения закрытой станции
+     * получают вес {@link CsrGraph#INF}
+     *
+     * @param v номер вершины
+     * @param closed true чтобы закрыть, false чтобы открыть
+     * @return true если состояние станции изменилось
+     * @throws IllegalArgumentException если вершины нет в графе
+     */
+    public synchronized boolean setStationClosed(int v, boolean closed) {
+        checkVertex(v);
+        boolean changed = overlay.setStationClosed(v, closed);
+        if (changed) {
+            publishOverlay();
+        }
+        return changed;
+    }
+
+    /**
+     * Проверяет, закрыта ли станция
+     *
+     * @param v номер вершины
+     * @return true если станция закрыта
+     */
+    public synchronized boolean isStationClosed(int v) {
+        return overlay.isStationClosed(v);
+    }
+
+    /**
+     * Закрывает или открывает соединение между станциями
+     *
+     * @param from первая вершина
+     * @param to вторая вершина
+     * @param closed true чтобы закрыть, false чтобы открыть
+     * @return true если состояние соединения изменилось
+     * @throws IllegalArgumentException если вершины не соединены в базовом графе
+     */
+    public synchronized boolean setEdgeClosed(int from, int to, boolean closed) {
+        checkEdge(from, to);
+        boolean changed = overlay.setEdgeClosed(from, to, closed);
+        if (changed) {
+            publishOverlay();
+        }
+        return changed;
+    }
+
+    /**
+     * Проверяет, закрыто ли соединение между станциями
+     *
+     * @param from первая вершина
+     * @param to вторая вершина
+     * @return true если соединение закрыто
+     */
+    public synchronized boolean isEdgeClosed(int from, int to) {
+        return overlay.isEdgeClosed(from, to);
+    }
+
+    /**
+     * Заменяет время в пути по соединению, например на время задержки
+     *
+     * @param from первая вершина
+     * @param to вторая вершина
+     * @param weight новый вес в минутах или -1, чтобы вернуть вес базового графа
+     * @return прежний вес с учетом изменений
+     * @throws IllegalArgumentException если вершины не соединены в базовом графе
+     */
+    public synchronized int setEdgeWeight(int from, int to, int weight) {
+        CsrGraph base = getBaseCsr();
+        int arc = checkEdge(from, to);
+        int previous = overlay.effectiveWeight(base, from, arc);
+        overlay.setWeight(from, to, weight);
+        publishOverlay();
+        return previous;
+    }
+
+    /**
+     * Возвращает действующий вес соединения с учетом изменений
+     *
+     * @param from первая вершина
+     * @param to вторая вершина
+     * @return вес в минутах или -1, если соединение или одна из станций закрыты
+     * @throws IllegalArgumentException если вершины не соединены в базовом графе
+     */
+    public synchronized int getEffectiveWeight(int from, int to) {
+        return overlay.effectiveWeight(getBaseCsr(), from, checkEdge(from, to));
+    }
+
+    /**
+     * Отменяет все оперативные изменения
+     */
+    public synchronized void clearOverlay() {
+        overlay.clear();
+        publishOverlay();
+    }
+
+    /**
+     * Проверяет, есть ли оперативные изменения
+     *
+     * @return true если граф отличается от базового
+     */
+    public boolean hasOverlay() {
+        return overlayActive;
+    }
+
+    /**
+     * Строит и публикует граф с текущими изменениями
+     */
+    private void publishOverlay() {
+        overlayActive = !overlay.isEmpty();
+        overlayEngine = overlayActive ? new DijkstraEngine(overlay.apply(getBaseCsr())) : null;
+        logger.debug("Graph overlay updated, {} connections open", getCsr().getEdgeCount());
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= vertices) {
+            throw new IllegalArgumentException("Station " + v + " is outside [0, " + vertices + ")");
+        }
+    }
+
+    private int checkEdge(int from, int to) {
+        checkVertex(from);
+        checkVertex(to);
+        int arc = getBaseCsr().findArc(from, to);
+        if (arc < 0) {
+            throw new IllegalArgumentException("Stations " + from + " and " + to + " are not connected");
+        }
+        return arc;
+    }
+
+    /**
+     * Выполняет алгоритм Дейкстры для поиска кратчайшего пути
+     * Использует CSR-представление графа и индексированную кучу
+     * с переиспользуемым состоянием поиска. Недостижимые вершины
+     * получают расстояние {@link CsrGraph#INF}.
+     *
+     * @param start ID начальной станции
+     * @param end ID конечной станции
+     * @return результат алгоритма Дейкстры
+     */
+    public DijkstraResult dijkstra(int start, int end) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Running Dijkstra algorithm (CSR) from {} to {}", start, end);
+        }
+        long started = QueryMetrics.start();
+        long allocated = QueryMetrics.allocatedBytes();
 
-        logger.info("Dijkstra algorithm (adjacency lists) completed in {} μs, {} iterations",
-                duration, iterations);
+        SearchState state = getEngine().search(start, end);
+        DijkstraResult result = state.toResult();
 
-        return new DijkstraResult(dist, prev);
+        QueryMetrics.record(QueryMetrics.Operation.DIJKSTRA, started, allocated,
+                state.getSettledCount(), state.getRelaxedCount());
+        return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.example.kursovaya.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Оперативные изменения поверх неизменяемого базового CSR-графа:
+ * закрытые станции, закрытые перегоны и измененное время в пути.
+ * Базовый граф не меняется; по списку изменений строится граф, который
+ * разделяет буферы с базовым и хранит только измененные дуги: закрытые
+ * с весом {@link CsrGraph#INF}, задержанные с новым весом
+ * (см. {@link CsrGraph#withOverrides(int[], int[], BitSet)}).
+ * Изменения хранятся разреженно: их обычно единицы на всю сеть, поэтому
+ * публикация изменения не зависит от размера графа.
+ * Класс не потокобезопасен, синхронизацию обеспечивает {@link Graph}.
+ *
+ * @author Student
+ * @version 1.0
+ */
+final class GraphOverlay {
+    private final BitSet closedStations = new BitSet();
+    private final Set<Long> closedEdges = new HashSet<>();
+    private final Map<Long, Integer> weights = new HashMap<>();
+
+    /**
+     * Упаковывает неориентированное ребро в ключ
+     */
+    private static long key(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    boolean isEmpty() {
+        return closedStations.isEmpty() && closedEdges.isEmpty() && weights.isEmpty();
+    }
+
+    boolean setStationClosed(int v, boolean closed) {
+        boolean was = closedStations.get(v);
+        closedStations.set(v, closed);
+        return was != closed;
+    }
+
+    boolean isStationClosed(int v) {
+        return closedStations.get(v);
+    }
+
+    boolean setEdgeClosed(int a, int b, boolean closed) {
+        return closed ? closedEdges.add(key(a, b)) : closedEdges.remove(key(a, b));
+    }
+
+    boolean isEdgeClosed(int a, int b) {
+        return closedEdges.contains(key(a, b));
+    }
+
+    /**
+     * Задает вес ребра; отрицательное значение возвращает вес базового графа
+     */
+    void setWeight(int a, int b, int weight) {
+        if (weight < 0) {
+            weights.remove(key(a, b));
+        } else {
+            weights.put(key(a, b), weight);
+        }
+    }
+
+    void clear() {
+        closedStations.clear();
+        closedEdges.clear();
+        weights.clear();
+    }
+
+    /**
+     * Возвращает действующий вес дуги или -1, если дуга закрыта
+     */
+    int effectiveWeight(CsrGraph base, int u, int arc) {
+        int v = base.target(arc);
+        if (closedStations.get(u) || closedStations.get(v)) {
+            return -1;
+        }
+        if (closedEdges.isEmpty() && weights.isEmpty()) {
+            return base.weight(arc);
+        }
+        long key = key(u, v);
+        if (closedEdges.contains(key)) {
+            return -1;
+        }
+        Integer weight = weights.get(key);
+        return weight != null ? weight : base.weight(arc);
+    }
+
+    /**
+     * Строит граф с примененными изменениями за O(k log k) по количеству
+     * измененных дуг, не копируя базовый граф
+     *
+     * @param base базовый граф
+     * @return новый граф или сам базовый граф, если изменений нет
+     */
+    CsrGraph apply(CsrGraph base) {
+        if (isEmpty()) {
+            return base;
+        }
+        // Изменение дуги упаковывается в long: старшие 32 бита - номер дуги,
+        // младшие - вес. После сортировки последнее изменение дуги - наибольшее,
+        // то есть закрытие перекрывает новое время в пути.
+        Changes changes = new Changes();
+        for (int v = closedStations.nextSetBit(0); v >= 0; v = closedStations.nextSetBit(v + 1)) {
+            for (int a = base.arcStart(v), last = base.arcEnd(v); a < last; a++) {
+                changes.edge(base, v, base.target(a), CsrGraph.INF);
+            }
+        }
+        for (long key : closedEdges) {
+            changes.edge(base, (int) (key >>> 32), (int) key, CsrGraph.INF);
+        }
+        for (Map.Entry<Long, Integer> entry : weights.entrySet()) {
+            long key = entry.getKey();
+            changes.edge(base, (int) (key >>> 32), (int) key, entry.getValue());
+        }
+
+        long[] packed = changes.packed;
+        Arrays.sort(packed, 0, changes.size);
+        int[] arcs = new int[changes.size];
+        int[] arcWeights = new int[changes.size];
+        int count = 0;
+        for (int i = 0; i < changes.size; i++) {
+            int arc = (int) (packed[i] >>> 32);
+            if (count > 0 && arcs[count - 1] == arc) {
+                count--;
+            }
+            arcs[count] = arc;
+            arcWeights[count] = (int) packed[i];
+            count++;
+        }
+        BitSet closed = closedStations.isEmpty() ? null : (BitSet) closedStations.clone();
+        return base.withOverrides(Arrays.copyOf(arcs, count), Arrays.copyOf(arcWeights, count), closed);
+    }
+
+    /**
+     * Растущий буфер изменений дуг
+     */
+    private static final class Changes {
+        private long[] packed = new long[16];
+        private int size;
+
+        /**
+         * Добавляет изменение обеих дуг ребра
+         */
+        void edge(CsrGraph base, int a, int b, int weight) {
+            add(base.findArc(a, b), weight);
+            add(base.findArc(b, a), weight);
+        }
+
+        private void add(int arc, int weight) {
+            if (size == packed.length) {
+                packed = Arrays.copyOf(packed, size * 2);
+            }
+            packed[size++] = ((long) arc << 32) | Math.min(weight, CsrGraph.INF);
+        }
+    }
+}
\ No newline at end of file
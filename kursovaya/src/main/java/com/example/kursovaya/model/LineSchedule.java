@@ -0,0 +1,220 @@
+package com.example.kursovaya.model;
+
+/**
+ * Расписание движения линии метро в течение суток.
+ * Сутки делятся на периоды, каждый со своим интервалом движения поездов.
+ * Внутри периода поезда отправляются от его начала через каждые
+ * headway минут; интервал 0 означает, что линия закрыта. Время в пути
+ * по перегону умножается на коэффициент скорости, заданный в тысячных
+ * в начале каждого периода и линейно меняющийся до начала следующего.
+ * <p>
+ * Время - это минуты от полуночи первых суток, значения больше 1440
+ * относятся к следующим суткам; расписание повторяется каждые сутки.
+ * Один объект расписания общий для всех станций линии, поэтому
+ * расписание сети занимает несколько сотен байт.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class LineSchedule {
+    /** Количество минут в сутках */
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    /** Коэффициент скорости, при котором время в пути не меняется */
+    public static final int NORMAL_SPEED = 1000;
+
+    private final int[] starts;
+    private final int[] headways;
+    private final int[] speeds;
+
+    /**
+     * Создает расписание из периодов
+     *
+     * @param starts начала периодов в минутах от полуночи, по возрастанию, от 0 до 1439
+     * @param headways интервал движения в каждом периоде в минутах, 0 - линия закрыта
+     * @param speeds коэффициент времени в пути в начале каждого периода в тысячных (1000 - без изменений)
+     * @throws IllegalArgumentException если периоды заданы некорректно
+     */
+    public LineSchedule(int[] starts, int[] headways, int[] speeds) {
+        if (starts.length == 0 || starts.length != headways.length || starts.length != speeds.length) {
+            throw new IllegalArgumentException("Schedule needs the same non-zero number of starts, headways and speeds");
+        }
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] < 0 || starts[i] >= MINUTES_PER_DAY || (i > 0 && starts[i] <= starts[i - 1])) {
+                throw new IllegalArgumentException("Schedule period starts must be increasing minutes of day: " + starts[i]);
+            }
+            if (headways[i] < 0 || speeds[i] <= 0) {
+                throw new IllegalArgumentException("Invalid headway " + headways[i] + " or speed " + speeds[i]
+                        + " at minute " + starts[i]);
+            }
+        }
+        this.starts = starts.clone();
+        this.headways = headways.clone();
+        this.speeds = speeds.clone();
+    }
+
+    /**
+     * Создает расписание с постоянным интервалом круглые сутки
+     *
+     * @param headway интервал движения в минутах
+     * @return расписание
+     */
+    public static LineSchedule constant(int headway) {
+        return new LineSchedule(new int[]{0}, new int[]{headway}, new int[]{NORMAL_SPEED});
+    }
+
+    /**
+     * Возвращает количество периодов
+     *
+     * @return количество периодов
+     */
+    public int getPeriodCount() {
+        return starts.length;
+    }
+
+    /**
+     * Возвращает начало периода
+     *
+     * @param period номер периода
+     * @return минута от полуночи
+     */
+    public int getStart(int period) {
+        return starts[period];
+    }
+
+    /**
+     * Возвращает интервал движения в периоде
+     *
+     * @param period номер периода
+     * @return интервал в минутах, 0 - линия закрыта
+     */
+    public int getHeadway(int period) {
+        return headways[period];
+    }
+
+    /**
+     * Возвращает коэффициент времени в пути в начале периода
+     *
+     * @param period номер периода
+     * @return коэффициент в тысячных
+     */
+    public int getSpeed(int period) {
+        return speeds[period];
+    }
+
+    /**
+     * Находит период, действующий в указанную минуту суток.
+     * До начала первого периода действует последний период предыдущих суток.
+     */
+    private int periodAt(int minuteOfDay) {
+        int i = starts.length - 1;
+        while (i > 0 && starts[i] > minuteOfDay) {
+            i--;
+        }
+        return starts[i] > minuteOfDay ? starts.length - 1 : i;
+    }
+
+    /**
+     * Возвращает время ближайшего отправления поезда не раньше указанного.
+     * Функция не убывает: кто пришел на платформу раньше, уедет не позже.
+     *
+     * @param time время прихода на платформу в минутах
+     * @return время отправления или CsrGraph.INF, если линия не работает никогда
+     */
+    public int nextDeparture(int time) {
+        int minuteOfDay = Math.floorMod(time, MINUTES_PER_DAY);
+        int day = time - minuteOfDay;
+        int period = periodAt(minuteOfDay);
+        // Начало периода в тех же координатах, что и minuteOfDay
+        int start = starts[period] <= minuteOfDay ? starts[period] : starts[period] - MINUTES_PER_DAY;
+
+        for (int step = 0; step <= starts.length; step++) {
+            int next = period + 1 < starts.length ? starts[period + 1] : starts[0] + MINUTES_PER_DAY;
+            int end = next + (start - starts[period]);
+            int headway = headways[period];
+            if (headway > 0) {
+                int from = Math.max(minuteOfDay, start);
+                int departure = start + (from - start + headway - 1) / headway * headway;
+                if (departure < end) {
+                    return day + departure;
+                }
+            }
+            // В этом периоде поездов больше нет, ждем следующего
+            start = end;
+            period = period + 1 < starts.length ? period + 1 : 0;
+        }
+        return CsrGraph.INF;
+    }
+
+    /**
+     * Возвращает время в пути по перегону при отправлении в указанное время
+     *
+     * @param weight время в пути по расписанию в минутах
+     * @param time время отправления в минутах
+     * @return время в пути с учетом коэффициента скорости, не меньше 1 минуты для ненулевого перегона
+     */
+    public int rideTime(int weight, int time) {
+        int minuteOfDay = Math.floorMod(time, MINUTES_PER_DAY);
+        int period = periodAt(minuteOfDay);
+        int next = period + 1 < starts.length ? period + 1 : 0;
+        int start = starts[period];
+        int length = (next == 0 ? starts[0] + MINUTES_PER_DAY : starts[next]) - start;
+        int offset = Math.floorMod(minuteOfDay - start, MINUTES_PER_DAY);
+        // Линейная интерполяция коэффициента между началами периодов
+        long speed = speeds[period] + (long) (speeds[next] - speeds[period]) * offset / length;
+        int ride = (int) ((weight * speed + NORMAL_SPEED / 2) / NORMAL_SPEED);
+        return weight > 0 ? Math.max(1, ride) : 0;
+    }
+
+    /**
+     * Проверяет свойство FIFO для перегонов до указанной длины: отправившись
+     * позже, нельзя приехать раньше. Для этого коэффициент скорости
+     * не должен убывать быстрее, чем на 1000 / maxWeight за минуту.
+     *
+     * @param maxWeight наибольшее время в пути по перегону в минутах
+     * @return true если поиск самого раннего прибытия по этому расписанию корректен
+     */
+    public boolean isFifo(int maxWeight) {
+        for (int i = 0; i < starts.length; i++) {
+            int next = i + 1 < starts.length ? i + 1 : 0;
+            int length = (next == 0 ? starts[0] + MINUTES_PER_DAY : starts[next]) - starts[i];
+            if ((long) (speeds[next] - speeds[i]) * maxWeight < -(long) NORMAL_SPEED * length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Форматирует минуты от полуночи как ЧЧ:ММ
+     *
+     * @param time время в минутах
+     * @return строка времени суток
+     */
+    public static String formatTime(int time) {
+        int minuteOfDay = Math.floorMod(time, MINUTES_PER_DAY);
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    /**
+     * Разбирает время суток в формате ЧЧ:ММ
+     *
+     * @param text строка времени
+     * @return минуты от полуночи
+     * @throws IllegalArgumentException если строка не является временем суток
+     */
+    public static int parseTime(String text) {
+        int colon = text == null ? -1 : text.indexOf(':');
+        try {
+            if (colon > 0) {
+                int hours = Integer.parseInt(text.substring(0, colon).trim());
+                int minutes = Integer.parseInt(text.substring(colon + 1).trim());
+                if (hours >= 0 && hours < 24 && minutes >= 0 && minutes < 60) {
+                    return hours * 60 + minutes;
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Сообщение ниже
+        }
+        throw new IllegalArgumentException("Invalid time of day: " + text);
+    }
+}
\ No newline at end of file
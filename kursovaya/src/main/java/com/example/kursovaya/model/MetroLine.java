@@ -2,7 +2,8 @@ package com.example.kursovaya.model;
 
 /**
  * Класс, представляющий линию метрополитена.
- * Линия имеет номер, название и цвет для отображения.
+ * Линия имеет номер, название и цвет для отображения, а также
+ * необязательное расписание движения для поиска с учетом времени суток.
  *
  * @author Student
  * @version 1.0
@@ -11,6 +12,7 @@ public class MetroLine {
     private final int number;
     private final String name;
     private final String color;
+    private final LineSchedule schedule;
 
     /**
      * Создает новую линию метро
@@ -20,9 +22,22 @@ public class MetroLine {
      * @param color цвет линии (HEX или название)
      */
     public MetroLine(int number, String name, String color) {
+        this(number, name, color, null);
+    }
+
+    /**
+     * Создает новую линию метро с расписанием движения
+     *
+     * @param number номер линии
+     * @param name название линии
+     * @param color цвет линии (HEX или название)
+     * @param schedule расписание движения или null, если оно неизвестно
+     */
+    public MetroLine(int number, String name, String color, LineSchedule schedule) {
         this.number = number;
         this.name = name;
         this.color = color;
+        this.schedule = schedule;
     }
 
     /**
@@ -51,4 +66,13 @@ public class MetroLine {
     public String getColor() {
         return color;
     }
+
+    /**
+     * Возвращает расписание движения
+     *
+     * @return расписание или null, если оно неизвестно
+     */
+    public LineSchedule getSchedule() {
+        return schedule;
+    }
 }
\ No newline at end of file
@@ -1,25 +1,74 @@
 package com.example.kursovaya.model;
 
+import com.example.kursovaya.routing.AStarSearch;
+import com.example.kursovaya.routing.AllPairsTable;
+import com.example.kursovaya.routing.BidirectionalDijkstra;
+import com.example.kursovaya.routing.ContractionHierarchy;
+import com.example.kursovaya.routing.DijkstraEngine;
+import com.example.kursovaya.routing.DistanceMatrix;
+import com.example.kursovaya.routing.KShortestPaths;
+import com.example.kursovaya.routing.LandmarkIndex;
+import com.example.kursovaya.routing.NetworkAnalytics;
+import com.example.kursovaya.routing.ParetoRouter;
+import com.example.kursovaya.routing.SearchMode;
+import com.example.kursovaya.routing.TimeDependentRouter;
 import com.example.kursovaya.util.DijkstraResult;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.Isochrone;
+import com.example.kursovaya.util.LineIndex;
+import com.example.kursovaya.util.QueryMetrics;
+import com.example.kursovaya.util.QueryMetrics.Operation;
+import com.example.kursovaya.util.RouteCache;
+import com.example.kursovaya.util.SearchState;
+import com.example.kursovaya.util.StationNameIndex;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 
 /**
  * Класс, представляющий карту метрополитена Санкт-Петербурга.
  * Содержит станции, линии, соединения и реализует алгоритмы поиска пути.
- * Использует как списки смежности, так и матрицу смежности.
+ * Соединения хранятся один раз в компактном CSR-представлении графа
+ * ({@link CsrGraph}), поэтому память растет с количеством ребер,
+ * а не с квадратом количества станций.
  *
  * @author Student
  * @version 1.0
  */
 public class MetroMap {
+    private static final Logger logger = LogManager.getLogger(MetroMap.class);
+
     private final Map<Integer, MetroLine> lines = new HashMap<>();
     private final List<Station> stations = new ArrayList<>();
-    private final Graph graph; // Для эффективных операций со списками смежности
-    private final int[][] adjacencyMatrix; // Матрица смежности
-    private static final int INF = Integer.MAX_VALUE / 2; // "Бесконечность" для матрицы
+    private final Graph graph; // Накапливает соединения и строит CSR-граф
+    private volatile boolean frozen; // Замороженную карту нельзя изменять
+    private static final int INF = CsrGraph.INF; // "Бесконечность" для расстояний
+
+    private long allPairsBudgetBytes = -1; // Бюджет памяти таблицы всех пар, -1 - режим выключен
+    private volatile AllPairsTable allPairs;
+
+    private static final int DEFAULT_LANDMARK_COUNT = 8; // Количество ориентиров для A*
+    private volatile BidirectionalDijkstra bidirectional;
+    private volatile AStarSearch aStar;
+    private volatile LandmarkIndex landmarks; // Переиспользуются, пока изменения только удлиняют дуги
+    private volatile ContractionHierarchy contractionHierarchy;
+    private Rebuild<LandmarkIndex> landmarkRebuild;       // Под блокировкой карты
+    private Rebuild<ContractionHierarchy> hierarchyRebuild; // Под блокировкой карты
+    private volatile ParetoRouter paretoRouter; // Сбрасывается при добавлении станции
+    private volatile KShortestPaths kShortestPaths;
+    private volatile StationNameIndex nameIndex; // Сбрасывается при добавлении станции
+    private volatile LineIndex lineIndex; // Сбрасывается при добавлении станции или соединения
+    private volatile TimeDependentRouter timeDependentRouter; // Сбрасывается при добавлении линии или станции
+    private volatile RouteCache<PathResult> routeCache; // Очищается при изменении карты
+
+    private static final int MODE_SLOTS = SearchMode.values().length + 1; // Режимы поиска и запрос без режима
 
     /**
      * Создает новую карту метрополитена
@@ -28,36 +77,58 @@ public class MetroMap {
      */
     public MetroMap(int stationCount) {
         graph = new Graph(stationCount);
-        adjacencyMatrix = new int[stationCount][stationCount];
+    }
 
-        // Инициализация матрицы смежности
-        for (int i = 0; i < stationCount; i++) {
-            for (int j = 0; j < stationCount; j++) {
-                if (i == j) {
-                    adjacencyMatrix[i][j] = 0; // Расстояние до себя
-                } else {
-                    adjacencyMatrix[i][j] = INF; // "Бесконечность"
-                }
-            }
-        }
+    /**
+     * Создает карту с уже загруженными соединениями.
+     * Буферы передаются графу без копирования, см. {@link Graph#Graph(int, IntList, IntList, IntList)}.
+     *
+     * @param stationCount количество станций
+     * @param edgeFrom ID начальных станций соединений
+     * @param edgeTo ID конечных станций соединений
+     * @param edgeWeight время перемещения в минутах
+     */
+    public MetroMap(int stationCount, IntList edgeFrom, IntList edgeTo, IntList edgeWeight) {
+        graph = new Graph(stationCount, edgeFrom, edgeTo, edgeWeight);
+    }
+
+    /**
+     * Создает карту поверх готового CSR-графа, например отображенного
+     * в память из бинарного файла. Соединения добавлять нельзя,
+     * линии и станции добавляются как обычно.
+     *
+     * @param csr готовый CSR-граф
+     */
+    public MetroMap(CsrGraph csr) {
+        graph = new Graph(csr);
     }
 
     /**
      * Добавляет линию метро
      *
      * @param line объект линии метро
+     * @throws IllegalStateException если карта заморожена
      */
-    public void addLine(MetroLine line) {
+    public synchronized void addLine(MetroLine line) {
+        checkNotFrozen();
         lines.put(line.getNumber(), line);
+        timeDependentRouter = null;
     }
 
     /**
      * Добавляет станцию метро
      *
      * @param station объект станции
+     * @throws IllegalStateException если карта заморожена
      */
-    public void addStation(Station station) {
+    public synchronized void addStation(Station station) {
+        checkNotFrozen();
         stations.add(station);
+        paretoRouter = null;
+        nameIndex = null;
+        lineIndex = null;
+        timeDependentRouter = null;
+        invalidateRouteCache();
     }
 
     /**
@@ -66,14 +137,62 @@ public class MetroMap {
      * @param from ID начальной станции
      * @param to ID конечной станции
      * @param weight время перемещения в минутах
+     * @throws IllegalStateException если карта заморожена
      */
-    public void addConnection(int from, int to, int weight) {
-        // Добавляем в граф (списки смежности)
+    public synchronized void addConnection(int from, int to, int weight) {
+        checkNotFrozen();
+        // Ребро неориентированное, граф сам хранит обе дуги
         graph.addEdge(from, to, weight);
+        lineIndex = null; // Порядок станций на линии задается перегонами
+        invalidateRouteCache();
+    }
 
-        // Добавляем в матрицу смежности (для двух направлений)
-        adjacencyMatrix[from][to] = weight;
-        adjacencyMatrix[to][from] = weight;
+    /**
+     * Замораживает карту: станции, линии и соединения больше не меняются,
+     * оперативные изменения (закрытия, задержки) тоже запрещены,
+     * CSR-граф строится сразу. После этого карту можно безопасно читать
+     * из нескольких потоков, см. {@link MetroSnapshot}.
+     */
+    public synchronized void freeze() {
+        if (frozen) return;
+        graph.freeze();
+        getStationNameIndex();
+        getLineIndex();
+        frozen = true;
+    }
+
+    /**
+     * Проверяет, заморожена ли карта
+     *
+     * @return true если карту нельзя изменять
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("MetroMap is frozen and cannot be modified");
+        }
+    }
+
+    /**
+     * Возвращает линию по её номеру
+     *
+     * @param number номер линии
+     * @return объект линии или null, если линия не найдена
+     */
+    public MetroLine getLine(int number) {
+        return lines.get(number);
+    }
+
+    /**
+     * Возвращает все линии метро
+     *
+     * @return неизменяемое отображение номер линии -> линия
+     */
+    public Map<Integer, MetroLine> getLines() {
+        return Collections.unmodifiableMap(lines);
     }
 
     /**
@@ -87,17 +206,120 @@ public class MetroMap {
     }
 
     /**
-     * Находит ID станции по её названию (без учета регистра)
-     * Использует Stream API для поиска
+     * Находит ID станции по её названию (без учета регистра и различия "е"/"ё").
+     * Использует хеш-индекс названий, поэтому поиск выполняется за O(1).
      *
      * @param name название станции
      * @return ID станции или -1 если не найдена
      */
     public int getStationId(String name) {
-        return IntStream.range(0, stations.size())
-                .filter(i -> stations.get(i).getName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(-1);
+        if (name == null) {
+            return -1;
+        }
+        return getStationNameIndex().find(name);
+    }
+
+    /**
+     * Находит станции, названия которых начинаются с указанного префикса
+     * (автодополнение)
+     *
+     * @param prefix начало названия
+     * @param limit максимальное количество станций
+     * @return станции в алфавитном порядке
+     */
+    public List<Station> findStationsByPrefix(String prefix, int limit) {
+        return toStationList(findStationIdsByPrefix(prefix, limit));
+    }
+
+    /**
+     * Находит ID станций, названия которых начинаются с указанного префикса.
+     * В отличие от поиска ID по названию, различает станции с одинаковыми
+     * после нормализации названиями.
+     *
+     * @param prefix начало названия
+     * @param limit максимальное количество станций
+     * @return ID станций в алфавитном порядке названий
+     */
+    public int[] findStationIdsByPrefix(String prefix, int limit) {
+        return getStationNameIndex().findByPrefix(prefix, limit);
+    }
+
+    /**
+     * Находит станции с названиями, похожими на запрос (поиск с опечатками)
+     *
+     * @param query название, возможно с опечатками
+     * @param limit максимальное количество станций
+     * @return станции по убыванию сходства названия
+     */
+    public List<Station> findSimilarStations(String query, int limit) {
+        return toStationList(findSimilarStationIds(query, limit));
+    }
+
+    /**
+     * Находит ID станций с названиями, похожими на запрос
+     *
+     * @param query название, возможно с опечатками
+     * @param limit максимальное количество станций
+     * @return ID станций по убыванию сходства названия
+     */
+    public int[] findSimilarStationIds(String query, int limit) {
+        return getStationNameIndex().findSimilar(query, limit);
+    }
+
+    /**
+     * Возвращает индекс названий станций, при необходимости строя его
+     *
+     * @return индекс названий
+     */
+    public StationNameIndex getStationNameIndex() {
+        StationNameIndex index = nameIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = nameIndex;
+                if (index == null) {
+                    List<String> names = new ArrayList<>(stations.size());
+                    for (Station station : stations) {
+                        names.add(station.getName());
+                    }
+                    index = StationNameIndex.build(names);
+                    nameIndex = index;
+                    logger.debug("Station name index built for {} stations", names.size());
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Возвращает индекс станций по линиям, при необходимости строя его
+     *
+     * @return индекс линий
+     */
+    public LineIndex getLineIndex() {
+        LineIndex index = lineIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = lineIndex;
+                if (index == null) {
+                    int[] stationLines = new int[stations.size()];
+                    for (int id = 0; id < stationLines.length; id++) {
+                        stationLines[id] = stations.get(id).getLine();
+                    }
+                    index = LineIndex.build(stationLines, getCsr());
+                    lineIndex = index;
+                    logger.debug("Line index built: {} lines, {} stations", index.getLineCount(), stationLines.length);
+                }
+            }
+        }
+        return index;
+    }
+
+    private List<Station> toStationList(int[] ids) {
+        List<Station> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(stations.get(id));
+        }
+        return result;
     }
 
     /**
@@ -110,7 +332,7 @@ public class MetroMap {
     }
 
     /**
-     * Возвращает объект графа для работы со списками смежности
+     * Возвращает объект графа, накапливающий соединения
      *
      * @return объект Graph
      */
@@ -119,73 +341,137 @@ public class MetroMap {
     }
 
     /**
-     * Возвращает матрицу смежности графа метро
+     * Возвращает CSR-представление графа метро.
+     * Заменяет прежнюю матрицу смежности: вес соединения между станциями
+     * доступен через {@link CsrGraph#getWeight(int, int)}.
      *
-     * @return двумерный массив размером [количество_станций][количество_станций]
+     * @return неизменяемый CSR-граф
      */
-    public int[][] getAdjacencyMatrix() {
-        return adjacencyMatrix;
+    public CsrGraph getCsr() {
+        return graph.getCsr();
     }
 
     /**
-     * Возвращает размер матрицы смежности (количество станций)
+     * Возвращает размер логической матрицы смежности (количество станций)
      *
      * @return количество станций в системе
      */
     public int getMatrixSize() {
-        return adjacencyMatrix.length;
+        return graph.getVertexCount();
     }
 
     /**
-     * Выполняет алгоритм Дейкстры, используя матрицу смежности
+     * Выполняет алгоритм Дейкстры по CSR-представлению графа.
+     * Название сохранено для совместимости: вместо линейного поиска минимума
+     * по матрице используется индексированная куча, поэтому сложность
+     * O((V + E) log V). Массивы результата копируются из переиспользуемого
+     * состояния поиска; для запросов без выделения памяти используйте
+     * {@link #shortestDistance(int, int)}.
      *
      * @param startId ID начальной станции
      * @param endId ID конечной станции
      * @return Результат алгоритма Дейкстры
      */
     public DijkstraResult dijkstraWithMatrix(int startId, int endId) {
-        int n = stations.size();
-        int[] dist = new int[n];
-        int[] prev = new int[n];
-        boolean[] visited = new boolean[n];
-
-        // Инициализация
-        for (int i = 0; i < n; i++) {
-            dist[i] = INF;
-            prev[i] = -1;
-        }
-        dist[startId] = 0;
-
-        // Основной цикл алгоритма Дейкстры
-        for (int i = 0; i < n; i++) {
-            // Находим непосещенную вершину с минимальным расстоянием
-            int u = -1;
-            int minDist = INF;
-            for (int j = 0; j < n; j++) {
-                if (!visited[j] && dist[j] < minDist) {
-                    minDist = dist[j];
-                    u = j;
-                }
-            }
+        return graph.getEngine().search(startId, endId).toResult();
+    }
 
-            // Если все вершины посещены или достигли конечной
-            if (u == -1 || u == endId) break;
+    /**
+     * Возвращает время кратчайшего пути между станциями без построения
+     * самого пути. Не выделяет память после первого вызова в потоке.
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @return время в минутах или CsrGraph.INF если путь не существует
+     */
+    public int shortestDistance(int startId, int endId) {
+        return graph.getEngine().distance(startId, endId);
+    }
 
-            visited[u] = true;
+    /**
+     * Возвращает время в пути от станции до всех станций карты одним поиском
+     *
+     * @param startId ID начальной станции
+     * @return массив времен в минутах по ID станции, CsrGraph.INF для недостижимых
+     * @throws IllegalArgumentException если станции нет на карте
+     */
+    public int[] shortestDistancesFrom(int startId) {
+        AllPairsTable table = getAllPairsTable();
+        if (table != null) {
+            return DistanceMatrix.manyToMany(table, new int[]{startId}, allStationIds())[0];
+        }
+        return DistanceMatrix.oneToAll(graph.getEngine(), startId);
+    }
 
-            // Обновляем расстояния до соседей (используем строку матрицы)
-            for (int v = 0; v < n; v++) {
-                if (!visited[v] && adjacencyMatrix[u][v] < INF) {
-                    int alt = dist[u] + adjacencyMatrix[u][v];
-                    if (alt < dist[v]) {
-                        dist[v] = alt;
-                        prev[v] = u;
-                    }
-                }
-            }
+    /**
+     * Возвращает время в пути от станции до нескольких станций одним поиском
+     *
+     * @param startId ID начальной станции
+     * @param endIds ID конечных станций
+     * @return массив, i-й элемент которого - время до endIds[i] или CsrGraph.INF
+     * @throws IllegalArgumentException если станции нет на карте
+     */
+    public int[] shortestDistances(int startId, int[] endIds) {
+        AllPairsTable table = getAllPairsTable();
+        if (table != null) {
+            return DistanceMatrix.manyToMany(table, new int[]{startId}, endIds)[0];
         }
+        return DistanceMatrix.oneToMany(graph.getEngine(), startId, endIds);
+    }
+
+    /**
+     * Вычисляет таблицу времен в пути между наборами станций отправления
+     * и назначения. Один поиск на каждую станцию отправления, станции
+     * отправления обрабатываются параллельно.
+     *
+     * @param startIds ID станций отправления
+     * @param endIds ID станций назначения
+     * @return строки по станциям отправления: result[i][j] - время
+     *         от startIds[i] до endIds[j] или CsrGraph.INF
+     * @throws IllegalArgumentException если станции нет на карте
+     */
+    public int[][] distanceMatrix(int[] startIds, int[] endIds) {
+        AllPairsTable table = getAllPairsTable();
+        if (table != null) {
+            return DistanceMatrix.manyToMany(table, startIds, endIds);
+        }
+        return DistanceMatrix.manyToMany(graph.getEngine(), startIds, endIds);
+    }
 
-        return new DijkstraResult(dist, prev);
+    /**
+     * Находит станции, до которых можно доехать от станции не дольше
+     * чем за указанное время. Поиск останавливается на границе времени,
+     * поэтому запрос достаточно быстр для пересчета при каждом движении ползунка.
+     *
+     * @param startId ID начальной станции
+     * @param maxMinutes наибольшее время в пути в минутах
+     * @return станции и время до них по возрастанию времени
+     * @throws IllegalArgumentException если станции нет на карте или время отрицательное
+     */
+    public Isochrone findReachable(int startId, int maxMinutes) {
+        return findReachable(new int[]{startId}, maxMinutes);
+    }
+
+    /**
+     * Находит станции, до которых можно доехать не дольше чем
+     * за указанное время хотя бы от одной из начальных станций.
+     * Все начальные станции обрабатываются одним поиском.
+     *
+     * @param startIds ID начальных станций
+     * @param maxMinutes наибольшее время в пути в минутах
+     * @return станции и время от ближайшей начальной станции по возрастанию времени
+     * @throws IllegalArgumentException если станции нет на карте или время отрицательное
+     */
+    public Isochrone findReachable(int[] startIds, int maxMinutes) {
+        return DistanceMatrix.reachableWithin(graph.getEngine(), startIds, maxMinutes);
+    }
+
+    private int[] allStationIds() {
+        int[] ids = new int[getMatrixSize()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        return ids;
     }
 
     /**
@@ -233,44 +519,863 @@ public class MetroMap {
                     (startId == -1 ? startName : endName));
         }
 
-        // Используем алгоритм Дейкстры с матрицей смежности
-        DijkstraResult result = dijkstraWithMatrix(startId, endId);
-        List<Integer> pathIds = reconstructPath(startId, endId, result);
+        return findShortestPath(startId, endId);
+    }
+
+    /**
+     * Получает кратчайший путь между станциями по их ID.
+     * Если включена таблица всех пар, ответ берется из неё,
+     * иначе выполняется поиск алгоритмом Дейкстры.
+     * Если путь не существует, возвращается пустой маршрут со временем CsrGraph.INF.
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @return Объект PathResult с информацией о пути
+     */
+    public PathResult findShortestPath(int startId, int endId) {
+        RouteCache<PathResult> cache = routeCache;
+        if (cache != null) {
+            return cache.get(routeKey(startId, endId, null), key -> computeShortestPath(startId, endId));
+        }
+        return computeShortestPath(startId, endId);
+    }
+
+    private PathResult computeShortestPath(int startId, int endId) {
+        long started = QueryMetrics.start();
+        long allocated = QueryMetrics.allocatedBytes();
+        IntList pathIds = new IntList();
+        int totalTime;
+
+        AllPairsTable table = getAllPairsTable();
+        if (table != null) {
+            table.pathInto(startId, endId, pathIds);
+            totalTime = table.distance(startId, endId);
+            PathResult result = toPathResult(pathIds, totalTime);
+            QueryMetrics.record(Operation.ALL_PAIRS, started, allocated, 0, 0);
+            return result;
+        }
+        // Путь восстанавливается прямо из состояния поиска, без копирования массивов
+        SearchState state = graph.getEngine().search(startId, endId);
+        DijkstraEngine.unwindPath(state, startId, endId, pathIds);
+        totalTime = state.dist(endId);
+
+        PathResult result = toPathResult(pathIds, totalTime);
+        QueryMetrics.record(Operation.DIJKSTRA, started, allocated, state.getSettledCount(), state.getRelaxedCount());
+        return result;
+    }
+
+    /**
+     * Получает кратчайший путь по названиям станций выбранным алгоритмом
+     *
+     * @param startName Название начальной станции
+     * @param endName Название конечной станции
+     * @param mode алгоритм поиска
+     * @return Объект PathResult с информацией о пути
+     * @throws IllegalArgumentException если станция не найдена
+     */
+    public PathResult findShortestPath(String startName, String endName, SearchMode mode) {
+        int startId = getStationId(startName);
+        int endId = getStationId(endName);
+
+        if (startId == -1 || endId == -1) {
+            throw new IllegalArgumentException("Станция не найдена: " +
+                    (startId == -1 ? startName : endName));
+        }
+
+        return findShortestPath(startId, endId, mode);
+    }
+
+    /**
+     * Получает кратчайший путь между станциями выбранным алгоритмом.
+     * Двунаправленный поиск и A* обрабатывают заметно меньше вершин,
+     * чем обычный алгоритм Дейкстры, на больших сетях. Индекс ориентиров
+     * для A* и иерархия сжатий строятся при первом запросе. После
+     * оперативного изменения они перестраиваются в фоне, а до готовности
+     * запросы этих режимов выполняются двунаправленным поиском.
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @param mode алгоритм поиска
+     * @return Объект PathResult с информацией о пути
+     */
+    public PathResult findShortestPath(int startId, int endId, SearchMode mode) {
+        RouteCache<PathResult> cache = routeCache;
+        if (cache != null) {
+            return cache.get(routeKey(startId, endId, mode), key -> computeShortestPath(startId, endId, mode));
+        }
+        return computeShortestPath(startId, endId, mode);
+    }
+
+    private PathResult computeShortestPath(int startId, int endId, SearchMode mode) {
+        long started = QueryMetrics.start();
+        long allocated = QueryMetrics.allocatedBytes();
+        IntList pathIds = new IntList();
+        int totalTime;
+        Operation operation;
+        long settled;
+        long relaxed;
+
+        switch (mode) {
+            case CONTRACTION_HIERARCHIES:
+                ContractionHierarchy hierarchy = getContractionHierarchy();
+                if (hierarchy != null) {
+                    totalTime = hierarchy.route(startId, endId, pathIds);
+                    operation = Operation.CONTRACTION_HIERARCHIES;
+                    settled = hierarchy.getLastSettledCount();
+                    relaxed = hierarchy.getLastRelaxedCount();
+                    break;
+                }
+                // Иерархия перестраивается в фоне: ищем двунаправленным поиском
+            case ASTAR:
+                AStarSearch aStar = mode == SearchMode.ASTAR ? getAStar() : null;
+                if (aStar != null) {
+                    totalTime = aStar.route(startId, endId, pathIds);
+                    operation = Operation.ASTAR;
+                    settled = aStar.getLastSettledCount();
+                    relaxed = aStar.getLastRelaxedCount();
+                    break;
+                }
+                // Ориентиры перестраиваются в фоне: ищем двунаправленным поиском
+            case BIDIRECTIONAL:
+                BidirectionalDijkstra bidirectional = getBidirectional();
+                totalTime = bidirectional.route(startId, endId, pathIds);
+                operation = Operation.BIDIRECTIONAL;
+                settled = bidirectional.getLastSettledCount();
+                relaxed = bidirectional.getLastRelaxedCount();
+                break;
+            case DIJKSTRA:
+            default:
+                SearchState state = graph.getEngine().search(startId, endId);
+                DijkstraEngine.unwindPath(state, startId, endId, pathIds);
+                totalTime = state.dist(endId);
+                operation = Operation.DIJKSTRA;
+                settled = state.getSettledCount();
+                relaxed = state.getRelaxedCount();
+                break;
+        }
+
+        PathResult result = toPathResult(pathIds, totalTime);
+        QueryMetrics.record(operation, started, allocated, settled, relaxed);
+        return result;
+    }
+
+    /**
+     * Находит Парето-оптимальные маршруты по времени и числу пересадок
+     * между станциями по их названиям
+     *
+     * @param startName Название начальной станции
+     * @param endName Название конечной станции
+     * @param maxTransfers максимальное допустимое число пересадок
+     * @return маршруты по возрастанию числа пересадок
+     * @throws IllegalArgumentException если станция не найдена
+     */
+    public List<PathResult> findParetoRoutes(String startName, String endName, int maxTransfers) {
+        int startId = getStationId(startName);
+        int endId = getStationId(endName);
+
+        if (startId == -1 || endId == -1) {
+            throw new IllegalArgumentException("Станция не найдена: " +
+                    (startId == -1 ? startName : endName));
+        }
+
+        return findParetoRoutes(startId, endId, maxTransfers);
+    }
 
-        // Преобразуем ID в станции с использованием Stream API
-        List<Station> pathStations = pathIds.stream()
-                .map(stations::get)
-                .collect(Collectors.toList());
+    /**
+     * Находит за один проход все Парето-оптимальные маршруты по двум
+     * критериям: время в пути и количество пересадок.
+     * Каждый следующий маршрут в списке имеет больше пересадок,
+     * но строго меньшее время.
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @param maxTransfers максимальное допустимое число пересадок
+     *                     (не более {@link ParetoRouter#MAX_TRANSFERS})
+     * @return маршруты по возрастанию числа пересадок; пустой список, если пути нет
+     */
+    public List<PathResult> findParetoRoutes(int startId, int endId, int maxTransfers) {
+        long started = QueryMetrics.start();
+        long allocated = QueryMetrics.allocatedBytes();
+        ParetoRouter router = getParetoRouter();
+        List<PathResult> results = new ArrayList<>();
+        for (ParetoRouter.Route route : router.route(startId, endId, maxTransfers)) {
+            results.add(new PathResult(toStations(route.getPath()), route.getTime(), route.getTransfers()));
+        }
+        QueryMetrics.record(Operation.PARETO, started, allocated,
+                router.getLastSettledCount(), router.getLastRelaxedCount());
+        return results;
+    }
 
-        int totalTime = result.getDist()[endId];
+    /**
+     * Находит маршрут с самым ранним прибытием между станциями по их названиям
+     *
+     * @param startName Название начальной станции
+     * @param endName Название конечной станции
+     * @param departure время прихода на начальную станцию в минутах от полуночи
+     * @return маршрут, время в котором включает ожидание поездов
+     * @throws IllegalArgumentException если станция не найдена
+     */
+    public PathResult findEarliestArrival(String startName, String endName, int departure) {
+        int startId = getStationId(startName);
+        int endId = getStationId(endName);
 
-        return new PathResult(pathStations, totalTime);
+        if (startId == -1 || endId == -1) {
+            throw new IllegalArgumentException("Станция не найдена: " +
+                    (startId == -1 ? startName : endName));
+        }
+
+        return findEarliestArrival(startId, endId, departure);
+    }
+
+    /**
+     * Находит маршрут с самым ранним прибытием при отправлении в указанное время.
+     * Время в пути по перегонам и ожидание поездов берутся из расписаний
+     * линий ({@link MetroLine#getSchedule()}); линии без расписания
+     * используют постоянные веса соединений.
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @param departure время прихода на начальную станцию в минутах от полуночи
+     * @return маршрут, время в котором равно времени прибытия минус время отправления;
+     *         пустой маршрут с временем CsrGraph.INF, если пути нет
+     */
+    public PathResult findEarliestArrival(int startId, int endId, int departure) {
+        long started = QueryMetrics.start();
+        long allocated = QueryMetrics.allocatedBytes();
+        TimeDependentRouter router = getTimeDependentRouter();
+        TimeDependentRouter.Journey journey = router.route(startId, endId, departure);
+        PathResult result = journey == null
+                ? new PathResult(Collections.emptyList(), INF)
+                : new PathResult(toStations(journey.getPath()), journey.getTravelTime());
+        QueryMetrics.record(Operation.EARLIEST_ARRIVAL, started, allocated,
+                router.getLastSettledCount(), router.getLastRelaxedCount());
+        return result;
+    }
+
+    /**
+     * Возвращает движок поиска с учетом времени суток для текущего графа
+     *
+     * @return движок поиска самого раннего прибытия
+     */
+    public TimeDependentRouter getTimeDependentRouter() {
+        CsrGraph csr = graph.getCsr();
+        TimeDependentRouter router = timeDependentRouter;
+        if (router == null || router.getGraph() != csr) {
+            int[] stationLines = new int[csr.getVertexCount()];
+            LineSchedule[] schedules = new LineSchedule[csr.getVertexCount()];
+            for (int i = 0; i < stations.size() && i < stationLines.length; i++) {
+                stationLines[i] = stations.get(i).getLine();
+                MetroLine line = lines.get(stationLines[i]);
+                schedules[i] = line == null ? null : line.getSchedule();
+            }
+            router = new TimeDependentRouter(csr, stationLines, schedules);
+            timeDependentRouter = router;
+        }
+        return router;
     }
 
     /**
-     * Возвращает список станций на указанной линии
-     * Использует Stream API для фильтрации
+     * Находит несколько альтернативных маршрутов между станциями по их названиям
+     *
+     * @param startName Название начальной станции
+     * @param endName Название конечной станции
+     * @param count количество маршрутов
+     * @return маршруты по возрастанию времени
+     * @throws IllegalArgumentException если станция не найдена
+     */
+    public List<PathResult> findAlternativeRoutes(String startName, String endName, int count) {
+        int startId = getStationId(startName);
+        int endId = getStationId(endName);
+
+        if (startId == -1 || endId == -1) {
+            throw new IllegalArgumentException("Станция не найдена: " +
+                    (startId == -1 ? startName : endName));
+        }
+
+        return findAlternativeRoutes(startId, endId, count);
+    }
+
+    /**
+     * Находит до count кратчайших маршрутов без повторяющихся станций
+     * (алгоритм Йена). Первый маршрут совпадает по времени с кратчайшим.
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @param count количество маршрутов
+     * @return маршруты по возрастанию времени; пустой список, если пути нет
+     */
+    public List<PathResult> findAlternativeRoutes(int startId, int endId, int count) {
+        long started = QueryMetrics.start();
+        long allocated = QueryMetrics.allocatedBytes();
+        List<PathResult> results = new ArrayList<>();
+        for (KShortestPaths.Path path : getKShortestPaths().find(startId, endId, count)) {
+            results.add(toPathResult(path.getVertices(), path.getCost()));
+        }
+        // Алгоритм Йена выполняет много поисков отклонений, их вершины не считаются
+        QueryMetrics.record(Operation.ALTERNATIVES, started, allocated, 0, 0);
+        return results;
+    }
+
+    /**
+     * Возвращает движок поиска k кратчайших путей для текущего графа
+     *
+     * @return движок алгоритма Йена
+     */
+    public KShortestPaths getKShortestPaths() {
+        CsrGraph csr = graph.getCsr();
+        KShortestPaths engine = kShortestPaths;
+        if (engine == null || engine.getGraph() != csr) {
+            engine = new KShortestPaths(csr);
+            kShortestPaths = engine;
+        }
+        return engine;
+    }
+
+    /**
+     * Включает кэш результатов поиска кратчайшего пути.
+     * Небольшое число популярных пар станций дает большую часть запросов,
+     * и для них поиск не выполняется вовсе. Ключ кэша - пара станций
+     * и режим поиска. Кэш очищается при изменении карты; при перезагрузке
+     * создается новая карта, и кэш включается для неё заново.
+     *
+     * @param maxEntries максимальное количество маршрутов в кэше
+     * @param ttlMillis время жизни маршрута в миллисекундах, 0 - без ограничения
+     */
+    public synchronized void enableRouteCache(int maxEntries, long ttlMillis) {
+        routeCache = new RouteCache<>(maxEntries, ttlMillis);
+        logger.info("Route cache enabled: {} entries, ttl {} ms", maxEntries, ttlMillis);
+    }
+
+    /**
+     * Выключает кэш результатов
+     */
+    public synchronized void disableRouteCache() {
+        routeCache = null;
+    }
+
+    /**
+     * Возвращает кэш результатов, например для просмотра доли попаданий
+     *
+     * @return кэш или null, если он выключен
+     */
+    public RouteCache<PathResult> getRouteCache() {
+        return routeCache;
+    }
+
+    /**
+     * Удаляет все маршруты из кэша результатов
+     */
+    public void invalidateRouteCache() {
+        RouteCache<PathResult> cache = routeCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Закрывает станцию: маршруты через неё и до неё больше не строятся.
+     * Изменение накладывается поверх загруженной карты, сама карта
+     * и её файл не меняются. Замороженную карту снимка изменять нельзя:
+     * изменения применяются до {@link MetroSnapshot#of(MetroMap)}. Строки таблицы всех пар пересчитываются
+     * только для деревьев путей, проходящих через станцию, из кэша
+     * маршрутов удаляются только маршруты через неё.
+     *
+     * @param id ID станции
+     * @throws IllegalArgumentException если станции нет на карте
+     * @throws IllegalStateException если карта заморожена
+     */
+    public synchronized void closeStation(int id) {
+        checkNotFrozen();
+        CsrGraph before = graph.getCsr();
+        if (!graph.setStationClosed(id, true)) return;
+        Station station = stations.get(id);
+        logger.info("Station closed: {}", station);
+        repairAfterUpdate(before, table -> root -> table.treeUsesVertex(root, id),
+                route -> containsStation(route, station));
+    }
+
+    /**
+     * Открывает ранее закрытую станцию
+     *
+     * @param id ID станции
+     * @throws IllegalArgumentException если станции нет на карте
+     * @throws IllegalStateException если карта заморожена
+     */
+    public synchronized void openStation(int id) {
+        checkNotFrozen();
+        CsrGraph before = graph.getCsr();
+        if (!graph.setStationClosed(id, false)) return;
+        logger.info("Station reopened: {}", stations.get(id));
+        // Станция была недостижима, поэтому её соединения могут сократить любой путь
+        CsrGraph base = graph.getBaseCsr();
+        repairAfterUpdate(before, table -> root -> {
+            for (int a = base.arcStart(id), last = base.arcEnd(id); a < last; a++) {
+                int weight = graph.getEffectiveWeight(id, base.target(a));
+                if (weight >= 0 && table.edgeImprovesTree(root, id, base.target(a), weight)) return true;
+            }
+            return false;
+        }, null);
+    }
+
+    /**
+     * Проверяет, закрыта ли станция
+     *
+     * @param id ID станции
+     * @return true если станция закрыта
+     */
+    public boolean isStationClosed(int id) {
+        return graph.isStationClosed(id);
+    }
+
+    /**
+     * Закрывает перегон или переход между соседними станциями
+     *
+     * @param from ID первой станции
+     * @param to ID второй станции
+     * @throws IllegalArgumentException если станции не соединены
+     * @throws IllegalStateException если карта заморожена
+     */
+    public synchronized void closeConnection(int from, int to) {
+        checkNotFrozen();
+        CsrGraph before = graph.getCsr();
+        if (!graph.setEdgeClosed(from, to, true)) return;
+        logger.info("Connection closed: {} - {}", stations.get(from), stations.get(to));
+        Station a = stations.get(from);
+        Station b = stations.get(to);
+        repairAfterUpdate(before, table -> root -> table.treeUsesEdge(root, from, to),
+                route -> containsConnection(route, a, b));
+    }
+
+    /**
+     * Открывает ранее закрытое соединение
+     *
+     * @param from ID первой станции
+     * @param to ID второй станции
+     * @throws IllegalArgumentException если станции не соединены
+     * @throws IllegalStateException если карта заморожена
+     */
+    public synchronized void openConnection(int from, int to) {
+        checkNotFrozen();
+        CsrGraph before = graph.getCsr();
+        if (!graph.setEdgeClosed(from, to, false)) return;
+        logger.info("Connection reopened: {} - {}", stations.get(from), stations.get(to));
+        int weight = graph.getEffectiveWeight(from, to);
+        repairAfterUpdate(before, table -> root -> weight >= 0 && table.edgeImprovesTree(root, from, to, weight), null);
+    }
+
+    /**
+     * Проверяет, закрыто ли соединение
+     *
+     * @param from ID первой станции
+     * @param to ID второй станции
+     * @return true если соединение закрыто
+     */
+    public boolean isConnectionClosed(int from, int to) {
+        return graph.isEdgeClosed(from, to);
+    }
+
+    /**
+     * Задает время в пути по соединению, например при задержке движения.
+     * Увеличение времени затрагивает только маршруты через это соединение,
+     * уменьшение может сократить любой маршрут.
+     *
+     * @param from ID первой станции
+     * @param to ID второй станции
+     * @param minutes новое время в минутах
+     * @throws IllegalArgumentException если станции не соединены или время отрицательное
+     * @throws IllegalStateException если карта заморожена
+     */
+    public synchronized void setConnectionTime(int from, int to, int minutes) {
+        checkNotFrozen();
+        if (minutes < 0) {
+            throw new IllegalArgumentException("Connection time must not be negative: " + minutes);
+        }
+        updateConnectionTime(from, to, minutes);
+    }
+
+    /**
+     * Возвращает соединению время в пути из загруженной карты
+     *
+     * @param from ID первой станции
+     * @param to ID второй станции
+     * @throws IllegalArgumentException если станции не соединены
+     * @throws IllegalStateException если карта заморожена
+     */
+    public synchronized void resetConnectionTime(int from, int to) {
+        checkNotFrozen();
+        updateConnectionTime(from, to, -1);
+    }
+
+    private void updateConnectionTime(int from, int to, int minutes) {
+        CsrGraph before = graph.getCsr();
+        int previous = graph.setEdgeWeight(from, to, minutes);
+        int current = graph.getEffectiveWeight(from, to);
+        if (current == previous) return;
+        logger.info("Connection time changed: {} - {}, {} -> {} min",
+                stations.get(from), stations.get(to), previous, current);
+        if (previous >= 0 && (current < 0 || current > previous)) {
+            Station a = stations.get(from);
+            Station b = stations.get(to);
+            repairAfterUpdate(before, table -> root -> table.treeUsesEdge(root, from, to),
+                    route -> containsConnection(route, a, b));
+        } else {
+            repairAfterUpdate(before, table -> root -> table.edgeImprovesTree(root, from, to, current), null);
+        }
+    }
+
+    /**
+     * Отменяет все закрытия и изменения времени в пути.
+     * Таблица всех пар при этом строится заново при следующем обращении.
+     *
+     * @throws IllegalStateException если карта заморожена
+     */
+    public synchronized void clearLiveUpdates() {
+        checkNotFrozen();
+        if (!graph.hasOverlay()) return;
+        graph.clearOverlay();
+        allPairs = null;
+        invalidateRouteCache();
+        logger.info("All live updates cleared");
+    }
+
+    /**
+     * Проверяет, есть ли действующие закрытия или изменения времени
+     *
+     * @return true если граф отличается от загруженного
+     */
+    public boolean hasLiveUpdates() {
+        return graph.hasOverlay();
+    }
+
+    /**
+     * Восстанавливает производные структуры после оперативного изменения графа.
+     * Таблица всех пар, построенная для прежнего графа, ремонтируется
+     * пересчетом выбранных строк; кэш маршрутов теряет только устаревшие
+     * маршруты. Ориентиры A* переиспользуются, если изменение только
+     * удлинило дуги, иначе они, как и иерархия сжатий, перестраиваются
+     * в фоне при первом обращении. Остальные движки привязаны к графу
+     * и создаются заново за O(1).
+     *
+     * @param before граф до изменения
+     * @param rowsToRebuild строки таблицы, которые нужно пересчитать
+     * @param staleRoute условие устаревания маршрута в кэше или null, чтобы очистить кэш
+     */
+    private void repairAfterUpdate(CsrGraph before, Function<AllPairsTable, IntPredicate> rowsToRebuild,
+                                   Predicate<PathResult> staleRoute) {
+        AllPairsTable table = allPairs;
+        if (table != null && table.getGraph() == before) {
+            allPairs = table.repair(graph.getEngine(), rowsToRebuild.apply(table));
+        }
+        RouteCache<PathResult> cache = routeCache;
+        if (cache != null) {
+            if (staleRoute == null) {
+                cache.clear();
+            } else {
+                int removed = cache.invalidateIf(staleRoute);
+                logger.debug("Removed {} cached routes affected by the update", removed);
+            }
+        }
+    }
+
+    private static boolean containsStation(PathResult route, Station station) {
+        for (Station s : route.getPath()) {
+            if (s == station) return true;
+        }
+        return false;
+    }
+
+    private static boolean containsConnection(PathResult route, Station a, Station b) {
+        List<Station> path = route.getPath();
+        for (int i = 1; i < path.size(); i++) {
+            Station prev = path.get(i - 1);
+            Station next = path.get(i);
+            if ((prev == a && next == b) || (prev == b && next == a)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Упаковывает пару станций и режим поиска в ключ кэша
+     */
+    private long routeKey(int startId, int endId, SearchMode mode) {
+        int slot = mode == null ? 0 : mode.ordinal() + 1;
+        return ((long) startId * graph.getVertexCount() + endId) * MODE_SLOTS + slot;
+    }
+
+    /**
+     * Возвращает многокритериальный движок для текущего графа
+     *
+     * @return движок поиска по времени и пересадкам
+     */
+    public ParetoRouter getParetoRouter() {
+        CsrGraph csr = graph.getCsr();
+        ParetoRouter router = paretoRouter;
+        if (router == null || router.getGraph() != csr) {
+            int[] stationLines = new int[csr.getVertexCount()];
+            for (int i = 0; i < stations.size() && i < stationLines.length; i++) {
+                stationLines[i] = stations.get(i).getLine();
+            }
+            router = new ParetoRouter(csr, stationLines);
+            paretoRouter = router;
+        }
+        return router;
+    }
+
+    /**
+     * Возвращает движок двунаправленного поиска для текущего графа
+     *
+     * @return движок двунаправленного алгоритма Дейкстры
+     */
+    public BidirectionalDijkstra getBidirectional() {
+        CsrGraph csr = graph.getCsr();
+        BidirectionalDijkstra engine = bidirectional;
+        if (engine == null || engine.getGraph() != csr) {
+            engine = new BidirectionalDijkstra(csr);
+            bidirectional = engine;
+        }
+        return engine;
+    }
+
+    /**
+     * Возвращает движок A* для текущего графа. Первый вызов ожидает
+     * выбора ориентиров. После закрытий и увеличения времени в пути
+     * прежние ориентиры остаются допустимыми и переиспользуются; после
+     * открытий и уменьшения времени ориентиры перестраиваются в фоне.
+     *
+     * @return движок A* с оценками по ориентирам или null, пока ориентиры перестраиваются
+     */
+    public AStarSearch getAStar() {
+        CsrGraph csr = graph.getCsr();
+        AStarSearch engine = aStar;
+        if (engine != null && engine.getGraph() == csr) {
+            return engine;
+        }
+        LandmarkIndex index = landmarks;
+        if (index == null) {
+            index = rebuildLandmarks(csr).join();
+        }
+        if (!csr.dominates(index.getGraph())) {
+            rebuildLandmarks(csr);
+            return null;
+        }
+        engine = new AStarSearch(csr, index);
+        aStar = engine;
+        return engine;
+    }
+
+    /**
+     * Возвращает иерархию сжатий для текущего графа. Первый вызов ожидает
+     * предобработки; после изменения графа иерархия перестраивается в фоне,
+     * без блокировки карты.
+     *
+     * @return иерархия сжатий или null, пока она перестраивается
+     */
+    public ContractionHierarchy getContractionHierarchy() {
+        CsrGraph csr = graph.getCsr();
+        ContractionHierarchy hierarchy = contractionHierarchy;
+        if (hierarchy != null && hierarchy.getGraph() == csr) {
+            return hierarchy;
+        }
+        CompletableFuture<ContractionHierarchy> build = rebuildHierarchy(csr);
+        if (hierarchy == null) {
+            hierarchy = build.join();
+            return hierarchy.getGraph() == csr ? hierarchy : null;
+        }
+        return null;
+    }
+
+    /**
+     * Запускает выбор ориентиров для графа, если он еще не выполняется.
+     * Одновременно выполняется не больше одного построения: пока идет
+     * построение для прежнего графа, возвращается оно.
+     */
+    private synchronized CompletableFuture<LandmarkIndex> rebuildLandmarks(CsrGraph csr) {
+        Rebuild<LandmarkIndex> rebuild = landmarkRebuild;
+        if (rebuild == null || (rebuild.getGraph() != csr && rebuild.isDone())) {
+            rebuild = new Rebuild<>(csr, g -> LandmarkIndex.build(new DijkstraEngine(g), DEFAULT_LANDMARK_COUNT),
+                    index -> landmarks = index);
+            landmarkRebuild = rebuild;
+        }
+        return rebuild.getResult();
+    }
+
+    /**
+     * Запускает построение иерархии сжатий для графа, если оно еще не выполняется
+     */
+    private synchronized CompletableFuture<ContractionHierarchy> rebuildHierarchy(CsrGraph csr) {
+        Rebuild<ContractionHierarchy> rebuild = hierarchyRebuild;
+        if (rebuild == null || (rebuild.getGraph() != csr && rebuild.isDone())) {
+            rebuild = new Rebuild<>(csr, ContractionHierarchy::build, hierarchy -> contractionHierarchy = hierarchy);
+            hierarchyRebuild = rebuild;
+        }
+        return rebuild.getResult();
+    }
+
+    /**
+     * Включает режим предвычисленной таблицы кратчайших путей между всеми парами.
+     * Таблица строится сразу и перестраивается после изменения соединений.
+     * Если оценка памяти превышает бюджет, таблица не строится и
+     * поиск продолжает выполняться по запросу.
+     *
+     * @param memoryBudgetBytes максимальный допустимый размер таблицы в байтах
+     * @return true если таблица построена
+     */
+    public boolean enableAllPairs(long memoryBudgetBytes) {
+        synchronized (this) {
+            allPairsBudgetBytes = memoryBudgetBytes;
+            allPairs = null;
+        }
+        long required = AllPairsTable.estimateBytes(getMatrixSize());
+        if (required > memoryBudgetBytes) {
+            logger.warn("All-pairs table needs {} bytes, budget is {} bytes; using on-demand search",
+                    required, memoryBudgetBytes);
+            return false;
+        }
+        return getAllPairsTable() != null;
+    }
+
+    /**
+     * Выключает режим таблицы всех пар и освобождает её память
+     */
+    public synchronized void disableAllPairs() {
+        allPairsBudgetBytes = -1;
+        allPairs = null;
+    }
+
+    /**
+     * Возвращает таблицу всех пар, если режим включен и таблица
+     * помещается в бюджет памяти. При изменении графа таблица перестраивается.
+     *
+     * @return таблица или null, если используется поиск по запросу
+     */
+    public AllPairsTable getAllPairsTable() {
+        AllPairsTable table = allPairs;
+        CsrGraph csr = graph.getCsr();
+        if (table != null && table.getGraph() == csr) {
+            return table;
+        }
+        synchronized (this) {
+            if (allPairsBudgetBytes < 0
+                    || AllPairsTable.estimateBytes(csr.getVertexCount()) > allPairsBudgetBytes) {
+                return null;
+            }
+            table = allPairs;
+            if (table == null || table.getGraph() != csr) {
+                table = AllPairsTable.build(graph.getEngine());
+                allPairs = table;
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Преобразует последовательность ID станций в результат поиска
+     *
+     * @param pathIds ID станций пути
+     * @param totalTime общее время в минутах
+     * @return объект PathResult
+     */
+    private PathResult toPathResult(IntList pathIds, int totalTime) {
+        return new PathResult(toStations(pathIds), totalTime);
+    }
+
+    /**
+     * Преобразует последовательность ID станций в список станций
+     *
+     * @param pathIds ID станций пути
+     * @return список станций в том же порядке
+     */
+    private List<Station> toStations(IntList pathIds) {
+        List<Station> pathStations = new ArrayList<>(pathIds.size());
+        for (int i = 0; i < pathIds.size(); i++) {
+            pathStations.add(stations.get(pathIds.get(i)));
+        }
+        // Маршрут может храниться в кэше и отдаваться разным вызывающим
+        return Collections.unmodifiableList(pathStations);
+    }
+
+    /**
+     * Возвращает список станций на указанной линии.
+     * Использует индекс линий, поэтому время зависит только от длины линии.
      *
      * @param lineNumber номер линии
-     * @return список станций на линии
+     * @return список станций на линии в порядке следования
      */
     public List<Station> getStationsByLine(int lineNumber) {
-        return stations.stream()
-                .filter(station -> station.getLine() == lineNumber)
-                .collect(Collectors.toList());
+        return toStationList(getLineIndex().getStationIds(lineNumber));
+    }
+
+    /**
+     * Возвращает станции, следующие за указанной на её линии
+     * (например, для табло отправления). При отрицательном count
+     * возвращаются станции в обратном направлении.
+     *
+     * @param stationId ID станции
+     * @param count количество станций и направление
+     * @return станции в порядке удаления от указанной; у конечной станции
+     *         список может быть короче или пустым
+     */
+    public List<Station> getNextStationsOnLine(int stationId, int count) {
+        return toStationList(getLineIndex().getNextStationIds(stationId, count));
     }
 
     /**
-     * Возвращает статистику по линиям метро
-     * Использует Stream API для группировки
+     * Вычисляет центральность станций по посредничеству и близости,
+     * эксцентриситет станций и диаметр сети по текущему графу
+     * с учетом закрытых станций и перегонов. Требует поиска от каждой
+     * станции, выполняется параллельно в общем пуле ForkJoin;
+     * результат не кэшируется.
      *
-     * @return Map где ключ - номер линии, значение - количество станций
+     * @return результаты анализа сети
+     */
+    public NetworkAnalytics.Result analyzeNetwork() {
+        return NetworkAnalytics.compute(getCsr());
+    }
+
+    /**
+     * Возвращает статистику по линиям метро.
+     * Количества посчитаны при построении индекса линий.
+     *
+     * @return неизменяемое отображение, где ключ - номер линии,
+     *         значение - количество станций
      */
     public Map<Integer, Long> getLineStatistics() {
-        return stations.stream()
-                .collect(Collectors.groupingBy(
-                        Station::getLine,
-                        Collectors.counting()
-                ));
+        return getLineIndex().getStationCounts();
+    }
+
+    /**
+     * Фоновое построение индекса для определенного графа.
+     * Готовый индекс передается получателю, который публикует его
+     * в volatile-поле карты.
+     *
+     * @param <T> тип индекса
+     */
+    private static final class Rebuild<T> {
+        private final CsrGraph graph;
+        private final CompletableFuture<T> result;
+
+        Rebuild(CsrGraph graph, Function<CsrGraph, T> builder, Consumer<T> publisher) {
+            this.graph = graph;
+            this.result = CompletableFuture.supplyAsync(() -> builder.apply(graph));
+            result.whenComplete((index, error) -> {
+                if (error != null) {
+                    logger.error("Background index rebuild failed", error);
+                } else {
+                    publisher.accept(index);
+                }
+            });
+        }
+
+        CsrGraph getGraph() {
+            return graph;
+        }
+
+        CompletableFuture<T> getResult() {
+            return result;
+        }
+
+        boolean isDone() {
+            return result.isDone();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,352 @@
+package com.example.kursovaya.model;
+
+import com.example.kursovaya.routing.NetworkAnalytics;
+import com.example.kursovaya.routing.SearchMode;
+import com.example.kursovaya.util.Isochrone;
+import com.example.kursovaya.util.RouteCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Неизменяемый снимок карты метрополитена.
+ * Оборачивает замороженную карту {@link MetroMap} и открывает только методы
+ * чтения, поэтому один снимок можно одновременно использовать из любого
+ * числа потоков без блокировок: граф и списки станций больше не меняются,
+ * а изменяемое состояние поиска каждый движок хранит отдельно для потока.
+ * Обновление данных выполняется созданием нового снимка и его публикацией
+ * (копирование при записи), старый снимок продолжает обслуживать уже
+ * начатые запросы. Сама карта наружу не выдается, а оперативные изменения
+ * (закрытия, задержки) замороженной карте запрещены: их нужно применить
+ * к карте до создания снимка.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class MetroSnapshot {
+    private static final AtomicLong versions = new AtomicLong();
+
+    private final MetroMap map;
+    private final long version;
+    private final long createdAtMillis;
+
+    private MetroSnapshot(MetroMap map) {
+        this.map = map;
+        this.version = versions.incrementAndGet();
+        this.createdAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Замораживает карту и создает снимок поверх неё.
+     * После вызова карту нельзя изменять.
+     *
+     * @param map загруженная карта метро
+     * @return снимок карты
+     */
+    public static MetroSnapshot of(MetroMap map) {
+        map.freeze();
+        return new MetroSnapshot(map);
+    }
+
+    /**
+     * Возвращает номер версии снимка; каждый новый снимок получает больший номер
+     *
+     * @return номер версии
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Возвращает время создания снимка
+     *
+     * @return время в миллисекундах от начала эпохи
+     */
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Возвращает кэш результатов карты
+     *
+     * @return кэш или null, если он выключен
+     */
+    public RouteCache<PathResult> getRouteCache() {
+        return map.getRouteCache();
+    }
+
+    /**
+     * Включает пустой кэш результатов. Кэш не меняет ответы снимка,
+     * только ускоряет повторные запросы.
+     *
+     * @param maxEntries максимальное количество маршрутов в кэше
+     * @param ttlMillis время жизни маршрута в миллисекундах, 0 - без ограничения
+     */
+    public void enableRouteCache(int maxEntries, long ttlMillis) {
+        map.enableRouteCache(maxEntries, ttlMillis);
+    }
+
+    /**
+     * Удаляет все маршруты из кэша результатов, например после публикации
+     * более нового снимка
+     */
+    public void invalidateRouteCache() {
+        map.invalidateRouteCache();
+    }
+
+    /**
+     * Возвращает количество станций
+     *
+     * @return количество станций
+     */
+    public int getStationCount() {
+        return map.getMatrixSize();
+    }
+
+    /**
+     * Возвращает станцию по её ID
+     *
+     * @param id ID станции
+     * @return объект станции
+     */
+    public Station getStation(int id) {
+        return map.getStation(id);
+    }
+
+    /**
+     * Находит ID станции по её названию
+     *
+     * @param name название станции
+     * @return ID станции или -1 если не найдена
+     */
+    public int getStationId(String name) {
+        return map.getStationId(name);
+    }
+
+    /**
+     * Находит станции по началу названия
+     *
+     * @param prefix начало названия
+     * @param limit максимальное количество станций
+     * @return станции в алфавитном порядке
+     */
+    public List<Station> findStationsByPrefix(String prefix, int limit) {
+        return map.findStationsByPrefix(prefix, limit);
+    }
+
+    /**
+     * Находит ID станций по началу названия
+     *
+     * @param prefix начало названия
+     * @param limit максимальное количество станций
+     * @return ID станций в алфавитном порядке названий
+     */
+    public int[] findStationIdsByPrefix(String prefix, int limit) {
+        return map.findStationIdsByPrefix(prefix, limit);
+    }
+
+    /**
+     * Находит станции с похожими названиями
+     *
+     * @param query название, возможно с опечатками
+     * @param limit максимальное количество станций
+     * @return станции по убыванию сходства названия
+     */
+    public List<Station> findSimilarStations(String query, int limit) {
+        return map.findSimilarStations(query, limit);
+    }
+
+    /**
+     * Находит ID станций с похожими названиями
+     *
+     * @param query название, возможно с опечатками
+     * @param limit максимальное количество станций
+     * @return ID станций по убыванию сходства названия
+     */
+    public int[] findSimilarStationIds(String query, int limit) {
+        return map.findSimilarStationIds(query, limit);
+    }
+
+    /**
+     * Возвращает список всех станций
+     *
+     * @return неизменяемый список станций
+     */
+    public List<Station> getStations() {
+        return map.getStations();
+    }
+
+    /**
+     * Возвращает все линии метро
+     *
+     * @return неизменяемое отображение номер линии -> линия
+     */
+    public Map<Integer, MetroLine> getLines() {
+        return map.getLines();
+    }
+
+    /**
+     * Возвращает станции линии по индексу линий
+     *
+     * @param lineNumber номер линии
+     * @return станции линии в порядке следования
+     */
+    public List<Station> getStationsByLine(int lineNumber) {
+        return map.getStationsByLine(lineNumber);
+    }
+
+    /**
+     * Возвращает станции, следующие за указанной на её линии
+     *
+     * @param stationId ID станции
+     * @param count количество станций; отрицательное - в обратном направлении
+     * @return станции в порядке удаления от указанной
+     */
+    public List<Station> getNextStationsOnLine(int stationId, int count) {
+        return map.getNextStationsOnLine(stationId, count);
+    }
+
+    /**
+     * Вычисляет показатели центральности станций и диаметр сети
+     *
+     * @return результаты анализа сети
+     */
+    public NetworkAnalytics.Result analyzeNetwork() {
+        return map.analyzeNetwork();
+    }
+
+    /**
+     * Возвращает CSR-граф снимка
+     *
+     * @return неизменяемый CSR-граф
+     */
+    public CsrGraph getCsr() {
+        return map.getCsr();
+    }
+
+    /**
+     * Находит кратчайший путь между станциями
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @return результат поиска пути
+     */
+    public PathResult findShortestPath(int startId, int endId) {
+        return map.findShortestPath(startId, endId);
+    }
+
+    /**
+     * Находит кратчайший путь между станциями выбранным алгоритмом
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @param mode алгоритм поиска
+     * @return результат поиска пути
+     */
+    public PathResult findShortestPath(int startId, int endId, SearchMode mode) {
+        return map.findShortestPath(startId, endId, mode);
+    }
+
+    /**
+     * Находит кратчайший путь между станциями по названиям
+     *
+     * @param startName название начальной станции
+     * @param endName название конечной станции
+     * @return результат поиска пути
+     * @throws IllegalArgumentException если станция не найдена
+     */
+    public PathResult findShortestPath(String startName, String endName) {
+        return map.findShortestPath(startName, endName);
+    }
+
+    /**
+     * Возвращает длину кратчайшего пути без построения самого пути
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @return время в минутах или CsrGraph.INF если путь не существует
+     */
+    public int shortestDistance(int startId, int endId) {
+        return map.shortestDistance(startId, endId);
+    }
+
+    /**
+     * Возвращает время в пути от станции до всех станций карты
+     *
+     * @param startId ID начальной станции
+     * @return массив времен в минутах по ID станции
+     */
+    public int[] shortestDistancesFrom(int startId) {
+        return map.shortestDistancesFrom(startId);
+    }
+
+    /**
+     * Возвращает время в пути от станции до нескольких станций
+     *
+     * @param startId ID начальной станции
+     * @param endIds ID конечных станций
+     * @return массив времен в минутах
+     */
+    public int[] shortestDistances(int startId, int[] endIds) {
+        return map.shortestDistances(startId, endIds);
+    }
+
+    /**
+     * Вычисляет таблицу времен в пути между наборами станций
+     *
+     * @param startIds ID станций отправления
+     * @param endIds ID станций назначения
+     * @return строки по станциям отправления
+     */
+    public int[][] distanceMatrix(int[] startIds, int[] endIds) {
+        return map.distanceMatrix(startIds, endIds);
+    }
+
+    /**
+     * Находит станции, достижимые за указанное время из любой начальной станции
+     *
+     * @param startIds ID начальных станций
+     * @param maxMinutes наибольшее время в пути в минутах
+     * @return станции и время до них по возрастанию времени
+     */
+    public Isochrone findReachable(int[] startIds, int maxMinutes) {
+        return map.findReachable(startIds, maxMinutes);
+    }
+
+    /**
+     * Находит маршрут с самым ранним прибытием при отправлении в указанное время
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @param departure время прихода на начальную станцию в минутах от полуночи
+     * @return маршрут, время в котором включает ожидание поездов
+     */
+    public PathResult findEarliestArrival(int startId, int endId, int departure) {
+        return map.findEarliestArrival(startId, endId, departure);
+    }
+
+    /**
+     * Находит Парето-оптимальные маршруты по времени и числу пересадок
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @param maxTransfers максимальное число пересадок
+     * @return список маршрутов
+     */
+    public List<PathResult> findParetoRoutes(int startId, int endId, int maxTransfers) {
+        return map.findParetoRoutes(startId, endId, maxTransfers);
+    }
+
+    /**
+     * Находит несколько альтернативных маршрутов без циклов
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @param count количество маршрутов
+     * @return список маршрутов по возрастанию времени
+     */
+    public List<PathResult> findAlternativeRoutes(int startId, int endId, int count) {
+        return map.findAlternativeRoutes(startId, endId, count);
+    }
+}
\ No newline at end of file
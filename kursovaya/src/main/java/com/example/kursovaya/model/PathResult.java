@@ -17,6 +17,7 @@ public class PathResult {
 
     private final List<Station> path;
     private final int totalTime;
+    private int transfers; // -1 пока не подсчитано
 
     /**
      * Создает объект с результатами пути
@@ -25,10 +26,25 @@ public class PathResult {
      * @param totalTime общее время в пути в минутах
      */
     public PathResult(List<Station> path, int totalTime) {
+        this(path, totalTime, -1);
+    }
+
+    /**
+     * Создает объект с результатами пути и заранее известным числом пересадок
+     *
+     * @param path список станций в порядке следования
+     * @param totalTime общее время в пути в минутах
+     * @param transfers количество пересадок или -1, если его нужно подсчитать по пути
+     */
+    public PathResult(List<Station> path, int totalTime, int transfers) {
         this.path = path;
         this.totalTime = totalTime;
-        logger.debug("Created PathResult: {} stations, time {} minutes",
-                path.size(), totalTime);
+        this.transfers = transfers;
+        // Результат создается на каждый запрос: без проверки уровня
+        // аргументы упаковывались бы даже при выключенном логировании
+        if (logger.isTraceEnabled()) {
+            logger.trace("Created PathResult: {} stations, time {} minutes", path.size(), totalTime);
+        }
     }
 
     /**
@@ -49,6 +65,24 @@ public class PathResult {
         return totalTime;
     }
 
+    /**
+     * Возвращает количество пересадок (смен линии) в маршруте.
+     * Если число не было передано при создании, оно подсчитывается
+     * по линиям станций один раз.
+     *
+     * @return количество пересадок
+     */
+    public int getTransfers() {
+        if (transfers < 0) {
+            int count = 0;
+            for (int i = 1; i < path.size(); i++) {
+                if (path.get(i).getLine() != path.get(i - 1).getLine()) count++;
+            }
+            transfers = count;
+        }
+        return transfers;
+    }
+
     /**
      * Выводит информацию о маршруте в консоль
      */
@@ -0,0 +1,118 @@
+package com.example.kursovaya.model;
+
+import com.example.kursovaya.io.MapLoader;
+import com.example.kursovaya.server.RouteServer;
+import com.example.kursovaya.service.RouteQueryService;
+import com.example.kursovaya.util.QueryMetrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Точка входа серверного режима без графического интерфейса.
+ * Загружает карту так же, как {@link AppMain}, и обслуживает запросы
+ * маршрутов по HTTP через {@link RouteServer}.
+ * <p>
+ * Запуск: {@code ServerMain [порт] [файл карты]}. Файл карты может быть
+ * JSON файлом на диске или бинарным файлом {@code .bin}; без него
+ * используется map.json из ресурсов или -Dspbmetro.binaryMap.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class ServerMain {
+
+    private static final Logger logger = LogManager.getLogger(ServerMain.class);
+    private static final int DEFAULT_PORT = 8080;
+    private static final long ALL_PAIRS_BUDGET_BYTES = 64L * 1024 * 1024; // Бюджет таблицы всех пар по умолчанию
+    private static final int ROUTE_CACHE_SIZE = 100_000; // Емкость кэша маршрутов по умолчанию
+
+    private ServerMain() {
+    }
+
+    /**
+     * Запускает сервер и ждет его остановки по сигналу завершения процесса
+     *
+     * @param args необязательные порт и путь к файлу карты
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? parsePort(args[0]) : Integer.getInteger("spbmetro.port", DEFAULT_PORT);
+        if (port < 0) {
+            System.err.println("Usage: ServerMain [port] [map file]");
+            System.exit(2);
+        }
+        // Заголовки и тело ответа отправляются отдельными записями в сокет;
+        // с алгоритмом Нейгла тело ждет подтверждения заголовков около 40 мс.
+        // Свойство читается при создании первого HttpServer
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        // Серверу метрики нужны всегда, их можно выключить через -Dspbmetro.metrics=false
+        QueryMetrics.setEnabled(Boolean.parseBoolean(System.getProperty("spbmetro.metrics", "true")));
+        MetroMap map = loadMap(args.length > 1 ? args[1] : null);
+        logger.info("Metro map loaded successfully. Stations: {}", map.getStations().size());
+
+        boolean allPairs = map.enableAllPairs(Long.getLong("spbmetro.allPairsBudgetBytes", ALL_PAIRS_BUDGET_BYTES));
+        int routeCacheSize = Integer.getInteger("spbmetro.routeCacheSize", ROUTE_CACHE_SIZE);
+        if (!allPairs && routeCacheSize > 0) {
+            map.enableRouteCache(routeCacheSize, Long.getLong("spbmetro.routeCacheTtlMillis", 0L));
+        }
+
+        RouteQueryService service = new RouteQueryService(MetroSnapshot.of(map));
+        RouteServer server;
+        try {
+            server = new RouteServer(service, port);
+        } catch (IOException e) {
+            logger.error("Cannot start server on port {}: {}", port, e.getMessage(), e);
+            service.close();
+            System.exit(1);
+            return;
+        }
+
+        // Останавливаем сервер при завершении процесса (Ctrl+C, SIGTERM)
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            service.close();
+            stopped.countDown();
+        }, "route-server-shutdown"));
+        server.start();
+
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Разбирает номер порта
+     *
+     * @return порт от 0 до 65535 или -1, если аргумент не является портом
+     */
+    private static int parsePort(String value) {
+        try {
+            int port = Integer.parseInt(value);
+            return port <= 65535 ? port : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static MetroMap loadMap(String file) {
+        if (file != null) {
+            Path path = Path.of(file);
+            if (!Files.exists(path)) {
+                throw new IllegalArgumentException("Map file not found: " + file);
+            }
+            return file.endsWith(".bin") ? MapLoader.loadBinary(path) : MapLoader.load(path);
+        }
+        String binaryMap = System.getProperty("spbmetro.binaryMap");
+        return binaryMap != null ? MapLoader.loadBinary(Path.of(binaryMap)) : MapLoader.load("map.json");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IndexedMinHeap;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.SearchState;
+
+/**
+ * Алгоритм A* с оценками по ориентирам (ALT).
+ * Ключ вершины в очереди - пройденное расстояние плюс нижняя оценка
+ * оставшегося пути, поэтому поиск обрабатывает в основном вершины
+ * в направлении цели. Оценка согласованная, поэтому каждая вершина
+ * обрабатывается не более одного раза и найденный путь кратчайший.
+ * Экземпляр потокобезопасен: состояние поиска хранится отдельно для каждого потока.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class AStarSearch {
+    private final CsrGraph graph;
+    private final LandmarkIndex landmarks;
+    private final ThreadLocal<SearchState> states;
+
+    /**
+     * Создает движок A* для индекса ориентиров
+     *
+     * @param landmarks индекс ориентиров, построенный для графа
+     */
+    public AStarSearch(LandmarkIndex landmarks) {
+        this(landmarks.getGraph(), landmarks);
+    }
+
+    /**
+     * Создает движок A* для графа с ориентирами, построенными для другого
+     * графа. Оценки остаются допустимыми и согласованными, если граф
+     * доминирует над графом ориентиров ({@link CsrGraph#dominates(CsrGraph)}):
+     * закрытия и задержки только удлиняют пути.
+     *
+     * @param graph граф для поиска
+     * @param landmarks индекс ориентиров
+     * @throws IllegalArgumentException если граф короче графа ориентиров хотя бы на одной дуге
+     */
+    public AStarSearch(CsrGraph graph, LandmarkIndex landmarks) {
+        if (!graph.dominates(landmarks.getGraph())) {
+            throw new IllegalArgumentException("Landmark bounds are not admissible for a graph with shorter arcs");
+        }
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.states = ThreadLocal.withInitial(() -> new SearchState(graph.getVertexCount(), CsrGraph.INF));
+    }
+
+    /**
+     * Возвращает граф, по которому работает движок
+     *
+     * @return CSR-граф
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Находит кратчайший путь между двумя вершинами
+     *
+     * @param start начальная вершина
+     * @param end конечная вершина
+     * @param out буфер, в который записываются вершины пути от начала к концу
+     * @return длина пути или CsrGraph.INF если путь не существует
+     */
+    public int route(int start, int end, IntList out) {
+        SearchState state = states.get();
+        state.reset();
+        IndexedMinHeap heap = state.getHeap();
+
+        state.update(start, 0, -1);
+        heap.insertOrDecrease(start, landmarks.lowerBound(start, end));
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            state.settle(u);
+            if (u == end) break;
+
+            int du = state.dist(u);
+            for (int a = graph.arcStart(u), last = graph.arcEnd(u); a < last; a++) {
+                int v = graph.target(a);
+                if (state.isSettled(v)) continue;
+                state.countRelaxation();
+                int alt = du + graph.weight(a);
+                if (alt < state.dist(v)) {
+                    state.update(v, alt, u);
+                    heap.insertOrDecrease(v, alt + landmarks.lowerBound(v, end));
+                }
+            }
+        }
+
+        DijkstraEngine.unwindPath(state, start, end, out);
+        return state.dist(end);
+    }
+
+    /**
+     * Возвращает количество вершин, обработанных последним запросом текущего потока
+     *
+     * @return количество вершин
+     */
+    public int getLastSettledCount() {
+        return states.get().getSettledCount();
+    }
+
+    /**
+     * Возвращает количество ребер, просмотренных последним запросом текущего потока
+     *
+     * @return количество релаксаций
+     */
+    public long getLastRelaxedCount() {
+        return states.get().getRelaxedCount();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,279 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.SearchState;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Предвычисленная таблица кратчайших путей между всеми парами станций.
+ * Строится запуском алгоритма Дейкстры из каждой вершины параллельно
+ * на всех ядрах. Хранит таблицу расстояний и таблицу следующих переходов
+ * по строкам, поэтому запрос расстояния стоит O(1), а восстановление
+ * пути - O(длина пути). Строки неизменяемы после построения, и таблица,
+ * отремонтированная после оперативного изменения графа, разделяет
+ * с прежней все строки, которые не пересчитывались.
+ * Граф метро неориентированный, поэтому предшественник вершины s в дереве
+ * путей с корнем t - это следующая станция на пути из s в t. Строка t
+ * таблицы переходов - это просто массив предшественников поиска из t.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class AllPairsTable {
+    private static final Logger logger = LogManager.getLogger(AllPairsTable.class);
+
+    private static final char NO_HOP = Character.MAX_VALUE; // Нет перехода в компактной таблице
+
+    private final CsrGraph graph;
+    private final int n;
+    private final int[][] dist;          // dist[t][s] - расстояние от s до t
+    private final char[][] nextCompact; // Используется, если номера вершин помещаются в char
+    private final int[][] nextWide;     // Используется для больших графов
+    private final long buildTimeMillis;
+
+    private AllPairsTable(CsrGraph graph, int[][] dist, char[][] nextCompact, int[][] nextWide,
+                          long buildTimeMillis) {
+        this.graph = graph;
+        this.n = graph.getVertexCount();
+        this.dist = dist;
+        this.nextCompact = nextCompact;
+        this.nextWide = nextWide;
+        this.buildTimeMillis = buildTimeMillis;
+    }
+
+    /**
+     * Оценивает объем памяти таблицы для графа указанного размера
+     *
+     * @param vertexCount количество вершин
+     * @return размер в байтах или Long.MAX_VALUE, если таблица не помещается в массив
+     */
+    public static long estimateBytes(int vertexCount) {
+        long cells = (long) vertexCount * vertexCount;
+        if (cells > Integer.MAX_VALUE - 8) {
+            return Long.MAX_VALUE;
+        }
+        int hopBytes = vertexCount < NO_HOP ? Character.BYTES : Integer.BYTES;
+        return cells * (Integer.BYTES + hopBytes);
+    }
+
+    /**
+     * Строит таблицу, запуская поиск из каждой вершины параллельно
+     *
+     * @param engine движок поиска по графу
+     * @return построенная таблица
+     * @throws IllegalArgumentException если граф слишком велик для таблицы
+     */
+    public static AllPairsTable build(DijkstraEngine engine) {
+        int n = engine.getGraph().getVertexCount();
+        if (estimateBytes(n) == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph with " + n + " vertices is too large for an all-pairs table");
+        }
+
+        logger.info("Building all-pairs table for {} stations ({} bytes)", n, estimateBytes(n));
+        long startTime = System.nanoTime();
+
+        int[][] dist = new int[n][];
+        boolean compact = n < NO_HOP;
+        char[][] nextCompact = compact ? new char[n][] : null;
+        int[][] nextWide = compact ? null : new int[n][];
+
+        // Строки независимы: каждый поток пишет только в свою строку
+        IntStream.range(0, n).parallel().forEach(root -> fillRow(engine, root, dist, nextCompact, nextWide));
+
+        long buildTimeMillis = (System.nanoTime() - startTime) / 1_000_000;
+        AllPairsTable table = new AllPairsTable(engine.getGraph(), dist, nextCompact, nextWide, buildTimeMillis);
+        logger.info("All-pairs table built in {} ms, {} bytes", buildTimeMillis, table.getMemoryBytes());
+        return table;
+    }
+
+    private static void fillRow(DijkstraEngine engine, int root, int[][] dist, char[][] nextCompact,
+                                int[][] nextWide) {
+        int n = engine.getGraph().getVertexCount();
+        SearchState state = engine.search(root, -1);
+        int[] distRow = new int[n];
+        char[] compactRow = nextCompact != null ? new char[n] : null;
+        int[] wideRow = nextCompact != null ? null : new int[n];
+        for (int v = 0; v < n; v++) {
+            distRow[v] = state.dist(v);
+            int hop = state.prev(v);
+            if (compactRow != null) {
+                compactRow[v] = hop == -1 ? NO_HOP : (char) hop;
+            } else {
+                wideRow[v] = hop;
+            }
+        }
+        dist[root] = distRow;
+        if (compactRow != null) {
+            nextCompact[root] = compactRow;
+        } else {
+            nextWide[root] = wideRow;
+        }
+    }
+
+    /**
+     * Строит таблицу для измененного графа с тем же набором вершин,
+     * пересчитывая только указанные строки. Остальные строки не копируются,
+     * а используются новой таблицей совместно с текущей: вызывающий код
+     * отвечает за то, что изменение на них не влияет. Исключение - закрытые
+     * станции ({@link CsrGraph#isClosed(int)}): в таких строках они остаются
+     * листьями деревьев путей и при чтении считаются недостижимыми.
+     * Стоимость - указатели на n строк плюс пересчитанные строки.
+     * Текущая таблица не меняется, поэтому её можно читать во время ремонта.
+     *
+     * @param engine движок поиска по измененному графу
+     * @param rebuildRow номера строк (корней деревьев путей), которые нужно пересчитать
+     * @return новая таблица
+     * @throws IllegalArgumentException если количество вершин графа изменилось
+     */
+    public AllPairsTable repair(DijkstraEngine engine, IntPredicate rebuildRow) {
+        CsrGraph csr = engine.getGraph();
+        if (csr.getVertexCount() != n) {
+            throw new IllegalArgumentException("Cannot repair a table of " + n + " stations for a graph of "
+                    + csr.getVertexCount());
+        }
+        long startTime = System.nanoTime();
+        // Копируются только ссылки на строки
+        int[][] newDist = dist.clone();
+        char[][] newCompact = nextCompact != null ? nextCompact.clone() : null;
+        int[][] newWide = nextWide != null ? nextWide.clone() : null;
+
+        int[] rows = IntStream.range(0, n).filter(rebuildRow).toArray();
+        IntStream.of(rows).parallel().forEach(root -> fillRow(engine, root, newDist, newCompact, newWide));
+
+        long repairTimeMillis = (System.nanoTime() - startTime) / 1_000_000;
+        logger.info("All-pairs table repaired in {} ms: {} of {} rows rebuilt", repairTimeMillis, rows.length, n);
+        return new AllPairsTable(csr, newDist, newCompact, newWide, repairTimeMillis);
+    }
+
+    /**
+     * Проверяет, входит ли ребро в дерево кратчайших путей с указанным корнем.
+     * Если ребро удлинилось или закрылось, но в дерево не входило,
+     * строка таблицы для этого корня остается верной.
+     *
+     * @param root корень дерева (номер строки)
+     * @param a первая вершина ребра
+     * @param b вторая вершина ребра
+     * @return true если одна из вершин - предшественник другой в дереве
+     */
+    public boolean treeUsesEdge(int root, int a, int b) {
+        return nextHop(root, a) == b || nextHop(root, b) == a;
+    }
+
+    /**
+     * Проверяет, проходят ли через вершину пути дерева с указанным корнем,
+     * то есть является ли она корнем или предшественником другой вершины
+     *
+     * @param root корень дерева (номер строки)
+     * @param v вершина
+     * @return true если вершина - не лист дерева путей
+     */
+    public boolean treeUsesVertex(int root, int v) {
+        if (root == v) return true;
+        for (int s = 0; s < n; s++) {
+            if (nextHop(root, s) == v) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Проверяет, может ли ребро указанного веса сократить пути
+     * дерева с указанным корнем
+     *
+     * @param root корень дерева (номер строки)
+     * @param a первая вершина ребра
+     * @param b вторая вершина ребра
+     * @param weight вес ребра
+     * @return true если через ребро одна из его вершин становится ближе к корню
+     */
+    public boolean edgeImprovesTree(int root, int a, int b, int weight) {
+        int da = distance(a, root);
+        int db = distance(b, root);
+        return da + weight < db || db + weight < da;
+    }
+
+    /**
+     * Возвращает длину кратчайшего пути
+     *
+     * @param from начальная вершина
+     * @param to конечная вершина
+     * @return расстояние или CsrGraph.INF если путь не существует
+     */
+    public int distance(int from, int to) {
+        if (from != to && (graph.isClosed(from) || graph.isClosed(to))) {
+            return CsrGraph.INF;
+        }
+        return dist[to][from];
+    }
+
+    /**
+     * Восстанавливает путь по таблице следующих переходов
+     *
+     * @param from начальная вершина
+     * @param to конечная вершина
+     * @param out буфер, в который записываются вершины пути от начала к концу
+     * @return true если путь существует
+     */
+    public boolean pathInto(int from, int to, IntList out) {
+        out.clear();
+        if (distance(from, to) >= CsrGraph.INF) {
+            return false;
+        }
+        for (int at = from; at != to; at = nextHop(to, at)) {
+            out.add(at);
+        }
+        out.add(to);
+        return true;
+    }
+
+    private int nextHop(int root, int v) {
+        if (nextCompact != null) {
+            char hop = nextCompact[root][v];
+            return hop == NO_HOP ? -1 : hop;
+        }
+        return nextWide[root][v];
+    }
+
+    /**
+     * Возвращает граф, для которого построена таблица
+     *
+     * @return CSR-граф
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Возвращает количество вершин, для которых построена таблица
+     *
+     * @return количество вершин
+     */
+    public int getVertexCount() {
+        return n;
+    }
+
+    /**
+     * Возвращает время построения таблицы
+     *
+     * @return время в миллисекундах
+     */
+    public long getBuildTimeMillis() {
+        return buildTimeMillis;
+    }
+
+    /**
+     * Возвращает объем памяти, занимаемый таблицей, включая строки,
+     * общие с таблицей, из которой она отремонтирована
+     *
+     * @return размер в байтах
+     */
+    public long getMemoryBytes() {
+        int hopBytes = nextCompact != null ? Character.BYTES : Integer.BYTES;
+        return (long) n * n * (Integer.BYTES + hopBytes);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IndexedMinHeap;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.SearchState;
+
+/**
+ * Двунаправленный алгоритм Дейкстры для запросов "точка - точка".
+ * Поиск ведется одновременно от начальной станции и от конечной;
+ * каждый шаг продвигает сторону с меньшим ключом в очереди.
+ * Поиск останавливается, когда сумма минимальных ключей обеих очередей
+ * не меньше лучшего найденного пути, поэтому обрабатывается примерно
+ * вдвое меньший радиус вокруг каждой из станций.
+ * Граф неориентированный, поэтому обратный поиск идет по тем же дугам.
+ * Экземпляр потокобезопасен: состояния поиска хранятся отдельно для каждого потока.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class BidirectionalDijkstra {
+    private final CsrGraph graph;
+    private final ThreadLocal<SearchState> forwardStates;
+    private final ThreadLocal<SearchState> backwardStates;
+
+    /**
+     * Создает движок для указанного графа
+     *
+     * @param graph CSR-граф
+     */
+    public BidirectionalDijkstra(CsrGraph graph) {
+        this.graph = graph;
+        this.forwardStates = ThreadLocal.withInitial(() -> new SearchState(graph.getVertexCount(), CsrGraph.INF));
+        this.backwardStates = ThreadLocal.withInitial(() -> new SearchState(graph.getVertexCount(), CsrGraph.INF));
+    }
+
+    /**
+     * Возвращает граф, по которому работает движок
+     *
+     * @return CSR-граф
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Находит кратчайший путь между двумя вершинами
+     *
+     * @param start начальная вершина
+     * @param end конечная вершина
+     * @param out буфер, в который записываются вершины пути от начала к концу
+     * @return длина пути или CsrGraph.INF если путь не существует
+     */
+    public int route(int start, int end, IntList out) {
+        SearchState forward = forwardStates.get();
+        SearchState backward = backwardStates.get();
+        forward.reset();
+        backward.reset();
+        out.clear();
+
+        forward.update(start, 0, -1);
+        forward.getHeap().insertOrDecrease(start, 0);
+        backward.update(end, 0, -1);
+        backward.getHeap().insertOrDecrease(end, 0);
+
+        int best = start == end ? 0 : CsrGraph.INF;
+        int meeting = start == end ? start : -1;
+
+        IndexedMinHeap forwardHeap = forward.getHeap();
+        IndexedMinHeap backwardHeap = backward.getHeap();
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+            int forwardKey = forwardHeap.peekKey();
+            int backwardKey = backwardHeap.peekKey();
+            if (forwardKey + backwardKey >= best) break;
+
+            // Продвигаем сторону с меньшим радиусом
+            boolean forwardStep = forwardKey <= backwardKey;
+            SearchState side = forwardStep ? forward : backward;
+            SearchState other = forwardStep ? backward : forward;
+
+            int u = side.getHeap().poll();
+            side.settle(u);
+            int du = side.dist(u);
+
+            for (int a = graph.arcStart(u), last = graph.arcEnd(u); a < last; a++) {
+                int v = graph.target(a);
+                if (side.isSettled(v)) continue;
+                side.countRelaxation();
+                int alt = du + graph.weight(a);
+                if (alt < side.dist(v)) {
+                    side.update(v, alt, u);
+                    side.getHeap().insertOrDecrease(v, alt);
+                }
+                // Проверяем встречу двух поисков через эту дугу
+                if (other.isReached(v)) {
+                    int candidate = side.dist(v) + other.dist(v);
+                    if (candidate < best) {
+                        best = candidate;
+                        meeting = v;
+                    }
+                }
+            }
+        }
+
+        if (meeting == -1) {
+            return CsrGraph.INF;
+        }
+
+        // Первая половина: от встречи назад к началу, затем разворот
+        for (int at = meeting; at != -1; at = forward.prev(at)) {
+            out.add(at);
+        }
+        int[] data = out.rawArray();
+        for (int i = 0, j = out.size() - 1; i < j; i++, j--) {
+            int tmp = data[i];
+            data[i] = data[j];
+            data[j] = tmp;
+        }
+        // Вторая половина: от встречи по дереву обратного поиска к концу
+        for (int at = backward.prev(meeting); at != -1; at = backward.prev(at)) {
+            out.add(at);
+        }
+        return best;
+    }
+
+    /**
+     * Возвращает количество вершин, обработанных последним запросом текущего потока
+     *
+     * @return количество вершин в обоих направлениях
+     */
+    public int getLastSettledCount() {
+        return forwardStates.get().getSettledCount() + backwardStates.get().getSettledCount();
+    }
+
+    /**
+     * Возвращает количество ребер, просмотренных последним запросом текущего потока
+     *
+     * @return количество релаксаций в обоих направлениях
+     */
+    public long getLastRelaxedCount() {
+        return forwardStates.get().getRelaxedCount() + backwardStates.get().getRelaxedCount();
+    }
+}
\ No newline at end of file
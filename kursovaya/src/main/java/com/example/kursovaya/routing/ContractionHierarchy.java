@@ -0,0 +1,495 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IndexedMinHeap;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.SearchState;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Иерархия сжатий (Contraction Hierarchies) для очень быстрых запросов
+ * кратчайшего пути.
+ * При предобработке вершины по очереди "сжимаются" в порядке важности:
+ * вершина удаляется из графа, а для каждой пары её соседей, кратчайший путь
+ * между которыми шел через неё, добавляется ребро-сокращение (shortcut).
+ * Запрос - двунаправленный поиск, который идет только по ребрам к более
+ * важным вершинам, поэтому обрабатывает лишь небольшую часть графа.
+ * Сокращения хранят среднюю вершину, по которой путь разворачивается
+ * обратно в последовательность исходных станций.
+ * Длины путей совпадают с алгоритмом Дейкстры; при нескольких путях
+ * одинаковой длины может быть выбран другой из них.
+ * Экземпляр неизменяем и потокобезопасен.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class ContractionHierarchy {
+    private static final Logger logger = LogManager.getLogger(ContractionHierarchy.class);
+
+    private static final int WITNESS_SETTLE_LIMIT = 500; // Предел вершин в поиске свидетеля
+
+    private final CsrGraph graph;
+    private final int[] rank;
+    // Ребра "вверх": от вершины к соседям с большим рангом, в формате CSR
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddles; // Средняя вершина сокращения или -1 для исходного ребра
+    private final int shortcutCount;
+    private final long preprocessingMillis;
+
+    private final ThreadLocal<SearchState> forwardStates;
+    private final ThreadLocal<SearchState> backwardStates;
+
+    private ContractionHierarchy(CsrGraph graph, int[] rank, int[] upOffsets, int[] upTargets,
+                                 int[] upWeights, int[] upMiddles, int shortcutCount, long preprocessingMillis) {
+        this.graph = graph;
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.shortcutCount = shortcutCount;
+        this.preprocessingMillis = preprocessingMillis;
+        int n = graph.getVertexCount();
+        this.forwardStates = ThreadLocal.withInitial(() -> new SearchState(n, CsrGraph.INF));
+        this.backwardStates = ThreadLocal.withInitial(() -> new SearchState(n, CsrGraph.INF));
+    }
+
+    /**
+     * Строит иерархию сжатий для графа
+     *
+     * @param graph CSR-граф
+     * @return построенная иерархия
+     */
+    public static ContractionHierarchy build(CsrGraph graph) {
+        long startTime = System.nanoTime();
+        Contractor contractor = new Contractor(graph);
+        contractor.contractAll();
+
+        int n = graph.getVertexCount();
+        IntList upSource = contractor.upSource;
+        int[] upOffsets = new int[n + 1];
+        for (int i = 0; i < upSource.size(); i++) {
+            upOffsets[upSource.get(i) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+        }
+        int m = upSource.size();
+        int[] upTargets = new int[m];
+        int[] upWeights = new int[m];
+        int[] upMiddles = new int[m];
+        int[] fill = Arrays.copyOf(upOffsets, n);
+        for (int i = 0; i < m; i++) {
+            int pos = fill[upSource.get(i)]++;
+            upTargets[pos] = contractor.upTarget.get(i);
+            upWeights[pos] = contractor.upWeight.get(i);
+            upMiddles[pos] = contractor.upMiddle.get(i);
+        }
+
+        long millis = (System.nanoTime() - startTime) / 1_000_000;
+        logger.info("Contraction hierarchy built in {} ms: {} upward edges, {} shortcuts",
+                millis, m, contractor.shortcuts);
+        return new ContractionHierarchy(graph, contractor.rank, upOffsets, upTargets, upWeights, upMiddles,
+                contractor.shortcuts, millis);
+    }
+
+    /**
+     * Находит кратчайший путь между двумя вершинами
+     *
+     * @param start начальная вершина
+     * @param end конечная вершина
+     * @param out буфер, в который записываются исходные вершины пути от начала к концу
+     * @return длина пути или CsrGraph.INF если путь не существует
+     */
+    public int route(int start, int end, IntList out) {
+        out.clear();
+        SearchState forward = forwardStates.get();
+        SearchState backward = backwardStates.get();
+        int meeting = search(start, end, forward, backward);
+        if (meeting == -1) {
+            return CsrGraph.INF;
+        }
+
+        // Путь в иерархии: от начала вверх до вершины встречи и вниз до конца
+        IntList hierarchyPath = new IntList();
+        for (int at = meeting; at != -1; at = forward.prev(at)) {
+            hierarchyPath.add(at);
+        }
+        int[] data = hierarchyPath.rawArray();
+        for (int i = 0, j = hierarchyPath.size() - 1; i < j; i++, j--) {
+            int tmp = data[i];
+            data[i] = data[j];
+            data[j] = tmp;
+        }
+        for (int at = backward.prev(meeting); at != -1; at = backward.prev(at)) {
+            hierarchyPath.add(at);
+        }
+
+        out.add(hierarchyPath.get(0));
+        IntList stack = new IntList();
+        for (int i = 1; i < hierarchyPath.size(); i++) {
+            unpack(hierarchyPath.get(i - 1), hierarchyPath.get(i), out, stack);
+        }
+        return forward.dist(meeting) + backward.dist(meeting);
+    }
+
+    /**
+     * Возвращает длину кратчайшего пути без его восстановления
+     *
+     * @param start начальная вершина
+     * @param end конечная вершина
+     * @return длина пути или CsrGraph.INF если путь не существует
+     */
+    public int distance(int start, int end) {
+        SearchState forward = forwardStates.get();
+        SearchState backward = backwardStates.get();
+        int meeting = search(start, end, forward, backward);
+        return meeting == -1 ? CsrGraph.INF : forward.dist(meeting) + backward.dist(meeting);
+    }
+
+    private int search(int start, int end, SearchState forward, SearchState backward) {
+        forward.reset();
+        backward.reset();
+        forward.update(start, 0, -1);
+        forward.getHeap().insertOrDecrease(start, 0);
+        backward.update(end, 0, -1);
+        backward.getHeap().insertOrDecrease(end, 0);
+
+        int best = CsrGraph.INF;
+        int meeting = -1;
+        IndexedMinHeap forwardHeap = forward.getHeap();
+        IndexedMinHeap backwardHeap = backward.getHeap();
+        while (true) {
+            boolean forwardActive = !forwardHeap.isEmpty() && forwardHeap.peekKey() < best;
+            boolean backwardActive = !backwardHeap.isEmpty() && backwardHeap.peekKey() < best;
+            if (!forwardActive && !backwardActive) break;
+
+            boolean forwardStep = forwardActive
+                    && (!backwardActive || forwardHeap.peekKey() <= backwardHeap.peekKey());
+            SearchState side = forwardStep ? forward : backward;
+            SearchState other = forwardStep ? backward : forward;
+
+            int u = side.getHeap().poll();
+            side.settle(u);
+            int du = side.dist(u);
+            if (other.isReached(u) && du + other.dist(u) < best) {
+                best = du + other.dist(u);
+                meeting = u;
+            }
+
+            // Обе стороны идут только вверх по иерархии
+            for (int a = upOffsets[u], last = upOffsets[u + 1]; a < last; a++) {
+                int v = upTargets[a];
+                side.countRelaxation();
+                int alt = du + upWeights[a];
+                if (alt < side.dist(v)) {
+                    side.update(v, alt, u);
+                    side.getHeap().insertOrDecrease(v, alt);
+                }
+            }
+        }
+        return meeting;
+    }
+
+    /**
+     * Разворачивает ребро иерархии в последовательность исходных ребер.
+     * Использует явный стек вместо рекурсии.
+     */
+    private void unpack(int from, int to, IntList out, IntList stack) {
+        stack.clear();
+        stack.add(from);
+        stack.add(to);
+        while (stack.size() > 0) {
+            int b = stack.removeLast();
+            int a = stack.removeLast();
+            int middle = upMiddles[findUpArc(a, b)];
+            if (middle == -1) {
+                out.add(b);
+            } else {
+                // Сначала обрабатывается левая половина, поэтому она кладется последней
+                stack.add(middle);
+                stack.add(b);
+                stack.add(a);
+                stack.add(middle);
+            }
+        }
+    }
+
+    private int findUpArc(int a, int b) {
+        int lower = rank[a] < rank[b] ? a : b;
+        int higher = lower == a ? b : a;
+        for (int arc = upOffsets[lower]; arc < upOffsets[lower + 1]; arc++) {
+            if (upTargets[arc] == higher) return arc;
+        }
+        throw new IllegalStateException("No hierarchy edge between " + a + " and " + b);
+    }
+
+    /**
+     * Возвращает граф, для которого построена иерархия
+     *
+     * @return CSR-граф
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Возвращает количество добавленных сокращений
+     *
+     * @return количество ребер-сокращений
+     */
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * Возвращает время предобработки
+     *
+     * @return время в миллисекундах
+     */
+    public long getPreprocessingMillis() {
+        return preprocessingMillis;
+    }
+
+    /**
+     * Возвращает количество вершин, обработанных последним запросом текущего потока
+     *
+     * @return количество вершин в обоих направлениях
+     */
+    public int getLastSettledCount() {
+        return forwardStates.get().getSettledCount() + backwardStates.get().getSettledCount();
+    }
+
+    /**
+     * Возвращает количество ребер, просмотренных последним запросом текущего потока
+     *
+     * @return количество релаксаций в обоих направлениях
+     */
+    public long getLastRelaxedCount() {
+        return forwardStates.get().getRelaxedCount() + backwardStates.get().getRelaxedCount();
+    }
+
+    /**
+     * Изменяемое состояние предобработки: динамический граф оставшихся
+     * вершин, очередь по приоритету сжатия и накопленные ребра "вверх".
+     */
+    private static final class Contractor {
+        private final int n;
+        private final IntList[] adjTarget;
+        private final IntList[] adjWeight;
+        private final IntList[] adjMiddle;
+        private final boolean[] contracted;
+        private final int[] deletedNeighbors;
+        private final int[] rank;
+        private final SearchState witness;
+
+        private final IntList upSource = new IntList();
+        private final IntList upTarget = new IntList();
+        private final IntList upWeight = new IntList();
+        private final IntList upMiddle = new IntList();
+        private int shortcuts;
+
+        // Буферы текущей вершины, переиспользуются между сжатиями
+        private final IntList neighbors = new IntList();
+        private final IntList neighborWeights = new IntList();
+        private final IntList pendingFrom = new IntList();
+        private final IntList pendingTo = new IntList();
+        private final IntList pendingWeight = new IntList();
+
+        Contractor(CsrGraph graph) {
+            n = graph.getVertexCount();
+            adjTarget = new IntList[n];
+            adjWeight = new IntList[n];
+            adjMiddle = new IntList[n];
+            for (int v = 0; v < n; v++) {
+                int degree = graph.degree(v);
+                adjTarget[v] = new IntList(degree);
+                adjWeight[v] = new IntList(degree);
+                adjMiddle[v] = new IntList(degree);
+                for (int a = graph.arcStart(v); a < graph.arcEnd(v); a++) {
+                    // Закрытые дуги не должны попасть в сумму весов ярлыка
+                    if (graph.weight(a) >= CsrGraph.INF) continue;
+                    adjTarget[v].add(graph.target(a));
+                    adjWeight[v].add(graph.weight(a));
+                    adjMiddle[v].add(-1);
+                }
+            }
+            contracted = new boolean[n];
+            deletedNeighbors = new int[n];
+            rank = new int[n];
+            witness = new SearchState(n, CsrGraph.INF);
+        }
+
+        void contractAll() {
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.insertOrDecrease(v, priority(v));
+            }
+
+            int order = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                // Ленивое обновление: приоритет мог вырасти после сжатия соседей
+                int current = priority(v);
+                if (!queue.isEmpty() && current > queue.peekKey()) {
+                    queue.insertOrDecrease(v, current);
+                    continue;
+                }
+                contract(v);
+                rank[v] = order++;
+            }
+        }
+
+        private int priority(int v) {
+            collectNeighbors(v);
+            int needed = findShortcuts(v, false);
+            return needed - neighbors.size() + deletedNeighbors[v];
+        }
+
+        private void contract(int v) {
+            collectNeighbors(v);
+            findShortcuts(v, true);
+
+            // Оставшиеся ребра вершины ведут к более важным вершинам
+            IntList targets = adjTarget[v];
+            for (int i = 0; i < targets.size(); i++) {
+                int u = targets.get(i);
+                if (contracted[u]) continue;
+                upSource.add(v);
+                upTarget.add(u);
+                upWeight.add(adjWeight[v].get(i));
+                upMiddle.add(adjMiddle[v].get(i));
+                deletedNeighbors[u]++;
+                removeEdge(u, v);
+            }
+            contracted[v] = true;
+
+            for (int i = 0; i < pendingFrom.size(); i++) {
+                addOrImprove(pendingFrom.get(i), pendingTo.get(i), pendingWeight.get(i), v);
+                addOrImprove(pendingTo.get(i), pendingFrom.get(i), pendingWeight.get(i), v);
+                shortcuts++;
+            }
+        }
+
+        private void collectNeighbors(int v) {
+            neighbors.clear();
+            neighborWeights.clear();
+            IntList targets = adjTarget[v];
+            for (int i = 0; i < targets.size(); i++) {
+                int u = targets.get(i);
+                if (!contracted[u]) {
+                    neighbors.add(u);
+                    neighborWeights.add(adjWeight[v].get(i));
+                }
+            }
+        }
+
+        /**
+         * Считает сокращения, необходимые при удалении v.
+         * Если record=true, сохраняет их в pending-буферах.
+         */
+        private int findShortcuts(int v, boolean record) {
+            pendingFrom.clear();
+            pendingTo.clear();
+            pendingWeight.clear();
+            int count = 0;
+            int k = neighbors.size();
+            // У последнего соседа нет пар; при нулевых весах поиск свидетелей
+            // все равно нужен: путь через v длины 0 тоже требует сокращения
+            for (int i = 0; i + 1 < k; i++) {
+                int u = neighbors.get(i);
+                int wu = neighborWeights.get(i);
+                int maxVia = 0;
+                for (int j = i + 1; j < k; j++) {
+                    maxVia = Math.max(maxVia, wu + neighborWeights.get(j));
+                }
+                witnessSearch(u, v, maxVia);
+                for (int j = i + 1; j < k; j++) {
+                    int x = neighbors.get(j);
+                    int via = wu + neighborWeights.get(j);
+                    if (witness.dist(x) > via) {
+                        count++;
+                        if (record) {
+                            pendingFrom.add(u);
+                            pendingTo.add(x);
+                            pendingWeight.add(via);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Ограниченный поиск Дейкстры от u в оставшемся графе без вершины v.
+         * Если путь не найден из-за ограничений, добавляется лишнее сокращение,
+         * что не влияет на правильность.
+         */
+        private void witnessSearch(int u, int excluded, int maxDist) {
+            witness.reset();
+            IndexedMinHeap heap = witness.getHeap();
+            witness.update(u, 0, -1);
+            heap.insertOrDecrease(u, 0);
+            int settled = 0;
+            while (!heap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (heap.peekKey() > maxDist) break;
+                int x = heap.poll();
+                witness.settle(x);
+                settled++;
+                int dx = witness.dist(x);
+                IntList targets = adjTarget[x];
+                for (int i = 0; i < targets.size(); i++) {
+                    int y = targets.get(i);
+                    if (y == excluded || contracted[y] || witness.isSettled(y)) continue;
+                    int alt = dx + adjWeight[x].get(i);
+                    if (alt < witness.dist(y)) {
+                        witness.update(y, alt, x);
+                        heap.insertOrDecrease(y, alt);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Удаляет ребро к сжатой вершине из списка соседа, чтобы списки
+         * оставшихся вершин не разрастались
+         */
+        private void removeEdge(int from, int to) {
+            IntList targets = adjTarget[from];
+            for (int i = 0; i < targets.size(); i++) {
+                if (targets.get(i) == to) {
+                    int last = targets.size() - 1;
+                    targets.set(i, targets.get(last));
+                    adjWeight[from].set(i, adjWeight[from].get(last));
+                    adjMiddle[from].set(i, adjMiddle[from].get(last));
+                    targets.removeLast();
+                    adjWeight[from].removeLast();
+                    adjMiddle[from].removeLast();
+                    return;
+                }
+            }
+        }
+
+        private void addOrImprove(int from, int to, int weight, int middle) {
+            IntList targets = adjTarget[from];
+            for (int i = 0; i < targets.size(); i++) {
+                if (targets.get(i) == to) {
+                    if (weight < adjWeight[from].get(i)) {
+                        adjWeight[from].set(i, weight);
+                        adjMiddle[from].set(i, middle);
+                    }
+                    return;
+                }
+            }
+            targets.add(to);
+            adjWeight[from].add(weight);
+            adjMiddle[from].add(middle);
+        }
+    }
+}
\ No newline at end of file
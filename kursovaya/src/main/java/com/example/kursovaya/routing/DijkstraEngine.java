@@ -0,0 +1,212 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IndexedMinHeap;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.SearchState;
+
+/**
+ * Движок алгоритма Дейкстры поверх CSR-графа.
+ * Использует индексированную 4-арную кучу с уменьшением ключа и
+ * переиспользуемое состояние поиска, которое хранится отдельно для
+ * каждого потока. После первого запроса в потоке поиск не выделяет память.
+ * Экземпляр потокобезопасен: граф неизменяем, а изменяемое состояние
+ * у каждого потока свое.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class DijkstraEngine {
+    private final CsrGraph graph;
+    private final ThreadLocal<SearchState> states;
+
+    /**
+     * Создает движок для указанного графа
+     *
+     * @param graph CSR-граф
+     */
+    public DijkstraEngine(CsrGraph graph) {
+        this.graph = graph;
+        this.states = ThreadLocal.withInitial(() -> new SearchState(graph.getVertexCount(), CsrGraph.INF));
+    }
+
+    /**
+     * Возвращает граф, по которому работает движок
+     *
+     * @return CSR-граф
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Возвращает состояние поиска текущего потока.
+     * Содержимое действительно до следующего запроса в этом потоке.
+     *
+     * @return состояние поиска
+     */
+    public SearchState currentState() {
+        return states.get();
+    }
+
+    /**
+     * Выполняет поиск от начальной вершины до конечной.
+     * Поиск останавливается, как только конечная вершина обработана.
+     *
+     * @param start начальная вершина
+     * @param end конечная вершина или -1 для построения полного дерева путей
+     * @return состояние поиска текущего потока с результатами
+     */
+    public SearchState search(int start, int end) {
+        SearchState state = states.get();
+        state.reset();
+        state.update(start, 0, -1);
+        state.getHeap().insertOrDecrease(start, 0);
+        run(state, end, CsrGraph.INF);
+        return state;
+    }
+
+    /**
+     * Выполняет поиск сразу из нескольких начальных вершин с ограничением
+     * по расстоянию. Каждая вершина получает расстояние до ближайшей
+     * из начальных; поиск останавливается, как только расстояние
+     * до следующей вершины очереди превышает ограничение, поэтому дальние
+     * части графа не просматриваются.
+     *
+     * @param starts начальные вершины
+     * @param limit наибольшее расстояние обрабатываемых вершин
+     * @return состояние поиска текущего потока; обработанные вершины
+     *         перечислены в порядке возрастания расстояния
+     */
+    public SearchState searchWithin(int[] starts, int limit) {
+        SearchState state = states.get();
+        state.reset();
+        for (int start : starts) {
+            state.update(start, 0, -1);
+            state.getHeap().insertOrDecrease(start, 0);
+        }
+        run(state, -1, limit);
+        return state;
+    }
+
+    /**
+     * Возвращает длину кратчайшего пути без построения самого пути
+     *
+     * @param start начальная вершина
+     * @param end конечная вершина
+     * @return расстояние или CsrGraph.INF если путь не существует
+     */
+    public int distance(int start, int end) {
+        return search(start, end).dist(end);
+    }
+
+    /**
+     * Основной цикл алгоритма по заранее заполненной очереди.
+     * Позволяет другим движкам запускать поиск из нескольких вершин
+     * или с ограничением по расстоянию.
+     *
+     * @param state состояние с заполненной очередью
+     * @param end вершина, при обработке которой поиск останавливается, или -1
+     * @param limit поиск не обрабатывает вершины дальше этого расстояния
+     */
+    public void run(SearchState state, int end, int limit) {
+        IndexedMinHeap heap = state.getHeap();
+        while (!heap.isEmpty()) {
+            if (heap.peekKey() > limit) break;
+            int u = heap.poll();
+            state.settle(u);
+            if (u == end) break;
+            relax(state, u);
+        }
+    }
+
+    /**
+     * Релаксирует все дуги, выходящие из обработанной вершины
+     */
+    private void relax(SearchState state, int u) {
+        IndexedMinHeap heap = state.getHeap();
+        int du = state.dist(u);
+        for (int a = graph.arcStart(u), last = graph.arcEnd(u); a < last; a++) {
+            int v = graph.target(a);
+            if (state.isSettled(v)) continue;
+            state.countRelaxation();
+            int alt = du + graph.weight(a);
+            if (alt < state.dist(v)) {
+                state.update(v, alt, u);
+                heap.insertOrDecrease(v, alt);
+            }
+        }
+    }
+
+    /**
+     * Вычисляет расстояния от начальной вершины до всех вершин графа
+     * одним поиском. Дерево путей не выбрасывается после первой цели,
+     * поэтому это в n раз дешевле, чем n отдельных запросов.
+     *
+     * @param start начальная вершина
+     * @param out массив длиной не меньше количества вершин,
+     *            недостижимые вершины получают CsrGraph.INF
+     */
+    public void distancesFrom(int start, int[] out) {
+        SearchState state = search(start, -1);
+        for (int v = 0, n = graph.getVertexCount(); v < n; v++) {
+            out[v] = state.dist(v);
+        }
+    }
+
+    /**
+     * Вычисляет расстояния от начальной вершины до нескольких целей одним поиском.
+     * Поиск продолжается с того места, где остановился на предыдущей цели,
+     * и заканчивается, как только обработана самая дальняя из целей.
+     *
+     * @param start начальная вершина
+     * @param targets конечные вершины
+     * @param out массив длиной не меньше количества целей, out[i] - расстояние
+     *            до targets[i] или CsrGraph.INF если путь не существует
+     */
+    public void distances(int start, int[] targets, int[] out) {
+        SearchState state = states.get();
+        state.reset();
+        state.update(start, 0, -1);
+        state.getHeap().insertOrDecrease(start, 0);
+        for (int i = 0; i < targets.length; i++) {
+            int target = targets[i];
+            if (!state.isSettled(target)) {
+                run(state, target, CsrGraph.INF);
+                // run останавливается до релаксации дуг цели, без этого
+                // продолжение поиска пропустило бы пути через неё
+                if (state.isSettled(target)) {
+                    relax(state, target);
+                }
+            }
+            out[i] = state.dist(target);
+        }
+    }
+
+    /**
+     * Восстанавливает путь из дерева предшественников в переданный буфер
+     *
+     * @param state состояние завершенного поиска
+     * @param start начальная вершина
+     * @param end конечная вершина
+     * @param out буфер, в который записываются вершины пути от начала к концу
+     * @return true если путь существует
+     */
+    public static boolean unwindPath(SearchState state, int start, int end, IntList out) {
+        out.clear();
+        if (!state.isReached(end)) {
+            return false;
+        }
+        for (int at = end; at != -1; at = state.prev(at)) {
+            out.add(at);
+        }
+        // Разворачиваем путь на месте
+        int[] data = out.rawArray();
+        for (int i = 0, j = out.size() - 1; i < j; i++, j--) {
+            int tmp = data[i];
+            data[i] = data[j];
+            data[j] = tmp;
+        }
+        return data[0] == start;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.util.Isochrone;
+import com.example.kursovaya.util.QueryMetrics;
+import com.example.kursovaya.util.SearchState;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.stream.IntStream;
+
+/**
+ * Пакетный расчет таблицы времен в пути "отправление × назначение".
+ * Для каждой станции отправления выполняется один поиск Дейкстры,
+ * который останавливается, как только обработаны все станции назначения.
+ * Станции отправления обрабатываются параллельно на всех ядрах,
+ * каждый поток пишет только в свою строку результата.
+ * Здесь же поиск станций, достижимых за заданное время (изохроны).
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class DistanceMatrix {
+    private static final Logger logger = LogManager.getLogger(DistanceMatrix.class);
+
+    private DistanceMatrix() {
+    }
+
+    /**
+     * Вычисляет расстояния от одной вершины до всех вершин графа
+     *
+     * @param engine движок поиска по графу
+     * @param origin начальная вершина
+     * @return массив расстояний, недостижимые вершины получают CsrGraph.INF
+     * @throws IllegalArgumentException если вершины нет в графе
+     */
+    public static int[] oneToAll(DijkstraEngine engine, int origin) {
+        int n = engine.getGraph().getVertexCount();
+        checkVertex(origin, n);
+        long started = QueryMetrics.start();
+        long allocated = QueryMetrics.allocatedBytes();
+        int[] row = new int[n];
+        engine.distancesFrom(origin, row);
+        record(engine, started, allocated);
+        return row;
+    }
+
+    /**
+     * Вычисляет расстояния от одной вершины до нескольких вершин одним поиском
+     *
+     * @param engine движок поиска по графу
+     * @param origin начальная вершина
+     * @param destinations конечные вершины
+     * @return массив, i-й элемент которого - расстояние до destinations[i]
+     * @throws IllegalArgumentException если какой-либо вершины нет в графе
+     */
+    public static int[] oneToMany(DijkstraEngine engine, int origin, int[] destinations) {
+        int n = engine.getGraph().getVertexCount();
+        checkVertex(origin, n);
+        checkVertices(destinations, n);
+        int[] row = new int[destinations.length];
+        fillRow(engine, origin, destinations, row);
+        return row;
+    }
+
+    /**
+     * Вычисляет таблицу расстояний между всеми парами из двух наборов вершин
+     *
+     * @param engine движок поиска по графу
+     * @param origins начальные вершины
+     * @param destinations конечные вершины
+     * @return строки по начальным вершинам: result[i][j] - расстояние
+     *         от origins[i] до destinations[j] или CsrGraph.INF
+     * @throws IllegalArgumentException если какой-либо вершины нет в графе
+     */
+    public static int[][] manyToMany(DijkstraEngine engine, int[] origins, int[] destinations) {
+        int n = engine.getGraph().getVertexCount();
+        checkVertices(origins, n);
+        checkVertices(destinations, n);
+
+        long startTime = System.nanoTime();
+        int[][] rows = new int[origins.length][];
+        IntStream.range(0, origins.length).parallel().forEach(i -> {
+            int[] row = new int[destinations.length];
+            fillRow(engine, origins[i], destinations, row);
+            rows[i] = row;
+        });
+        if (logger.isDebugEnabled()) {
+            logger.debug("Distance matrix {}×{} computed in {} µs", origins.length, destinations.length,
+                    (System.nanoTime() - startTime) / 1000);
+        }
+        return rows;
+    }
+
+    /**
+     * Заполняет таблицу расстояний из таблицы всех пар без поиска
+     *
+     * @param table таблица всех пар
+     * @param origins начальные вершины
+     * @param destinations конечные вершины
+     * @return строки по начальным вершинам
+     * @throws IllegalArgumentException если какой-либо вершины нет в графе
+     */
+    public static int[][] manyToMany(AllPairsTable table, int[] origins, int[] destinations) {
+        int n = table.getVertexCount();
+        checkVertices(origins, n);
+        checkVertices(destinations, n);
+        int[][] rows = new int[origins.length][destinations.length];
+        for (int i = 0; i < origins.length; i++) {
+            for (int j = 0; j < destinations.length; j++) {
+                rows[i][j] = table.distance(origins[i], destinations[j]);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Находит все вершины, достижимые за заданное время хотя бы из одной
+     * начальной вершины, одним поиском с ограничением по расстоянию.
+     * Стоимость зависит только от размера изохроны, а не от размера графа.
+     *
+     * @param engine движок поиска по графу
+     * @param origins начальные вершины
+     * @param limit наибольшее время в пути в минутах
+     * @return достижимые вершины и время до ближайшей начальной вершины
+     *         по возрастанию времени
+     * @throws IllegalArgumentException если какой-либо вершины нет в графе
+     *         или ограничение отрицательное
+     */
+    public static Isochrone reachableWithin(DijkstraEngine engine, int[] origins, int limit) {
+        checkVertices(origins, engine.getGraph().getVertexCount());
+        if (limit < 0) {
+            throw new IllegalArgumentException("Time limit must not be negative: " + limit);
+        }
+        long started = QueryMetrics.start();
+        long allocated = QueryMetrics.allocatedBytes();
+        SearchState state = engine.searchWithin(origins, limit);
+        int count = state.getSettledCount();
+        int[] ids = new int[count];
+        int[] times = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = state.settledAt(i);
+            times[i] = state.dist(ids[i]);
+        }
+        QueryMetrics.record(QueryMetrics.Operation.ISOCHRONE, started, allocated,
+                count, state.getRelaxedCount());
+        return new Isochrone(ids, times, limit);
+    }
+
+    private static void fillRow(DijkstraEngine engine, int origin, int[] destinations, int[] row) {
+        long started = QueryMetrics.start();
+        long allocated = QueryMetrics.allocatedBytes();
+        engine.distances(origin, destinations, row);
+        record(engine, started, allocated);
+    }
+
+    private static void record(DijkstraEngine engine, long started, long allocated) {
+        SearchState state = engine.currentState();
+        QueryMetrics.record(QueryMetrics.Operation.DISTANCES, started, allocated,
+                state.getSettledCount(), state.getRelaxedCount());
+    }
+
+    private static void checkVertices(int[] vertices, int n) {
+        for (int v : vertices) {
+            checkVertex(v, n);
+        }
+    }
+
+    private static void checkVertex(int v, int n) {
+        if (v < 0 || v >= n) {
+            throw new IllegalArgumentException("Station id out of range: " + v);
+        }
+    }
+}
\ No newline at end of file
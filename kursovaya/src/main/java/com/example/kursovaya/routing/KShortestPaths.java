@@ -0,0 +1,275 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IndexedMinHeap;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.SearchState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Поиск k кратчайших путей без циклов (алгоритм Йена).
+ * Первый запрос строит полное дерево кратчайших путей к конечной станции;
+ * оно дает первый маршрут и точные расстояния до цели, которые служат
+ * нижней оценкой для поиска A* при построении ответвлений (spur-путей):
+ * запрет вершин и ребер может только увеличить расстояния, поэтому оценка
+ * остается допустимой и согласованной. Запреты хранятся в массивах
+ * с отметками поколений, поэтому граф не копируется и не изменяется.
+ * Экземпляр потокобезопасен: рабочие буферы хранятся отдельно для каждого потока.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class KShortestPaths {
+    private final CsrGraph graph;
+    private final ThreadLocal<Workspace> workspaces;
+
+    /**
+     * Создает движок для указанного графа
+     *
+     * @param graph CSR-граф
+     */
+    public KShortestPaths(CsrGraph graph) {
+        this.graph = graph;
+        this.workspaces = ThreadLocal.withInitial(() -> new Workspace(graph));
+    }
+
+    /**
+     * Возвращает граф, по которому работает движок
+     *
+     * @return CSR-граф
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Находит до k кратчайших путей без повторяющихся вершин
+     *
+     * @param start начальная вершина
+     * @param end конечная вершина
+     * @param k количество путей
+     * @return пути по возрастанию длины; пустой список, если путь не существует
+     */
+    public List<Path> find(int start, int end, int k) {
+        List<Path> accepted = new ArrayList<>();
+        if (k <= 0) {
+            return accepted;
+        }
+        Workspace ws = workspaces.get();
+
+        // Дерево путей с корнем в конечной вершине: расстояния до цели и первый путь
+        SearchState tree = ws.tree;
+        tree.reset();
+        tree.update(end, 0, -1);
+        tree.getHeap().insertOrDecrease(end, 0);
+        runTree(tree);
+        if (!tree.isReached(start)) {
+            return accepted;
+        }
+        IntList first = new IntList();
+        for (int at = start; at != -1; at = tree.prev(at)) {
+            first.add(at);
+        }
+        accepted.add(new Path(first, tree.dist(start)));
+
+        List<Path> candidates = new ArrayList<>();
+        IntList spur = new IntList();
+        for (int round = 1; round < k; round++) {
+            Path previous = accepted.get(round - 1);
+            IntList prevVertices = previous.vertices;
+            int rootCost = 0;
+
+            for (int i = 0; i < prevVertices.size() - 1; i++) {
+                int spurNode = prevVertices.get(i);
+                ws.nextBan();
+
+                // Запрещаем ребра, по которым уже известные пути с тем же началом уходят из spurNode
+                for (Path p : accepted) {
+                    if (p.vertices.size() > i + 1 && sharesPrefix(p.vertices, prevVertices, i)) {
+                        int arc = graph.findArc(spurNode, p.vertices.get(i + 1));
+                        if (arc >= 0) ws.banArc(arc);
+                    }
+                }
+                // Запрещаем вершины корневой части, чтобы путь остался без циклов
+                for (int j = 0; j < i; j++) {
+                    ws.banVertex(prevVertices.get(j));
+                }
+
+                int spurCost = spurSearch(ws, spurNode, end, spur);
+                if (spurCost < CsrGraph.INF) {
+                    IntList vertices = new IntList(i + spur.size());
+                    for (int j = 0; j < i; j++) {
+                        vertices.add(prevVertices.get(j));
+                    }
+                    for (int j = 0; j < spur.size(); j++) {
+                        vertices.add(spur.get(j));
+                    }
+                    addCandidate(candidates, new Path(vertices, rootCost + spurCost));
+                }
+
+                rootCost += graph.getWeight(spurNode, prevVertices.get(i + 1));
+            }
+
+            if (candidates.isEmpty()) break;
+            int best = 0;
+            for (int c = 1; c < candidates.size(); c++) {
+                if (candidates.get(c).cost < candidates.get(best).cost) best = c;
+            }
+            accepted.add(candidates.remove(best));
+        }
+        return accepted;
+    }
+
+    private void runTree(SearchState tree) {
+        IndexedMinHeap heap = tree.getHeap();
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            tree.settle(u);
+            int du = tree.dist(u);
+            for (int a = graph.arcStart(u), last = graph.arcEnd(u); a < last; a++) {
+                int v = graph.target(a);
+                if (tree.isSettled(v)) continue;
+                int alt = du + graph.weight(a);
+                if (alt < tree.dist(v)) {
+                    tree.update(v, alt, u);
+                    heap.insertOrDecrease(v, alt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Поиск A* от spurNode до цели с учетом запретов.
+     * Оценка - точное расстояние до цели в исходном графе.
+     */
+    private int spurSearch(Workspace ws, int from, int end, IntList out) {
+        SearchState tree = ws.tree;
+        SearchState state = ws.spur;
+        state.reset();
+        IndexedMinHeap heap = state.getHeap();
+        state.update(from, 0, -1);
+        heap.insertOrDecrease(from, tree.dist(from));
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            state.settle(u);
+            if (u == end) break;
+            int du = state.dist(u);
+            for (int a = graph.arcStart(u), last = graph.arcEnd(u); a < last; a++) {
+                if (ws.isArcBanned(a)) continue;
+                int v = graph.target(a);
+                if (ws.isVertexBanned(v) || state.isSettled(v)) continue;
+                int alt = du + graph.weight(a);
+                if (alt < state.dist(v)) {
+                    state.update(v, alt, u);
+                    heap.insertOrDecrease(v, alt + tree.dist(v));
+                }
+            }
+        }
+
+        if (!DijkstraEngine.unwindPath(state, from, end, out)) {
+            return CsrGraph.INF;
+        }
+        return state.dist(end);
+    }
+
+    private static boolean sharesPrefix(IntList a, IntList b, int length) {
+        for (int j = 0; j <= length; j++) {
+            if (a.get(j) != b.get(j)) return false;
+        }
+        return true;
+    }
+
+    private static void addCandidate(List<Path> candidates, Path path) {
+        for (Path existing : candidates) {
+            if (existing.cost == path.cost && existing.sameVertices(path)) return;
+        }
+        candidates.add(path);
+    }
+
+    /**
+     * Рабочие буферы одного потока: дерево путей к цели, состояние
+     * spur-поиска и отметки запрещенных вершин и дуг
+     */
+    private static final class Workspace {
+        private final SearchState tree;
+        private final SearchState spur;
+        private final int[] bannedVertex;
+        private final int[] bannedArc;
+        private int banStamp;
+
+        Workspace(CsrGraph graph) {
+            tree = new SearchState(graph.getVertexCount(), CsrGraph.INF);
+            spur = new SearchState(graph.getVertexCount(), CsrGraph.INF);
+            bannedVertex = new int[graph.getVertexCount()];
+            bannedArc = new int[graph.getArcCount()];
+        }
+
+        void nextBan() {
+            banStamp++;
+            if (banStamp == 0) {
+                Arrays.fill(bannedVertex, 0);
+                Arrays.fill(bannedArc, 0);
+                banStamp = 1;
+            }
+        }
+
+        void banVertex(int v) {
+            bannedVertex[v] = banStamp;
+        }
+
+        void banArc(int arc) {
+            bannedArc[arc] = banStamp;
+        }
+
+        boolean isVertexBanned(int v) {
+            return bannedVertex[v] == banStamp;
+        }
+
+        boolean isArcBanned(int arc) {
+            return bannedArc[arc] == banStamp;
+        }
+    }
+
+    /**
+     * Один найденный путь
+     */
+    public static final class Path {
+        private final IntList vertices;
+        private final int cost;
+
+        Path(IntList vertices, int cost) {
+            this.vertices = vertices;
+            this.cost = cost;
+        }
+
+        /**
+         * Возвращает вершины пути от начала к концу
+         *
+         * @return список номеров вершин
+         */
+        public IntList getVertices() {
+            return vertices;
+        }
+
+        /**
+         * Возвращает длину пути
+         *
+         * @return время в минутах
+         */
+        public int getCost() {
+            return cost;
+        }
+
+        private boolean sameVertices(Path other) {
+            if (vertices.size() != other.vertices.size()) return false;
+            for (int i = 0; i < vertices.size(); i++) {
+                if (vertices.get(i) != other.vertices.get(i)) return false;
+            }
+            return true;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.SearchState;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Ориентиры (landmarks) для оценки расстояний в алгоритме A* (ALT).
+ * Для нескольких опорных станций заранее вычисляются расстояния до всех
+ * вершин. По неравенству треугольника |d(L, t) - d(L, v)| не превышает
+ * d(v, t), поэтому максимум по ориентирам - допустимая и согласованная
+ * нижняя оценка оставшегося пути.
+ * Ориентиры выбираются "на окраинах": каждый следующий - самая далекая
+ * вершина от уже выбранных.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class LandmarkIndex {
+    private static final Logger logger = LogManager.getLogger(LandmarkIndex.class);
+
+    private final CsrGraph graph;
+    private final int[] landmarks;
+    private final int[] dist; // dist[i * n + v] - расстояние от i-го ориентира до v
+
+    private LandmarkIndex(CsrGraph graph, int[] landmarks, int[] dist) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.dist = dist;
+    }
+
+    /**
+     * Выбирает ориентиры и вычисляет расстояния от них до всех вершин
+     *
+     * @param engine движок поиска по графу
+     * @param count желаемое количество ориентиров
+     * @return построенный индекс
+     */
+    public static LandmarkIndex build(DijkstraEngine engine, int count) {
+        CsrGraph graph = engine.getGraph();
+        int n = graph.getVertexCount();
+        int k = Math.min(count, n);
+        long startTime = System.nanoTime();
+
+        int[] landmarks = new int[k];
+        int[] dist = new int[k * n];
+        int[] nearest = new int[n]; // Расстояние до ближайшего уже выбранного ориентира
+        Arrays.fill(nearest, CsrGraph.INF);
+
+        // Первый ориентир - самая далекая вершина от вершины 0
+        int candidate = n == 0 ? -1 : farthest(engine.search(0, -1));
+        for (int i = 0; i < k && candidate != -1; i++) {
+            landmarks[i] = candidate;
+            SearchState state = engine.search(candidate, -1);
+            int row = i * n;
+            int next = -1;
+            int nextDist = -1;
+            for (int v = 0; v < n; v++) {
+                int d = state.dist(v);
+                dist[row + v] = d;
+                if (d < nearest[v]) nearest[v] = d;
+                // Недостижимые вершины берем в первую очередь: им нужен свой ориентир
+                int score = nearest[v];
+                if (score > nextDist) {
+                    nextDist = score;
+                    next = v;
+                }
+            }
+            candidate = nextDist > 0 ? next : -1;
+            if (candidate == -1 && i + 1 < k) {
+                // Все вершины уже совпадают с ориентирами
+                landmarks = Arrays.copyOf(landmarks, i + 1);
+                dist = Arrays.copyOf(dist, (i + 1) * n);
+            }
+        }
+
+        logger.info("Selected {} landmarks in {} ms", landmarks.length,
+                (System.nanoTime() - startTime) / 1_000_000);
+        return new LandmarkIndex(graph, landmarks, dist);
+    }
+
+    private static int farthest(SearchState state) {
+        int best = 0;
+        for (int i = 0; i < state.getSettledCount(); i++) {
+            int v = state.settledAt(i);
+            if (state.dist(v) > state.dist(best)) best = v;
+        }
+        return best;
+    }
+
+    /**
+     * Возвращает нижнюю оценку расстояния между двумя вершинами
+     *
+     * @param v текущая вершина
+     * @param target целевая вершина
+     * @return оценка, не превышающая длину кратчайшего пути
+     */
+    public int lowerBound(int v, int target) {
+        int n = graph.getVertexCount();
+        int best = 0;
+        for (int row = 0; row < dist.length; row += n) {
+            int dv = dist[row + v];
+            int dt = dist[row + target];
+            // Вершины вне компоненты ориентира ничего не говорят о расстоянии
+            if (dv >= CsrGraph.INF || dt >= CsrGraph.INF) continue;
+            int bound = Math.abs(dt - dv);
+            if (bound > best) best = bound;
+        }
+        return best;
+    }
+
+    /**
+     * Возвращает граф, для которого построен индекс
+     *
+     * @return CSR-граф
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Возвращает выбранные ориентиры
+     *
+     * @return копия массива номеров вершин-ориентиров
+     */
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Возвращает объем памяти, занимаемый таблицей расстояний
+     *
+     * @return размер в байтах
+     */
+    public long getMemoryBytes() {
+        return 4L * dist.length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,363 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IndexedMinHeap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Анализ сети метро: центральность по посредничеству (алгоритм Брандеса
+ * для взвешенного графа), центральность по близости, эксцентриситет
+ * станций и диаметр сети.
+ * <p>
+ * Все три показателя получаются из одного поиска Дейкстры от каждой станции,
+ * поэтому работа делится по начальным вершинам. Каждый поток пула
+ * {@link ForkJoinPool} берет начальные вершины порциями из общего счетчика
+ * и хранит свои примитивные буферы (расстояния, число кратчайших путей,
+ * зависимости, порядок обработки, куча) и свой массив посредничества;
+ * массивы потоков складываются в конце. Близость и эксцентриситет
+ * записываются в ячейку начальной вершины, поэтому общих изменяемых данных
+ * во время поиска нет. Время - O(n·m·log n), память - O(n) на поток.
+ * <p>
+ * Для положительных весов результат точный. Станции, соединенные перегоном
+ * с нулевым временем, находятся на одном расстоянии; из путей между ними
+ * учитывается только направление в порядке обработки, иначе ноль-циклы
+ * давали бы бесконечное число путей.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class NetworkAnalytics {
+    private static final Logger logger = LogManager.getLogger(NetworkAnalytics.class);
+    private static final int CHUNK = 16; // Начальных вершин, которые поток забирает за раз
+
+    private NetworkAnalytics() {
+    }
+
+    /**
+     * Вычисляет показатели в общем пуле ForkJoin
+     *
+     * @param graph CSR-граф
+     * @return результаты анализа
+     */
+    public static Result compute(CsrGraph graph) {
+        return compute(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Вычисляет показатели в указанном пуле
+     *
+     * @param graph CSR-граф
+     * @param pool пул потоков; количество рабочих потоков равно его параллелизму
+     * @return результаты анализа
+     */
+    public static Result compute(CsrGraph graph, ForkJoinPool pool) {
+        int n = graph.getVertexCount();
+        long startTime = System.nanoTime();
+        double[] closeness = new double[n];
+        int[] eccentricity = new int[n];
+        int[] farthest = new int[n];
+        AtomicInteger nextSource = new AtomicInteger();
+
+        // Потоков не больше, чем порций работы
+        int workerCount = Math.max(1, Math.min(pool.getParallelism(), (n + CHUNK - 1) / CHUNK));
+        List<Worker> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(new Worker(graph, nextSource, closeness, eccentricity, farthest));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(workers);
+            }
+        });
+
+        // Слияние массивов посредничества; каждая пара учтена из обоих концов
+        double[] betweenness = new double[n];
+        for (Worker worker : workers) {
+            for (int v = 0; v < n; v++) {
+                betweenness[v] += worker.betweenness[v];
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            betweenness[v] /= 2;
+        }
+
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        Result result = new Result(betweenness, closeness, eccentricity, farthest, elapsedMillis);
+        logger.info("Network analytics for {} stations computed in {} ms with {} workers, diameter {}",
+                n, elapsedMillis, workerCount, result.getDiameter());
+        return result;
+    }
+
+    /**
+     * Рабочий поток: поиск Дейкстры с подсчетом кратчайших путей
+     * и обратное накопление зависимостей по Брандесу
+     */
+    private static final class Worker extends RecursiveAction {
+        private final CsrGraph graph;
+        private final AtomicInteger nextSource;
+        private final double[] closeness;
+        private final int[] eccentricity;
+        private final int[] farthest;
+
+        private final int[] dist;
+        private final double[] sigma;    // Количество кратчайших путей от источника, в long не помещается
+        private final double[] delta;    // Зависимость источника от вершины
+        private final int[] order;       // Вершины в порядке обработки
+        private final int[] rank;        // Позиция вершины в order или -1
+        private final IndexedMinHeap heap;
+        private final double[] betweenness;
+
+        Worker(CsrGraph graph, AtomicInteger nextSource, double[] closeness, int[] eccentricity, int[] farthest) {
+            int n = graph.getVertexCount();
+            this.graph = graph;
+            this.nextSource = nextSource;
+            this.closeness = closeness;
+            this.eccentricity = eccentricity;
+            this.farthest = farthest;
+            this.dist = new int[n];
+            this.sigma = new double[n];
+            this.delta = new double[n];
+            this.order = new int[n];
+            this.rank = new int[n];
+            this.heap = new IndexedMinHeap(n);
+            this.betweenness = new double[n];
+            Arrays.fill(dist, CsrGraph.INF);
+            Arrays.fill(rank, -1);
+        }
+
+        @Override
+        protected void compute() {
+            int n = graph.getVertexCount();
+            for (int from = nextSource.getAndAdd(CHUNK); from < n; from = nextSource.getAndAdd(CHUNK)) {
+                for (int source = from, last = Math.min(from + CHUNK, n); source < last; source++) {
+                    processSource(source);
+                }
+            }
+        }
+
+        private void processSource(int source) {
+            int settled = search(source);
+
+            // Близость и эксцентриситет по достижимым вершинам
+            long sum = 0;
+            int far = source;
+            for (int i = 1; i < settled; i++) {
+                int v = order[i];
+                sum += dist[v];
+                if (dist[v] > dist[far]) far = v;
+            }
+            int n = graph.getVertexCount();
+            int reached = settled - 1;
+            // Нормировка Вассермана-Фауста: учитывает станции, до которых нельзя доехать
+            closeness[source] = sum == 0 || n < 2 ? 0.0 : ((double) reached / (n - 1)) * ((double) reached / sum);
+            eccentricity[source] = dist[far];
+            farthest[source] = far;
+
+            // Обратный проход от дальних вершин к источнику
+            for (int i = settled - 1; i > 0; i--) {
+                int w = order[i];
+                double share = (1.0 + delta[w]) / sigma[w];
+                for (int a = graph.arcStart(w), end = graph.arcEnd(w); a < end; a++) {
+                    int v = graph.target(a);
+                    // v - предшественник w на одном из кратчайших путей;
+                    // порядок обработки исключает циклы по перегонам с нулевым временем
+                    if (rank[v] < i && rank[v] >= 0 && dist[v] + graph.weight(a) == dist[w]) {
+                        delta[v] += sigma[v] * share;
+                    }
+                }
+                betweenness[w] += delta[w];
+            }
+
+            // Очистка только затронутых вершин
+            for (int i = 0; i < settled; i++) {
+                int v = order[i];
+                dist[v] = CsrGraph.INF;
+                rank[v] = -1;
+                sigma[v] = 0;
+                delta[v] = 0;
+            }
+        }
+
+        /**
+         * Поиск Дейкстры с подсчетом кратчайших путей
+         *
+         * @return количество обработанных вершин; сами вершины в order
+         */
+        private int search(int source) {
+            int settled = 0;
+            dist[source] = 0;
+            sigma[source] = 1;
+            heap.insertOrDecrease(source, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                rank[u] = settled;
+                order[settled++] = u;
+                int du = dist[u];
+                for (int a = graph.arcStart(u), end = graph.arcEnd(u); a < end; a++) {
+                    int v = graph.target(a);
+                    if (rank[v] >= 0) continue;
+                    int alt = du + graph.weight(a);
+                    if (alt < dist[v]) {
+                        dist[v] = alt;
+                        sigma[v] = sigma[u];
+                        heap.insertOrDecrease(v, alt);
+                    } else if (alt == dist[v]) {
+                        sigma[v] += sigma[u];
+                    }
+                }
+            }
+            return settled;
+        }
+    }
+
+    /**
+     * Результаты анализа сети
+     */
+    public static final class Result {
+        private final double[] betweenness;
+        private final double[] closeness;
+        private final int[] eccentricity;
+        private final int[] farthest;
+        private final long elapsedMillis;
+        private final int diameterFrom;
+
+        Result(double[] betweenness, double[] closeness, int[] eccentricity, int[] farthest, long elapsedMillis) {
+            this.betweenness = betweenness;
+            this.closeness = closeness;
+            this.eccentricity = eccentricity;
+            this.farthest = farthest;
+            this.elapsedMillis = elapsedMillis;
+            int from = eccentricity.length == 0 ? -1 : 0;
+            for (int v = 1; v < eccentricity.length; v++) {
+                if (eccentricity[v] > eccentricity[from]) from = v;
+            }
+            this.diameterFrom = from;
+        }
+
+        /**
+         * Возвращает количество станций
+         *
+         * @return количество вершин графа
+         */
+        public int getStationCount() {
+            return betweenness.length;
+        }
+
+        /**
+         * Возвращает центральность по посредничеству: сумму по парам станций
+         * доли кратчайших путей между ними, проходящих через станцию.
+         * Каждая неупорядоченная пара учитывается один раз, концы пути
+         * не считаются.
+         *
+         * @param station ID станции
+         * @return центральность без нормировки
+         */
+        public double getBetweenness(int station) {
+            return betweenness[station];
+        }
+
+        /**
+         * Возвращает центральность по близости с нормировкой
+         * Вассермана-Фауста: (r / (n - 1)) · (r / сумма расстояний),
+         * где r - количество достижимых станций
+         *
+         * @param station ID станции
+         * @return близость от 0 до 1; 0 для изолированной станции
+         */
+        public double getCloseness(int station) {
+            return closeness[station];
+        }
+
+        /**
+         * Возвращает эксцентриситет станции: время в пути до самой дальней
+         * достижимой станции
+         *
+         * @param station ID станции
+         * @return время в минутах
+         */
+        public int getEccentricity(int station) {
+            return eccentricity[station];
+        }
+
+        /**
+         * Возвращает самую дальнюю достижимую станцию
+         *
+         * @param station ID станции
+         * @return ID станции, на которой достигается эксцентриситет
+         */
+        public int getFarthest(int station) {
+            return farthest[station];
+        }
+
+        /**
+         * Возвращает диаметр сети: наибольшее время в пути между
+         * связанными станциями
+         *
+         * @return время в минутах или 0 для пустой сети
+         */
+        public int getDiameter() {
+            return diameterFrom == -1 ? 0 : eccentricity[diameterFrom];
+        }
+
+        /**
+         * Возвращает начальную станцию пары, на которой достигается диаметр
+         *
+         * @return ID станции или -1 для пустой сети
+         */
+        public int getDiameterFrom() {
+            return diameterFrom;
+        }
+
+        /**
+         * Возвращает конечную станцию пары, на которой достигается диаметр
+         *
+         * @return ID станции или -1 для пустой сети
+         */
+        public int getDiameterTo() {
+            return diameterFrom == -1 ? -1 : farthest[diameterFrom];
+        }
+
+        /**
+         * Возвращает станции с наибольшей центральностью по посредничеству
+         *
+         * @param limit максимальное количество станций
+         * @return ID станций по убыванию центральности
+         */
+        public int[] getTopByBetweenness(int limit) {
+            int n = betweenness.length;
+            int k = Math.max(0, Math.min(limit, n));
+            // Частичная сортировка вставками достаточна для небольшого k
+            int[] top = new int[k];
+            int size = 0;
+            for (int v = 0; v < n && k > 0; v++) {
+                if (size == k && betweenness[v] <= betweenness[top[k - 1]]) continue;
+                int i = size < k ? size++ : k - 1;
+                while (i > 0 && betweenness[top[i - 1]] < betweenness[v]) {
+                    top[i] = top[i - 1];
+                    i--;
+                }
+                top[i] = v;
+            }
+            return top;
+        }
+
+        /**
+         * Возвращает время вычисления
+         *
+         * @return миллисекунды
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IndexedMinHeap;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.SearchState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Многокритериальный поиск маршрутов по двум критериям:
+ * время в пути и количество пересадок.
+ * Поиск идет по "слоистому" графу: состояние - пара (станция, число пересадок).
+ * Переход по ребру между станциями одной линии остается в том же слое,
+ * переход на станцию другой линии ведет в следующий слой. Один проход
+ * алгоритма Дейкстры по такому графу дает для каждого допустимого числа
+ * пересадок самый быстрый маршрут, из которых затем выбирается
+ * Парето-оптимальный набор: каждый следующий маршрут имеет больше
+ * пересадок, но строго меньшее время.
+ * Экземпляр потокобезопасен: состояние поиска хранится отдельно для каждого потока.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class ParetoRouter {
+    /** Максимальное поддерживаемое количество пересадок */
+    public static final int MAX_TRANSFERS = 8;
+
+    private final CsrGraph graph;
+    private final int[] lines;
+    private final int n;
+    private final ThreadLocal<SearchState> states;
+
+    /**
+     * Создает движок для графа и известных линий станций
+     *
+     * @param graph CSR-граф
+     * @param lines номер линии для каждой вершины графа
+     * @throws IllegalArgumentException если размер массива линий не совпадает с графом
+     */
+    public ParetoRouter(CsrGraph graph, int[] lines) {
+        if (lines.length != graph.getVertexCount()) {
+            throw new IllegalArgumentException("Expected " + graph.getVertexCount()
+                    + " station lines, got " + lines.length);
+        }
+        this.graph = graph;
+        this.lines = lines;
+        this.n = graph.getVertexCount();
+        this.states = ThreadLocal.withInitial(() -> new SearchState(n * (MAX_TRANSFERS + 1), CsrGraph.INF));
+    }
+
+    /**
+     * Возвращает граф, по которому работает движок
+     *
+     * @return CSR-граф
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Находит Парето-оптимальные маршруты между двумя станциями.
+     * Маршруты упорядочены по возрастанию числа пересадок
+     * (и, следовательно, по убыванию времени).
+     *
+     * @param start начальная вершина
+     * @param end конечная вершина
+     * @param maxTransfers максимальное допустимое число пересадок
+     * @return список маршрутов; пустой, если станции не связаны
+     */
+    public List<Route> route(int start, int end, int maxTransfers) {
+        int layers = Math.min(Math.max(maxTransfers, 0), MAX_TRANSFERS) + 1;
+        SearchState state = states.get();
+        state.reset();
+        IndexedMinHeap heap = state.getHeap();
+
+        // bestAtEnd[k] - лучшее время до конечной станции не более чем с k пересадками
+        int[] bestAtEnd = new int[layers];
+        Arrays.fill(bestAtEnd, CsrGraph.INF);
+
+        state.update(start, 0, -1);
+        heap.insertOrDecrease(start, 0);
+
+        while (!heap.isEmpty()) {
+            int id = heap.poll();
+            state.settle(id);
+            int u = id % n;
+            int layer = id / n;
+            int du = state.dist(id);
+
+            if (u == end) {
+                for (int k = layer; k < layers; k++) {
+                    if (du < bestAtEnd[k]) bestAtEnd[k] = du;
+                }
+                continue;
+            }
+            if (du >= bestAtEnd[layer] || dominatedByLowerLayer(state, u, layer)) continue;
+
+            for (int a = graph.arcStart(u), last = graph.arcEnd(u); a < last; a++) {
+                int v = graph.target(a);
+                // Смена линии определяется по линиям станций, без просмотра пути
+                int nextLayer = lines[v] == lines[u] ? layer : layer + 1;
+                if (nextLayer >= layers) continue;
+                int alt = du + graph.weight(a);
+                // Маршрут, который не быстрее уже найденного с тем же числом пересадок, не нужен
+                if (alt >= bestAtEnd[nextLayer]) continue;
+                int next = nextLayer * n + v;
+                if (state.isSettled(next)) continue;
+                state.countRelaxation();
+                if (alt < state.dist(next)) {
+                    state.update(next, alt, id);
+                    heap.insertOrDecrease(next, alt);
+                }
+            }
+        }
+
+        List<Route> routes = new ArrayList<>();
+        int bestTime = CsrGraph.INF;
+        for (int k = 0; k < layers; k++) {
+            int id = k * n + end;
+            if (!state.isSettled(id) || state.dist(id) >= bestTime) continue;
+            bestTime = state.dist(id);
+
+            IntList path = new IntList();
+            for (int at = id; at != -1; at = state.prev(at)) {
+                path.add(at % n);
+            }
+            int[] data = path.rawArray();
+            for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+                int tmp = data[i];
+                data[i] = data[j];
+                data[j] = tmp;
+            }
+            routes.add(new Route(path, bestTime, k));
+        }
+        return routes;
+    }
+
+    /**
+     * Проверяет, обработана ли уже эта станция с меньшим числом пересадок.
+     * Вершины извлекаются по возрастанию времени, поэтому такая метка
+     * не хуже по обоим критериям.
+     */
+    private boolean dominatedByLowerLayer(SearchState state, int v, int layer) {
+        for (int k = 0; k < layer; k++) {
+            if (state.isSettled(k * n + v)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает количество состояний, обработанных последним запросом текущего потока
+     *
+     * @return количество состояний
+     */
+    public int getLastSettledCount() {
+        return states.get().getSettledCount();
+    }
+
+    /**
+     * Возвращает количество переходов, просмотренных последним запросом текущего потока
+     *
+     * @return количество релаксаций
+     */
+    public long getLastRelaxedCount() {
+        return states.get().getRelaxedCount();
+    }
+
+    /**
+     * Один Парето-оптимальный маршрут
+     */
+    public static final class Route {
+        private final IntList path;
+        private final int time;
+        private final int transfers;
+
+        Route(IntList path, int time, int transfers) {
+            this.path = path;
+            this.time = time;
+            this.transfers = transfers;
+        }
+
+        /**
+         * Возвращает вершины маршрута от начала к концу
+         *
+         * @return список номеров вершин
+         */
+        public IntList getPath() {
+            return path;
+        }
+
+        /**
+         * Возвращает время в пути
+         *
+         * @return время в минутах
+         */
+        public int getTime() {
+            return time;
+        }
+
+        /**
+         * Возвращает количество пересадок
+         *
+         * @return число смен линии
+         */
+        public int getTransfers() {
+            return transfers;
+        }
+    }
+}
\ No newline at end of file
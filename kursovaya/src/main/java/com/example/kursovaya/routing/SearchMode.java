@@ -0,0 +1,18 @@
+package com.example.kursovaya.routing;
+
+/**
+ * Алгоритм поиска кратчайшего пути между двумя станциями.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public enum SearchMode {
+    /** Однонаправленный алгоритм Дейкстры */
+    DIJKSTRA,
+    /** Двунаправленный алгоритм Дейкстры: поиск одновременно от начала и от конца */
+    BIDIRECTIONAL,
+    /** A* с нижними оценками по ориентирам (ALT) */
+    ASTAR,
+    /** Запрос по иерархии сжатий (Contraction Hierarchies) */
+    CONTRACTION_HIERARCHIES
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.model.LineSchedule;
+import com.example.kursovaya.util.IndexedMinHeap;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.SearchState;
+
+/**
+ * Поиск самого раннего прибытия с учетом времени отправления.
+ * Время в пути по перегону зависит от времени суток через коэффициент
+ * скорости расписания линии, а при посадке в поезд добавляется ожидание
+ * ближайшего отправления по интервалу движения.
+ * <p>
+ * У каждой станции два состояния: "в поезде" (номер v) и "на платформе"
+ * (номер n + v). Перегон ведет из поезда в поезд, переход между линиями -
+ * в состояние "на платформе" другой станции, посадка - из платформы
+ * в поезд той же станции с ожиданием. Поэтому проезд транзитом через
+ * станцию не требует ожидания, а пересадочный узел из нескольких линий
+ * проходится без лишних посадок. Все стоимости удовлетворяют свойству
+ * FIFO (см. {@link LineSchedule#isFifo(int)}), и обычный алгоритм Дейкстры
+ * по времени прибытия дает точный ответ.
+ * <p>
+ * Станции линий без расписания используют постоянные веса без ожидания,
+ * то есть поиск совпадает с обычным. Расписания не копируются: все станции
+ * линии ссылаются на один объект.
+ * Экземпляр потокобезопасен: состояние поиска хранится отдельно для каждого потока.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class TimeDependentRouter {
+    private final CsrGraph graph;
+    private final int[] lines;
+    private final LineSchedule[] schedules;
+    private final int n;
+    private final ThreadLocal<SearchState> states;
+
+    /**
+     * Создает движок для графа, линий и расписаний станций
+     *
+     * @param graph CSR-граф
+     * @param lines номер линии для каждой вершины графа
+     * @param schedules расписание линии каждой вершины или null
+     * @throws IllegalArgumentException если размеры массивов не совпадают с графом
+     *         или расписание нарушает свойство FIFO
+     */
+    public TimeDependentRouter(CsrGraph graph, int[] lines, LineSchedule[] schedules) {
+        if (lines.length != graph.getVertexCount() || schedules.length != graph.getVertexCount()) {
+            throw new IllegalArgumentException("Expected " + graph.getVertexCount() + " station lines and schedules, got "
+                    + lines.length + " and " + schedules.length);
+        }
+        for (int v = 0; v < schedules.length; v++) {
+            if (schedules[v] != null && !schedules[v].isFifo(graph.getMaxWeight())) {
+                throw new IllegalArgumentException("Schedule of line " + lines[v]
+                        + " lets a later train arrive earlier on a " + graph.getMaxWeight() + "-minute segment");
+            }
+        }
+        this.graph = graph;
+        this.lines = lines;
+        this.schedules = schedules;
+        this.n = graph.getVertexCount();
+        this.states = ThreadLocal.withInitial(() -> new SearchState(2 * n, CsrGraph.INF));
+    }
+
+    /**
+     * Возвращает граф, по которому работает движок
+     *
+     * @return CSR-граф
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Находит маршрут с самым ранним прибытием
+     *
+     * @param start начальная вершина
+     * @param end конечная вершина
+     * @param departure время прихода на начальную станцию в минутах от полуночи
+     * @return маршрут или null, если станции не связаны
+     */
+    public Journey route(int start, int end, int departure) {
+        SearchState state = states.get();
+        state.reset();
+        IndexedMinHeap heap = state.getHeap();
+
+        int platform = n + start;
+        state.update(platform, departure, -1);
+        heap.insertOrDecrease(platform, departure);
+
+        int reached = -1;
+        while (!heap.isEmpty()) {
+            int id = heap.poll();
+            state.settle(id);
+            int u = id < n ? id : id - n;
+            if (u == end) {
+                reached = id;
+                break;
+            }
+
+            int tu = state.dist(id);
+            LineSchedule schedule = schedules[u];
+            if (id >= n) {
+                // Посадка в поезд: ожидание ближайшего отправления
+                relax(state, u, schedule == null ? tu : schedule.nextDeparture(tu), id);
+            }
+            for (int a = graph.arcStart(u), last = graph.arcEnd(u); a < last; a++) {
+                int v = graph.target(a);
+                int w = graph.weight(a);
+                // Закрытая дуга: время в пути по расписанию может оказаться меньше INF
+                if (w >= CsrGraph.INF) continue;
+                if (lines[v] != lines[u]) {
+                    // Переход на другую линию возможен и из поезда, и с платформы
+                    relax(state, n + v, tu + w, id);
+                } else if (id < n) {
+                    relax(state, v, tu + (schedule == null ? w : schedule.rideTime(w, tu)), id);
+                }
+            }
+        }
+
+        if (reached == -1) {
+            return null;
+        }
+        IntList path = new IntList();
+        for (int at = reached; at != -1; at = state.prev(at)) {
+            int v = at < n ? at : at - n;
+            // Посадка дает два состояния одной станции подряд
+            if (path.size() == 0 || path.get(path.size() - 1) != v) {
+                path.add(v);
+            }
+        }
+        int[] data = path.rawArray();
+        for (int i = 0, j = path.size() - 1; i < j; i++, j--) {
+            int tmp = data[i];
+            data[i] = data[j];
+            data[j] = tmp;
+        }
+        return new Journey(path, departure, state.dist(reached));
+    }
+
+    private void relax(SearchState state, int next, int time, int from) {
+        if (time >= CsrGraph.INF || state.isSettled(next)) return;
+        state.countRelaxation();
+        if (time < state.dist(next)) {
+            state.update(next, time, from);
+            state.getHeap().insertOrDecrease(next, time);
+        }
+    }
+
+    /**
+     * Возвращает количество состояний, обработанных последним запросом текущего потока
+     *
+     * @return количество состояний
+     */
+    public int getLastSettledCount() {
+        return states.get().getSettledCount();
+    }
+
+    /**
+     * Возвращает количество переходов, просмотренных последним запросом текущего потока
+     *
+     * @return количество релаксаций
+     */
+    public long getLastRelaxedCount() {
+        return states.get().getRelaxedCount();
+    }
+
+    /**
+     * Маршрут с временем отправления и прибытия
+     */
+    public static final class Journey {
+        private final IntList path;
+        private final int departure;
+        private final int arrival;
+
+        Journey(IntList path, int departure, int arrival) {
+            this.path = path;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+
+        /**
+         * Возвращает вершины маршрута от начала к концу
+         *
+         * @return список номеров вершин
+         */
+        public IntList getPath() {
+            return path;
+        }
+
+        /**
+         * Возвращает время прихода на начальную станцию
+         *
+         * @return время в минутах от полуночи
+         */
+        public int getDeparture() {
+            return departure;
+        }
+
+        /**
+         * Возвращает время прибытия на конечную станцию
+         *
+         * @return время в минутах от полуночи, для следующих суток больше 1440
+         */
+        public int getArrival() {
+            return arrival;
+        }
+
+        /**
+         * Возвращает время в пути с учетом ожидания поездов
+         *
+         * @return время в минутах
+         */
+        public int getTravelTime() {
+            return arrival - departure;
+        }
+    }
+}
\ No newline at end of file
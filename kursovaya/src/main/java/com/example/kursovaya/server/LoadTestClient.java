@@ -0,0 +1,264 @@
+package com.example.kursovaya.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Клиент нагрузочного тестирования {@link RouteServer}.
+ * Получает список станций через /stations и затем в течение заданного
+ * времени отправляет запросы /route между случайными парами станций
+ * из указанного числа виртуальных потоков. Каждый поток ждет ответа
+ * перед следующим запросом (замкнутая нагрузка), поэтому число потоков
+ * равно числу одновременных запросов.
+ * <p>
+ * Запуск: {@code LoadTestClient [адрес] [потоки] [секунды] [seed]},
+ * по умолчанию {@code http://localhost:8080 64 10 1}.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class LoadTestClient {
+    private static final Duration WARMUP = Duration.ofSeconds(2);
+
+    private final URI baseUri;
+    private final int concurrency;
+    private final Duration duration;
+    private final long seed;
+    private final HttpClient client;
+
+    /**
+     * Создает клиент
+     *
+     * @param baseUri адрес сервера, например http://localhost:8080
+     * @param concurrency количество одновременных запросов
+     * @param duration длительность измерения
+     * @param seed начальное значение генератора пар станций
+     */
+    public LoadTestClient(URI baseUri, int concurrency, Duration duration, long seed) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        this.baseUri = baseUri;
+        this.concurrency = concurrency;
+        this.duration = duration;
+        this.seed = seed;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Запускает прогрев и измерение
+     *
+     * @return результаты измерения
+     * @throws IOException если не удалось получить список станций
+     * @throws InterruptedException если поток прерван
+     */
+    public Result run() throws IOException, InterruptedException {
+        int[] ids = fetchStationIds();
+        if (ids.length < 2) {
+            throw new IOException("Server returned " + ids.length + " stations, at least 2 needed");
+        }
+        runPhase(ids, WARMUP, seed - 1);
+        return runPhase(ids, duration, seed);
+    }
+
+    private int[] fetchStationIds() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(
+                HttpRequest.newBuilder(baseUri.resolve("/stations")).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET /stations returned " + response.statusCode());
+        }
+        JsonNode stations = new ObjectMapper().readTree(response.body());
+        int[] ids = new int[stations.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = stations.get(i).get("id").asInt();
+        }
+        return ids;
+    }
+
+    private Result runPhase(int[] ids, Duration length, long phaseSeed) throws InterruptedException {
+        long deadline = System.nanoTime() + length.toNanos();
+        SplittableRandom random = new SplittableRandom(phaseSeed);
+        List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        long startTime = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Worker worker = new Worker(ids, random.split(), deadline);
+                futures.add(executor.submit(() -> {
+                    worker.run();
+                    return worker;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        // Объединяем задержки всех потоков
+        long[] latencies = new long[0];
+        int count = 0;
+        int errors = 0;
+        for (Future<Worker> future : futures) {
+            Worker worker;
+            try {
+                worker = future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Load test worker failed", e.getCause());
+            }
+            if (count + worker.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(2 * latencies.length, count + worker.count));
+            }
+            System.arraycopy(worker.latencies, 0, latencies, count, worker.count);
+            count += worker.count;
+            errors += worker.errors;
+        }
+        Arrays.sort(latencies, 0, count);
+        return new Result(Arrays.copyOf(latencies, count), errors, elapsed);
+    }
+
+    /**
+     * Поток нагрузки: отправляет запросы подряд до истечения времени
+     */
+    private final class Worker {
+        private final int[] ids;
+        private final SplittableRandom random;
+        private final long deadline;
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        Worker(int[] ids, SplittableRandom random, long deadline) {
+            this.ids = ids;
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        void run() {
+            while (System.nanoTime() < deadline) {
+                int from = ids[random.nextInt(ids.length)];
+                int to = ids[random.nextInt(ids.length)];
+                HttpRequest request = HttpRequest.newBuilder(
+                        baseUri.resolve("/route?from=" + from + "&to=" + to)).GET().build();
+                long startTime = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors++;
+                        continue;
+                    }
+                } catch (IOException e) {
+                    errors++;
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, 2 * count);
+                }
+                latencies[count++] = System.nanoTime() - startTime;
+            }
+        }
+    }
+
+    /**
+     * Результаты измерения: пропускная способность и распределение задержек
+     */
+    public static final class Result {
+        private final long[] sortedLatencies;
+        private final int errors;
+        private final long elapsedNanos;
+
+        Result(long[] sortedLatencies, int errors, long elapsedNanos) {
+            this.sortedLatencies = sortedLatencies;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Возвращает количество успешных запросов
+         *
+         * @return количество запросов
+         */
+        public int getRequests() {
+            return sortedLatencies.length;
+        }
+
+        /**
+         * Возвращает количество неуспешных запросов
+         *
+         * @return количество ошибок
+         */
+        public int getErrors() {
+            return errors;
+        }
+
+        /**
+         * Возвращает пропускную способность
+         *
+         * @return успешных запросов в секунду
+         */
+        public double getThroughput() {
+            return sortedLatencies.length * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Возвращает перцентиль задержки
+         *
+         * @param percentile перцентиль от 0 до 100
+         * @return задержка в микросекундах или 0, если запросов не было
+         */
+        public long getLatencyMicros(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %d errors, %.0f req/s, latency µs: p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                    getRequests(), errors, getThroughput(), getLatencyMicros(50), getLatencyMicros(90),
+                    getLatencyMicros(99), getLatencyMicros(99.9), getLatencyMicros(100));
+        }
+    }
+
+    /**
+     * Запускает нагрузочный тест и печатает результаты
+     *
+     * @param args необязательные адрес, количество потоков, длительность в секундах и seed
+     */
+    public static void main(String[] args) {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+        try {
+            Result result = new LoadTestClient(uri, concurrency, Duration.ofSeconds(seconds), seed).run();
+            System.out.println(result);
+        } catch (IOException e) {
+            System.err.println("Load test failed: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
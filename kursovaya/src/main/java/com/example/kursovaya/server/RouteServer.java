@@ -0,0 +1,535 @@
+package com.example.kursovaya.server;
+
+import com.example.kursovaya.io.MapLoader;
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.model.LineSchedule;
+import com.example.kursovaya.model.MetroSnapshot;
+import com.example.kursovaya.model.PathResult;
+import com.example.kursovaya.model.Station;
+import com.example.kursovaya.routing.SearchMode;
+import com.example.kursovaya.service.RouteQueryService;
+import com.example.kursovaya.util.Isochrone;
+import com.example.kursovaya.util.QueryMetrics;
+import com.example.kursovaya.util.RouteCache;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP-сервер поиска маршрутов на основе {@code com.sun.net.httpserver}.
+ * Ввод-вывод каждого запроса выполняется в отдельном виртуальном потоке,
+ * поэтому медленные клиенты не занимают потоки платформы. Сам поиск
+ * и кодирование ответа передаются в фиксированный пул
+ * {@link RouteQueryService}: состояние поиска движков хранится отдельно
+ * для каждого потока и в долгоживущих потоках пула переиспользуется,
+ * а не создается заново на каждый запрос. Запросы читают текущий снимок
+ * карты без блокировок.
+ * <p>
+ * Ответы кодируются в JSON потоковым генератором Jackson прямо из
+ * {@link PathResult} и списков станций, без промежуточных строк и объектов
+ * дерева JSON. Ответы ограниченного размера ({@code /route},
+ * {@code /reachable}, {@code /health}) кодируются в байтовый буфер, и их длина
+ * известна заранее. Список станций и таблица {@code /matrix} растут вместе
+ * с картой и запросом, поэтому пишутся генератором прямо в сокет с кодированием
+ * chunked: параметры проверяются и поиск выполняется до отправки заголовков,
+ * так что ошибки запроса по-прежнему возвращаются с кодом 400.
+ * <p>
+ * Методы:
+ * <pre>
+ * GET /route?from=...&amp;to=...[&amp;mode=ASTAR][&amp;departure=08:30]
+ *     станции задаются названием или ID; с departure ищется самое раннее прибытие
+ * GET /stations[?prefix=...|?q=...][&amp;limit=10]
+ *     все станции, автодополнение по префиксу или поиск с опечатками;
+ *     limit не больше 100
+ * GET /matrix?from=1,2,3&amp;to=4,5
+ *     таблица времен в пути, недостижимые пары - null
+ * GET /reachable?from=1,2&amp;minutes=20
+ *     станции, достижимые за указанное время от ближайшей из станций from
+ * GET /health
+ * GET /metrics
+ *     метрики запросов, кэша и загрузки карты в текстовом формате Prometheus
+ * </pre>
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class RouteServer implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(RouteServer.class);
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100; // Ограничение числа найденных станций в одном запросе
+    private static final int MAX_MATRIX_CELLS = 1_000_000; // Ограничение размера таблицы в одном запросе
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+
+    // Генератор не дописывает незакрытые массивы при ошибке посреди потокового
+    // ответа: клиент получает некорректный JSON, а не правдоподобный обрывок
+    private final JsonFactory jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+    private final RouteQueryService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Создает сервер на указанном порту. Сервер начинает принимать
+     * запросы после вызова {@link #start()}.
+     *
+     * @param service сервис с текущим снимком карты
+     * @param port порт; 0 - любой свободный
+     * @throws IOException если порт не удалось занять
+     */
+    public RouteServer(RouteQueryService service, int port) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/route", exchange -> handle(exchange, this::route));
+        server.createContext("/stations", exchange -> stream(exchange, this::stations));
+        server.createContext("/matrix", exchange -> stream(exchange, this::matrix));
+        server.createContext("/reachable", exchange -> handle(exchange, this::reachable));
+        server.createContext("/health", exchange -> handle(exchange, this::health));
+        server.createContext("/metrics", this::metrics);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                send(exchange, 404, error("Not found: " + exchange.getRequestURI().getPath()));
+            }
+        });
+    }
+
+    /**
+     * Начинает прием запросов
+     */
+    public void start() {
+        server.start();
+        logger.info("Route server listening on port {}", getPort());
+    }
+
+    /**
+     * Возвращает порт, на котором работает сервер
+     *
+     * @return номер порта
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Останавливает сервер, давая текущим запросам секунду на завершение
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        logger.info("Route server stopped");
+    }
+
+    /**
+     * Обработчик одного метода: пишет тело ответа в генератор
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        void write(MetroSnapshot snapshot, Map<String, String> params, JsonGenerator json) throws IOException;
+    }
+
+    /**
+     * Потоковый обработчик: проверяет параметры и выполняет поиск,
+     * возвращая тело ответа, которое пишется после отправки заголовков
+     */
+    @FunctionalInterface
+    private interface StreamedEndpoint {
+        Body prepare(MetroSnapshot snapshot, Map<String, String> params);
+    }
+
+    /**
+     * Тело потокового ответа; читает только готовые неизменяемые данные
+     */
+    @FunctionalInterface
+    private interface Body {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    /**
+     * Общая часть обработки запроса: разбор параметров, кодирование ответа,
+     * преобразование ошибок в коды HTTP
+     */
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, error("Method not allowed: " + exchange.getRequestMethod()));
+                return;
+            }
+            ByteArrayOutputStream body;
+            try {
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                // Виртуальный поток ждет результат, не занимая поток платформы
+                body = service.query(snapshot -> encode(endpoint, snapshot, params)).join();
+            } catch (RuntimeException e) {
+                sendFailure(exchange, e);
+                return;
+            }
+            send(exchange, 200, body);
+        } catch (IOException e) {
+            logger.debug("Client connection failed: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Request {} failed: {}", exchange.getRequestURI(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Обработка запроса с потоковым ответом. Поиск выполняется в пуле сервиса
+     * до отправки заголовков, а кодирование - в виртуальном потоке запроса
+     * прямо в сокет, без буфера размером со все тело
+     */
+    private void stream(HttpExchange exchange, StreamedEndpoint endpoint) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, error("Method not allowed: " + exchange.getRequestMethod()));
+                return;
+            }
+            Body body;
+            try {
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                body = service.query(snapshot -> endpoint.prepare(snapshot, params)).join();
+            } catch (RuntimeException e) {
+                sendFailure(exchange, e);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+            exchange.sendResponseHeaders(200, 0); // Длина 0 - кодирование chunked
+            try (JsonGenerator json = jsonFactory.createGenerator(exchange.getResponseBody(), JsonEncoding.UTF8)) {
+                body.write(json);
+            }
+        } catch (IOException e) {
+            logger.debug("Client connection failed: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Request {} failed: {}", exchange.getRequestURI(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Преобразует ошибку запроса в ответ: неверные параметры - 400, остальное - 500
+     */
+    private void sendFailure(HttpExchange exchange, RuntimeException e) throws IOException {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof IllegalArgumentException) {
+            send(exchange, 400, error(cause.getMessage()));
+        } else {
+            logger.error("Request {} failed: {}", exchange.getRequestURI(), cause.getMessage(), cause);
+            send(exchange, 500, error("Internal server error"));
+        }
+    }
+
+    /**
+     * Кодирует ответ метода в буфер; выполняется в пуле сервиса запросов
+     */
+    private ByteArrayOutputStream encode(Endpoint endpoint, MetroSnapshot snapshot, Map<String, String> params) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+        try (JsonGenerator json = jsonFactory.createGenerator(body, JsonEncoding.UTF8)) {
+            endpoint.write(snapshot, params, json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return body;
+    }
+
+    private void send(HttpExchange exchange, int status, ByteArrayOutputStream body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, body.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            body.writeTo(out);
+        }
+    }
+
+    private ByteArrayOutputStream error(String message) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+        try (JsonGenerator json = jsonFactory.createGenerator(body, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("error", message);
+            json.writeEndObject();
+        }
+        return body;
+    }
+
+    /**
+     * GET /route: кратчайший маршрут или самое раннее прибытие
+     */
+    private void route(MetroSnapshot snapshot, Map<String, String> params, JsonGenerator json) throws IOException {
+        int from = stationParam(snapshot, params, "from");
+        int to = stationParam(snapshot, params, "to");
+        String departureParam = params.get("departure");
+        String modeParam = params.get("mode");
+
+        int departure = departureParam != null ? LineSchedule.parseTime(departureParam) : -1;
+
+        PathResult result;
+        if (departure >= 0) {
+            result = snapshot.findEarliestArrival(from, to, departure);
+        } else if (modeParam != null) {
+            result = snapshot.findShortestPath(from, to, SearchMode.valueOf(modeParam.toUpperCase()));
+        } else {
+            result = snapshot.findShortestPath(from, to);
+        }
+
+        json.writeStartObject();
+        json.writeNumberField("from", from);
+        json.writeNumberField("to", to);
+        if (result.getTotalTime() >= CsrGraph.INF) {
+            json.writeNullField("time");
+        } else {
+            json.writeNumberField("time", result.getTotalTime());
+            if (departure >= 0) {
+                json.writeStringField("arrival", LineSchedule.formatTime(departure + result.getTotalTime()));
+            }
+        }
+        json.writeNumberField("transfers", result.getTransfers());
+        json.writeArrayFieldStart("stations");
+        for (Station station : result.getPath()) {
+            writeStation(json, -1, station);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * GET /stations: все станции, поиск по префиксу или с опечатками
+     */
+    private Body stations(MetroSnapshot snapshot, Map<String, String> params) {
+        if (!params.containsKey("prefix") && !params.containsKey("q")) {
+            List<Station> all = snapshot.getStations();
+            return json -> {
+                json.writeStartArray();
+                for (int id = 0; id < all.size(); id++) {
+                    writeStation(json, id, all.get(id));
+                }
+                json.writeEndArray();
+            };
+        }
+        int limit = Math.min(intParam(params, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        int[] found = params.containsKey("prefix")
+                ? snapshot.findStationIdsByPrefix(params.get("prefix"), limit)
+                : snapshot.findSimilarStationIds(params.get("q"), limit);
+        return json -> {
+            json.writeStartArray();
+            for (int id : found) {
+                writeStation(json, id, snapshot.getStation(id));
+            }
+            json.writeEndArray();
+        };
+    }
+
+    /**
+     * GET /matrix: таблица времен в пути между наборами станций
+     */
+    private Body matrix(MetroSnapshot snapshot, Map<String, String> params) {
+        int[] from = idListParam(snapshot, params, "from");
+        int[] to = idListParam(snapshot, params, "to");
+        if ((long) from.length * to.length > MAX_MATRIX_CELLS) {
+            throw new IllegalArgumentException("Matrix of " + from.length + "x" + to.length
+                    + " exceeds " + MAX_MATRIX_CELLS + " cells");
+        }
+        int[][] times = snapshot.distanceMatrix(from, to);
+        return json -> writeMatrix(json, from, to, times);
+    }
+
+    private static void writeMatrix(JsonGenerator json, int[] from, int[] to, int[][] times) throws IOException {
+        json.writeStartObject();
+        json.writeFieldName("from");
+        json.writeArray(from, 0, from.length);
+        json.writeFieldName("to");
+        json.writeArray(to, 0, to.length);
+        json.writeArrayFieldStart("times");
+        for (int[] row : times) {
+            json.writeStartArray();
+            for (int time : row) {
+                if (time >= CsrGraph.INF) {
+                    json.writeNull();
+                } else {
+                    json.writeNumber(time);
+                }
+            }
+            json.writeEndArray();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * GET /reachable: изохрона от одной или нескольких станций
+     */
+    private void reachable(MetroSnapshot snapshot, Map<String, String> params, JsonGenerator json) throws IOException {
+        int[] from = idListParam(snapshot, params, "from");
+        if (!params.containsKey("minutes")) {
+            throw new IllegalArgumentException("Missing parameter 'minutes'");
+        }
+        int minutes = intParam(params, "minutes", 0);
+        Isochrone isochrone = snapshot.findReachable(from, minutes);
+        int[] ids = isochrone.getStationIds();
+        int[] times = isochrone.getTimes();
+
+        json.writeStartObject();
+        json.writeFieldName("from");
+        json.writeArray(from, 0, from.length);
+        json.writeNumberField("minutes", minutes);
+        json.writeArrayFieldStart("stations");
+        for (int i = 0; i < ids.length; i++) {
+            Station station = snapshot.getStation(ids[i]);
+            json.writeStartObject();
+            json.writeNumberField("id", ids[i]);
+            json.writeStringField("name", station.getName());
+            json.writeNumberField("line", station.getLine());
+            json.writeNumberField("time", times[i]);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * GET /health: версия снимка и размер карты
+     */
+    private void health(MetroSnapshot snapshot, Map<String, String> params, JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("status", "ok");
+        json.writeNumberField("snapshot", snapshot.getVersion());
+        json.writeNumberField("stations", snapshot.getStationCount());
+        json.writeEndObject();
+    }
+
+    /**
+     * GET /metrics: текстовый отчет {@link QueryMetrics}, кэша маршрутов и загрузчика
+     */
+    private void metrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            StringBuilder text = new StringBuilder(4096);
+            MetroSnapshot snapshot = service.getSnapshot();
+            text.append("spbmetro_snapshot_version ").append(snapshot.getVersion()).append('\n');
+            QueryMetrics.appendTo(text);
+            RouteCache<PathResult> cache = snapshot.getRouteCache();
+            if (cache != null) {
+                text.append("spbmetro_route_cache_entries ").append(cache.size()).append('\n');
+                text.append("spbmetro_route_cache_hits_total ").append(cache.getHits()).append('\n');
+                text.append("spbmetro_route_cache_misses_total ").append(cache.getMisses()).append('\n');
+                text.append("spbmetro_route_cache_evictions_total ").append(cache.getEvictions()).append('\n');
+                text.append("spbmetro_route_cache_expirations_total ").append(cache.getExpirations()).append('\n');
+            }
+            MapLoader.LoadStatistics load = MapLoader.getLastStatistics();
+            if (load != null) {
+                text.append("spbmetro_map_load_bytes ").append(load.getBytes()).append('\n');
+                text.append("spbmetro_map_load_millis ").append(load.getMillis()).append('\n');
+            }
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static void writeStation(JsonGenerator json, int id, Station station) throws IOException {
+        json.writeStartObject();
+        if (id >= 0) {
+            json.writeNumberField("id", id);
+        }
+        json.writeStringField("name", station.getName());
+        json.writeNumberField("line", station.getLine());
+        json.writeEndObject();
+    }
+
+    /**
+     * Разбирает станцию из параметра: ID или название
+     */
+    private static int stationParam(MetroSnapshot snapshot, Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter '" + name + "'");
+        }
+        int id = parseId(value);
+        if (id < 0) {
+            id = snapshot.getStationId(value);
+        }
+        if (id < 0 || id >= snapshot.getStationCount()) {
+            throw new IllegalArgumentException("Unknown station: " + value);
+        }
+        return id;
+    }
+
+    private static int[] idListParam(MetroSnapshot snapshot, Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter '" + name + "'");
+        }
+        String[] parts = value.split(",");
+        int[] ids = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            ids[i] = parseId(parts[i].trim());
+            if (ids[i] < 0 || ids[i] >= snapshot.getStationCount()) {
+                throw new IllegalArgumentException("Invalid station id: " + parts[i]);
+            }
+        }
+        return ids;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        int parsed = parseId(value);
+        if (parsed < 0) {
+            throw new IllegalArgumentException("Invalid value of '" + name + "': " + value);
+        }
+        return parsed;
+    }
+
+    /**
+     * Разбирает неотрицательное целое без исключений
+     *
+     * @return число или -1, если строка не является числом
+     */
+    private static int parseId(String value) {
+        if (value.isEmpty() || value.length() > 9) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
\ No newline at end of file
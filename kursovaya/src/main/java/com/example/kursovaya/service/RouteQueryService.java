@@ -0,0 +1,257 @@
+package com.example.kursovaya.service;
+
+import com.example.kursovaya.model.MetroSnapshot;
+import com.example.kursovaya.model.PathResult;
+import com.example.kursovaya.routing.SearchMode;
+import com.example.kursovaya.util.RouteCache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Сервис параллельной обработки запросов маршрутов.
+ * Хранит текущий снимок карты в атомарной ссылке: каждый запрос
+ * при постановке в очередь фиксирует снимок и до конца работает с ним,
+ * поэтому запросы читают данные без блокировок. Перезагрузка карты
+ * строит новый снимок целиком и только затем подменяет ссылку.
+ * Запросы выполняются фиксированным пулом потоков платформы: состояние
+ * поиска движков хранится отдельно для каждого потока, и в долгоживущих
+ * потоках оно создается один раз и затем переиспользуется.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class RouteQueryService implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(RouteQueryService.class);
+
+    private final AtomicReference<MetroSnapshot> current;
+    private final ExecutorService executor;
+
+    /**
+     * Создает сервис с пулом по числу доступных процессоров
+     *
+     * @param snapshot начальный снимок карты
+     */
+    public RouteQueryService(MetroSnapshot snapshot) {
+        this(snapshot, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Создает сервис с пулом указанного размера
+     *
+     * @param snapshot начальный снимок карты
+     * @param threads количество рабочих потоков
+     * @throws IllegalArgumentException если количество потоков меньше 1
+     */
+    public RouteQueryService(MetroSnapshot snapshot, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.current = new AtomicReference<>(snapshot);
+        this.executor = Executors.newFixedThreadPool(threads, new WorkerFactory());
+        logger.info("Route query service started with {} threads, snapshot version {}",
+                threads, snapshot.getVersion());
+    }
+
+    /**
+     * Возвращает текущий снимок карты
+     *
+     * @return опубликованный снимок
+     */
+    public MetroSnapshot getSnapshot() {
+        return current.get();
+    }
+
+    /**
+     * Публикует новый снимок. Уже принятые запросы дорабатывают
+     * на предыдущем снимке, новые получают этот.
+     * Если у предыдущего снимка был включен кэш результатов, у нового
+     * включается пустой кэш с теми же ограничениями, а старый очищается.
+     * Публикации выполняются по очереди; снимок, созданный раньше текущего,
+     * не публикуется, поэтому при параллельных перезагрузках побеждает
+     * самый новый снимок независимо от того, какая закончилась последней.
+     *
+     * @param snapshot новый снимок карты
+     * @return предыдущий снимок; если переданный снимок не новее текущего - текущий
+     */
+    public synchronized MetroSnapshot publish(MetroSnapshot snapshot) {
+        MetroSnapshot previous = current.get();
+        if (snapshot.getVersion() <= previous.getVersion()) {
+            logger.warn("Snapshot version {} is not newer than published version {}, ignored",
+                    snapshot.getVersion(), previous.getVersion());
+            return previous;
+        }
+        RouteCache<PathResult> cache = previous.getRouteCache();
+        if (cache != null && snapshot.getRouteCache() == null) {
+            snapshot.enableRouteCache(cache.getMaxEntries(), cache.getTtlMillis());
+        }
+        current.set(snapshot);
+        previous.invalidateRouteCache();
+        logger.info("Published snapshot version {} (was {})", snapshot.getVersion(), previous.getVersion());
+        return previous;
+    }
+
+    /**
+     * Строит новый снимок в фоновом потоке и публикует его после построения.
+     * Пока снимок строится, запросы обслуживаются текущим.
+     *
+     * @param loader функция построения снимка, например {@code () -> MapLoader.loadSnapshot("map.json")}
+     * @return future со снимком, действующим после публикации; это построенный
+     *         снимок, если за время построения не был опубликован более новый
+     */
+    public CompletableFuture<MetroSnapshot> reload(Supplier<MetroSnapshot> loader) {
+        return CompletableFuture.supplyAsync(loader, executor).thenApply(snapshot -> {
+            synchronized (this) {
+                publish(snapshot);
+                return current.get();
+            }
+        });
+    }
+
+    /**
+     * Асинхронно выполняет произвольный запрос к текущему снимку в пуле сервиса.
+     * Снимок фиксируется при вызове, как и у остальных запросов.
+     *
+     * @param query запрос к снимку
+     * @param <T> тип результата
+     * @return future с результатом запроса
+     */
+    public <T> CompletableFuture<T> query(Function<MetroSnapshot, T> query) {
+        MetroSnapshot snapshot = current.get();
+        return CompletableFuture.supplyAsync(() -> query.apply(snapshot), executor);
+    }
+
+    /**
+     * Асинхронно находит кратчайший путь на текущем снимке
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @return future с результатом поиска
+     */
+    public CompletableFuture<PathResult> findShortestPath(int startId, int endId) {
+        MetroSnapshot snapshot = current.get();
+        return CompletableFuture.supplyAsync(() -> snapshot.findShortestPath(startId, endId), executor);
+    }
+
+    /**
+     * Асинхронно находит кратчайший путь выбранным алгоритмом
+     *
+     * @param startId ID начальной станции
+     * @param endId ID конечной станции
+     * @param mode алгоритм поиска
+     * @return future с результатом поиска
+     */
+    public CompletableFuture<PathResult> findShortestPath(int startId, int endId, SearchMode mode) {
+        MetroSnapshot snapshot = current.get();
+        return CompletableFuture.supplyAsync(() -> snapshot.findShortestPath(startId, endId, mode), executor);
+    }
+
+    /**
+     * Асинхронно находит кратчайший путь по названиям станций
+     *
+     * @param startName название начальной станции
+     * @param endName название конечной станции
+     * @return future с результатом поиска; завершается с IllegalArgumentException, если станция не найдена
+     */
+    public CompletableFuture<PathResult> findShortestPath(String startName, String endName) {
+        MetroSnapshot snapshot = current.get();
+        return CompletableFuture.supplyAsync(() -> snapshot.findShortestPath(startName, endName), executor);
+    }
+
+    /**
+     * Обрабатывает пакет запросов параллельно. Все запросы пакета
+     * выполняются на одном и том же снимке.
+     *
+     * @param starts ID начальных станций
+     * @param ends ID конечных станций
+     * @return future со списком результатов в порядке запросов
+     * @throws IllegalArgumentException если длины массивов различаются
+     */
+    public CompletableFuture<List<PathResult>> findShortestPaths(int[] starts, int[] ends) {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException("Expected " + starts.length + " end stations, got " + ends.length);
+        }
+        MetroSnapshot snapshot = current.get();
+        List<CompletableFuture<PathResult>> futures = new ArrayList<>(starts.length);
+        for (int i = 0; i < starts.length; i++) {
+            int start = starts[i];
+            int end = ends[i];
+            futures.add(CompletableFuture.supplyAsync(() -> snapshot.findShortestPath(start, end), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<PathResult> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<PathResult> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Асинхронно вычисляет таблицу времен в пути между наборами станций.
+     * Каждая станция отправления - отдельная задача пула с одним поиском
+     * до всех станций назначения; все строки считаются на одном снимке.
+     *
+     * @param startIds ID станций отправления
+     * @param endIds ID станций назначения
+     * @return future со строками по станциям отправления
+     */
+    public CompletableFuture<int[][]> distanceMatrix(int[] startIds, int[] endIds) {
+        MetroSnapshot snapshot = current.get();
+        List<CompletableFuture<int[]>> futures = new ArrayList<>(startIds.length);
+        for (int start : startIds) {
+            futures.add(CompletableFuture.supplyAsync(() -> snapshot.shortestDistances(start, endIds), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            int[][] rows = new int[futures.size()][];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = futures.get(i).join();
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Останавливает пул, дожидаясь завершения принятых запросов
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Route query service did not stop in time, cancelling pending queries");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Route query service stopped");
+    }
+
+    /**
+     * Создает именованные фоновые рабочие потоки
+     */
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "route-query-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
\ No newline at end of file
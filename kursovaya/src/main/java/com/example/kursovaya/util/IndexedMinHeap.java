@@ -0,0 +1,183 @@
+package com.example.kursovaya.util;
+
+import java.util.Arrays;
+
+/**
+ * Индексированная 4-арная куча с минимальным ключом на вершине.
+ * Хранит номера вершин с целочисленными ключами в примитивных массивах
+ * и поддерживает уменьшение ключа уже находящейся в куче вершины,
+ * поэтому алгоритму Дейкстры не нужны повторные вставки и объекты-обертки.
+ * После создания операции не выделяют память.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class IndexedMinHeap {
+    private final int[] heap;     // Вершины в порядке кучи
+    private final int[] keys;     // Ключи по позициям кучи
+    private final int[] position; // Позиция вершины в куче или -1
+    private int size;
+
+    /**
+     * Создает пустую кучу для вершин из диапазона [0, capacity)
+     *
+     * @param capacity количество возможных вершин
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new int[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Проверяет, пуста ли куча
+     *
+     * @return true если элементов нет
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Возвращает количество элементов в куче
+     *
+     * @return размер кучи
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, находится ли вершина в куче
+     *
+     * @param vertex номер вершины
+     * @return true если вершина в куче
+     */
+    public boolean contains(int vertex) {
+        return position[vertex] >= 0;
+    }
+
+    /**
+     * Вставляет вершину или уменьшает её ключ, если она уже в куче
+     *
+     * @param vertex номер вершины
+     * @param key новый ключ
+     * @return true если куча изменилась
+     */
+    public boolean insertOrDecrease(int vertex, int key) {
+        int pos = position[vertex];
+        if (pos < 0) {
+            pos = size++;
+            heap[pos] = vertex;
+            keys[pos] = key;
+            position[vertex] = pos;
+        } else if (key < keys[pos]) {
+            keys[pos] = key;
+        } else {
+            return false;
+        }
+        siftUp(pos);
+        return true;
+    }
+
+    /**
+     * Возвращает минимальный ключ, не извлекая элемент
+     *
+     * @return минимальный ключ
+     * @throws IllegalStateException если куча пуста
+     */
+    public int peekKey() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        return keys[0];
+    }
+
+    /**
+     * Возвращает вершину с минимальным ключом, не извлекая её
+     *
+     * @return номер вершины
+     * @throws IllegalStateException если куча пуста
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Извлекает вершину с минимальным ключом
+     *
+     * @return номер вершины
+     * @throws IllegalStateException если куча пуста
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        int top = heap[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            keys[0] = keys[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Очищает кучу за время, пропорциональное числу оставшихся элементов
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int vertex = heap[pos];
+        int key = keys[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 2;
+            if (keys[parent] <= key) break;
+            move(parent, pos);
+            pos = parent;
+        }
+        place(vertex, key, pos);
+    }
+
+    private void siftDown(int pos) {
+        int vertex = heap[pos];
+        int key = keys[pos];
+        while (true) {
+            int first = (pos << 2) + 1;
+            if (first >= size) break;
+            int last = Math.min(first + 4, size);
+            int best = first;
+            for (int c = first + 1; c < last; c++) {
+                if (keys[c] < keys[best]) best = c;
+            }
+            if (keys[best] >= key) break;
+            move(best, pos);
+            pos = best;
+        }
+        place(vertex, key, pos);
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        position[heap[to]] = to;
+    }
+
+    private void place(int vertex, int key, int pos) {
+        heap[pos] = vertex;
+        keys[pos] = key;
+        position[vertex] = pos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.kursovaya.util;
+
+import java.util.Arrays;
+
+/**
+ * Растущий список примитивных значений int.
+ * Используется вместо List&lt;Integer&gt; там, где важны память и скорость
+ * (буферы рёбер, промежуточные массивы загрузчика).
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class IntList {
+    private int[] data;
+    private int size;
+
+    /**
+     * Создает пустой список с начальной емкостью по умолчанию
+     */
+    public IntList() {
+        this(16);
+    }
+
+    /**
+     * Создает пустой список с указанной начальной емкостью
+     *
+     * @param capacity начальная емкость
+     */
+    public IntList(int capacity) {
+        data = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Добавляет значение в конец списка
+     *
+     * @param value добавляемое значение
+     */
+    public void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, data.length + (data.length >> 1) + 1);
+        }
+        data[size++] = value;
+    }
+
+    /**
+     * Возвращает значение по индексу
+     *
+     * @param index индекс элемента
+     * @return значение
+     * @throws IndexOutOfBoundsException если индекс вне диапазона
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return data[index];
+    }
+
+    /**
+     * Заменяет значение по индексу
+     *
+     * @param index индекс элемента
+     * @param value новое значение
+     * @throws IndexOutOfBoundsException если индекс вне диапазона
+     */
+    public void set(int index, int value) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        data[index] = value;
+    }
+
+    /**
+     * Удаляет и возвращает последний элемент
+     *
+     * @return последнее значение
+     * @throws IllegalStateException если список пуст
+     */
+    public int removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("List is empty");
+        }
+        return data[--size];
+    }
+
+    /**
+     * Возвращает количество элементов
+     *
+     * @return размер списка
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Очищает список, сохраняя выделенную память
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Возвращает внутренний массив без копирования.
+     * Значимы только первые {@link #size()} элементов.
+     *
+     * @return внутренний массив
+     */
+    public int[] rawArray() {
+        return data;
+    }
+
+    /**
+     * Возвращает копию содержимого точного размера
+     *
+     * @return новый массив из size() элементов
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
\ No newline at end of file
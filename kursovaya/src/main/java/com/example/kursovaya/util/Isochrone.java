@@ -0,0 +1,86 @@
+package com.example.kursovaya.util;
+
+/**
+ * Результат поиска станций, достижимых за заданное время (изохрона).
+ * Номера станций и времена хранятся в двух параллельных примитивных
+ * массивах по возрастанию времени, начиная со станций отправления.
+ * Поэтому изохрона для меньшего времени - это начало тех же массивов:
+ * при движении ползунка достаточно один раз выполнить поиск для его
+ * максимального значения и затем брать {@link #countWithin(int)} элементов.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class Isochrone {
+    private final int[] stationIds;
+    private final int[] times;
+    private final int limit;
+
+    /**
+     * Создает результат
+     *
+     * @param stationIds номера достижимых станций
+     * @param times время до каждой станции в минутах, по возрастанию
+     * @param limit ограничение времени, с которым выполнялся поиск
+     */
+    public Isochrone(int[] stationIds, int[] times, int limit) {
+        this.stationIds = stationIds;
+        this.times = times;
+        this.limit = limit;
+    }
+
+    /**
+     * Возвращает количество достижимых станций
+     *
+     * @return количество станций, включая станции отправления
+     */
+    public int size() {
+        return stationIds.length;
+    }
+
+    /**
+     * Возвращает номера достижимых станций
+     *
+     * @return массив номеров по возрастанию времени
+     */
+    public int[] getStationIds() {
+        return stationIds;
+    }
+
+    /**
+     * Возвращает время до достижимых станций
+     *
+     * @return массив времен в минутах, параллельный {@link #getStationIds()}
+     */
+    public int[] getTimes() {
+        return times;
+    }
+
+    /**
+     * Возвращает ограничение времени поиска
+     *
+     * @return время в минутах
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Возвращает количество станций, достижимых за меньшее время.
+     * Это первые элементы массивов результата.
+     *
+     * @param minutes время в минутах, не больше {@link #getLimit()}
+     * @return количество станций со временем не больше minutes
+     */
+    public int countWithin(int minutes) {
+        // Первый элемент со временем больше minutes
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= minutes) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
\ No newline at end of file
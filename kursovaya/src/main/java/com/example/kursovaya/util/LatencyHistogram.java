@@ -0,0 +1,174 @@
+package com.example.kursovaya.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек с логарифмически-линейными интервалами,
+ * как в HdrHistogram: значения до 128 хранятся точно, а каждый следующий
+ * диапазон [2^k, 2^(k+1)) делится на 64 равных интервала. Относительная
+ * погрешность перцентилей не превышает 1,6% при фиксированном объеме памяти
+ * независимо от числа записей.
+ * <p>
+ * Запись выполняется без блокировок: счетчики интервалов разбиты на полосы,
+ * и потоки пишут в полосу по своему номеру, поэтому параллельные запросы
+ * почти не конкурируют за одни и те же строки кэша процессора.
+ * Полосы суммируются только при чтении.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT / 2;
+    /** Наибольшее точно учитываемое значение, около 68 секунд в наносекундах */
+    public static final long MAX_VALUE = (1L << 36) - 1;
+    private static final int BUCKET_COUNT = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int mask;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Создает гистограмму с числом полос по количеству процессоров, но не больше 8
+     */
+    public LatencyHistogram() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripeCount = Integer.highestOneBit(Math.min(8, Math.max(1, processors)));
+        this.stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    /**
+     * Номер интервала для значения
+     */
+    static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        // Сдвиг, оставляющий старшие SUB_BITS бит значения
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        return SUB_COUNT + (shift - 1) * HALF_COUNT + (int) (value >>> shift) - HALF_COUNT;
+    }
+
+    /**
+     * Наибольшее значение, попадающее в интервал
+     */
+    static long highestValue(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_COUNT) / HALF_COUNT + 1;
+        long sub = (index - SUB_COUNT) % HALF_COUNT + HALF_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Добавляет значение; отрицательные значения считаются нулем,
+     * значения больше {@link #MAX_VALUE} - равными ему
+     *
+     * @param value значение, обычно задержка в наносекундах
+     */
+    public void record(long value) {
+        long v = Math.min(Math.max(value, 0), MAX_VALUE);
+        int stripe = (int) Thread.currentThread().threadId() & mask;
+        stripes[stripe].incrementAndGet(index(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Возвращает количество значений
+     *
+     * @return количество записей
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Возвращает среднее значение
+     *
+     * @return среднее или 0, если записей нет
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Возвращает наибольшее значение
+     *
+     * @return максимум или 0, если записей нет
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Вычисляет несколько перцентилей за один проход по интервалам
+     *
+     * @param percentiles перцентили от 0 до 100 по возрастанию
+     * @return верхние границы интервалов, содержащих перцентили; 0 если записей нет
+     */
+    public long[] getPercentiles(double... percentiles) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long c = stripe.get(i);
+                counts[i] += c;
+                total += c;
+            }
+        }
+        long[] result = new long[percentiles.length];
+        if (total == 0) {
+            return result;
+        }
+        long seen = 0;
+        int bucket = 0;
+        long maxValue = max.get();
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100 * total));
+            while (bucket < BUCKET_COUNT - 1 && seen + counts[bucket] < rank) {
+                seen += counts[bucket++];
+            }
+            // Граница интервала не может быть больше фактического максимума
+            result[p] = Math.min(highestValue(bucket), maxValue);
+        }
+        return result;
+    }
+
+    /**
+     * Вычисляет перцентиль
+     *
+     * @param percentile перцентиль от 0 до 100
+     * @return верхняя граница интервала, содержащего перцентиль
+     */
+    public long getPercentile(double percentile) {
+        return getPercentiles(percentile)[0];
+    }
+
+    /**
+     * Обнуляет гистограмму. Значения, записанные одновременно
+     * с обнулением, могут быть учтены частично.
+     */
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                stripe.set(i, 0);
+            }
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,314 @@
+package com.example.kursovaya.util;
+
+import com.example.kursovaya.model.CsrGraph;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Индекс станций по линиям. Номера станций сгруппированы по линиям
+ * в одном плоском массиве в стиле CSR: для каждой линии хранится смещение
+ * начала её группы, внутри группы станции идут в порядке следования.
+ * Для каждой станции хранится её позиция в плоском массиве, поэтому
+ * соседние станции линии находятся без поиска.
+ * <p>
+ * Порядок следования определяется перегонами графа, соединяющими станции
+ * одной линии, а не номерами станций. Линия обходится в глубину от конечной
+ * станции с наименьшим номером, соседи - по возрастанию номеров; у простой
+ * линии это последовательность от конечной до конечной. Кольцевая линия,
+ * у которой каждая станция соединена ровно с двумя станциями той же линии,
+ * начинается с наименьшего номера, и за последней станцией снова идет первая.
+ * У разветвленной линии после развилки сначала перечисляется одна ветвь
+ * целиком, затем следующая. Части линии, не соединенные перегонами,
+ * идут друг за другом.
+ * <p>
+ * Список станций линии строится за O(размер результата), количество
+ * станций - за O(log L), следующие N станций - за O(log L + N),
+ * где L - число линий; всё это без просмотра всех станций карты.
+ * Индекс неизменяем и потокобезопасен.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class LineIndex {
+    private final int[] lineNumbers;  // Номера линий по возрастанию
+    private final int[] lineStart;    // Начало группы каждой линии в stationIds, длина - линий + 1
+    private final int[] stationIds;   // Номера станций, сгруппированные по линиям в порядке следования
+    private final int[] position;     // Позиция каждой станции в stationIds
+    private final int[] parent;       // Позиция предыдущей станции; -1 у начала линии, у кольца - последняя станция
+    private final int[] subtreeEnd;   // Конец ветви, идущей от станции, в порядке обхода
+    private final int[] partStart;    // Позиция начала связной части линии, содержащей станцию
+    private final Map<Integer, Long> counts; // Номер линии -> количество станций
+
+    private LineIndex(int[] lineNumbers, int[] lineStart, int[] stationIds, int[] position,
+                      int[] parent, int[] subtreeEnd, int[] partStart) {
+        this.lineNumbers = lineNumbers;
+        this.lineStart = lineStart;
+        this.stationIds = stationIds;
+        this.position = position;
+        this.parent = parent;
+        this.subtreeEnd = subtreeEnd;
+        this.partStart = partStart;
+        Map<Integer, Long> byLine = new TreeMap<>();
+        for (int k = 0; k < lineNumbers.length; k++) {
+            byLine.put(lineNumbers[k], (long) (lineStart[k + 1] - lineStart[k]));
+        }
+        this.counts = Collections.unmodifiableMap(byLine);
+    }
+
+    /**
+     * Строит индекс по номерам линий станций и перегонам графа за O(V + E)
+     *
+     * @param stationLines номер линии для каждой станции; индекс массива - номер станции
+     * @param graph граф карты; учитываются все дуги, в том числе закрытые,
+     *              поэтому порядок станций не зависит от оперативных изменений
+     * @return построенный индекс
+     */
+    public static LineIndex build(int[] stationLines, CsrGraph graph) {
+        int n = stationLines.length;
+        int[] lineNumbers = Arrays.stream(stationLines).distinct().sorted().toArray();
+        int lineCount = lineNumbers.length;
+
+        // Подсчет станций на каждой линии
+        int[] lineOf = new int[n];
+        int[] lineStart = new int[lineCount + 1];
+        for (int id = 0; id < n; id++) {
+            lineOf[id] = Arrays.binarySearch(lineNumbers, stationLines[id]);
+            lineStart[lineOf[id] + 1]++;
+        }
+        for (int k = 0; k < lineCount; k++) {
+            lineStart[k + 1] += lineStart[k];
+        }
+
+        // Раскладка по группам по возрастанию номеров: порядок выбора начальных станций
+        int[] next = Arrays.copyOf(lineStart, lineCount);
+        int[] members = new int[n];
+        for (int id = 0; id < n; id++) {
+            members[next[lineOf[id]]++] = id;
+        }
+
+        int[] stationIds = new int[n];
+        int[] position = new int[n];
+        int[] parent = new int[n];
+        int[] subtreeEnd = new int[n];
+        int[] partStart = new int[n];
+        Arrays.fill(position, -1);
+        boolean[] seen = new boolean[n];
+        int[] part = new int[n];   // Станции текущей связной части
+        int[] stack = new int[n];  // Стек обхода в глубину
+        int[] cursor = new int[n]; // Следующая дуга для каждой станции в стеке
+        int at = 0;
+        for (int m = 0; m < n; m++) {
+            int first = members[m];
+            if (seen[first]) continue;
+
+            // Связная часть линии; кольцо - если у каждой станции два соседа по линии
+            int size = 0;
+            part[size++] = first;
+            seen[first] = true;
+            boolean ring = true;
+            int root = -1;
+            for (int i = 0; i < size; i++) {
+                int v = part[i];
+                int degree = 0;
+                for (int arc = arcStart(graph, v); arc < arcEnd(graph, v); arc++) {
+                    int u = graph.target(arc);
+                    if (u < n && lineOf[u] == lineOf[v]) {
+                        degree++;
+                        if (!seen[u]) {
+                            seen[u] = true;
+                            part[size++] = u;
+                        }
+                    }
+                }
+                ring &= degree == 2;
+                if (degree <= 1 && (root < 0 || v < root)) {
+                    root = v;
+                }
+            }
+            if (root < 0) {
+                // Конечных станций нет: кольцо или кольцо с ответвлениями
+                root = first;
+            }
+
+            // Обход в глубину задает порядок следования и ветви
+            int begin = at;
+            int depth = 0;
+            stack[depth] = root;
+            cursor[depth++] = arcStart(graph, root);
+            position[root] = at;
+            stationIds[at] = root;
+            parent[at] = -1;
+            partStart[at++] = begin;
+            while (depth > 0) {
+                int v = stack[depth - 1];
+                int arc = cursor[depth - 1];
+                int end = arcEnd(graph, v);
+                while (arc < end) {
+                    int u = graph.target(arc);
+                    if (u < n && lineOf[u] == lineOf[v] && position[u] < 0) {
+                        break;
+                    }
+                    arc++;
+                }
+                cursor[depth - 1] = arc + 1;
+                if (arc >= end) {
+                    subtreeEnd[position[v]] = at;
+                    depth--;
+                    continue;
+                }
+                int u = graph.target(arc);
+                parent[at] = position[v];
+                position[u] = at;
+                stationIds[at] = u;
+                partStart[at++] = begin;
+                stack[depth] = u;
+                cursor[depth++] = arcStart(graph, u);
+            }
+            if (ring && size > 2) {
+                parent[begin] = at - 1; // За последней станцией кольца снова идет первая
+            }
+        }
+        return new LineIndex(lineNumbers, lineStart, stationIds, position, parent, subtreeEnd, partStart);
+    }
+
+    /**
+     * Начало строки дуг; у станций вне графа дуг нет
+     */
+    private static int arcStart(CsrGraph graph, int v) {
+        return v < graph.getVertexCount() ? graph.arcStart(v) : 0;
+    }
+
+    private static int arcEnd(CsrGraph graph, int v) {
+        return v < graph.getVertexCount() ? graph.arcEnd(v) : 0;
+    }
+
+    /**
+     * Возвращает количество линий
+     *
+     * @return количество различных линий
+     */
+    public int getLineCount() {
+        return lineNumbers.length;
+    }
+
+    /**
+     * Возвращает номера всех линий
+     *
+     * @return номера линий по возрастанию
+     */
+    public int[] getLineNumbers() {
+        return lineNumbers.clone();
+    }
+
+    /**
+     * Возвращает количество станций на линии
+     *
+     * @param lineNumber номер линии
+     * @return количество станций или 0, если линии нет
+     */
+    public int getStationCount(int lineNumber) {
+        int k = Arrays.binarySearch(lineNumbers, lineNumber);
+        return k < 0 ? 0 : lineStart[k + 1] - lineStart[k];
+    }
+
+    /**
+     * Возвращает номера станций линии
+     *
+     * @param lineNumber номер линии
+     * @return номера станций в порядке следования; пустой массив, если линии нет
+     */
+    public int[] getStationIds(int lineNumber) {
+        int k = Arrays.binarySearch(lineNumbers, lineNumber);
+        return k < 0 ? new int[0] : Arrays.copyOfRange(stationIds, lineStart[k], lineStart[k + 1]);
+    }
+
+    /**
+     * Возвращает количество станций на каждой линии
+     *
+     * @return неизменяемое отображение номер линии -> количество станций,
+     *         упорядоченное по номеру линии
+     */
+    public Map<Integer, Long> getStationCounts() {
+        return counts;
+    }
+
+    /**
+     * Возвращает порядковый номер станции на её линии
+     *
+     * @param stationId номер станции
+     * @return позиция от 0 в порядке следования
+     * @throws IllegalArgumentException если станции нет в индексе
+     */
+    public int getPosition(int stationId) {
+        int at = positionOf(stationId);
+        return at - lineStart[groupOf(at)];
+    }
+
+    /**
+     * Возвращает станции, следующие за указанной на той же линии.
+     * При отрицательном count возвращаются предыдущие станции,
+     * начиная с ближайшей, то есть движение в обратном направлении.
+     * Если до конца линии станций меньше, возвращаются все оставшиеся;
+     * на кольцевой линии после последней станции снова идет первая,
+     * а сама станция не повторяется. За развилкой разветвленной линии
+     * станции всех ветвей перечисляются по числу перегонов от указанной.
+     *
+     * @param stationId номер станции
+     * @param count количество станций и направление
+     * @return номера станций в порядке удаления от указанной
+     * @throws IllegalArgumentException если станции нет в индексе
+     */
+    public int[] getNextStationIds(int stationId, int count) {
+        int at = positionOf(stationId);
+        int begin = partStart[at];
+        boolean ring = parent[begin] >= 0;
+        int partSize = subtreeEnd[begin] - begin;
+        int[] result;
+        int found = 0;
+        if (count < 0) {
+            // Назад путь единственный: по ссылкам на предыдущую станцию
+            result = new int[(int) Math.min(-(long) count, partSize - 1)];
+            for (int p = parent[at]; p >= 0 && found < result.length; p = parent[p]) {
+                result[found++] = p;
+            }
+        } else if (ring) {
+            result = new int[Math.min(count, partSize - 1)];
+            for (int p = at + 1; found < result.length; p++) {
+                result[found++] = p < begin + partSize ? p : p - partSize;
+            }
+        } else {
+            // Вперед - обход ветвей в ширину; найденные позиции служат очередью.
+            // Дети станции идут подряд: первый сразу за ней, следующий - за концом ветви предыдущего
+            result = new int[Math.min(count, subtreeEnd[at] - at - 1)];
+            for (int head = -1; found < result.length; head++) {
+                int p = head < 0 ? at : result[head];
+                for (int child = p + 1; child < subtreeEnd[p] && found < result.length; child = subtreeEnd[child]) {
+                    result[found++] = child;
+                }
+            }
+        }
+        for (int i = 0; i < found; i++) {
+            result[i] = stationIds[result[i]];
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    private int positionOf(int stationId) {
+        if (stationId < 0 || stationId >= position.length) {
+            throw new IllegalArgumentException("Invalid station id: " + stationId);
+        }
+        return position[stationId];
+    }
+
+    /**
+     * Номер группы линии, содержащей позицию в stationIds
+     */
+    private int groupOf(int at) {
+        // Группы непустые, поэтому начала групп строго возрастают
+        int k = Arrays.binarySearch(lineStart, 0, lineNumbers.length, at);
+        return k >= 0 ? k : -k - 2;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,240 @@
+package com.example.kursovaya.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики запросов поиска: гистограммы задержек, количество обработанных
+ * вершин и просмотренных ребер и объем выделенной памяти по каждому виду
+ * запросов. Все счетчики - {@link LongAdder} и гистограммы
+ * {@link LatencyHistogram} с полосами по потокам, поэтому запись не требует
+ * блокировок и не создает конкуренции между потоками запросов.
+ * <p>
+ * По умолчанию метрики выключены (включаются свойством
+ * {@code -Dspbmetro.metrics=true} или {@link #setEnabled(boolean)}); тогда
+ * каждый запрос проверяет один флаг и не вызывает даже System.nanoTime().
+ * Выделение памяти измеряется счетчиком потока JVM, если он поддерживается.
+ * <p>
+ * Порядок вызова в точке измерения:
+ * <pre>
+ * long started = QueryMetrics.start();
+ * long allocated = QueryMetrics.allocatedBytes();
+ * ... поиск ...
+ * QueryMetrics.record(Operation.DIJKSTRA, started, allocated, settled, relaxed);
+ * </pre>
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class QueryMetrics {
+
+    /**
+     * Вид измеряемой операции
+     */
+    public enum Operation {
+        /** Поиск алгоритмом Дейкстры */
+        DIJKSTRA,
+        /** Двунаправленный поиск */
+        BIDIRECTIONAL,
+        /** Поиск A* с ориентирами */
+        ASTAR,
+        /** Поиск по иерархии сжатий */
+        CONTRACTION_HIERARCHIES,
+        /** Ответ из таблицы всех пар */
+        ALL_PAIRS,
+        /** Поиск самого раннего прибытия по расписанию */
+        EARLIEST_ARRIVAL,
+        /** Поиск Парето-оптимальных маршрутов */
+        PARETO,
+        /** Поиск альтернативных маршрутов */
+        ALTERNATIVES,
+        /** Расстояния от одной станции до многих */
+        DISTANCES,
+        /** Поиск станций, достижимых за заданное время */
+        ISOCHRONE,
+        /** Загрузка карты */
+        MAP_LOAD
+    }
+
+    private static final Entry[] entries = new Entry[Operation.values().length];
+    private static final com.sun.management.ThreadMXBean threads = allocationCounter();
+    private static volatile boolean enabled = Boolean.getBoolean("spbmetro.metrics");
+
+    static {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry();
+        }
+    }
+
+    private QueryMetrics() {
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                return bean;
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // Счетчик выделения памяти недоступен, измеряются только время и счетчики
+        }
+        return null;
+    }
+
+    /**
+     * Проверяет, включены ли метрики
+     *
+     * @return true если метрики записываются
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Включает или выключает запись метрик
+     *
+     * @param value true для включения
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Возвращает отметку начала измерения
+     *
+     * @return System.nanoTime() или 0, если метрики выключены
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Возвращает объем памяти, выделенной текущим потоком
+     *
+     * @return байты или -1, если метрики выключены или счетчик не поддерживается
+     */
+    public static long allocatedBytes() {
+        return enabled && threads != null ? threads.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Записывает одну операцию
+     *
+     * @param operation вид операции
+     * @param started отметка из {@link #start()}; 0 - операция не измерялась
+     * @param allocated значение из {@link #allocatedBytes()} до операции или -1
+     * @param settled количество обработанных вершин
+     * @param relaxed количество просмотренных ребер
+     */
+    public static void record(Operation operation, long started, long allocated, long settled, long relaxed) {
+        if (started == 0 || !enabled) {
+            return;
+        }
+        Entry entry = entries[operation.ordinal()];
+        entry.latency.record(System.nanoTime() - started);
+        entry.settled.add(settled);
+        entry.relaxed.add(relaxed);
+        if (allocated >= 0) {
+            long now = allocatedBytes();
+            if (now >= allocated) {
+                entry.allocated.add(now - allocated);
+            }
+        }
+    }
+
+    /**
+     * Возвращает гистограмму задержек операции
+     *
+     * @param operation вид операции
+     * @return гистограмма в наносекундах
+     */
+    public static LatencyHistogram getLatency(Operation operation) {
+        return entries[operation.ordinal()].latency;
+    }
+
+    /**
+     * Возвращает суммарное количество обработанных вершин
+     *
+     * @param operation вид операции
+     * @return количество вершин
+     */
+    public static long getSettled(Operation operation) {
+        return entries[operation.ordinal()].settled.sum();
+    }
+
+    /**
+     * Возвращает суммарное количество просмотренных ребер
+     *
+     * @param operation вид операции
+     * @return количество ребер
+     */
+    public static long getRelaxed(Operation operation) {
+        return entries[operation.ordinal()].relaxed.sum();
+    }
+
+    /**
+     * Возвращает суммарный объем выделенной памяти
+     *
+     * @param operation вид операции
+     * @return байты
+     */
+    public static long getAllocatedBytes(Operation operation) {
+        return entries[operation.ordinal()].allocated.sum();
+    }
+
+    /**
+     * Обнуляет все метрики
+     */
+    public static void reset() {
+        for (Entry entry : entries) {
+            entry.latency.reset();
+            entry.settled.reset();
+            entry.relaxed.reset();
+            entry.allocated.reset();
+        }
+    }
+
+    /**
+     * Добавляет метрики в текстовом формате Prometheus, по строке на значение.
+     * Операции без записей пропускаются.
+     *
+     * @param out строка, в которую добавляется отчет
+     */
+    public static void appendTo(StringBuilder out) {
+        for (Operation operation : Operation.values()) {
+            Entry entry = entries[operation.ordinal()];
+            long count = entry.latency.getCount();
+            if (count == 0) continue;
+            String label = "{operation=\"" + operation.name().toLowerCase(Locale.ROOT) + "\"";
+            out.append("spbmetro_query_count").append(label).append("} ").append(count).append('\n');
+            long[] percentiles = entry.latency.getPercentiles(50, 90, 99, 99.9);
+            String[] names = {"0.5", "0.9", "0.99", "0.999"};
+            for (int i = 0; i < names.length; i++) {
+                out.append("spbmetro_query_latency_us").append(label).append(",quantile=\"").append(names[i])
+                        .append("\"} ").append(String.format(Locale.ROOT, "%.1f", percentiles[i] / 1000.0)).append('\n');
+            }
+            out.append("spbmetro_query_latency_us_mean").append(label).append("} ")
+                    .append(String.format(Locale.ROOT, "%.1f", entry.latency.getMean() / 1000)).append('\n');
+            out.append("spbmetro_query_latency_us_max").append(label).append("} ")
+                    .append(String.format(Locale.ROOT, "%.1f", entry.latency.getMax() / 1000.0)).append('\n');
+            out.append("spbmetro_query_settled_total").append(label).append("} ").append(entry.settled.sum()).append('\n');
+            out.append("spbmetro_query_relaxed_total").append(label).append("} ").append(entry.relaxed.sum()).append('\n');
+            if (threads != null) {
+                out.append("spbmetro_query_allocated_bytes_total").append(label).append("} ")
+                        .append(entry.allocated.sum()).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Счетчики одной операции
+     */
+    private static final class Entry {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder settled = new LongAdder();
+        private final LongAdder relaxed = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+    }
+}
\ No newline at end of file
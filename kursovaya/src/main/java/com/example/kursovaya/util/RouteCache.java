@@ -0,0 +1,315 @@
+package com.example.kursovaya.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Ограниченный потокобезопасный кэш результатов с вытеснением давно
+ * не использованных записей (LRU) и временем жизни записей (TTL).
+ * Ключ - число long, в которое вызывающий код упаковывает пару станций
+ * и режим поиска. Кэш разбит на сегменты со своей блокировкой, поэтому
+ * потоки, обращающиеся к разным ключам, почти не мешают друг другу.
+ * Каждый сегмент - LinkedHashMap в порядке доступа, ограниченный
+ * своей долей общей емкости.
+ * Счетчики попаданий и промахов хранятся в LongAdder и не создают
+ * конкуренции между потоками.
+ * <p>
+ * Очистка и выборочное удаление увеличивают номер поколения кэша.
+ * Значение, вычисленное в {@link #get(long, LongFunction)}, не запоминается,
+ * если за время вычисления поколение сменилось: оно могло быть посчитано
+ * по данным, которые уже устарели.
+ *
+ * @param <V> тип значений
+ * @author Student
+ * @version 1.0
+ */
+public final class RouteCache<V> {
+    private final Segment<V>[] segments;
+    private final int mask;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final AtomicLong generation = new AtomicLong(); // Увеличивается при каждой очистке
+
+    /**
+     * Создает кэш
+     *
+     * @param maxEntries максимальное количество записей
+     * @param ttlMillis время жизни записи в миллисекундах, 0 - без ограничения
+     * @throws IllegalArgumentException если емкость меньше 1 или время жизни отрицательное
+     */
+    @SuppressWarnings("unchecked")
+    public RouteCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1 || ttlMillis < 0) {
+            throw new IllegalArgumentException("Invalid cache limits: " + maxEntries + " entries, ttl " + ttlMillis + " ms");
+        }
+        // Количество сегментов - степень двойки, не больше 16 и не больше емкости
+        int count = Integer.highestOneBit(Math.min(16, maxEntries));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            int capacity = maxEntries / count + (i < maxEntries % count ? 1 : 0);
+            segments[i] = new Segment<>(capacity, evictions);
+        }
+        this.mask = count - 1;
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.maxEntries = maxEntries;
+    }
+
+    private Segment<V> segmentFor(long key) {
+        return segments[segmentIndex(key)];
+    }
+
+    /**
+     * Возвращает номер сегмента, в котором хранится ключ
+     *
+     * @param key ключ
+     * @return номер сегмента
+     */
+    int segmentIndex(long key) {
+        // Перемешивание битов, чтобы соседние ключи попадали в разные сегменты
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * Возвращает значение из кэша
+     *
+     * @param key ключ
+     * @return значение или null, если его нет или срок жизни истек
+     */
+    public V get(long key) {
+        Segment<V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.createdAt > ttlNanos) {
+                segment.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+            value = entry == null ? null : entry.value;
+        }
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Помещает значение в кэш, вытесняя давно не использованные записи
+     *
+     * @param key ключ
+     * @param value значение
+     */
+    public void put(long key, V value) {
+        put(key, value, -1);
+    }
+
+    /**
+     * Помещает значение, если поколение кэша не изменилось.
+     * Проверка выполняется под блокировкой сегмента, а очистка сначала
+     * меняет поколение и только потом обходит сегменты, поэтому значение
+     * либо не попадет в кэш, либо будет проверено очисткой.
+     *
+     * @param generation ожидаемое поколение или -1 без проверки
+     */
+    private void put(long key, V value, long generation) {
+        Segment<V> segment = segmentFor(key);
+        Entry<V> entry = new Entry<>(value, System.nanoTime());
+        synchronized (segment) {
+            if (generation < 0 || generation == this.generation.get()) {
+                segment.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Возвращает значение из кэша или вычисляет и запоминает его.
+     * Вычисление выполняется вне блокировки, поэтому одновременные
+     * промахи по одному ключу могут вычислить значение несколько раз.
+     * Если во время вычисления кэш очищался, значение возвращается,
+     * но не запоминается.
+     *
+     * @param key ключ
+     * @param loader функция вычисления значения по ключу
+     * @return значение
+     */
+    public V get(long key, LongFunction<V> loader) {
+        V value = get(key);
+        if (value == null) {
+            long started = generation.get();
+            value = loader.apply(key);
+            put(key, value, started);
+        }
+        return value;
+    }
+
+    /**
+     * Удаляет все записи. Счетчики не сбрасываются.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Удаляет записи, значения которых устарели, оставляя остальные.
+     * Используется, когда изменение затрагивает лишь часть результатов.
+     *
+     * @param stale условие устаревания значения
+     * @return количество удаленных записей
+     */
+    public int invalidateIf(Predicate<? super V> stale) {
+        generation.incrementAndGet();
+        int removed = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                Iterator<Entry<V>> it = segment.values().iterator();
+                while (it.hasNext()) {
+                    if (stale.test(it.next().value)) {
+                        it.remove();
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Возвращает текущее количество записей
+     *
+     * @return количество записей
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Возвращает максимальное количество записей
+     *
+     * @return емкость кэша
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Возвращает время жизни записей
+     *
+     * @return время в миллисекундах, 0 - без ограничения
+     */
+    public long getTtlMillis() {
+        return ttlNanos / 1_000_000;
+    }
+
+    /**
+     * Возвращает количество попаданий
+     *
+     * @return количество запросов, найденных в кэше
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Возвращает количество промахов
+     *
+     * @return количество запросов, не найденных в кэше
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Возвращает количество записей, вытесненных из-за ограничения размера
+     *
+     * @return количество вытеснений
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Возвращает количество записей, удаленных по истечении срока жизни
+     *
+     * @return количество устаревших записей
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * Возвращает долю попаданий
+     *
+     * @return доля от 0 до 1, или 0 если запросов не было
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d entries, %d hits, %d misses (%.1f%%), %d evictions, %d expirations",
+                size(), maxEntries, getHits(), getMisses(), getHitRate() * 100, getEvictions(), getExpirations());
+    }
+
+    /**
+     * Запись кэша со временем создания
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Сегмент кэша: LinkedHashMap в порядке доступа с ограничением размера
+     */
+    private static final class Segment<V> extends LinkedHashMap<Long, Entry<V>> {
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
\ No newline at end of file
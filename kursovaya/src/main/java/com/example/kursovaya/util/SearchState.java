@@ -0,0 +1,196 @@
+package com.example.kursovaya.util;
+
+import java.util.Arrays;
+
+/**
+ * Переиспользуемое состояние одного поиска кратчайших путей:
+ * расстояния, предшественники, отметки посещения и очередь с приоритетами.
+ * Вместо заполнения массивов через Arrays.fill перед каждым запросом
+ * используется номер поколения: значение вершины считается действительным,
+ * только если её отметка совпадает с текущим поколением.
+ * Поэтому сброс стоит O(1), а повторные запросы не выделяют память.
+ * Экземпляр не потокобезопасен и должен использоваться одним потоком.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public class SearchState {
+    private final int size;
+    private final int[] dist;
+    private final int[] prev;
+    private final int[] reachedStamp; // Поколение, в котором вершина получила расстояние
+    private final int[] settledStamp; // Поколение, в котором вершина окончательно обработана
+    private final int[] settledOrder; // Вершины в порядке окончательной обработки
+    private final IndexedMinHeap heap;
+    private final int unreachable;
+
+    private int generation;
+    private int settledCount;
+    private long relaxedCount;
+
+    /**
+     * Создает состояние поиска для графа указанного размера
+     *
+     * @param size количество вершин графа
+     * @param unreachable значение расстояния для недостижимых вершин
+     */
+    public SearchState(int size, int unreachable) {
+        this.size = size;
+        this.unreachable = unreachable;
+        dist = new int[size];
+        prev = new int[size];
+        reachedStamp = new int[size];
+        settledStamp = new int[size];
+        settledOrder = new int[size];
+        heap = new IndexedMinHeap(size);
+        generation = 1;
+    }
+
+    /**
+     * Начинает новый поиск: все вершины снова становятся недостижимыми
+     */
+    public void reset() {
+        generation++;
+        if (generation == 0) {
+            // Переполнение счетчика поколений - единственный случай полной очистки
+            Arrays.fill(reachedStamp, 0);
+            Arrays.fill(settledStamp, 0);
+            generation = 1;
+        }
+        heap.clear();
+        settledCount = 0;
+        relaxedCount = 0;
+    }
+
+    /**
+     * Возвращает количество вершин, для которых создано состояние
+     *
+     * @return размер графа
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает текущее расстояние до вершины
+     *
+     * @param v номер вершины
+     * @return расстояние или значение "недостижимо"
+     */
+    public int dist(int v) {
+        return reachedStamp[v] == generation ? dist[v] : unreachable;
+    }
+
+    /**
+     * Возвращает предшественника вершины в дереве кратчайших путей
+     *
+     * @param v номер вершины
+     * @return номер предшественника или -1
+     */
+    public int prev(int v) {
+        return reachedStamp[v] == generation ? prev[v] : -1;
+    }
+
+    /**
+     * Проверяет, получила ли вершина расстояние в текущем поиске
+     *
+     * @param v номер вершины
+     * @return true если вершина достигнута
+     */
+    public boolean isReached(int v) {
+        return reachedStamp[v] == generation;
+    }
+
+    /**
+     * Записывает расстояние и предшественника вершины
+     *
+     * @param v номер вершины
+     * @param d расстояние
+     * @param p предшественник или -1
+     */
+    public void update(int v, int d, int p) {
+        dist[v] = d;
+        prev[v] = p;
+        reachedStamp[v] = generation;
+    }
+
+    /**
+     * Проверяет, обработана ли вершина окончательно
+     *
+     * @param v номер вершины
+     * @return true если расстояние до вершины окончательное
+     */
+    public boolean isSettled(int v) {
+        return settledStamp[v] == generation;
+    }
+
+    /**
+     * Помечает вершину окончательно обработанной
+     *
+     * @param v номер вершины
+     */
+    public void settle(int v) {
+        settledStamp[v] = generation;
+        settledOrder[settledCount++] = v;
+    }
+
+    /**
+     * Возвращает количество окончательно обработанных вершин
+     *
+     * @return количество вершин
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Возвращает вершину по порядку окончательной обработки
+     *
+     * @param index порядковый номер (0 - стартовая вершина)
+     * @return номер вершины
+     */
+    public int settledAt(int index) {
+        return settledOrder[index];
+    }
+
+    /**
+     * Увеличивает счетчик релаксаций ребер
+     */
+    public void countRelaxation() {
+        relaxedCount++;
+    }
+
+    /**
+     * Возвращает количество просмотренных ребер в текущем поиске
+     *
+     * @return количество релаксаций
+     */
+    public long getRelaxedCount() {
+        return relaxedCount;
+    }
+
+    /**
+     * Возвращает очередь с приоритетами этого состояния
+     *
+     * @return индексированная куча
+     */
+    public IndexedMinHeap getHeap() {
+        return heap;
+    }
+
+    /**
+     * Копирует расстояния и предшественников в новый результат.
+     * Единственная операция состояния, выделяющая память.
+     *
+     * @return результат в формате DijkstraResult
+     */
+    public DijkstraResult toResult() {
+        int[] d = new int[size];
+        int[] p = new int[size];
+        for (int v = 0; v < size; v++) {
+            d[v] = dist(v);
+            p[v] = prev(v);
+        }
+        return new DijkstraResult(d, p);
+    }
+}
\ No newline at end of file
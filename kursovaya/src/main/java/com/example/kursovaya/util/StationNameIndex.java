@@ -0,0 +1,292 @@
+package com.example.kursovaya.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Индекс названий станций для быстрого поиска.
+ * Названия приводятся к нормальной форме: нижний регистр, "ё" заменяется
+ * на "е", дефисы и повторяющиеся пробелы схлопываются в один пробел.
+ * Индекс содержит три структуры:
+ * хеш-таблицу для точного поиска за O(1), отсортированный массив названий
+ * для поиска по префиксу (автодополнение) за O(log n + k) и инвертированный
+ * индекс триграмм для поиска с опечатками. Списки триграмм хранятся
+ * в плоских массивах в стиле CSR: ключ триграммы, смещение и номера названий.
+ * Индекс неизменяем; рабочие буферы нечеткого поиска хранятся отдельно
+ * для каждого потока, поэтому экземпляр потокобезопасен.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class StationNameIndex {
+    /** Минимальное сходство по триграммам для нечеткого поиска */
+    public static final double DEFAULT_MIN_SIMILARITY = 0.3;
+
+    private final int size;
+    private final Map<String, Integer> exact;
+    private final String[] sortedKeys;    // Нормализованные названия по алфавиту
+    private final int[] sortedIds;        // Номер названия для каждого элемента sortedKeys
+    private final long[] trigramKeys;     // Отсортированные ключи триграмм
+    private final int[] trigramStart;     // Начало списка названий для каждой триграммы
+    private final int[] postings;         // Номера названий, содержащих триграмму
+    private final int[] trigramCount;     // Количество различных триграмм в каждом названии
+    private final ThreadLocal<Scratch> scratch;
+
+    private StationNameIndex(int size, Map<String, Integer> exact, String[] sortedKeys, int[] sortedIds,
+                             long[] trigramKeys, int[] trigramStart, int[] postings, int[] trigramCount) {
+        this.size = size;
+        this.exact = exact;
+        this.sortedKeys = sortedKeys;
+        this.sortedIds = sortedIds;
+        this.trigramKeys = trigramKeys;
+        this.trigramStart = trigramStart;
+        this.postings = postings;
+        this.trigramCount = trigramCount;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(size));
+    }
+
+    /**
+     * Строит индекс по списку названий. Номер названия в списке
+     * становится его идентификатором. При совпадении нормализованных
+     * названий точный поиск возвращает первое из них.
+     *
+     * @param names названия станций
+     * @return построенный индекс
+     */
+    public static StationNameIndex build(List<String> names) {
+        int n = names.size();
+        String[] keys = new String[n];
+        Map<String, Integer> exact = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            keys[i] = normalize(names.get(i));
+            exact.putIfAbsent(keys[i], i);
+        }
+
+        // Сортировка номеров по нормализованному названию
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+        String[] sortedKeys = new String[n];
+        int[] sortedIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedIds[i] = order[i];
+            sortedKeys[i] = keys[order[i]];
+        }
+
+        // Инвертированный индекс триграмм: сортировка ключей, подсчет и раскладка по спискам
+        long[][] grams = new long[n][];
+        int[] trigramCount = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            grams[i] = trigrams(keys[i]);
+            trigramCount[i] = grams[i].length;
+            total += grams[i].length;
+        }
+        long[] all = new long[total];
+        int pos = 0;
+        for (long[] g : grams) {
+            System.arraycopy(g, 0, all, pos, g.length);
+            pos += g.length;
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < total; i++) {
+            if (i == 0 || all[i] != all[i - 1]) all[distinct++] = all[i];
+        }
+        long[] trigramKeys = Arrays.copyOf(all, distinct);
+
+        int[] trigramStart = new int[distinct + 1];
+        for (long[] g : grams) {
+            for (long gram : g) {
+                trigramStart[Arrays.binarySearch(trigramKeys, gram) + 1]++;
+            }
+        }
+        for (int t = 0; t < distinct; t++) {
+            trigramStart[t + 1] += trigramStart[t];
+        }
+        int[] fill = Arrays.copyOf(trigramStart, distinct);
+        int[] postings = new int[total];
+        // Названия перебираются по возрастанию номера, поэтому списки получаются упорядоченными
+        for (int i = 0; i < n; i++) {
+            for (long gram : grams[i]) {
+                postings[fill[Arrays.binarySearch(trigramKeys, gram)]++] = i;
+            }
+        }
+
+        return new StationNameIndex(n, exact, sortedKeys, sortedIds, trigramKeys, trigramStart, postings, trigramCount);
+    }
+
+    /**
+     * Приводит название к нормальной форме для сравнения
+     *
+     * @param name исходное название
+     * @return название в нижнем регистре, с "е" вместо "ё" и одиночными пробелами
+     */
+    public static String normalize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if (c == 'ё') c = 'е';
+            if (c == '-' || Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Возвращает количество проиндексированных названий
+     *
+     * @return количество названий
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Находит название точно, без учета регистра и различия "е"/"ё"
+     *
+     * @param name искомое название
+     * @return номер названия или -1 если не найдено
+     */
+    public int find(String name) {
+        Integer id = exact.get(normalize(name));
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Находит названия, начинающиеся с указанного префикса, в алфавитном порядке
+     *
+     * @param prefix начало названия
+     * @param limit максимальное количество результатов
+     * @return номера найденных названий
+     */
+    public int[] findByPrefix(String prefix, int limit) {
+        String key = normalize(prefix);
+        // Первый элемент, который не меньше префикса
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedKeys[mid].compareTo(key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        IntList result = new IntList(Math.max(Math.min(limit, 16), 1));
+        for (int i = low; i < sortedKeys.length && result.size() < limit && sortedKeys[i].startsWith(key); i++) {
+            result.add(sortedIds[i]);
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Нечеткий поиск с порогом сходства по умолчанию
+     *
+     * @param query запрос, возможно с опечатками
+     * @param limit максимальное количество результатов
+     * @return номера найденных названий по убыванию сходства
+     */
+    public int[] findSimilar(String query, int limit) {
+        return findSimilar(query, limit, DEFAULT_MIN_SIMILARITY);
+    }
+
+    /**
+     * Нечеткий поиск по триграммам. Сходство - коэффициент Жаккара
+     * между множествами триграмм запроса и названия.
+     *
+     * @param query запрос, возможно с опечатками
+     * @param limit максимальное количество результатов
+     * @param minSimilarity минимальное сходство от 0 до 1
+     * @return номера найденных названий по убыванию сходства
+     */
+    public int[] findSimilar(String query, int limit, double minSimilarity) {
+        // Результатов не больше, чем названий, поэтому буферы не зависят от запрошенного лимита
+        int capacity = Math.min(limit, size);
+        if (capacity <= 0) {
+            return new int[0];
+        }
+        long[] grams = trigrams(normalize(query));
+        Scratch s = scratch.get();
+        int[] common = s.common;
+        IntList touched = s.touched;
+
+        // Подсчет общих триграмм для каждого названия-кандидата
+        for (long gram : grams) {
+            int t = Arrays.binarySearch(trigramKeys, gram);
+            if (t < 0) continue;
+            for (int p = trigramStart[t], last = trigramStart[t + 1]; p < last; p++) {
+                int id = postings[p];
+                if (common[id] == 0) touched.add(id);
+                common[id]++;
+            }
+        }
+
+        // Отбор лучших кандидатов вставкой в короткий упорядоченный массив
+        int[] best = new int[capacity];
+        double[] bestScore = new double[capacity];
+        int found = 0;
+        for (int i = 0; i < touched.size(); i++) {
+            int id = touched.get(i);
+            int c = common[id];
+            common[id] = 0;
+            double score = (double) c / (grams.length + trigramCount[id] - c);
+            if (score < minSimilarity) continue;
+            if (found == capacity && !better(score, id, bestScore[capacity - 1], best[capacity - 1])) continue;
+            int j = found < capacity ? found++ : capacity - 1;
+            while (j > 0 && better(score, id, bestScore[j - 1], best[j - 1])) {
+                best[j] = best[j - 1];
+                bestScore[j] = bestScore[j - 1];
+                j--;
+            }
+            best[j] = id;
+            bestScore[j] = score;
+        }
+        touched.clear();
+        return Arrays.copyOf(best, found);
+    }
+
+    private static boolean better(double score, int id, double otherScore, int otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    /**
+     * Возвращает различные триграммы нормализованного названия в порядке возрастания.
+     * Название дополняется пробелами, чтобы начало слова давало отдельные триграммы.
+     */
+    private static long[] trigrams(String key) {
+        if (key.isEmpty()) {
+            return new long[0];
+        }
+        String padded = "  " + key + " ";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Рабочие буферы нечеткого поиска одного потока
+     */
+    private static final class Scratch {
+        private final int[] common;
+        private final IntList touched = new IntList();
+
+        Scratch(int size) {
+            common = new int[size];
+        }
+    }
+}
\ No newline at end of file
@@ -11,6 +11,9 @@ module spbmetro.main {
     requires javafx.graphics;
     requires com.fasterxml.jackson.databind;
     requires org.apache.logging.log4j;
+    requires jdk.httpserver;
+    requires java.net.http;
+    requires jdk.management;
 
     opens com.example.kursovaya.model to javafx.fxml, com.fasterxml.jackson.databind;
 
@@ -0,0 +1,158 @@
+package com.example.kursovaya.io;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.model.LineSchedule;
+import com.example.kursovaya.model.MetroLine;
+import com.example.kursovaya.model.MetroMap;
+import com.example.kursovaya.model.Station;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты бинарного формата карты: запись и чтение дают ту же карту,
+ * файлы версии 1 без расписаний по-прежнему читаются
+ *
+ * @author Student
+ * @version 1.0
+ */
+class BinaryMapFormatTest {
+
+    /**
+     * Небольшая карта: две линии, одна с расписанием, пересадка
+     * и станция с названием не в ASCII
+     */
+    private static MetroMap sampleMap(boolean withSchedule) {
+        MetroMap map = new MetroMap(5);
+        LineSchedule schedule = withSchedule
+                ? new LineSchedule(new int[]{0, 340, 1260}, new int[]{0, 3, 6}, new int[]{1000, 900, 1100})
+                : null;
+        map.addLine(new MetroLine(1, "Кировско-Выборгская", "#D6083B", schedule));
+        map.addLine(new MetroLine(2, "Московско-Петроградская", null));
+        map.addStation(new Station("Площадь Восстания", 1));
+        map.addStation(new Station("Владимирская", 1));
+        map.addStation(new Station("Пушкинская", 1));
+        map.addStation(new Station("Технологический институт 2", 2));
+        map.addStation(new Station("Сенная площадь", 2));
+        map.addConnection(0, 1, 2);
+        map.addConnection(1, 2, 2);
+        map.addConnection(2, 3, 4);
+        map.addConnection(3, 4, 3);
+        map.addConnection(1, 2, 5); // Параллельное ребро схлопывается в минимальное
+        return map;
+    }
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("metro", ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void roundTripKeepsStationsLinesSchedulesAndArcs() throws IOException {
+        MetroMap map = sampleMap(true);
+        Path file = tempFile();
+        long size = BinaryMapFormat.write(map, file);
+        assertEquals(size, Files.size(file));
+
+        MetroMap loaded = BinaryMapFormat.read(file);
+        assertSameMap(map, loaded);
+
+        LineSchedule expected = map.getLine(1).getSchedule();
+        LineSchedule actual = loaded.getLine(1).getSchedule();
+        assertEquals(expected.getPeriodCount(), actual.getPeriodCount());
+        for (int p = 0; p < expected.getPeriodCount(); p++) {
+            assertEquals(expected.getStart(p), actual.getStart(p), "start of period " + p);
+            assertEquals(expected.getHeadway(p), actual.getHeadway(p), "headway of period " + p);
+            assertEquals(expected.getSpeed(p), actual.getSpeed(p), "speed of period " + p);
+        }
+        assertNull(loaded.getLine(2).getSchedule());
+        assertNull(loaded.getLine(2).getColor());
+        assertTrue(loaded.getCsr().isOffHeap(), "graph must work on the mapped file");
+        assertEquals(map.shortestDistance(0, 4), loaded.shortestDistance(0, 4));
+    }
+
+    @Test
+    void readsVersionOneFiles() throws IOException {
+        MetroMap map = sampleMap(false);
+        Path file = tempFile();
+        BinaryMapFormat.write(map, file);
+
+        // Версия 1: в заголовке 0 вместо размера таблицы расписаний, самой таблицы нет
+        ByteBuffer current = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        int n = current.getInt(8);
+        int lineCount = current.getInt(16);
+        int scheduleInts = current.getInt(28);
+        assertEquals(lineCount, scheduleInts, "one empty schedule per line");
+        int schedulesAt = Integer.BYTES * (8 + lineCount * 5 + n * 3);
+        int scheduleBytes = scheduleInts * Integer.BYTES;
+        ByteBuffer old = ByteBuffer.allocate(current.capacity() - scheduleBytes).order(ByteOrder.LITTLE_ENDIAN);
+        old.put(current.array(), 0, schedulesAt);
+        old.put(current.array(), schedulesAt + scheduleBytes, current.capacity() - schedulesAt - scheduleBytes);
+        old.putInt(4, 1);
+        old.putInt(28, 0);
+        Path v1 = tempFile();
+        Files.write(v1, old.array());
+
+        MetroMap loaded = BinaryMapFormat.read(v1);
+        assertSameMap(map, loaded);
+        assertNull(loaded.getLine(1).getSchedule());
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTruncatedFiles() throws IOException {
+        Path file = tempFile();
+        BinaryMapFormat.write(sampleMap(true), file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, 99);
+        Path future = tempFile();
+        Files.write(future, bytes);
+        assertThrows(IOException.class, () -> BinaryMapFormat.read(future));
+
+        Path truncated = tempFile();
+        Files.write(truncated, java.util.Arrays.copyOf(Files.readAllBytes(file), bytes.length - 4));
+        assertThrows(IOException.class, () -> BinaryMapFormat.read(truncated));
+    }
+
+    private static void assertSameMap(MetroMap expected, MetroMap actual) {
+        assertEquals(expected.getStations().size(), actual.getStations().size(), "station count");
+        for (int i = 0; i < expected.getStations().size(); i++) {
+            Station a = expected.getStations().get(i);
+            Station b = actual.getStations().get(i);
+            assertEquals(a.getName(), b.getName(), "station " + i);
+            assertEquals(a.getLine(), b.getLine(), "line of station " + i);
+        }
+        assertEquals(expected.getLines().keySet(), actual.getLines().keySet(), "line numbers");
+        for (MetroLine line : expected.getLines().values()) {
+            MetroLine other = actual.getLine(line.getNumber());
+            assertEquals(line.getName(), other.getName(), "line name");
+            assertEquals(line.getColor(), other.getColor(), "line color");
+        }
+
+        CsrGraph a = expected.getCsr();
+        CsrGraph b = actual.getCsr();
+        assertEquals(a.getVertexCount(), b.getVertexCount(), "vertices");
+        assertEquals(a.getArcCount(), b.getArcCount(), "arcs");
+        assertEquals(a.getMaxWeight(), b.getMaxWeight(), "max weight");
+        for (int v = 0; v <= a.getVertexCount(); v++) {
+            int start = v < a.getVertexCount() ? a.arcStart(v) : a.getArcCount();
+            int other = v < b.getVertexCount() ? b.arcStart(v) : b.getArcCount();
+            assertEquals(start, other, "offset of " + v);
+        }
+        for (int arc = 0; arc < a.getArcCount(); arc++) {
+            assertEquals(a.target(arc), b.target(arc), "target of arc " + arc);
+            assertEquals(a.weight(arc), b.weight(arc), "weight of arc " + arc);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.example.kursovaya.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты расписания линии: отправления через полночь и ночное закрытие
+ * сверяются с перебором всех поездов за несколько суток
+ *
+ * @author Student
+ * @version 1.0
+ */
+class LineScheduleTest {
+    private static final int DAY = LineSchedule.MINUTES_PER_DAY;
+
+    /**
+     * Ближайшее отправление перебором поездов всех периодов с предыдущих суток по третьи
+     */
+    private static int bruteForceDeparture(LineSchedule schedule, int time) {
+        int best = CsrGraph.INF;
+        int periods = schedule.getPeriodCount();
+        for (int day = -1; day <= 3; day++) {
+            for (int p = 0; p < periods; p++) {
+                int headway = schedule.getHeadway(p);
+                if (headway == 0) continue;
+                int start = day * DAY + schedule.getStart(p);
+                int end = day * DAY + (p + 1 < periods ? schedule.getStart(p + 1) : schedule.getStart(0) + DAY);
+                for (int departure = start; departure < end; departure += headway) {
+                    if (departure >= time) {
+                        best = Math.min(best, departure);
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static void assertMatchesBruteForce(LineSchedule schedule) {
+        for (int time = 0; time <= 2 * DAY; time++) {
+            int expected = bruteForceDeparture(schedule, time);
+            int actual = schedule.nextDeparture(time);
+            assertEquals(expected, actual, "departure after minute " + time);
+        }
+    }
+
+    @Test
+    void closedFromMidnightTillFortyPastFive() {
+        // 00:00-05:40 закрыто, днем каждые 5 минут, вечером каждые 10
+        LineSchedule schedule = new LineSchedule(new int[]{0, 340, 1260}, new int[]{0, 5, 10},
+                new int[]{1000, 1000, 1000});
+        assertEquals(340, schedule.nextDeparture(0));
+        assertEquals(340, schedule.nextDeparture(339));
+        assertEquals(345, schedule.nextDeparture(341));
+        assertEquals(1430, schedule.nextDeparture(1430));
+        // После последнего поезда ждем открытия следующим утром
+        assertEquals(DAY + 340, schedule.nextDeparture(1431));
+        assertEquals(DAY + 340, schedule.nextDeparture(DAY));
+        assertEquals(2 * DAY + 340, schedule.nextDeparture(2 * DAY + 100));
+        assertMatchesBruteForce(schedule);
+    }
+
+    @Test
+    void periodRunsAcrossMidnight() {
+        // Период с 05:40 продолжается после полуночи до 01:00
+        LineSchedule schedule = new LineSchedule(new int[]{60, 340}, new int[]{0, 7}, new int[]{1000, 1000});
+        assertEquals(13, schedule.nextDeparture(10), "trains of the previous day keep their rhythm");
+        assertEquals(DAY + 13, schedule.nextDeparture(DAY + 10));
+        assertEquals(340, schedule.nextDeparture(58), "last train before 01:00 leaves at 00:55");
+        assertEquals(55, schedule.nextDeparture(55));
+        assertMatchesBruteForce(schedule);
+
+        assertMatchesBruteForce(new LineSchedule(new int[]{45, 335, 420, 600, 1020, 1200, 1320},
+                new int[]{0, 6, 2, 4, 2, 4, 6}, new int[]{1000, 1000, 1100, 1000, 1100, 1000, 1000}));
+        assertMatchesBruteForce(LineSchedule.constant(3));
+    }
+
+    @Test
+    void neverOpenLineHasNoDepartures() {
+        LineSchedule closed = LineSchedule.constant(0);
+        assertEquals(CsrGraph.INF, closed.nextDeparture(0));
+        assertEquals(CsrGraph.INF, closed.nextDeparture(DAY + 1));
+    }
+
+    @Test
+    void rideTimeFollowsSpeedAndFifo() {
+        LineSchedule schedule = new LineSchedule(new int[]{0, 600}, new int[]{5, 5}, new int[]{1000, 2000});
+        assertEquals(10, schedule.rideTime(10, 0));
+        assertEquals(15, schedule.rideTime(10, 300), "speed is interpolated halfway");
+        assertEquals(20, schedule.rideTime(10, 600));
+        assertEquals(0, schedule.rideTime(0, 600));
+        assertEquals(1, schedule.rideTime(1, 0), "non-zero segment takes at least a minute");
+        assertTrue(schedule.isFifo(10));
+
+        // Скорость падает вдвое за минуту: на длинном перегоне поздний поезд приезжает раньше
+        LineSchedule abrupt = new LineSchedule(new int[]{0, 1}, new int[]{5, 5}, new int[]{2000, 1000});
+        assertFalse(abrupt.isFifo(10), "abrupt speed-up breaks FIFO");
+        assertTrue(abrupt.isFifo(1));
+    }
+
+    @Test
+    void parsesAndFormatsTime() {
+        assertEquals(340, LineSchedule.parseTime("05:40"));
+        assertEquals("05:40", LineSchedule.formatTime(340));
+        assertEquals("00:05", LineSchedule.formatTime(DAY + 5));
+        assertThrows(IllegalArgumentException.class, () -> LineSchedule.parseTime("24:00"));
+        assertThrows(IllegalArgumentException.class, () -> new LineSchedule(new int[]{10, 5}, new int[]{1, 1},
+                new int[]{1000, 1000}));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,254 @@
+package com.example.kursovaya.model;
+
+import com.example.kursovaya.routing.AStarSearch;
+import com.example.kursovaya.routing.AllPairsTable;
+import com.example.kursovaya.routing.ContractionHierarchy;
+import com.example.kursovaya.routing.RandomGraphs;
+import com.example.kursovaya.routing.SearchMode;
+import com.example.kursovaya.util.IntList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Оперативные изменения карты: после каждого закрытия, открытия
+ * или изменения времени частично пересчитанная таблица всех пар
+ * и поиск по запросу сравниваются с эталоном Флойда-Уоршелла,
+ * посчитанным по независимой модели действующих весов
+ *
+ * @author Student
+ * @version 1.0
+ */
+class LiveUpdatesTest {
+    private static final int TRIALS = 60;
+    private static final int UPDATES = 40;
+
+    @Test
+    void repairedAllPairsTableMatchesFloyd() {
+        Random random = new Random(8);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            int n = 2 + random.nextInt(11);
+            int m = 1 + random.nextInt(2 * n);
+            int[][] base = new int[n][n];
+            for (int[] row : base) {
+                Arrays.fill(row, CsrGraph.INF);
+            }
+            MetroMap map = new MetroMap(n);
+            for (int i = 0; i < n; i++) {
+                map.addStation(new Station("S" + i, 1 + random.nextInt(3)));
+            }
+            IntList edgeFrom = new IntList();
+            IntList edgeTo = new IntList();
+            for (int e = 0; e < m; e++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n - 1);
+                if (b >= a) b++;
+                int w = random.nextInt(4);
+                map.addConnection(a, b, w);
+                if (base[a][b] == CsrGraph.INF) {
+                    edgeFrom.add(a);
+                    edgeTo.add(b);
+                }
+                base[a][b] = Math.min(base[a][b], w);
+                base[b][a] = base[a][b];
+            }
+            assertTrue(map.enableAllPairs(Long.MAX_VALUE), "all-pairs table not built");
+
+            Overlay overlay = new Overlay(base);
+            for (int update = 0; update < UPDATES; update++) {
+                int e = random.nextInt(edgeFrom.size());
+                int a = edgeFrom.get(e);
+                int b = edgeTo.get(e);
+                int v = random.nextInt(n);
+                switch (random.nextInt(6)) {
+                    case 0 -> {
+                        map.closeStation(v);
+                        overlay.closedStation[v] = true;
+                    }
+                    case 1 -> {
+                        map.openStation(v);
+                        overlay.closedStation[v] = false;
+                    }
+                    case 2 -> {
+                        map.closeConnection(a, b);
+                        overlay.closedEdge[a][b] = overlay.closedEdge[b][a] = true;
+                    }
+                    case 3 -> {
+                        map.openConnection(a, b);
+                        overlay.closedEdge[a][b] = overlay.closedEdge[b][a] = false;
+                    }
+                    case 4 -> {
+                        int minutes = random.nextInt(6);
+                        map.setConnectionTime(a, b, minutes);
+                        overlay.weight[a][b] = overlay.weight[b][a] = minutes;
+                    }
+                    default -> {
+                        map.resetConnectionTime(a, b);
+                        overlay.weight[a][b] = overlay.weight[b][a] = base[a][b];
+                    }
+                }
+                check(map, overlay, "trial " + trial + ", update " + update);
+            }
+
+            map.clearLiveUpdates();
+            check(map, new Overlay(base), "trial " + trial + ", cleared");
+        }
+    }
+
+    @Test
+    void landmarksSurviveClosuresAndIndexesRebuildInBackground() throws InterruptedException {
+        // Кольцо из 8 станций: закрытие перегона оставляет все станции связанными
+        MetroMap map = new MetroMap(8);
+        for (int i = 0; i < 8; i++) {
+            map.addStation(new Station("S" + i, 1));
+            map.addConnection(i, (i + 1) % 8, 1 + i % 3);
+        }
+        AStarSearch first = map.getAStar();
+        assertNotNull(first, "first A* build is awaited");
+        assertNotNull(map.getContractionHierarchy(), "first hierarchy build is awaited");
+
+        map.closeConnection(2, 3);
+        map.setConnectionTime(5, 6, 10);
+        AStarSearch reused = map.getAStar();
+        assertNotNull(reused, "closures and delays keep landmark bounds admissible");
+        assertSame(map.getCsr(), reused.getGraph());
+
+        // Уменьшение времени делает прежние оценки недопустимыми
+        map.setConnectionTime(0, 1, 0);
+        AStarSearch rebuilt = awaitAStar(map);
+        assertSame(map.getCsr(), rebuilt.getGraph());
+        ContractionHierarchy hierarchy = awaitHierarchy(map);
+        assertSame(map.getCsr(), hierarchy.getGraph());
+        assertEquals(map.shortestDistance(0, 3), map.findShortestPath(0, 3, SearchMode.CONTRACTION_HIERARCHIES)
+                .getTotalTime());
+    }
+
+    @Test
+    void snapshotMapRejectsLiveUpdates() {
+        MetroMap map = new MetroMap(3);
+        for (int i = 0; i < 3; i++) {
+            map.addStation(new Station("S" + i, 1));
+        }
+        map.addConnection(0, 1, 2);
+        map.addConnection(1, 2, 3);
+        // Изменения до создания снимка разрешены и попадают в него
+        map.closeConnection(1, 2);
+        MetroSnapshot snapshot = MetroSnapshot.of(map);
+        assertEquals(CsrGraph.INF, snapshot.shortestDistance(0, 2));
+
+        assertThrows(IllegalStateException.class, () -> map.closeStation(0));
+        assertThrows(IllegalStateException.class, () -> map.openConnection(1, 2));
+        assertThrows(IllegalStateException.class, () -> map.setConnectionTime(0, 1, 5));
+        assertThrows(IllegalStateException.class, () -> map.resetConnectionTime(0, 1));
+        assertThrows(IllegalStateException.class, map::clearLiveUpdates);
+        assertEquals(CsrGraph.INF, snapshot.shortestDistance(0, 2), "snapshot must not change");
+        assertEquals(2, snapshot.shortestDistance(0, 1));
+    }
+
+    private static AStarSearch awaitAStar(MetroMap map) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            AStarSearch engine = map.getAStar();
+            if (engine != null) return engine;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("landmarks were not rebuilt in background");
+    }
+
+    private static ContractionHierarchy awaitHierarchy(MetroMap map) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            ContractionHierarchy hierarchy = map.getContractionHierarchy();
+            if (hierarchy != null) return hierarchy;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("contraction hierarchy was not rebuilt in background");
+    }
+
+    private static void check(MetroMap map, Overlay overlay, String step) {
+        // Таблица актуальна до изменения, поэтому изменение её ремонтирует, а не строит заново
+        AllPairsTable table = map.getAllPairsTable();
+        int[][] weight = overlay.effectiveWeights();
+        int[][] expected = RandomGraphs.floyd(weight);
+        List<Station> stations = map.getStations();
+        int n = expected.length;
+        // Граф с изменениями и его компактная копия видят одни и те же веса
+        CsrGraph csr = map.getCsr();
+        CsrGraph compact = csr.compact();
+        int open = 0;
+        for (int u = 0; u < n; u++) {
+            for (int v = 0; v < n; v++) {
+                int w = u == v ? 0 : weight[u][v];
+                assertEquals(w, csr.getWeight(u, v), step + ", weight " + u + " - " + v);
+                assertEquals(w, compact.getWeight(u, v), step + ", compact weight " + u + " - " + v);
+                if (u < v && w < CsrGraph.INF) open++;
+            }
+        }
+        assertEquals(open, csr.getEdgeCount(), step + ", open connections");
+        assertEquals(open, compact.getEdgeCount(), step + ", compact connections");
+        assertEquals(compact.getMaxWeight(), csr.getMaxWeight(), step + ", max weight");
+        for (int s = 0; s < n; s++) {
+            for (int t = 0; t < n; t++) {
+                String pair = step + ", " + s + " -> " + t;
+                assertEquals(expected[s][t], table.distance(s, t), pair);
+                assertEquals(expected[s][t], map.shortestDistance(s, t), pair);
+                PathResult result = map.findShortestPath(s, t);
+                assertEquals(expected[s][t], result.getTotalTime(), pair);
+                // Режимы с индексами отвечают верно и во время фонового перестроения
+                for (SearchMode mode : SearchMode.values()) {
+                    assertEquals(expected[s][t], map.findShortestPath(s, t, mode).getTotalTime(), pair + ", " + mode);
+                }
+                if (expected[s][t] < CsrGraph.INF) {
+                    IntList path = new IntList();
+                    for (Station station : result.getPath()) {
+                        path.add(stations.indexOf(station));
+                    }
+                    assertEquals(s, path.get(0), pair + ": path start");
+                    assertEquals(t, path.get(path.size() - 1), pair + ": path end");
+                    assertEquals(expected[s][t], RandomGraphs.pathLength(weight, path), pair + ": path length");
+                }
+            }
+        }
+    }
+
+    /**
+     * Независимая модель оперативных изменений поверх базовых весов
+     */
+    private static final class Overlay {
+        final int[][] base;
+        final int[][] weight;
+        final boolean[] closedStation;
+        final boolean[][] closedEdge;
+
+        Overlay(int[][] base) {
+            int n = base.length;
+            this.base = base;
+            this.weight = new int[n][];
+            for (int u = 0; u < n; u++) {
+                weight[u] = base[u].clone();
+            }
+            this.closedStation = new boolean[n];
+            this.closedEdge = new boolean[n][n];
+        }
+
+        int[][] effectiveWeights() {
+            int n = base.length;
+            int[][] effective = new int[n][n];
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    boolean open = base[u][v] < CsrGraph.INF && !closedEdge[u][v]
+                            && !closedStation[u] && !closedStation[v];
+                    effective[u][v] = open ? weight[u][v] : CsrGraph.INF;
+                }
+            }
+            return effective;
+        }
+    }
+}
\ No newline at end of file
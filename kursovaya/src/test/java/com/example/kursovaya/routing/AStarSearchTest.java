@@ -0,0 +1,44 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IntList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тесты A* с оценками по ориентирам: длины и пути сравниваются
+ * с эталоном Флойда-Уоршелла при разном количестве ориентиров
+ *
+ * @author Student
+ * @version 1.0
+ */
+class AStarSearchTest {
+
+    @Test
+    void matchesFloyd() {
+        Random random = new Random(19);
+        IntList path = new IntList();
+        for (int trial = 0; trial < 300; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 12, 4);
+            int[][] weight = RandomGraphs.weights(graph);
+            int[][] expected = RandomGraphs.floyd(weight);
+            int n = graph.getVertexCount();
+            DijkstraEngine engine = new DijkstraEngine(graph);
+            AStarSearch engineWithLandmarks = new AStarSearch(LandmarkIndex.build(engine, 1 + random.nextInt(4)));
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    String pair = "trial " + trial + ", " + s + " -> " + t;
+                    int length = engineWithLandmarks.route(s, t, path);
+                    assertEquals(expected[s][t], length, pair);
+                    if (length < CsrGraph.INF) {
+                        RandomGraphs.checkPath(weight, s, t, length, path, pair);
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IntList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тесты таблицы всех пар: расстояния и восстановленные пути сравниваются
+ * с эталоном Флойда-Уоршелла
+ *
+ * @author Student
+ * @version 1.0
+ */
+class AllPairsTableTest {
+
+    @Test
+    void matchesFloyd() {
+        Random random = new Random(20);
+        IntList path = new IntList();
+        for (int trial = 0; trial < 300; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 12, 4);
+            int[][] weight = RandomGraphs.weights(graph);
+            int[][] expected = RandomGraphs.floyd(weight);
+            AllPairsTable table = AllPairsTable.build(new DijkstraEngine(graph));
+            int n = graph.getVertexCount();
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    String pair = "trial " + trial + ", " + s + " -> " + t;
+                    assertEquals(expected[s][t], table.distance(s, t), pair);
+                    boolean found = table.pathInto(s, t, path);
+                    assertEquals(expected[s][t] < CsrGraph.INF, found, pair);
+                    if (found) {
+                        RandomGraphs.checkPath(weight, s, t, expected[s][t], path, pair);
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
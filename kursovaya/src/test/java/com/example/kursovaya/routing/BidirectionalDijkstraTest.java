@@ -0,0 +1,43 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IntList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тесты двунаправленного поиска: длины и пути сравниваются
+ * с эталоном Флойда-Уоршелла
+ *
+ * @author Student
+ * @version 1.0
+ */
+class BidirectionalDijkstraTest {
+
+    @Test
+    void matchesFloyd() {
+        Random random = new Random(18);
+        IntList path = new IntList();
+        for (int trial = 0; trial < 300; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 12, 4);
+            int[][] weight = RandomGraphs.weights(graph);
+            int[][] expected = RandomGraphs.floyd(weight);
+            BidirectionalDijkstra engine = new BidirectionalDijkstra(graph);
+            int n = graph.getVertexCount();
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    String pair = "trial " + trial + ", " + s + " -> " + t;
+                    int length = engine.route(s, t, path);
+                    assertEquals(expected[s][t], length, pair);
+                    if (length < CsrGraph.INF) {
+                        RandomGraphs.checkPath(weight, s, t, length, path, pair);
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IntList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тесты иерархии сжатий: расстояния и развернутые пути сравниваются
+ * с эталоном Флойда-Уоршелла
+ *
+ * @author Student
+ * @version 1.0
+ */
+class ContractionHierarchyTest {
+
+    @Test
+    void zeroWeightShortcutKeepsConnectivity() {
+        // Вершина 0 сжимается первой; путь 1-0-2 имеет длину 0 и требует сокращения
+        CsrGraph graph = CsrGraph.fromEdges(3, new int[]{0, 0}, new int[]{1, 2}, new int[]{0, 0}, 2);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+
+        assertEquals(0, hierarchy.distance(1, 2));
+        IntList path = new IntList();
+        assertEquals(0, hierarchy.route(1, 2, path));
+        assertEquals(3, path.size(), "path 1-0-2");
+    }
+
+    @Test
+    void matchesFloydOnRandomGraphsWithZeroWeights() {
+        Random random = new Random(5);
+        IntList path = new IntList();
+        for (int trial = 0; trial < 1000; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 12, 3);
+            int[][] weight = RandomGraphs.weights(graph);
+            int[][] expected = RandomGraphs.floyd(weight);
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+            int n = graph.getVertexCount();
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    String pair = "trial " + trial + ", " + s + " -> " + t;
+                    assertEquals(expected[s][t], hierarchy.distance(s, t), pair);
+                    int length = hierarchy.route(s, t, path);
+                    assertEquals(expected[s][t], length, pair);
+                    if (length < CsrGraph.INF) {
+                        assertEquals(s, path.get(0), pair);
+                        assertEquals(t, path.get(path.size() - 1), pair);
+                        assertEquals(length, RandomGraphs.pathLength(weight, path), pair);
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IntList;
+import com.example.kursovaya.util.SearchState;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тесты движка Дейкстры: расстояния и пути сравниваются с эталоном
+ * Флойда-Уоршелла на маленьких случайных графах, в том числе
+ * с перегонами нулевого времени
+ *
+ * @author Student
+ * @version 1.0
+ */
+class DijkstraEngineTest {
+
+    @Test
+    void matchesFloyd() {
+        Random random = new Random(17);
+        IntList path = new IntList();
+        for (int trial = 0; trial < 300; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 12, 4);
+            int[][] weight = RandomGraphs.weights(graph);
+            int[][] expected = RandomGraphs.floyd(weight);
+            DijkstraEngine engine = new DijkstraEngine(graph);
+            int n = graph.getVertexCount();
+            int[] row = new int[n];
+            for (int s = 0; s < n; s++) {
+                engine.distancesFrom(s, row);
+                for (int t = 0; t < n; t++) {
+                    String pair = "trial " + trial + ", " + s + " -> " + t;
+                    assertEquals(expected[s][t], row[t], pair);
+                    assertEquals(expected[s][t], engine.distance(s, t), pair);
+                    SearchState state = engine.search(s, t);
+                    boolean found = DijkstraEngine.unwindPath(state, s, t, path);
+                    assertEquals(expected[s][t] < CsrGraph.INF, found, pair);
+                    if (found) {
+                        RandomGraphs.checkPath(weight, s, t, expected[s][t], path, pair);
+                    }
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
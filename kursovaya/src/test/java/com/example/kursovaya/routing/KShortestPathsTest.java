@@ -0,0 +1,83 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IntList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты поиска k кратчайших путей без циклов: длины путей сравниваются
+ * с полным перебором простых путей на маленьких графах
+ *
+ * @author Student
+ * @version 1.0
+ */
+class KShortestPathsTest {
+
+    @Test
+    void matchesSimplePathEnumeration() {
+        Random random = new Random(21);
+        for (int trial = 0; trial < 300; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 7, 3);
+            int[][] weight = RandomGraphs.weights(graph);
+            int n = graph.getVertexCount();
+            KShortestPaths engine = new KShortestPaths(graph);
+            int k = 1 + random.nextInt(6);
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    String pair = "trial " + trial + ", " + s + " -> " + t;
+                    List<Integer> costs = simplePathCosts(weight, s, t);
+                    List<KShortestPaths.Path> found = engine.find(s, t, k);
+                    assertEquals(Math.min(k, costs.size()), found.size(), pair);
+                    for (int i = 0; i < found.size(); i++) {
+                        KShortestPaths.Path p = found.get(i);
+                        assertEquals((int) costs.get(i), p.getCost(), pair + ", path " + i);
+                        RandomGraphs.checkPath(weight, s, t, p.getCost(), p.getVertices(), pair);
+                        assertTrue(isSimple(p.getVertices(), n), pair + ": path repeats a vertex");
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isSimple(IntList path, int n) {
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < path.size(); i++) {
+            if (seen[path.get(i)]) return false;
+            seen[path.get(i)] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Длины всех простых путей перебором, по возрастанию
+     */
+    private static List<Integer> simplePathCosts(int[][] weight, int s, int t) {
+        List<Integer> costs = new ArrayList<>();
+        enumerate(weight, s, t, new boolean[weight.length], 0, costs);
+        Collections.sort(costs);
+        return costs;
+    }
+
+    private static void enumerate(int[][] weight, int u, int t, boolean[] visited, int cost, List<Integer> costs) {
+        if (u == t) {
+            costs.add(cost);
+            return;
+        }
+        visited[u] = true;
+        for (int v = 0; v < weight.length; v++) {
+            if (!visited[v] && v != u && weight[u][v] < CsrGraph.INF) {
+                enumerate(weight, v, t, visited, cost + weight[u][v], costs);
+            }
+        }
+        visited[u] = false;
+    }
+}
\ No newline at end of file
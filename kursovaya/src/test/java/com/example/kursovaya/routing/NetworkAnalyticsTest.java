@@ -0,0 +1,210 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты анализа сети: посредничество по Брандесу сравнивается
+ * с перебором кратчайших путей, остальные показатели - с эталоном
+ * Флойда-Уоршелла
+ *
+ * @author Student
+ * @version 1.0
+ */
+class NetworkAnalyticsTest {
+    private static final double EPS = 1e-9;
+
+    @Test
+    void betweennessMatchesShortestPathEnumeration() {
+        Random random = new Random(24);
+        for (int trial = 0; trial < 300; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 8, 1, 3);
+            int[][] weight = RandomGraphs.weights(graph);
+            int[][] dist = RandomGraphs.floyd(weight);
+            int n = graph.getVertexCount();
+            NetworkAnalytics.Result result = NetworkAnalytics.compute(graph);
+
+            double[] expected = new double[n];
+            for (int s = 0; s < n; s++) {
+                for (int t = s + 1; t < n; t++) {
+                    if (dist[s][t] >= CsrGraph.INF) continue;
+                    // through[v] - число кратчайших путей s-t через v, through[t] - всех путей
+                    long[] through = new long[n];
+                    boolean[] onPath = new boolean[n];
+                    enumerate(weight, dist[s][t], s, t, 0, onPath, through);
+                    for (int v = 0; v < n; v++) {
+                        if (v != s && v != t) {
+                            expected[v] += (double) through[v] / through[t];
+                        }
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                int station = v;
+                int attempt = trial;
+                assertEquals(expected[v], result.getBetweenness(v), EPS,
+                        () -> "trial " + attempt + ", station " + station);
+            }
+        }
+    }
+
+    @Test
+    void parallelBetweennessMatchesPathCounts() {
+        Random random = new Random(25);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int trial = 0; trial < 20; trial++) {
+                CsrGraph graph = RandomGraphs.generate(random, 60, 1, 5);
+                int[][] dist = RandomGraphs.floyd(graph);
+                int n = graph.getVertexCount();
+                double[][] sigma = pathCounts(graph, dist);
+                NetworkAnalytics.Result result = NetworkAnalytics.compute(graph, pool);
+                for (int v = 0; v < n; v++) {
+                    // При положительных весах путь s-t через v - это путь s-v и путь v-t
+                    double expected = 0;
+                    for (int s = 0; s < n; s++) {
+                        for (int t = s + 1; t < n; t++) {
+                            if (s == v || t == v || dist[s][t] >= CsrGraph.INF) continue;
+                            if (dist[s][v] < CsrGraph.INF && dist[v][t] < CsrGraph.INF
+                                    && dist[s][v] + dist[v][t] == dist[s][t]) {
+                                expected += sigma[s][v] * sigma[v][t] / sigma[s][t];
+                            }
+                        }
+                    }
+                    int station = v;
+                    int attempt = trial;
+                    assertEquals(expected, result.getBetweenness(v), 1e-6,
+                            () -> "trial " + attempt + ", station " + station);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void distanceMeasuresMatchFloydWithZeroWeights() {
+        Random random = new Random(26);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (int trial = 0; trial < 300; trial++) {
+                CsrGraph graph = RandomGraphs.generate(random, 40, 0, 4);
+                int[][] dist = RandomGraphs.floyd(graph);
+                int n = graph.getVertexCount();
+                NetworkAnalytics.Result result = NetworkAnalytics.compute(graph, pool);
+                assertEquals(n, result.getStationCount());
+
+                int diameter = 0;
+                for (int s = 0; s < n; s++) {
+                    String station = "trial " + trial + ", station " + s;
+                    int eccentricity = 0;
+                    int reached = 0;
+                    long sum = 0;
+                    for (int t = 0; t < n; t++) {
+                        if (t == s || dist[s][t] >= CsrGraph.INF) continue;
+                        eccentricity = Math.max(eccentricity, dist[s][t]);
+                        reached++;
+                        sum += dist[s][t];
+                    }
+                    diameter = Math.max(diameter, eccentricity);
+                    assertEquals(eccentricity, result.getEccentricity(s), station);
+                    assertEquals(eccentricity, dist[s][result.getFarthest(s)], station + ": farthest");
+                    double closeness = sum == 0 ? 0.0 : ((double) reached / (n - 1)) * ((double) reached / sum);
+                    assertEquals(closeness, result.getCloseness(s), EPS, station + ": closeness");
+                }
+                assertEquals(diameter, result.getDiameter(), "trial " + trial + ": diameter");
+                assertEquals(diameter, dist[result.getDiameterFrom()][result.getDiameterTo()],
+                        "trial " + trial + ": diameter pair");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void topByBetweennessIsSortedPrefix() {
+        Random random = new Random(27);
+        for (int trial = 0; trial < 50; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 30, 1, 4);
+            NetworkAnalytics.Result result = NetworkAnalytics.compute(graph);
+            int n = graph.getVertexCount();
+            int limit = random.nextInt(n + 3);
+            int[] top = result.getTopByBetweenness(limit);
+            assertEquals(Math.min(limit, n), top.length, "trial " + trial);
+            boolean[] taken = new boolean[n];
+            for (int i = 0; i < top.length; i++) {
+                taken[top[i]] = true;
+                if (i > 0) {
+                    assertTrue(result.getBetweenness(top[i - 1]) >= result.getBetweenness(top[i]),
+                            "trial " + trial + ": not sorted");
+                }
+            }
+            // Ни одна станция вне списка не превосходит последнюю в нем
+            for (int v = 0; v < n && top.length > 0; v++) {
+                if (!taken[v]) {
+                    assertTrue(result.getBetweenness(v) <= result.getBetweenness(top[top.length - 1]),
+                            "trial " + trial + ": station " + v + " missing from top");
+                }
+            }
+        }
+    }
+
+    /**
+     * Перебирает простые пути длины length от u до t; для каждого найденного
+     * пути увеличивает счетчики его вершин
+     */
+    private static void enumerate(int[][] weight, int length, int u, int t, int cost,
+                                  boolean[] onPath, long[] through) {
+        if (cost > length) return;
+        onPath[u] = true;
+        if (u == t) {
+            if (cost == length) {
+                for (int v = 0; v < onPath.length; v++) {
+                    if (onPath[v]) through[v]++;
+                }
+            }
+        } else {
+            for (int v = 0; v < weight.length; v++) {
+                if (!onPath[v] && weight[u][v] < CsrGraph.INF) {
+                    enumerate(weight, length, v, t, cost + weight[u][v], onPath, through);
+                }
+            }
+        }
+        onPath[u] = false;
+    }
+
+    /**
+     * Число кратчайших путей между всеми парами для положительных весов
+     */
+    private static double[][] pathCounts(CsrGraph graph, int[][] dist) {
+        int n = graph.getVertexCount();
+        double[][] sigma = new double[n][n];
+        Integer[] order = new Integer[n];
+        for (int s = 0; s < n; s++) {
+            int source = s;
+            for (int v = 0; v < n; v++) {
+                order[v] = v;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(dist[source][a], dist[source][b]));
+            sigma[s][s] = 1;
+            for (int w : order) {
+                if (w == s || dist[s][w] >= CsrGraph.INF) continue;
+                for (int a = graph.arcStart(w); a < graph.arcEnd(w); a++) {
+                    int v = graph.target(a);
+                    if (dist[s][v] < CsrGraph.INF && dist[s][v] + graph.weight(a) == dist[s][w]) {
+                        sigma[s][w] += sigma[s][v];
+                    }
+                }
+            }
+        }
+        return sigma;
+    }
+}
\ No newline at end of file
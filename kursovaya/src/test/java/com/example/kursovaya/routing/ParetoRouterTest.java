@@ -0,0 +1,132 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты поиска с учетом пересадок: набор маршрутов сравнивается
+ * с Парето-фронтом, посчитанным перебором по слоям (станция, пересадки)
+ *
+ * @author Student
+ * @version 1.0
+ */
+class ParetoRouterTest {
+
+    @Test
+    void singleLineMatchesFloyd() {
+        Random random = new Random(22);
+        for (int trial = 0; trial < 300; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 10, 4);
+            int[][] weight = RandomGraphs.weights(graph);
+            int[][] expected = RandomGraphs.floyd(weight);
+            int n = graph.getVertexCount();
+            // Все станции на одной линии: пересадок нет, маршрут один и кратчайший
+            ParetoRouter router = new ParetoRouter(graph, new int[n]);
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    String pair = "trial " + trial + ", " + s + " -> " + t;
+                    List<ParetoRouter.Route> routes = router.route(s, t, ParetoRouter.MAX_TRANSFERS);
+                    if (expected[s][t] >= CsrGraph.INF) {
+                        assertTrue(routes.isEmpty(), pair + ": route to an unreachable station");
+                        continue;
+                    }
+                    assertEquals(1, routes.size(), pair);
+                    ParetoRouter.Route route = routes.get(0);
+                    assertEquals(expected[s][t], route.getTime(), pair);
+                    assertEquals(0, route.getTransfers(), pair);
+                    RandomGraphs.checkPath(weight, s, t, route.getTime(), route.getPath(), pair);
+                }
+            }
+        }
+    }
+
+    @Test
+    void frontMatchesLayeredReference() {
+        Random random = new Random(28);
+        for (int trial = 0; trial < 300; trial++) {
+            CsrGraph graph = RandomGraphs.generate(random, 9, 4);
+            int[][] weight = RandomGraphs.weights(graph);
+            int n = graph.getVertexCount();
+            int[] lines = new int[n];
+            for (int v = 0; v < n; v++) {
+                lines[v] = random.nextInt(3);
+            }
+            int maxTransfers = random.nextInt(4);
+            ParetoRouter router = new ParetoRouter(graph, lines);
+            for (int s = 0; s < n; s++) {
+                int[][] best = layeredDistances(weight, lines, s, maxTransfers);
+                for (int t = 0; t < n; t++) {
+                    String pair = "trial " + trial + ", " + s + " -> " + t;
+                    List<ParetoRouter.Route> routes = router.route(s, t, maxTransfers);
+                    // Фронт: число пересадок, при котором лучшее время строго уменьшается
+                    int index = 0;
+                    int bestTime = CsrGraph.INF;
+                    for (int k = 0; k <= maxTransfers; k++) {
+                        if (best[k][t] >= bestTime) continue;
+                        bestTime = best[k][t];
+                        assertTrue(index < routes.size(), pair + ": missing route with " + k + " transfers");
+                        ParetoRouter.Route route = routes.get(index++);
+                        assertEquals(k, route.getTransfers(), pair);
+                        assertEquals(bestTime, route.getTime(), pair);
+                        RandomGraphs.checkPath(weight, s, t, route.getTime(), route.getPath(), pair);
+                        assertEquals(k, transfers(route, lines), pair + ": transfers on the path");
+                    }
+                    assertEquals(index, routes.size(), pair + ": dominated routes returned");
+                }
+            }
+        }
+    }
+
+    /**
+     * Кратчайшее время до каждой станции не более чем с k пересадками
+     * алгоритмом Беллмана-Форда по слоям
+     */
+    private static int[][] layeredDistances(int[][] weight, int[] lines, int start, int maxTransfers) {
+        int n = weight.length;
+        int[][] dist = new int[maxTransfers + 1][n];
+        for (int[] row : dist) {
+            Arrays.fill(row, CsrGraph.INF);
+        }
+        dist[0][start] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int k = 0; k <= maxTransfers; k++) {
+                for (int u = 0; u < n; u++) {
+                    if (dist[k][u] >= CsrGraph.INF) continue;
+                    for (int v = 0; v < n; v++) {
+                        if (v == u || weight[u][v] >= CsrGraph.INF) continue;
+                        int layer = lines[u] == lines[v] ? k : k + 1;
+                        if (layer <= maxTransfers && dist[k][u] + weight[u][v] < dist[layer][v]) {
+                            dist[layer][v] = dist[k][u] + weight[u][v];
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+        // Не более k пересадок: минимум по всем слоям до k
+        for (int k = 1; k <= maxTransfers; k++) {
+            for (int v = 0; v < n; v++) {
+                dist[k][v] = Math.min(dist[k][v], dist[k - 1][v]);
+            }
+        }
+        return dist;
+    }
+
+    private static int transfers(ParetoRouter.Route route, int[] lines) {
+        int count = 0;
+        for (int i = 1; i < route.getPath().size(); i++) {
+            if (lines[route.getPath().get(i)] != lines[route.getPath().get(i - 1)]) count++;
+        }
+        return count;
+    }
+}
\ No newline at end of file
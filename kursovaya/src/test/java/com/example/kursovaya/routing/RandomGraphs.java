@@ -0,0 +1,151 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.util.IntList;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Маленькие случайные графы и эталонные расстояния для тестов.
+ * Эталон считается алгоритмом Флойда-Уоршелла по матрице весов,
+ * независимо от проверяемых движков поиска.
+ *
+ * @author Student
+ * @version 1.0
+ */
+public final class RandomGraphs {
+    private RandomGraphs() {
+    }
+
+    /**
+     * Строит случайный граф с параллельными ребрами, петлями,
+     * несвязными частями и ребрами нулевого веса
+     *
+     * @param random генератор
+     * @param maxVertices наибольшее количество вершин
+     * @param maxWeight наибольший вес ребра; веса от 0 до maxWeight
+     * @return CSR-граф
+     */
+    public static CsrGraph generate(Random random, int maxVertices, int maxWeight) {
+        return generate(random, maxVertices, 0, maxWeight);
+    }
+
+    /**
+     * Строит случайный граф с весами в указанных пределах
+     *
+     * @param random генератор
+     * @param maxVertices наибольшее количество вершин
+     * @param minWeight наименьший вес ребра
+     * @param maxWeight наибольший вес ребра
+     * @return CSR-граф
+     */
+    public static CsrGraph generate(Random random, int maxVertices, int minWeight, int maxWeight) {
+        int n = 1 + random.nextInt(maxVertices);
+        int m = random.nextInt(3 * n + 1);
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        for (int i = 0; i < m; i++) {
+            from[i] = random.nextInt(n);
+            to[i] = random.nextInt(n);
+            weight[i] = minWeight + random.nextInt(maxWeight - minWeight + 1);
+        }
+        return CsrGraph.fromEdges(n, from, to, weight, m);
+    }
+
+    /**
+     * Возвращает матрицу весов графа
+     *
+     * @param graph CSR-граф
+     * @return weight[u][v] - вес ребра или CsrGraph.INF, на диагонали 0
+     */
+    public static int[][] weights(CsrGraph graph) {
+        int n = graph.getVertexCount();
+        int[][] weight = new int[n][n];
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(weight[u], CsrGraph.INF);
+            weight[u][u] = 0;
+            for (int a = graph.arcStart(u); a < graph.arcEnd(u); a++) {
+                int v = graph.target(a);
+                weight[u][v] = Math.min(weight[u][v], graph.weight(a));
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Вычисляет расстояния между всеми парами алгоритмом Флойда-Уоршелла
+     *
+     * @param weight матрица весов, CsrGraph.INF - нет ребра; не изменяется
+     * @return матрица расстояний, CsrGraph.INF - путь не существует
+     */
+    public static int[][] floyd(int[][] weight) {
+        int n = weight.length;
+        int[][] dist = new int[n][];
+        for (int u = 0; u < n; u++) {
+            dist[u] = weight[u].clone();
+            dist[u][u] = 0;
+        }
+        for (int k = 0; k < n; k++) {
+            for (int u = 0; u < n; u++) {
+                if (dist[u][k] >= CsrGraph.INF) continue;
+                for (int v = 0; v < n; v++) {
+                    if (dist[k][v] < CsrGraph.INF && dist[u][k] + dist[k][v] < dist[u][v]) {
+                        dist[u][v] = dist[u][k] + dist[k][v];
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Вычисляет расстояния между всеми парами вершин графа
+     *
+     * @param graph CSR-граф
+     * @return матрица расстояний
+     */
+    public static int[][] floyd(CsrGraph graph) {
+        return floyd(weights(graph));
+    }
+
+    /**
+     * Вычисляет длину пути по матрице весов
+     *
+     * @param weight матрица весов
+     * @param path вершины пути
+     * @return длина пути или CsrGraph.INF, если соседние вершины пути не соединены
+     */
+    public static int pathLength(int[][] weight, IntList path) {
+        int length = 0;
+        for (int i = 1; i < path.size(); i++) {
+            int w = weight[path.get(i - 1)][path.get(i)];
+            if (w >= CsrGraph.INF) {
+                return CsrGraph.INF;
+            }
+            length += w;
+        }
+        return length;
+    }
+
+    /**
+     * Проверяет, что путь соединяет вершины и имеет указанную длину
+     *
+     * @param weight матрица весов
+     * @param s начальная вершина
+     * @param t конечная вершина
+     * @param length ожидаемая длина пути
+     * @param path вершины пути
+     * @param pair описание пары для сообщений об ошибке
+     */
+    public static void checkPath(int[][] weight, int s, int t, int length, IntList path, String pair) {
+        assertTrue(path.size() > 0, pair + ": empty path");
+        assertEquals(s, path.get(0), pair + ": path start");
+        assertEquals(t, path.get(path.size() - 1), pair + ": path end");
+        assertEquals(length, pathLength(weight, path), pair + ": path length");
+    }
+}
\ No newline at end of file
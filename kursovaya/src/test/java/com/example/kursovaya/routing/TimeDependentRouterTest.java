@@ -0,0 +1,124 @@
+package com.example.kursovaya.routing;
+
+import com.example.kursovaya.model.CsrGraph;
+import com.example.kursovaya.model.LineSchedule;
+import com.example.kursovaya.util.IntList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты поиска самого раннего прибытия: без расписаний он совпадает
+ * с обычным поиском, с расписаниями прибытие не убывает при более
+ * позднем отправлении, ночное закрытие и переход через полночь учитываются
+ *
+ * @author Student
+ * @version 1.0
+ */
+class TimeDependentRouterTest {
+    private static final int DAY = LineSchedule.MINUTES_PER_DAY;
+
+    /** Расписание как в карте города: закрыто с 00:00 до 05:40, днем часы пик с замедлением */
+    private static final LineSchedule NIGHT_CLOSED = new LineSchedule(
+            new int[]{0, 340, 420, 600, 1020, 1200, 1320},
+            new int[]{0, 6, 2, 4, 2, 4, 6},
+            new int[]{1000, 1000, 1100, 1000, 1100, 1000, 1000});
+
+    private static int[] randomLines(Random random, int n) {
+        int[] lines = new int[n];
+        for (int v = 0; v < n; v++) {
+            lines[v] = 1 + random.nextInt(3);
+        }
+        return lines;
+    }
+
+    @Test
+    void withoutSchedulesMatchesStaticSearch() {
+        Random random = new Random(16);
+        for (int iteration = 0; iteration < 200; iteration++) {
+            CsrGraph graph = RandomGraphs.generate(random, 12, 9);
+            int n = graph.getVertexCount();
+            int[][] weight = RandomGraphs.weights(graph);
+            int[][] dist = RandomGraphs.floyd(weight);
+            TimeDependentRouter router = new TimeDependentRouter(graph, randomLines(random, n), new LineSchedule[n]);
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    int departure = random.nextInt(2 * DAY);
+                    TimeDependentRouter.Journey journey = router.route(s, t, departure);
+                    String pair = "iteration " + iteration + ", " + s + " -> " + t;
+                    if (dist[s][t] >= CsrGraph.INF) {
+                        assertNull(journey, pair);
+                        continue;
+                    }
+                    assertEquals(departure, journey.getDeparture(), pair);
+                    assertEquals(dist[s][t], journey.getTravelTime(), pair);
+                    RandomGraphs.checkPath(weight, s, t, dist[s][t], journey.getPath(), pair);
+                }
+            }
+        }
+    }
+
+    @Test
+    void laterDepartureNeverArrivesEarlier() {
+        Random random = new Random(1600);
+        for (int iteration = 0; iteration < 20; iteration++) {
+            CsrGraph graph = RandomGraphs.generate(random, 10, 1, 9);
+            int n = graph.getVertexCount();
+            int[] lines = randomLines(random, n);
+            LineSchedule[] schedules = new LineSchedule[n];
+            for (int v = 0; v < n; v++) {
+                // Линия 3 без расписания: смешанные сети тоже должны сохранять FIFO
+                schedules[v] = lines[v] == 1 ? NIGHT_CLOSED : lines[v] == 2 ? LineSchedule.constant(5) : null;
+            }
+            TimeDependentRouter router = new TimeDependentRouter(graph, lines, schedules);
+            int s = random.nextInt(n);
+            int t = random.nextInt(n);
+            int previous = Integer.MIN_VALUE;
+            for (int departure = 0; departure <= 2 * DAY; departure++) {
+                TimeDependentRouter.Journey journey = router.route(s, t, departure);
+                if (journey == null) {
+                    assertEquals(Integer.MIN_VALUE, previous, "reachability must not depend on time");
+                    continue;
+                }
+                int arrival = journey.getArrival();
+                String at = "iteration " + iteration + ", " + s + " -> " + t + " at " + departure;
+                assertTrue(arrival >= departure, at);
+                assertTrue(arrival >= previous, at + ": arrival dropped from " + previous + " to " + arrival);
+                previous = arrival;
+            }
+        }
+    }
+
+    @Test
+    void waitsForMorningAndCrossesMidnight() {
+        // Две станции линии 1 с перегоном 3 минуты, станция линии 2 в 2 минутах от второй
+        CsrGraph graph = CsrGraph.fromEdges(3, new int[]{0, 1, 1, 2}, new int[]{1, 0, 2, 1}, new int[]{3, 3, 2, 2}, 4);
+        int[] lines = {1, 1, 2};
+        LineSchedule evening = new LineSchedule(new int[]{0, 340, 1260}, new int[]{0, 5, 10},
+                new int[]{1000, 1000, 1000});
+        TimeDependentRouter router = new TimeDependentRouter(graph, lines,
+                new LineSchedule[]{evening, evening, null});
+
+        // Ночью метро закрыто: первый поезд в 05:40
+        assertEquals(343, router.route(0, 1, 0).getArrival());
+        assertEquals(343, router.route(0, 1, 339).getArrival());
+        assertEquals(348, router.route(0, 1, 341).getArrival());
+        // Последний поезд в 23:50, после него ждем утра следующих суток
+        assertEquals(1433, router.route(0, 1, 1430).getArrival());
+        assertEquals(DAY + 343, router.route(0, 1, 1431).getArrival());
+        assertEquals(DAY + 345, router.route(0, 2, 1431).getArrival());
+        assertEquals(2 * DAY + 343, router.route(0, 1, DAY + 1431).getArrival());
+
+        // Пересадка на линию без расписания и проезд по ней не ждут поезда
+        TimeDependentRouter.Journey walk = router.route(2, 1, 100);
+        assertEquals(102, walk.getArrival());
+        IntList path = router.route(2, 0, 100).getPath();
+        assertEquals(3, path.size());
+        assertEquals(343, router.route(2, 0, 100).getArrival(), "boarding line 1 still waits for 05:40");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example.kursovaya.service;
+
+import com.example.kursovaya.model.MetroMap;
+import com.example.kursovaya.model.MetroSnapshot;
+import com.example.kursovaya.model.Station;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Тесты публикации снимков в сервисе запросов
+ *
+ * @author Student
+ * @version 1.0
+ */
+class RouteQueryServiceTest {
+
+    private static MetroSnapshot snapshot() {
+        MetroMap map = new MetroMap(2);
+        map.addStation(new Station("A", 1));
+        map.addStation(new Station("B", 1));
+        map.addConnection(0, 1, 2);
+        return MetroSnapshot.of(map);
+    }
+
+    @Test
+    void olderSnapshotIsNotPublished() {
+        MetroSnapshot older = snapshot();
+        MetroSnapshot newer = snapshot();
+        try (RouteQueryService service = new RouteQueryService(older, 1)) {
+            assertSame(older, service.publish(newer));
+            assertSame(newer, service.publish(older));
+            assertSame(newer, service.getSnapshot());
+        }
+    }
+
+    @Test
+    void concurrentPublishKeepsNewestSnapshot() {
+        MetroSnapshot initial = snapshot();
+        List<MetroSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            snapshots.add(snapshot());
+        }
+        MetroSnapshot newest = snapshots.get(snapshots.size() - 1);
+        Collections.shuffle(snapshots);
+        ExecutorService publishers = Executors.newFixedThreadPool(4);
+        try (RouteQueryService service = new RouteQueryService(initial, 1)) {
+            List<CompletableFuture<?>> futures = new ArrayList<>();
+            for (MetroSnapshot snapshot : snapshots) {
+                futures.add(CompletableFuture.runAsync(() -> service.publish(snapshot), publishers));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            assertSame(newest, service.getSnapshot());
+            assertEquals(2, service.findShortestPath(0, 1).join().getTotalTime());
+        } finally {
+            publishers.shutdown();
+        }
+    }
+}
\ No newline at end of file
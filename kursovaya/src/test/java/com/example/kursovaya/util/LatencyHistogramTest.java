@@ -0,0 +1,101 @@
+package com.example.kursovaya.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты гистограммы задержек: границы интервалов, погрешность
+ * и перцентили в сравнении с отсортированным массивом значений
+ *
+ * @author Student
+ * @version 1.0
+ */
+class LatencyHistogramTest {
+    private static final double MAX_RELATIVE_ERROR = 0.016; // Погрешность из описания класса
+
+    /**
+     * Проверяет, что значение лежит в своем интервале и граница интервала
+     * отличается от него не больше чем на допустимую погрешность
+     */
+    private static void checkBucket(long value) {
+        int index = LatencyHistogram.index(value);
+        long highest = LatencyHistogram.highestValue(index);
+        assertTrue(highest >= value, () -> "bucket " + index + " ends at " + highest + " below " + value);
+        if (index > 0) {
+            assertTrue(LatencyHistogram.highestValue(index - 1) < value,
+                    () -> "value " + value + " also fits bucket " + (index - 1));
+        }
+        assertTrue(highest - value <= MAX_RELATIVE_ERROR * value,
+                () -> "bucket bound " + highest + " too far from " + value);
+    }
+
+    @Test
+    void everyValueFallsIntoBucketWithinRelativeError() {
+        for (long value = 0; value <= 200_000; value++) {
+            checkBucket(value);
+        }
+        for (int bit = 8; bit < 36; bit++) {
+            long power = 1L << bit;
+            checkBucket(power - 1);
+            checkBucket(power);
+            checkBucket(power + 1);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            checkBucket(random.nextLong(LatencyHistogram.MAX_VALUE + 1));
+        }
+        checkBucket(LatencyHistogram.MAX_VALUE);
+    }
+
+    @Test
+    void percentilesMatchSortedArray() {
+        Random random = new Random(7);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; i++) {
+            // Логарифмически распределенные задержки от наносекунд до секунд
+            values[i] = (long) Math.pow(10, random.nextDouble() * 10);
+            histogram.record(values[i]);
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        double[] percentiles = {0, 1, 10, 25, 50, 75, 90, 99, 99.9, 99.99, 100};
+        long[] actual = histogram.getPercentiles(percentiles);
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100 * sorted.length));
+            long exact = sorted[(int) rank - 1];
+            long expected = Math.min(LatencyHistogram.highestValue(LatencyHistogram.index(exact)),
+                    sorted[sorted.length - 1]);
+            String message = "p" + percentiles[p] + " of exact " + exact;
+            assertEquals(expected, actual[p], message);
+            assertTrue(actual[p] >= exact && actual[p] - exact <= MAX_RELATIVE_ERROR * exact, message);
+            assertEquals(actual[p], histogram.getPercentile(percentiles[p]), message);
+        }
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(sorted[sorted.length - 1], histogram.getMax());
+        assertEquals(Arrays.stream(values).average().orElse(0), histogram.getMean(), 1e-6);
+    }
+
+    @Test
+    void clampsOutOfRangeValuesAndResets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertArrayEquals(new long[] {0, 0}, histogram.getPercentiles(50, 99), "empty histogram");
+
+        histogram.record(-5);
+        histogram.record(LatencyHistogram.MAX_VALUE + 1000);
+        assertEquals(0L, histogram.getPercentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getPercentile(100));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getPercentile(99));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.example.kursovaya.util;
+
+import com.example.kursovaya.model.CsrGraph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тесты индекса линий: порядок следования по перегонам графа,
+ * кольцевые и разветвленные линии, пересадки между линиями
+ *
+ * @author Student
+ * @version 1.0
+ */
+class LineIndexTest {
+
+    /**
+     * Строит индекс по списку ребер {from, to}; вес всех ребер 2
+     */
+    private static LineIndex index(int[] stationLines, int[]... edges) {
+        int[] from = new int[edges.length];
+        int[] to = new int[edges.length];
+        int[] weight = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            from[i] = edges[i][0];
+            to[i] = edges[i][1];
+            weight[i] = 2;
+        }
+        return LineIndex.build(stationLines, CsrGraph.fromEdges(stationLines.length, from, to, weight, edges.length));
+    }
+
+    @Test
+    void ordersLineByConnectionsNotByIds() {
+        // Линия 1: 3 - 0 - 4 - 1, линия 2: 2 - 5, пересадка 4 - 5
+        LineIndex lines = index(new int[] {1, 1, 2, 1, 1, 2},
+                new int[] {3, 0}, new int[] {0, 4}, new int[] {4, 1}, new int[] {2, 5}, new int[] {4, 5});
+
+        assertArrayEquals(new int[] {1, 4, 0, 3}, lines.getStationIds(1), "starts at the terminal with the lowest id");
+        assertArrayEquals(new int[] {2, 5}, lines.getStationIds(2), "second line");
+        assertEquals(2, lines.getPosition(0));
+        assertArrayEquals(new int[] {0, 3}, lines.getNextStationIds(4, 5), "forward to the terminal");
+        assertArrayEquals(new int[] {4, 1}, lines.getNextStationIds(0, -2), "backward");
+        assertArrayEquals(new int[0], lines.getNextStationIds(3, 1), "nothing after the terminal");
+        assertArrayEquals(new int[] {5}, lines.getNextStationIds(2, 3), "transfer arc is not part of the line");
+    }
+
+    @Test
+    void ringLineWrapsAround() {
+        // Кольцо замыкается последней станцией на первую, как в NetworkGenerator
+        LineIndex lines = index(new int[] {7, 7, 7, 7, 7},
+                new int[] {0, 1}, new int[] {1, 2}, new int[] {2, 3}, new int[] {3, 4}, new int[] {4, 0});
+
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4}, lines.getStationIds(7), "ring order");
+        assertArrayEquals(new int[] {4, 0, 1}, lines.getNextStationIds(3, 3), "forward past the last station");
+        assertArrayEquals(new int[] {0, 4, 3}, lines.getNextStationIds(1, -3), "backward past the first station");
+        assertArrayEquals(new int[] {3, 4, 0, 1}, lines.getNextStationIds(2, 100), "station itself is not repeated");
+        assertArrayEquals(new int[] {1, 0, 4, 3}, lines.getNextStationIds(2, -100), "station itself is not repeated");
+    }
+
+    @Test
+    void branchedLineListsBranchesByDistance() {
+        // Ствол 0 - 1 - 2, от станции 2 ветви 2 - 3 - 4 и 2 - 5
+        LineIndex lines = index(new int[] {1, 1, 1, 1, 1, 1},
+                new int[] {0, 1}, new int[] {1, 2}, new int[] {2, 3}, new int[] {3, 4}, new int[] {2, 5});
+
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5}, lines.getStationIds(1), "branches one after another");
+        assertArrayEquals(new int[] {2, 3, 5, 4}, lines.getNextStationIds(1, 10), "both branches by distance");
+        assertArrayEquals(new int[] {3, 5}, lines.getNextStationIds(2, 2), "nearest stations of each branch");
+        assertArrayEquals(new int[0], lines.getNextStationIds(5, 1), "end of the short branch");
+        assertArrayEquals(new int[] {2, 1, 0}, lines.getNextStationIds(5, -5), "back from the short branch");
+        assertArrayEquals(new int[] {3, 2}, lines.getNextStationIds(4, -2), "back from the long branch");
+    }
+
+    @Test
+    void disconnectedStationsFollowEachOther() {
+        LineIndex lines = index(new int[] {1, 1, 1}, new int[] {2, 1});
+
+        assertArrayEquals(new int[] {0, 1, 2}, lines.getStationIds(1), "isolated station first");
+        assertArrayEquals(new int[0], lines.getNextStationIds(0, 2), "isolated station has no neighbours");
+        assertArrayEquals(new int[] {1}, lines.getNextStationIds(2, -2), "connected part");
+        assertEquals(3, lines.getStationCount(1));
+    }
+
+    @Test
+    void rejectsUnknownStation() {
+        LineIndex lines = index(new int[] {1, 1}, new int[] {0, 1});
+
+        assertThrows(IllegalArgumentException.class, () -> lines.getNextStationIds(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> lines.getNextStationIds(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> lines.getPosition(5));
+    }
+}
\ No newline at end of file
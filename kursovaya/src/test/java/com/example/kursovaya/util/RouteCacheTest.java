@@ -0,0 +1,172 @@
+package com.example.kursovaya.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты кэша маршрутов: порядок вытеснения, емкость сегментов,
+ * время жизни записей, выборочная очистка и счетчики
+ *
+ * @author Student
+ * @version 1.0
+ */
+class RouteCacheTest {
+
+    /**
+     * Подбирает ключи, попадающие в заданный сегмент
+     */
+    private static long[] keysInSegment(RouteCache<?> cache, int segment, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 0; found < count; key++) {
+            if (cache.segmentIndex(key) == segment) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        RouteCache<String> cache = new RouteCache<>(1, 0);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        assertNull(cache.get(1), "older entry must be evicted");
+        assertEquals("b", cache.get(2));
+
+        // 48 записей - 16 сегментов по 3 записи
+        RouteCache<String> big = new RouteCache<>(48, 0);
+        long[] keys = keysInSegment(big, 5, 4);
+        big.put(keys[0], "0");
+        big.put(keys[1], "1");
+        big.put(keys[2], "2");
+        assertEquals("0", big.get(keys[0]), "access makes the first key most recent");
+        big.put(keys[3], "3");
+        assertNull(big.get(keys[1]), "least recently used key must go");
+        assertEquals("0", big.get(keys[0]));
+        assertEquals("2", big.get(keys[2]));
+        assertEquals("3", big.get(keys[3]));
+        assertEquals(1, big.getEvictions());
+    }
+
+    @Test
+    void eachSegmentHoldsItsShareOfCapacity() {
+        // 10 записей - 8 сегментов: первые два по 2 записи, остальные по 1
+        RouteCache<Integer> cache = new RouteCache<>(10, 0);
+        for (int segment = 0; segment < 8; segment++) {
+            int capacity = segment < 2 ? 2 : 1;
+            long[] keys = keysInSegment(cache, segment, capacity + 1);
+            for (long key : keys) {
+                cache.put(key, segment);
+            }
+            assertNull(cache.get(keys[0]), "segment " + segment + " must evict beyond " + capacity);
+            for (int i = 1; i < keys.length; i++) {
+                assertEquals(Integer.valueOf(segment), cache.get(keys[i]));
+            }
+        }
+        assertEquals(10, cache.size());
+        assertEquals(8, cache.getEvictions());
+
+        for (long key = 0; key < 1000; key++) {
+            cache.put(key, 0);
+            assertTrue(cache.size() <= cache.getMaxEntries(), "size must stay within capacity");
+        }
+        assertEquals(10, cache.size());
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() throws InterruptedException {
+        RouteCache<String> cache = new RouteCache<>(16, 20);
+        cache.put(7, "x");
+        assertEquals("x", cache.get(7));
+        Thread.sleep(50);
+        assertNull(cache.get(7), "entry must expire");
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.size());
+
+        RouteCache<String> forever = new RouteCache<>(16, 0);
+        forever.put(7, "x");
+        Thread.sleep(30);
+        assertEquals("x", forever.get(7), "ttl 0 means no expiry");
+        assertEquals(0, forever.getExpirations());
+    }
+
+    @Test
+    void invalidatesOnlyMatchingEntries() {
+        RouteCache<Integer> cache = new RouteCache<>(100, 0);
+        for (int key = 0; key < 50; key++) {
+            cache.put(key, key);
+        }
+        assertEquals(25, cache.invalidateIf(value -> value % 2 == 0));
+        assertEquals(25, cache.size());
+        for (int key = 0; key < 50; key++) {
+            if (key % 2 == 0) {
+                assertNull(cache.get(key), "even key " + key + " must be removed");
+            } else {
+                assertEquals(Integer.valueOf(key), cache.get(key));
+            }
+        }
+        assertEquals(0, cache.invalidateIf(value -> value % 2 == 0));
+        assertEquals(0, cache.getEvictions(), "invalidation is not eviction");
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        RouteCache<Long> cache = new RouteCache<>(64, 0);
+        List<Long> loaded = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (long key = 0; key < 10; key++) {
+                assertEquals(Long.valueOf(key * 2), cache.get(key, k -> {
+                    loaded.add(k);
+                    return k * 2;
+                }));
+            }
+        }
+        assertEquals(10, loaded.size(), "loader runs once per key");
+        assertEquals(20, cache.getHits());
+        assertEquals(10, cache.getMisses());
+        assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+
+        cache.clear();
+        assertNull(cache.get(0));
+        assertEquals(11, cache.getMisses(), "counters survive clear");
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    void doesNotCacheValueComputedAcrossInvalidation() {
+        RouteCache<String> cache = new RouteCache<>(16, 0);
+        assertEquals("old", cache.get(1, key -> {
+            // Изменение карты, пока значение вычисляется по прежним данным
+            cache.invalidateIf(value -> true);
+            return "old";
+        }));
+        assertNull(cache.get(1), "value computed before invalidateIf must not be cached");
+
+        assertEquals("old", cache.get(2, key -> {
+            cache.clear();
+            return "old";
+        }));
+        assertNull(cache.get(2), "value computed before clear must not be cached");
+
+        assertEquals("new", cache.get(3, key -> "new"));
+        assertEquals("new", cache.get(3), "undisturbed value is cached");
+        cache.put(4, "direct");
+        assertEquals("direct", cache.get(4));
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RouteCache<>(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RouteCache<>(10, -1));
+    }
+}
\ No newline at end of file
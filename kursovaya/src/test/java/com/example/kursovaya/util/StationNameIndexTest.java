@@ -0,0 +1,50 @@
+package com.example.kursovaya.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тесты индекса названий станций
+ *
+ * @author Student
+ * @version 1.0
+ */
+class StationNameIndexTest {
+    private final StationNameIndex index = StationNameIndex.build(List.of(
+            "Невский проспект", "Гостиный двор", "Площадь Восстания", "Маяковская", "Площадь Ленина",
+            "Площадь Александра Невского", "Новочеркасская"));
+
+    @Test
+    void findsExactNameIgnoringCaseAndYo() {
+        assertEquals(1, index.find("гостиный ДВОР"));
+        assertEquals(0, index.find("Невский  проспект"));
+        assertEquals(-1, index.find("Звездная"));
+    }
+
+    @Test
+    void findsByPrefixInAlphabeticalOrder() {
+        assertArrayEquals(new int[]{5, 2, 4}, index.findByPrefix("площадь", 10), "all with prefix");
+        assertArrayEquals(new int[]{5, 2}, index.findByPrefix("площадь", 2), "limited");
+        assertArrayEquals(new int[0], index.findByPrefix("я", 10), "no match");
+    }
+
+    @Test
+    void findsSimilarWithTypos() {
+        int[] found = index.findSimilar("Маяковскя", 3);
+        assertEquals(3, found[0], "best match");
+    }
+
+    @Test
+    void hugeLimitDoesNotAllocateByLimit() {
+        // Буферы ограничены количеством названий, а не лимитом запроса
+        int[] found = index.findSimilar("площадь", Integer.MAX_VALUE, 0.0);
+        assertArrayEquals(new int[]{2, 4, 5}, IntStream.of(found).sorted().toArray(), "names sharing trigrams");
+        assertEquals(index.size(), index.findByPrefix("", Integer.MAX_VALUE).length);
+        assertEquals(0, index.findSimilar("площадь", 0).length);
+    }
+}
\ No newline at end of file